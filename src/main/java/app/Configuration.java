@@ -1,5 +1,6 @@
 package app;
 
+import app.display.common.SpriteRenderer;
 import app.display.common.controller.KeyboardControls;
 import app.games.GameFactory;
 
@@ -71,6 +72,29 @@ public class Configuration {
      */
     public static final double ANIMATION_TIME = 0.1;
 
+    /**
+     * Number of times per second the game is updated. The game is always updated
+     * with a fixed time step of {@code 1 / TICK_RATE} seconds, regardless of the
+     * display's refresh rate, and objects are drawn between their last two
+     * locations when frames fall between updates.
+     */
+    public static final int TICK_RATE = 60;
+
+    /**
+     * Maximum number of updates run for a single rendered frame. If the game falls
+     * further behind than this, for example after the window is dragged, the
+     * extra time is dropped and the game slows down instead.
+     */
+    public static final int MAX_TICKS_PER_FRAME = 6;
+
+    /**
+     * How sprites are drawn. Must be a valid option within the factory method
+     * {@link SpriteRenderer#create}: {@code "nodes"} keeps a JavaFX node for each
+     * object, while {@code "canvas"} draws every sprite onto a single canvas each
+     * frame, which can be faster for levels with thousands of sprites.
+     */
+    public static final String RENDERER = "nodes";
+
     /**
      * Default volume for music tracks within the game. If the volume is not
      * specified when starting music, this volume will be used.
@@ -1,14 +1,12 @@
 package app;
 
-import java.util.ArrayList;
-
 import app.display.common.AssetManager;
-import app.display.common.Background;
-import app.display.common.BlankTile;
-import app.display.common.SpriteGraphics;
+import app.display.common.BackgroundRenderer;
+import app.display.common.SpriteRenderer;
+import app.gameengine.FixedTimestep;
 import app.gameengine.Game;
 import app.gameengine.Level;
-import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.games.GameFactory;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
@@ -16,8 +14,6 @@ import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
 
@@ -31,6 +27,15 @@ import javafx.stage.Stage;
  * <p>
  * All rendering logic is handled within this class, including window sizing and
  * object/effect/backround rendering.
+ * <p>
+ * The game is updated at a fixed rate of {@link Configuration#TICK_RATE} times
+ * per second, independent of how often frames are rendered. Objects are drawn
+ * between their last two locations, so movement stays smooth when the display
+ * refreshes faster than the game updates.
+ * <p>
+ * Objects are drawn by the {@link SpriteRenderer} chosen by
+ * {@link Configuration#RENDERER}, and the background by a
+ * {@link BackgroundRenderer}.
  * 
  * @see Configuration
  * @see GameFactory
@@ -44,9 +49,14 @@ public class StartGame extends Application {
     // Game
     private Game game;
     private Group foregroundGroup;
+    private SpriteRenderer spriteRenderer;
+    private final FixedTimestep timestep = new FixedTimestep(Configuration.TICK_RATE,
+            Configuration.MAX_TICKS_PER_FRAME);
+    private double alpha;
 
     // Background
     private Group backgroundGroup;
+    private final BackgroundRenderer backgroundRenderer = new BackgroundRenderer();
 
     // Main components
     private double decorationWidth;
@@ -70,7 +80,10 @@ public class StartGame extends Application {
         this.stage = stage;
         this.foregroundGroup = new Group();
         this.foregroundGroup.setManaged(false);
-        this.backgroundGroup = new Group();
+        this.spriteRenderer = SpriteRenderer.create(Configuration.RENDERER);
+        this.foregroundGroup.getChildren().addAll(this.backgroundRenderer.getTileNode(),
+                this.spriteRenderer.getNode());
+        this.backgroundGroup = new Group(this.backgroundRenderer.getImageNode());
         this.backgroundGroup.setManaged(false);
 
         this.root = this.game.createRootNode(backgroundGroup, foregroundGroup);
@@ -105,11 +118,21 @@ public class StartGame extends Application {
                     switchLevel();
                 }
                 if (currentLevel.isLoaded()) {
-                    double maxDelay = 0.1;
-                    game.update(Math.min(dt, maxDelay));
+                    int ticks = timestep.advance(dt);
+                    for (int i = 0; i < ticks; i++) {
+                        savePreviousLocations();
+                        game.update(timestep.getTickLength());
+                        if (game.getCurrentLevel() != currentLevel) {
+                            // The new level is set up on the next frame
+                            timestep.reset();
+                            break;
+                        }
+                    }
                 } else {
                     currentLevel.setLoaded();
+                    timestep.reset();
                 }
+                alpha = timestep.getAlpha();
                 renderGraphics();
 
                 double newWidth = stage.getWidth() - scene.getWidth();
@@ -122,7 +145,8 @@ public class StartGame extends Application {
 
                 if (dt > 0.01) {
                     if (VERBOSE) {
-                        System.out.printf("Getting slow: %2.0f ms/frame (%-3.0f fps)\n", dt * 1000, 1 / dt);
+                        System.out.printf("Getting slow: %2.0f ms/frame (%-3.0f fps), %s\n", dt * 1000, 1 / dt,
+                                spriteRenderer.getStatistics());
                     }
                 }
             }
@@ -142,6 +166,8 @@ public class StartGame extends Application {
 
     private void switchLevel() {
         resizeStage();
+        this.spriteRenderer.clear();
+        this.backgroundRenderer.unload();
 
         scene.setOnKeyPressed(game.getCurrentLevel().getKeyboardControls());
         scene.setOnKeyReleased(game.getCurrentLevel().getKeyboardControls());
@@ -157,6 +183,13 @@ public class StartGame extends Application {
         stage.setHeight(height);
     }
 
+    private void savePreviousLocations() {
+        for (DynamicGameObject object : this.game.getCurrentLevel().getDynamicObjects()) {
+            object.savePreviousLocation();
+        }
+        this.game.getPlayer().savePreviousLocation();
+    }
+
     private void renderGraphics() {
         Rectangle window = getWindow();
         Rectangle view = getView();
@@ -167,103 +200,12 @@ public class StartGame extends Application {
         // Keep player centered if view is smaller than window
         this.foregroundGroup.setTranslateX(Math.clamp(-view.getX() * scaleFactor, -hiddenWidth * scaleFactor, 0));
         this.foregroundGroup.setTranslateY(Math.clamp(-view.getY() * scaleFactor, -hiddenHeight * scaleFactor, 0));
-        this.foregroundGroup.getChildren().clear();
         // Render background
-        renderBackground();
-        ArrayList<GameObject> allObjects = new ArrayList<>();
-        // Render terrain
-        allObjects.addAll(this.game.getCurrentLevel().getStaticObjects());
-        // Render game objects
-        allObjects.addAll(this.game.getCurrentLevel().getDynamicObjects());
-        // Render the player
-        allObjects.removeIf(GameObject::isPlayer);
-        allObjects.add(this.game.getPlayer());
-
-        for (GameObject object : allObjects) {
-            // Cull objects that aren't visible
-            if (!isInBounds(object, view)) {
-                continue;
-            }
-            // Render object sprite
-            SpriteGraphics tile = new SpriteGraphics(object);
-            tile.setX(object.getLocation().getX() * scaleFactor + object.getSpriteOffsetX() * Configuration.ZOOM);
-            tile.setY(object.getLocation().getY() * scaleFactor + object.getSpriteOffsetY() * Configuration.ZOOM);
-            tile.setRotate(object.getRotation() + tile.getRotate());
-            this.foregroundGroup.getChildren().add(tile);
-        }
-        // Render effects
-        this.game.getCurrentLevel().getActiveEffects()
-                .forEach((k, v) -> this.foregroundGroup.getChildren().add(k.getFrame(v)));
-    }
-
-    private void renderBackground() {
-        Rectangle window = getWindow();
-        Rectangle view = getView();
-
-        double scaleFactor = Configuration.SCALE_FACTOR;
-        double hiddenWidth = window.getWidth() - view.getWidth();
-        double hiddenHeight = window.getHeight() - view.getHeight();
-
-        this.backgroundGroup.getChildren().clear();
-        Background background = this.game.getCurrentLevel().getBackground();
-        if (background.usesBackgroundImage()) {
-            scaleRectangle(window, scaleFactor);
-            scaleRectangle(view, scaleFactor);
-            hiddenWidth = window.getWidth() - view.getWidth();
-            hiddenHeight = window.getHeight() - view.getHeight();
-
-            ArrayList<String> backgroundFileNames = background.getBackgroundImageFileNames();
-            ArrayList<Double> parallaxRatios = background.getParallaxRatios();
-
-            for (int i = 0; i < backgroundFileNames.size(); i++) {
-
-                String fileName = backgroundFileNames.get(i);
-                double parallaxRatio = parallaxRatios.get(i);
-
-                double width = Math.clamp(window.getWidth() - hiddenWidth * (1 - parallaxRatio), view.getWidth(),
-                        window.getWidth());
-                double height = Math.clamp(window.getHeight() - hiddenHeight * (1 - parallaxRatio), view.getHeight(),
-                        window.getHeight());
-
-                Image image = AssetManager.getBackgroundImage(fileName, width, height, true);
-
-                double offsetX = view.getX() * parallaxRatio;
-                double offsetY = view.getY() * parallaxRatio;
-                double startX = Math.floor(offsetX / image.getWidth()) * image.getWidth() - offsetX;
-                double startY = Math.floor(offsetY / image.getHeight()) * image.getHeight() - offsetY;
-
-                for (double posX = startX; posX < view.getWidth(); posX += image.getWidth()) {
-                    for (double posY = startY; posY < view.getHeight(); posY += image.getHeight()) {
-                        ImageView backgroundImageView = new ImageView(image);
-                        backgroundImageView.setTranslateX(posX);
-                        backgroundImageView.setTranslateY(posY);
-                        this.backgroundGroup.getChildren().add(backgroundImageView);
-                    }
-                }
-            }
-        } else {
-            double playerX = this.game.getPlayer().getLocation().getX()
-                    + this.game.getPlayer().getSpriteDimensions().getX() / 2;
-            double playerY = this.game.getPlayer().getLocation().getY()
-                    + this.game.getPlayer().getSpriteDimensions().getY() / 2;
-            int startX = Math.clamp((int) view.getX(), 0, (int) hiddenWidth);
-            int startY = Math.clamp((int) view.getY(), 0, (int) hiddenHeight);
-            int endX = Math.clamp((int) (Math.ceil(playerX) + 1 + view.getWidth() / 2), (int) view.getWidth(),
-                    (int) window.getWidth());
-            int endY = Math.clamp((int) (Math.ceil(playerY) + 1 + view.getHeight() / 2), (int) view.getHeight(),
-                    (int) window.getHeight());
-
-            for (int i = startX; i < endX; i++) {
-                for (int j = startY; j < endY; j++) {
-                    SpriteGraphics tile = new SpriteGraphics(new BlankTile(i, j,
-                            background.getBackgroundImageFileNames().get(0),
-                            background.getGroundTileSpriteLocation()));
-                    tile.setX(i * scaleFactor);
-                    tile.setY(j * scaleFactor);
-                    this.foregroundGroup.getChildren().add(tile);
-                }
-            }
-        }
+        this.backgroundRenderer.render(this.game.getCurrentLevel(), view.getX(), view.getY(), view.getWidth(),
+                view.getHeight());
+        // Render terrain, game objects, the player and effects
+        this.spriteRenderer.render(this.game.getCurrentLevel(), this.game.getPlayer(), view.getX(), view.getY(),
+                view.getWidth(), view.getHeight(), this.alpha);
     }
 
     private Rectangle getWindow() {
@@ -279,9 +221,10 @@ public class StartGame extends Application {
         int viewWidth = Math.min(this.game.getCurrentLevel().getViewWidth(), width);
         int viewHeight = Math.min(this.game.getCurrentLevel().getViewHeight(), height);
 
-        double playerX = this.game.getPlayer().getLocation().getX()
+        // Follow the player where it is drawn, so the camera moves smoothly too
+        double playerX = this.game.getPlayer().getInterpolatedX(this.alpha)
                 + this.game.getPlayer().getSpriteDimensions().getX() / 2;
-        double playerY = this.game.getPlayer().getLocation().getY()
+        double playerY = this.game.getPlayer().getInterpolatedY(this.alpha)
                 + this.game.getPlayer().getSpriteDimensions().getY() / 2;
 
         double viewX = Math.clamp(playerX - viewWidth / 2, 0, width - viewWidth);
@@ -290,20 +233,6 @@ public class StartGame extends Application {
         return new Rectangle(viewX, viewY, viewWidth, viewHeight);
     }
 
-    private boolean isInBounds(GameObject object, Rectangle view) {
-        return object.getSpriteOrigin().getX() <= view.getX() + view.getWidth()
-                && object.getSpriteOrigin().getX() + object.getSpriteDimensions().getX() >= view.getX()
-                && object.getSpriteOrigin().getY() <= view.getY() + view.getHeight()
-                && object.getSpriteOrigin().getY() + object.getSpriteDimensions().getY() >= view.getY();
-    }
-
-    private void scaleRectangle(Rectangle rect, double scaleFactor) {
-        rect.setX(rect.getX() * scaleFactor);
-        rect.setY(rect.getY() * scaleFactor);
-        rect.setWidth(rect.getWidth() * scaleFactor);
-        rect.setHeight(rect.getHeight() * scaleFactor);
-    }
-
     public static void main(String[] args) {
         launch();
     }
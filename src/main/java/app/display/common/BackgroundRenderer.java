@@ -0,0 +1,241 @@
+package app.display.common;
+
+import java.util.ArrayList;
+
+import app.Configuration;
+import app.gameengine.Level;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Renders the {@link Background} of a level, keeping its images and nodes
+ * between frames.
+ * <p>
+ * Tiled backgrounds are drawn into a chunk image of
+ * {@link Level#CHUNK_SIZE} by {@code CHUNK_SIZE} tiles when a level is first
+ * rendered. Every tile of a tiled background is the same, so that one image is
+ * shown by an {@link ImageView} for each chunk in view, cropped where the level
+ * ends. Background images are shown by an {@code ImageView} for each time they
+ * repeat across the view, which are only moved as the view scrolls.
+ * <p>
+ * Everything is thrown away when a different level is rendered, or when
+ * {@link #unload()} is called.
+ *
+ * @see Background
+ */
+public class BackgroundRenderer {
+
+    private final Group imageLayer = new Group();
+    private final Group tileLayer = new Group();
+    private final ArrayList<ImageView> imageViews = new ArrayList<>();
+    private final ArrayList<ImageView> chunkViews = new ArrayList<>();
+
+    private Level level;
+    private WritableImage chunkImage;
+    private int tilePixels;
+    private Image[] parallaxImages;
+    private double[] parallaxWidths;
+    private double[] parallaxHeights;
+
+    /**
+     * Returns the node background images are shown in. This is not moved with
+     * the view, as background images scroll on their own.
+     *
+     * @return the node containing background images
+     */
+    public Node getImageNode() {
+        return this.imageLayer;
+    }
+
+    /**
+     * Returns the node background tiles are shown in. This should be moved with
+     * the view, like the objects of the level.
+     *
+     * @return the node containing background tiles
+     */
+    public Node getTileNode() {
+        return this.tileLayer;
+    }
+
+    /**
+     * Shows the background of the given level for the given view.
+     *
+     * @param level      the level whose background is rendered
+     * @param viewX      the left edge of the view, in game units
+     * @param viewY      the top edge of the view, in game units
+     * @param viewWidth  the width of the view, in game units
+     * @param viewHeight the height of the view, in game units
+     */
+    public void render(Level level, double viewX, double viewY, double viewWidth, double viewHeight) {
+        if (level != this.level) {
+            this.unload();
+            this.level = level;
+        }
+        Background background = level.getBackground();
+        if (background.usesBackgroundImage()) {
+            this.renderImages(background, viewX, viewY, viewWidth, viewHeight);
+        } else {
+            this.renderTiles(background, viewX, viewY, viewWidth, viewHeight);
+        }
+    }
+
+    /**
+     * Throws away every image and node kept for the current level.
+     */
+    public void unload() {
+        this.level = null;
+        this.chunkImage = null;
+        this.parallaxImages = null;
+        this.imageViews.clear();
+        this.chunkViews.clear();
+        this.imageLayer.getChildren().clear();
+        this.tileLayer.getChildren().clear();
+    }
+
+    private void renderImages(Background background, double viewX, double viewY, double viewWidth,
+            double viewHeight) {
+        double scaleFactor = Configuration.SCALE_FACTOR;
+        double windowWidth = this.level.getWidth() * scaleFactor;
+        double windowHeight = this.level.getHeight() * scaleFactor;
+        viewX *= scaleFactor;
+        viewY *= scaleFactor;
+        viewWidth *= scaleFactor;
+        viewHeight *= scaleFactor;
+        double hiddenWidth = windowWidth - viewWidth;
+        double hiddenHeight = windowHeight - viewHeight;
+
+        ArrayList<String> backgroundFileNames = background.getBackgroundImageFileNames();
+        ArrayList<Double> parallaxRatios = background.getParallaxRatios();
+        if (this.parallaxImages == null || this.parallaxImages.length != backgroundFileNames.size()) {
+            this.parallaxImages = new Image[backgroundFileNames.size()];
+            this.parallaxWidths = new double[backgroundFileNames.size()];
+            this.parallaxHeights = new double[backgroundFileNames.size()];
+        }
+
+        int used = 0;
+        for (int i = 0; i < backgroundFileNames.size(); i++) {
+            double parallaxRatio = parallaxRatios.get(i);
+            double width = Math.clamp(windowWidth - hiddenWidth * (1 - parallaxRatio), viewWidth, windowWidth);
+            double height = Math.clamp(windowHeight - hiddenHeight * (1 - parallaxRatio), viewHeight, windowHeight);
+            if (this.parallaxImages[i] == null || this.parallaxWidths[i] != width
+                    || this.parallaxHeights[i] != height) {
+                this.parallaxImages[i] = AssetManager.getBackgroundImage(backgroundFileNames.get(i), width, height,
+                        true);
+                this.parallaxWidths[i] = width;
+                this.parallaxHeights[i] = height;
+            }
+            Image image = this.parallaxImages[i];
+
+            double offsetX = viewX * parallaxRatio;
+            double offsetY = viewY * parallaxRatio;
+            double startX = Math.floor(offsetX / image.getWidth()) * image.getWidth() - offsetX;
+            double startY = Math.floor(offsetY / image.getHeight()) * image.getHeight() - offsetY;
+
+            for (double posX = startX; posX < viewWidth; posX += image.getWidth()) {
+                for (double posY = startY; posY < viewHeight; posY += image.getHeight()) {
+                    ImageView imageView = this.getView(this.imageViews, this.imageLayer, used++);
+                    if (imageView.getImage() != image) {
+                        imageView.setImage(image);
+                    }
+                    imageView.setTranslateX(posX);
+                    imageView.setTranslateY(posY);
+                }
+            }
+        }
+        this.removeViews(this.imageViews, this.imageLayer, used);
+    }
+
+    private void renderTiles(Background background, double viewX, double viewY, double viewWidth,
+            double viewHeight) {
+        if (this.chunkImage == null) {
+            this.chunkImage = this.createChunkImage(background);
+        }
+        int chunkSize = Level.CHUNK_SIZE;
+        int width = this.level.getWidth();
+        int height = this.level.getHeight();
+        int minChunkX = Math.max(0, (int) Math.floor(viewX / chunkSize));
+        int minChunkY = Math.max(0, (int) Math.floor(viewY / chunkSize));
+        int maxChunkX = Math.min((width - 1) / chunkSize, (int) Math.floor((viewX + viewWidth) / chunkSize));
+        int maxChunkY = Math.min((height - 1) / chunkSize, (int) Math.floor((viewY + viewHeight) / chunkSize));
+
+        int used = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+                ImageView chunkView = this.getView(this.chunkViews, this.tileLayer, used++);
+                if (chunkView.getImage() != this.chunkImage) {
+                    chunkView.setImage(this.chunkImage);
+                }
+                // Chunks along the right and bottom of the level may be cut short
+                int tilesX = Math.min(chunkSize, width - chunkX * chunkSize);
+                int tilesY = Math.min(chunkSize, height - chunkY * chunkSize);
+                Rectangle2D viewport = chunkView.getViewport();
+                if (viewport == null || viewport.getWidth() != tilesX * this.tilePixels
+                        || viewport.getHeight() != tilesY * this.tilePixels) {
+                    chunkView.setViewport(new Rectangle2D(0, 0, tilesX * this.tilePixels, tilesY * this.tilePixels));
+                    chunkView.setFitWidth(tilesX * Configuration.SCALE_FACTOR);
+                    chunkView.setFitHeight(tilesY * Configuration.SCALE_FACTOR);
+                }
+                chunkView.setX(chunkX * chunkSize * Configuration.SCALE_FACTOR);
+                chunkView.setY(chunkY * chunkSize * Configuration.SCALE_FACTOR);
+            }
+        }
+        this.removeViews(this.chunkViews, this.tileLayer, used);
+    }
+
+    /**
+     * Draws a chunk of background tiles into a single image. The tile is copied
+     * from its sprite sheet, reflected as its sprite location says, and turned
+     * by its rotation rounded to the nearest quarter turn.
+     */
+    private WritableImage createChunkImage(Background background) {
+        Image spriteSheet = AssetManager.getImage(background.getBackgroundImageFileNames().get(0));
+        SpriteLocation location = background.getGroundTileSpriteLocation();
+        if (spriteSheet == AssetManager.DEFAULT_IMAGE || spriteSheet == AssetManager.SCALED_DEFAULT_IMAGE) {
+            location = SpriteGraphics.DEFAULT_IMAGE_LOCATION;
+        }
+        int size = Configuration.SPRITE_SIZE;
+        if (Configuration.INTEGER_SCALE) {
+            size *= (int) Configuration.ZOOM;
+        }
+        this.tilePixels = size;
+
+        int quarterTurns = Math.floorMod((int) Math.round(location.getRotation() / 90), 4);
+        int[] tile = SpritePixels.read(spriteSheet, location.getColumn() * size, location.getRow() * size, size,
+                size, location, quarterTurns);
+
+        int chunkSize = Level.CHUNK_SIZE;
+        WritableImage image = new WritableImage(chunkSize * size, chunkSize * size);
+        PixelWriter writer = image.getPixelWriter();
+        for (int tileX = 0; tileX < chunkSize; tileX++) {
+            for (int tileY = 0; tileY < chunkSize; tileY++) {
+                writer.setPixels(tileX * size, tileY * size, size, size, PixelFormat.getIntArgbInstance(), tile, 0,
+                        size);
+            }
+        }
+        return image;
+    }
+
+    private ImageView getView(ArrayList<ImageView> views, Group layer, int index) {
+        if (index < views.size()) {
+            return views.get(index);
+        }
+        ImageView view = new ImageView();
+        views.add(view);
+        layer.getChildren().add(view);
+        return view;
+    }
+
+    private void removeViews(ArrayList<ImageView> views, Group layer, int used) {
+        if (used < views.size()) {
+            views.subList(used, views.size()).clear();
+            layer.getChildren().remove(used, layer.getChildren().size());
+        }
+    }
+
+}
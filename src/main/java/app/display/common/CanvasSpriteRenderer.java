@@ -0,0 +1,267 @@
+package app.display.common;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+import app.Configuration;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.physics.Vector2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+/**
+ * Renders the objects of a level by drawing every sprite onto a single
+ * {@link Canvas}, instead of using a node for each object.
+ * <p>
+ * Each frame, the visible objects are collected into a list of draws, holding
+ * the part of the sprite sheet to draw and where to draw it, using the same
+ * {@link RenderableAsSprite} properties as {@link SpriteGraphics}. Draws are
+ * sorted by sprite sheet within each layer, so that the same image is used for
+ * as many draws in a row as possible, and then drawn with a single
+ * {@link GraphicsContext#drawImage(Image, double, double, double, double, double, double, double, double)}
+ * call each. Sprites that are reflected, scaled or rotated are drawn by
+ * changing the transform of the graphics context around the draw.
+ * <p>
+ * Static objects are drawn into images by a {@link StaticLayerCache}, which
+ * are drawn first, followed by static objects that can't be cached, dynamic
+ * objects and the player, as with {@link RetainedSpriteRenderer}. Effects
+ * create their own nodes, so they are placed above the canvas rather than
+ * drawn onto it.
+ *
+ * @see SpriteRenderer
+ */
+public class CanvasSpriteRenderer implements SpriteRenderer {
+
+    private static final int STATIC_LAYER = 0;
+    private static final int DYNAMIC_LAYER = 1;
+    private static final int PLAYER_LAYER = 2;
+
+    private final Group root = new Group();
+    private final Canvas canvas = new Canvas();
+    private final Group effectLayer = new Group();
+
+    // Draws are kept between frames and reused
+    private final ArrayList<Draw> draws = new ArrayList<>();
+    private int drawCount;
+    private final IdentityHashMap<Image, Integer> sheetIndices = new IdentityHashMap<>();
+    private final ArrayList<Node> effectNodes = new ArrayList<>();
+    private final StaticLayerCache staticCache = new StaticLayerCache();
+    private int sheetChanges;
+
+    private static final Comparator<Draw> DRAW_ORDER = (draw1, draw2) -> draw1.layer != draw2.layer
+            ? Integer.compare(draw1.layer, draw2.layer)
+            : Integer.compare(draw1.sheet, draw2.sheet);
+
+    public CanvasSpriteRenderer() {
+        this.root.getChildren().addAll(this.canvas, this.effectLayer);
+    }
+
+    @Override
+    public Node getNode() {
+        return this.root;
+    }
+
+    @Override
+    public void render(Level level, GameObject player, double viewX, double viewY, double viewWidth,
+            double viewHeight, double alpha) {
+        double scaleFactor = Configuration.SCALE_FACTOR;
+        double width = Math.ceil(viewWidth * scaleFactor);
+        double height = Math.ceil(viewHeight * scaleFactor);
+        if (this.canvas.getWidth() != width || this.canvas.getHeight() != height) {
+            this.canvas.setWidth(width);
+            this.canvas.setHeight(height);
+        }
+        // The canvas only covers the view, and moves with it
+        this.canvas.setTranslateX(viewX * scaleFactor);
+        this.canvas.setTranslateY(viewY * scaleFactor);
+
+        this.drawCount = 0;
+        double maxX = viewX + viewWidth;
+        double maxY = viewY + viewHeight;
+        this.staticCache.update(level, viewX, viewY, viewWidth, viewHeight);
+        for (GameObject object : this.staticCache.getUncachedObjects()) {
+            this.addDraw(object, STATIC_LAYER, viewX, viewY, maxX, maxY, alpha);
+        }
+        for (GameObject object : level.getDynamicObjects()) {
+            if (!object.isPlayer()) {
+                this.addDraw(object, DYNAMIC_LAYER, viewX, viewY, maxX, maxY, alpha);
+            }
+        }
+        this.addDraw(player, PLAYER_LAYER, viewX, viewY, maxX, maxY, alpha);
+        // Stable, so objects sharing a sprite sheet keep their order
+        this.draws.subList(0, this.drawCount).sort(DRAW_ORDER);
+
+        GraphicsContext gc = this.canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        gc.save();
+        gc.translate(-viewX * scaleFactor, -viewY * scaleFactor);
+        int chunkPixels = this.staticCache.getChunkPixels();
+        for (int row = this.staticCache.getMinRow(); row <= this.staticCache.getMaxRow(); row++) {
+            for (int column = this.staticCache.getMinColumn(); column <= this.staticCache.getMaxColumn(); column++) {
+                Image image = this.staticCache.getChunkImage(column, row);
+                if (image != null) {
+                    gc.drawImage(image, column * chunkPixels, row * chunkPixels);
+                }
+            }
+        }
+        this.sheetChanges = 0;
+        Image lastImage = null;
+        for (int i = 0; i < this.drawCount; i++) {
+            Draw draw = this.draws.get(i);
+            if (draw.image != lastImage) {
+                lastImage = draw.image;
+                this.sheetChanges++;
+            }
+            this.draw(gc, draw);
+        }
+        gc.restore();
+
+        // Effects build their own nodes, so they are only replaced when they differ
+        this.effectNodes.clear();
+        level.getActiveEffects().forEach((effect, origin) -> this.effectNodes.add(effect.getFrame(origin)));
+        if (!this.effectNodes.equals(this.effectLayer.getChildren())) {
+            this.effectLayer.getChildren().setAll(this.effectNodes);
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.drawCount = 0;
+        this.draws.clear();
+        this.sheetIndices.clear();
+        this.staticCache.clear();
+        this.effectLayer.getChildren().clear();
+        this.canvas.getGraphicsContext2D().clearRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+    }
+
+    @Override
+    public String getStatistics() {
+        return String.format("sprites: %d drawn from %d sprite sheets, %d sheet changes", this.drawCount,
+                this.sheetIndices.size(), this.sheetChanges);
+    }
+
+    /**
+     * Returns the number of sprites drawn during the last frame.
+     *
+     * @return the number of sprites drawn
+     */
+    public int getDrawCount() {
+        return this.drawCount;
+    }
+
+    /**
+     * Returns the number of times the sprite sheet being drawn from changed
+     * during the last frame. With draws sorted by sprite sheet, this is at most
+     * the number of sprite sheets in use in each layer.
+     *
+     * @return the number of sprite sheet changes
+     */
+    public int getSheetChangeCount() {
+        return this.sheetChanges;
+    }
+
+    private void addDraw(GameObject object, int layer, double minX, double minY, double maxX, double maxY,
+            double alpha) {
+        // Cull objects that aren't visible, where they will be drawn
+        double interpolatedX = object.getInterpolatedX(alpha);
+        double interpolatedY = object.getInterpolatedY(alpha);
+        double originX = interpolatedX + object.getSpriteOffsetX() / (double) Configuration.SPRITE_SIZE;
+        double originY = interpolatedY + object.getSpriteOffsetY() / (double) Configuration.SPRITE_SIZE;
+        Vector2D dimensions = object.getSpriteDimensions();
+        if (originX > maxX || originX + dimensions.getX() < minX || originY > maxY
+                || originY + dimensions.getY() < minY) {
+            return;
+        }
+        if (this.drawCount == this.draws.size()) {
+            this.draws.add(new Draw());
+        }
+        Draw draw = this.draws.get(this.drawCount++);
+
+        Image image = AssetManager.getImage(object.getSpriteSheetFilename());
+        SpriteLocation location = object.getCurrentSpriteLocation();
+        if (image == AssetManager.DEFAULT_IMAGE || image == AssetManager.SCALED_DEFAULT_IMAGE) {
+            location = SpriteGraphics.DEFAULT_IMAGE_LOCATION;
+        }
+        Integer sheet = this.sheetIndices.get(image);
+        if (sheet == null) {
+            sheet = this.sheetIndices.size();
+            this.sheetIndices.put(image, sheet);
+        }
+
+        // The same viewport and transforms as SpriteGraphics.resetSpriteViewport
+        int fullTileWidth = object.getSpriteTileWidth();
+        int fullTileHeight = object.getSpriteTileHeight();
+        int tileWidth = object.getSpriteWidth();
+        int tileHeight = object.getSpriteHeight();
+        double scaleX = object.getSpriteScaleX();
+        double scaleY = object.getSpriteScaleY();
+        if (Configuration.INTEGER_SCALE) {
+            tileWidth *= (int) Configuration.ZOOM;
+            tileHeight *= (int) Configuration.ZOOM;
+            fullTileWidth *= (int) Configuration.ZOOM;
+            fullTileHeight *= (int) Configuration.ZOOM;
+        } else {
+            scaleX *= Configuration.ZOOM;
+            scaleY *= Configuration.ZOOM;
+        }
+        double x = interpolatedX * Configuration.SCALE_FACTOR + object.getSpriteOffsetX() * Configuration.ZOOM;
+        double y = interpolatedY * Configuration.SCALE_FACTOR + object.getSpriteOffsetY() * Configuration.ZOOM;
+
+        draw.layer = layer;
+        draw.sheet = sheet;
+        draw.image = image;
+        draw.sourceX = fullTileWidth * location.getColumn();
+        draw.sourceY = fullTileHeight * location.getRow();
+        draw.width = tileWidth;
+        draw.height = tileHeight;
+        draw.centerX = x + object.getSpriteScaleX() * tileWidth / 2;
+        draw.centerY = y + object.getSpriteScaleY() * tileHeight / 2;
+        draw.scaleX = location.isReflectedHorizontally() ? -scaleX : scaleX;
+        draw.scaleY = location.isReflectedVertically() ? -scaleY : scaleY;
+        draw.rotation = location.getRotation() + object.getRotation();
+    }
+
+    private void draw(GraphicsContext gc, Draw draw) {
+        if (draw.rotation == 0 && draw.scaleX > 0 && draw.scaleY > 0) {
+            double width = draw.width * draw.scaleX;
+            double height = draw.height * draw.scaleY;
+            gc.drawImage(draw.image, draw.sourceX, draw.sourceY, draw.width, draw.height,
+                    draw.centerX - width / 2, draw.centerY - height / 2, width, height);
+            return;
+        }
+        // Reflect, scale and rotate about the center of the sprite, as nodes do
+        gc.save();
+        gc.translate(draw.centerX, draw.centerY);
+        gc.rotate(draw.rotation);
+        gc.scale(draw.scaleX, draw.scaleY);
+        gc.drawImage(draw.image, draw.sourceX, draw.sourceY, draw.width, draw.height, -draw.width / 2.0,
+                -draw.height / 2.0, draw.width, draw.height);
+        gc.restore();
+    }
+
+    /**
+     * A single sprite to be drawn, and where to draw it.
+     */
+    private static class Draw {
+
+        private int layer;
+        private int sheet;
+        private Image image;
+        private double sourceX;
+        private double sourceY;
+        private int width;
+        private int height;
+        private double centerX;
+        private double centerY;
+        private double scaleX;
+        private double scaleY;
+        private double rotation;
+
+    }
+
+}
@@ -0,0 +1,331 @@
+package app.display.common;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import app.Configuration;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.physics.Vector2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+/**
+ * Renders the objects of a level by keeping one {@link SpriteGraphics} node for
+ * each object, instead of building new nodes every frame.
+ * <p>
+ * The node for an object is created the first time the object is visible, and
+ * is kept until the object is no longer part of the level. Each frame, only the
+ * properties of a node that have changed are set, and nodes are only shown or
+ * hidden when their object comes into or goes out of view. Objects that aren't
+ * changing therefore cost JavaFX almost nothing.
+ * <p>
+ * Hidden nodes stay in the scene graph, and each layer keeps its nodes in the
+ * order of the level's lists, so objects stack the same way however they
+ * move in and out of view. A layer is only reordered when that order changes,
+ * such as when objects are created or removed.
+ * <p>
+ * Static objects are drawn into images by a {@link StaticLayerCache}, shown by
+ * a node for each chunk of the level in view. Only static objects that can't be
+ * cached, such as animated ones, are given nodes of their own, drawn above the
+ * cached images.
+ * <p>
+ * Static objects, dynamic objects, the player and effects are drawn in that
+ * order, each in their own layer of the node returned by {@link #getNode()}.
+ * The number of nodes created, removed, shown and hidden during the last frame
+ * are kept for finding where frame time goes.
+ *
+ * @see SpriteRenderer
+ * @see SpriteGraphics#refresh(RenderableAsSprite, double)
+ */
+public class RetainedSpriteRenderer implements SpriteRenderer {
+
+    private final Group root = new Group();
+    private final Group staticLayer = new Group();
+    private final Group staticOverlayLayer = new Group();
+    private final Group dynamicLayer = new Group();
+    private final Group playerLayer = new Group();
+    private final Group effectLayer = new Group();
+
+    private final IdentityHashMap<GameObject, Sprite> sprites = new IdentityHashMap<>();
+    private final ArrayList<Sprite> spriteList = new ArrayList<>();
+    private final ArrayList<Node> staticOverlayNodes = new ArrayList<>();
+    private final ArrayList<Node> dynamicNodes = new ArrayList<>();
+    private final ArrayList<Node> playerNodes = new ArrayList<>();
+    private final ArrayList<Node> effectNodes = new ArrayList<>();
+    private final StaticLayerCache staticCache = new StaticLayerCache();
+    private final ArrayList<ImageView> chunkViews = new ArrayList<>();
+    private long frame;
+
+    // Churn during the last frame
+    private int created;
+    private int removed;
+    private int shown;
+    private int hidden;
+    private int changed;
+
+    public RetainedSpriteRenderer() {
+        this.root.getChildren().addAll(this.staticLayer, this.staticOverlayLayer, this.dynamicLayer,
+                this.playerLayer, this.effectLayer);
+    }
+
+    @Override
+    public Node getNode() {
+        return this.root;
+    }
+
+    @Override
+    public void render(Level level, GameObject player, double viewX, double viewY, double viewWidth,
+            double viewHeight, double alpha) {
+        this.frame++;
+        this.created = 0;
+        this.removed = 0;
+        this.shown = 0;
+        this.hidden = 0;
+        this.changed = 0;
+        double maxX = viewX + viewWidth;
+        double maxY = viewY + viewHeight;
+
+        this.renderStaticCache(level, viewX, viewY, viewWidth, viewHeight);
+        this.staticOverlayNodes.clear();
+        this.dynamicNodes.clear();
+        this.playerNodes.clear();
+        for (GameObject object : this.staticCache.getUncachedObjects()) {
+            this.renderObject(object, this.staticOverlayLayer, this.staticOverlayNodes, viewX, viewY, maxX, maxY,
+                    alpha);
+        }
+        for (GameObject object : level.getDynamicObjects()) {
+            if (!object.isPlayer()) {
+                this.renderObject(object, this.dynamicLayer, this.dynamicNodes, viewX, viewY, maxX, maxY, alpha);
+            }
+        }
+        this.renderObject(player, this.playerLayer, this.playerNodes, viewX, viewY, maxX, maxY, alpha);
+        this.removeUnseenSprites();
+        // Nodes of removed sprites are left out, and new ones are put in place
+        orderLayer(this.staticOverlayLayer, this.staticOverlayNodes);
+        orderLayer(this.dynamicLayer, this.dynamicNodes);
+        orderLayer(this.playerLayer, this.playerNodes);
+
+        // Effects build their own nodes, so they are only replaced when they differ
+        this.effectNodes.clear();
+        level.getActiveEffects().forEach((effect, origin) -> this.effectNodes.add(effect.getFrame(origin)));
+        if (!this.effectNodes.equals(this.effectLayer.getChildren())) {
+            this.effectLayer.getChildren().setAll(this.effectNodes);
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.removed += this.spriteList.size();
+        this.sprites.clear();
+        this.spriteList.clear();
+        this.staticCache.clear();
+        this.chunkViews.clear();
+        this.staticLayer.getChildren().clear();
+        this.staticOverlayLayer.getChildren().clear();
+        this.dynamicLayer.getChildren().clear();
+        this.playerLayer.getChildren().clear();
+        this.effectLayer.getChildren().clear();
+    }
+
+    @Override
+    public String getStatistics() {
+        return String.format(
+                "sprites: %d created, %d removed, %d shown, %d hidden, %d static chunks drawn, %d repainted",
+                this.created, this.removed, this.shown, this.hidden, this.staticCache.getDrawnChunkCount(),
+                this.staticCache.getRepaintedRegionCount());
+    }
+
+    /**
+     * Returns the number of sprites kept, whether or not they are currently in
+     * view.
+     *
+     * @return the number of sprites
+     */
+    public int getSpriteCount() {
+        return this.spriteList.size();
+    }
+
+    /**
+     * Returns the number of sprite nodes created during the last frame.
+     *
+     * @return the number of nodes created
+     */
+    public int getCreatedCount() {
+        return this.created;
+    }
+
+    /**
+     * Returns the number of sprite nodes thrown away during the last frame,
+     * because their objects were no longer part of the level.
+     *
+     * @return the number of nodes removed
+     */
+    public int getRemovedCount() {
+        return this.removed;
+    }
+
+    /**
+     * Returns the number of sprite nodes shown during the last frame, because
+     * their objects were created or came into view.
+     *
+     * @return the number of nodes shown
+     */
+    public int getShownCount() {
+        return this.shown;
+    }
+
+    /**
+     * Returns the number of sprite nodes hidden during the last frame, because
+     * their objects went out of view.
+     *
+     * @return the number of nodes hidden
+     */
+    public int getHiddenCount() {
+        return this.hidden;
+    }
+
+    /**
+     * Returns the number of visible sprites whose image, viewport or rotation
+     * changed during the last frame.
+     *
+     * @return the number of sprites changed
+     */
+    public int getChangedCount() {
+        return this.changed;
+    }
+
+    private void renderStaticCache(Level level, double viewX, double viewY, double viewWidth, double viewHeight) {
+        this.staticCache.update(level, viewX, viewY, viewWidth, viewHeight);
+        int chunkPixels = this.staticCache.getChunkPixels();
+        int used = 0;
+        for (int row = this.staticCache.getMinRow(); row <= this.staticCache.getMaxRow(); row++) {
+            for (int column = this.staticCache.getMinColumn(); column <= this.staticCache.getMaxColumn(); column++) {
+                Image image = this.staticCache.getChunkImage(column, row);
+                if (image == null) {
+                    continue;
+                }
+                if (used == this.chunkViews.size()) {
+                    ImageView chunkView = new ImageView();
+                    this.chunkViews.add(chunkView);
+                    this.staticLayer.getChildren().add(chunkView);
+                }
+                ImageView chunkView = this.chunkViews.get(used++);
+                if (chunkView.getImage() != image) {
+                    chunkView.setImage(image);
+                }
+                if (chunkView.getX() != column * chunkPixels) {
+                    chunkView.setX(column * chunkPixels);
+                }
+                if (chunkView.getY() != row * chunkPixels) {
+                    chunkView.setY(row * chunkPixels);
+                }
+            }
+        }
+        if (used < this.chunkViews.size()) {
+            this.chunkViews.subList(used, this.chunkViews.size()).clear();
+            this.staticLayer.getChildren().remove(used, this.staticLayer.getChildren().size());
+        }
+    }
+
+    private void renderObject(GameObject object, Group layer, ArrayList<Node> layerNodes, double minX, double minY,
+            double maxX, double maxY, double alpha) {
+        Sprite sprite = this.sprites.get(object);
+        if (sprite != null && sprite.layer != layer) {
+            // Moved between the static and dynamic lists, so start over
+            this.removed++;
+            this.sprites.remove(object);
+            this.spriteList.remove(sprite);
+            sprite = null;
+        }
+        if (sprite != null) {
+            sprite.frame = this.frame;
+        }
+        // Cull objects that aren't visible, where they will be drawn
+        double interpolatedX = object.getInterpolatedX(alpha);
+        double interpolatedY = object.getInterpolatedY(alpha);
+        double originX = interpolatedX + object.getSpriteOffsetX() / (double) Configuration.SPRITE_SIZE;
+        double originY = interpolatedY + object.getSpriteOffsetY() / (double) Configuration.SPRITE_SIZE;
+        Vector2D dimensions = object.getSpriteDimensions();
+        if (originX > maxX || originX + dimensions.getX() < minX || originY > maxY
+                || originY + dimensions.getY() < minY) {
+            if (sprite != null) {
+                if (sprite.shown) {
+                    sprite.graphics.setVisible(false);
+                    sprite.shown = false;
+                    this.hidden++;
+                }
+                layerNodes.add(sprite.graphics);
+            }
+            return;
+        }
+
+        if (sprite == null) {
+            sprite = new Sprite(object, new SpriteGraphics(object), layer);
+            sprite.frame = this.frame;
+            this.sprites.put(object, sprite);
+            this.spriteList.add(sprite);
+            this.created++;
+        }
+        SpriteGraphics graphics = sprite.graphics;
+        if (graphics.refresh(object, object.getRotation())) {
+            this.changed++;
+        }
+        double x = interpolatedX * Configuration.SCALE_FACTOR + object.getSpriteOffsetX() * Configuration.ZOOM;
+        double y = interpolatedY * Configuration.SCALE_FACTOR + object.getSpriteOffsetY() * Configuration.ZOOM;
+        if (graphics.getX() != x) {
+            graphics.setX(x);
+        }
+        if (graphics.getY() != y) {
+            graphics.setY(y);
+        }
+        if (!sprite.shown) {
+            graphics.setVisible(true);
+            sprite.shown = true;
+            this.shown++;
+        }
+        layerNodes.add(graphics);
+    }
+
+    private static void orderLayer(Group layer, ArrayList<Node> nodes) {
+        if (!nodes.equals(layer.getChildren())) {
+            layer.getChildren().setAll(nodes);
+        }
+    }
+
+    private void removeUnseenSprites() {
+        for (int i = this.spriteList.size() - 1; i >= 0; i--) {
+            Sprite sprite = this.spriteList.get(i);
+            if (sprite.frame != this.frame) {
+                this.removed++;
+                this.sprites.remove(sprite.object);
+                Sprite last = this.spriteList.remove(this.spriteList.size() - 1);
+                if (last != sprite) {
+                    this.spriteList.set(i, last);
+                }
+            }
+        }
+    }
+
+    /**
+     * The node kept for a single object, and where it is kept.
+     */
+    private static class Sprite {
+
+        private final GameObject object;
+        private final SpriteGraphics graphics;
+        private final Group layer;
+        private boolean shown;
+        private long frame;
+
+        private Sprite(GameObject object, SpriteGraphics graphics, Group layer) {
+            this.object = object;
+            this.graphics = graphics;
+            this.layer = layer;
+        }
+
+    }
+
+}
@@ -16,7 +16,9 @@ import javafx.scene.image.ImageView;
  * <p>
  * SpriteGraphics is typically constructed from a {@link RenderableAsSprite}
  * object and
- * automatically loads the appropriate image asset.
+ * automatically loads the appropriate image asset. A sprite that is kept between
+ * frames can be brought up to date with {@link #refresh(RenderableAsSprite, double)},
+ * which only changes the properties that differ from the last frame.
  *
  * @see RenderableAsSprite
  * @see SpriteLocation
@@ -26,6 +28,15 @@ public class SpriteGraphics extends ImageView {
 
     public static final SpriteLocation DEFAULT_IMAGE_LOCATION = new SpriteLocation(0, 0);
 
+    // What is currently shown, so that unchanged properties aren't set again
+    private String spriteSheetFilename;
+    private SpriteLocation spriteLocation;
+    private int spriteWidth;
+    private int spriteHeight;
+    private double spriteScaleX;
+    private double spriteScaleY;
+    private double rotation;
+
     /**
      * Constructs a SpriteGraphics object for the given renderable, using the
      * default zoom level.
@@ -44,13 +55,9 @@ public class SpriteGraphics extends ImageView {
      * @param zoom             the zoom factor to apply to the sprite
      */
     public SpriteGraphics(RenderableAsSprite renderableObject, double zoom) {
-        Image image = AssetManager.getImage(renderableObject.getSpriteSheetFilename());
-        this.setImage(image);
-        if (image == AssetManager.DEFAULT_IMAGE || image == AssetManager.SCALED_DEFAULT_IMAGE) {
-            resetSpriteViewport(renderableObject, DEFAULT_IMAGE_LOCATION);
-        } else {
-            resetSpriteViewport(renderableObject);
-        }
+        this.spriteSheetFilename = renderableObject.getSpriteSheetFilename();
+        this.setImage(AssetManager.getImage(this.spriteSheetFilename));
+        resetSpriteViewport(renderableObject, getSpriteLocation(renderableObject));
 
         if (!Configuration.INTEGER_SCALE) {
             this.setScaleX(zoom);
@@ -88,6 +95,14 @@ public class SpriteGraphics extends ImageView {
         this.setTranslateX((scaleX - 1) * tileWidth / 2);
         this.setTranslateY((scaleY - 1) * tileHeight / 2);
         this.setRotate(location.getRotation());
+        // Copied, as some objects change their sprite location in place
+        this.spriteLocation = new SpriteLocation(x, y, location.getRotation(), location.isReflectedHorizontally(),
+                location.isReflectedVertically());
+        this.spriteWidth = renderableObject.getSpriteWidth();
+        this.spriteHeight = renderableObject.getSpriteHeight();
+        this.spriteScaleX = scaleX;
+        this.spriteScaleY = scaleY;
+        this.rotation = 0;
     }
 
     /**
@@ -100,4 +115,47 @@ public class SpriteGraphics extends ImageView {
         resetSpriteViewport(renderableObject, renderableObject.getCurrentSpriteLocation());
     }
 
+    /**
+     * Updates this sprite to show the current frame of the given renderable,
+     * turned by the given rotation. Only properties that have changed since the
+     * last update are set, so a sprite that is kept between frames doesn't cause
+     * any work for JavaFX while it stays the same.
+     *
+     * @param renderableObject the object to render as a sprite
+     * @param rotation         the rotation of the object, in degrees, added to
+     *                         the rotation of its sprite
+     * @return {@code true} if anything changed, {@code false} otherwise
+     */
+    public boolean refresh(RenderableAsSprite renderableObject, double rotation) {
+        boolean changed = false;
+        String filename = renderableObject.getSpriteSheetFilename();
+        if (!filename.equals(this.spriteSheetFilename)) {
+            this.spriteSheetFilename = filename;
+            this.setImage(AssetManager.getImage(filename));
+            this.spriteLocation = null;
+        }
+        SpriteLocation location = getSpriteLocation(renderableObject);
+        if (!location.equals(this.spriteLocation) || renderableObject.getSpriteWidth() != this.spriteWidth
+                || renderableObject.getSpriteHeight() != this.spriteHeight
+                || renderableObject.getSpriteScaleX() != this.spriteScaleX
+                || renderableObject.getSpriteScaleY() != this.spriteScaleY) {
+            resetSpriteViewport(renderableObject, location);
+            changed = true;
+        }
+        if (rotation != this.rotation) {
+            this.setRotate(this.spriteLocation.getRotation() + rotation);
+            this.rotation = rotation;
+            changed = true;
+        }
+        return changed;
+    }
+
+    private SpriteLocation getSpriteLocation(RenderableAsSprite renderableObject) {
+        Image image = this.getImage();
+        if (image == AssetManager.DEFAULT_IMAGE || image == AssetManager.SCALED_DEFAULT_IMAGE) {
+            return DEFAULT_IMAGE_LOCATION;
+        }
+        return renderableObject.getCurrentSpriteLocation();
+    }
+
 }
@@ -0,0 +1,143 @@
+package app.display.common;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+
+/**
+ * Helpers for reading and combining the pixels of sprites, for renderers that
+ * draw sprites into images of their own.
+ * <p>
+ * Pixels are stored as {@code int}s in ARGB order, one row after another.
+ * Only transforms that map pixels exactly onto pixels are supported: reflection,
+ * and rotation by whole quarter turns.
+ *
+ * @see BackgroundRenderer
+ * @see StaticLayerCache
+ */
+final class SpritePixels {
+
+    /**
+     * Prevent instantiation, as this class is intended to be static.
+     */
+    private SpritePixels() {
+    }
+
+    /**
+     * Reads a sprite from a sprite sheet, reflected as its sprite location says
+     * and then turned clockwise, as a {@link SpriteGraphics} would show it.
+     * Sprites turned by an odd number of quarter turns must be square. A sprite
+     * that isn't entirely within its sprite sheet is left transparent, as
+     * nothing would be shown for it.
+     *
+     * @param spriteSheet  the sprite sheet to read from
+     * @param sourceX      the left edge of the sprite in the sprite sheet, in
+     *                     pixels
+     * @param sourceY      the top edge of the sprite in the sprite sheet, in
+     *                     pixels
+     * @param width        the width of the sprite, in pixels
+     * @param height       the height of the sprite, in pixels
+     * @param location     the sprite location, for its reflection
+     * @param quarterTurns the number of clockwise quarter turns, from 0 to 3
+     * @return the pixels of the sprite
+     */
+    static int[] read(Image spriteSheet, int sourceX, int sourceY, int width, int height, SpriteLocation location,
+            int quarterTurns) {
+        int[] pixels = new int[width * height];
+        if (sourceX < 0 || sourceY < 0 || sourceX + width > spriteSheet.getWidth()
+                || sourceY + height > spriteSheet.getHeight()) {
+            return pixels;
+        }
+        spriteSheet.getPixelReader().getPixels(sourceX, sourceY, width, height, PixelFormat.getIntArgbInstance(),
+                pixels, 0, width);
+        int[] sprite = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // Undo the rotation and then the reflection, as a node reflects first
+                int spriteX = switch (quarterTurns) {
+                    case 1 -> y;
+                    case 2 -> width - 1 - x;
+                    case 3 -> height - 1 - y;
+                    default -> x;
+                };
+                int spriteY = switch (quarterTurns) {
+                    case 1 -> width - 1 - x;
+                    case 2 -> height - 1 - y;
+                    case 3 -> x;
+                    default -> y;
+                };
+                if (location.isReflectedHorizontally()) {
+                    spriteX = width - 1 - spriteX;
+                }
+                if (location.isReflectedVertically()) {
+                    spriteY = height - 1 - spriteY;
+                }
+                sprite[y * width + x] = pixels[spriteY * width + spriteX];
+            }
+        }
+        return sprite;
+    }
+
+    /**
+     * Returns the number of clockwise quarter turns in the given rotation, or -1
+     * if it isn't a whole number of quarter turns.
+     *
+     * @param rotation the rotation, in degrees
+     * @return the number of quarter turns, from 0 to 3, or -1
+     */
+    static int getQuarterTurns(double rotation) {
+        double turns = rotation / 90;
+        if (turns != Math.rint(turns)) {
+            return -1;
+        }
+        return Math.floorMod((long) turns, 4);
+    }
+
+    /**
+     * Draws a sprite over an image, blending partly transparent pixels. Parts of
+     * the sprite outside the image are skipped.
+     *
+     * @param sprite       the pixels of the sprite
+     * @param spriteWidth  the width of the sprite, in pixels
+     * @param spriteHeight the height of the sprite, in pixels
+     * @param image        the pixels of the image to draw over
+     * @param imageWidth   the width of the image, in pixels
+     * @param imageHeight  the height of the image, in pixels
+     * @param x            where the left edge of the sprite goes in the image
+     * @param y            where the top edge of the sprite goes in the image
+     */
+    static void draw(int[] sprite, int spriteWidth, int spriteHeight, int[] image, int imageWidth,
+            int imageHeight, int x, int y) {
+        int minX = Math.max(0, -x);
+        int minY = Math.max(0, -y);
+        int maxX = Math.min(spriteWidth, imageWidth - x);
+        int maxY = Math.min(spriteHeight, imageHeight - y);
+        for (int spriteY = minY; spriteY < maxY; spriteY++) {
+            for (int spriteX = minX; spriteX < maxX; spriteX++) {
+                int source = sprite[spriteY * spriteWidth + spriteX];
+                int sourceAlpha = source >>> 24;
+                if (sourceAlpha == 0) {
+                    continue;
+                }
+                int index = (y + spriteY) * imageWidth + x + spriteX;
+                image[index] = sourceAlpha == 255 ? source : blend(source, image[index]);
+            }
+        }
+    }
+
+    private static int blend(int source, int destination) {
+        int sourceAlpha = source >>> 24;
+        int destinationAlpha = (destination >>> 24) * (255 - sourceAlpha) / 255;
+        int alpha = sourceAlpha + destinationAlpha;
+        if (alpha == 0) {
+            return 0;
+        }
+        int result = alpha << 24;
+        for (int shift = 0; shift < 24; shift += 8) {
+            int channel = ((source >> shift & 0xFF) * sourceAlpha + (destination >> shift & 0xFF) * destinationAlpha)
+                    / alpha;
+            result |= channel << shift;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,79 @@
+package app.display.common;
+
+import app.Configuration;
+import app.StartGame;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+import javafx.scene.Node;
+
+/**
+ * A way of drawing the objects and effects of a level each frame.
+ * <p>
+ * Which renderer {@link StartGame} uses is chosen at startup by
+ * {@link Configuration#RENDERER}, and created with {@link #create(String)}. A
+ * renderer draws into the node returned by {@link #getNode()}, which is added
+ * to the scene once and kept there while the game runs.
+ *
+ * @see RetainedSpriteRenderer
+ * @see CanvasSpriteRenderer
+ */
+public interface SpriteRenderer {
+
+    /**
+     * Returns the node that everything is rendered into.
+     *
+     * @return the node containing everything rendered
+     */
+    Node getNode();
+
+    /**
+     * Draws every visible object in the given level, followed by the level's
+     * effects. Objects are drawn between their last two locations according to
+     * {@code alpha}, as described in {@link GameObject#getInterpolatedX(double)}.
+     *
+     * @param level      the level to render
+     * @param player     the player, which is drawn above every other object
+     * @param viewX      the left edge of the view, in game units
+     * @param viewY      the top edge of the view, in game units
+     * @param viewWidth  the width of the view, in game units
+     * @param viewHeight the height of the view, in game units
+     * @param alpha      how far the game is between its last two updates
+     */
+    void render(Level level, GameObject player, double viewX, double viewY, double viewWidth, double viewHeight,
+            double alpha);
+
+    /**
+     * Forgets everything kept from earlier frames, such as when a different level
+     * is loaded.
+     */
+    void clear();
+
+    /**
+     * Returns a short description of the work done during the last frame, for
+     * finding where frame time goes.
+     *
+     * @return statistics about the last frame
+     */
+    String getStatistics();
+
+    /**
+     * Depending on the input string, return a {@code SpriteRenderer} of that
+     * type. {@code "nodes"} keeps a node for each object, and {@code "canvas"}
+     * draws every sprite onto a single canvas.
+     *
+     * @param rendererName the name of the renderer to be created
+     * @return the renderer associated with that name
+     */
+    static SpriteRenderer create(String rendererName) {
+        switch (rendererName.toLowerCase()) {
+            case "nodes":
+                return new RetainedSpriteRenderer();
+            case "canvas":
+                return new CanvasSpriteRenderer();
+            default:
+                System.err.printf("*** No such renderer \"%s\". Using nodes ***\n", rendererName);
+                return new RetainedSpriteRenderer();
+        }
+    }
+
+}
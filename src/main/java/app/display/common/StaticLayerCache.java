@@ -0,0 +1,618 @@
+package app.display.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+import app.Configuration;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Draws the static objects of a level into cached images, so that they don't
+ * need to be drawn again each frame.
+ * <p>
+ * The level is divided into chunks of {@link Level#CHUNK_SIZE} by
+ * {@code CHUNK_SIZE} tiles, as in {@link Level#setActiveChunkRadius(int)}. The
+ * first time a chunk is in view, every static object that can be cached and
+ * overlaps the chunk is drawn into an image for it. The image is then kept
+ * until the chunk is more than a chunk away from the view.
+ * <p>
+ * When a cached object is added, destroyed or changed, only the rectangles it
+ * covered before and after the change are marked dirty. At the next update,
+ * each dirty rectangle is cleared and the objects overlapping it are drawn
+ * again, into the same image. Games on a grid, such as Minesweeper or Snake,
+ * only change a few tiles at a time, so only those tiles are drawn again, no
+ * matter how large the level is.
+ * <p>
+ * Static objects that are animated can't be cached, and neither can objects
+ * whose sprites don't line up exactly with screen pixels, such as rotated or
+ * scaled sprites, or any sprite when {@link Configuration#INTEGER_SCALE} is
+ * disabled. These are returned by {@link #getUncachedObjects()}, to be drawn
+ * every frame above the cached images.
+ * <p>
+ * Only the objects listed by
+ * {@link Level#takeChangedStaticObjects(Object, Collection)}, which includes
+ * objects added to the level, are checked each frame. New objects are expected
+ * at the end of the list of static objects, where levels add them. Every static
+ * object is only checked again when they aren't, when the list is changed other
+ * than by the level itself, as shown by {@link Level#getStaticObjectsVersion()},
+ * or when another reader took the level's changes in between.
+ *
+ * @see RetainedSpriteRenderer
+ * @see CanvasSpriteRenderer
+ */
+public class StaticLayerCache {
+
+    private static final int CHUNK_PIXELS = (int) (Level.CHUNK_SIZE * Configuration.SCALE_FACTOR);
+    // Beyond this many dirty rectangles, their chunks are drawn again in full
+    private static final int MAX_DIRTY_REGIONS = 1024;
+
+    private Level level;
+    private int columns;
+    private int rows;
+    private boolean scanned;
+    private int staticObjectsVersion;
+    private int nextOrder;
+
+    // Every static object in the level, cached or not
+    private final IdentityHashMap<StaticGameObject, StaticSprite> sprites = new IdentityHashMap<>();
+    private final ArrayList<StaticGameObject> uncachedObjects = new ArrayList<>();
+    private final Set<StaticGameObject> changedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Cached objects overlapping each chunk, in the order they are drawn
+    private ArrayList<ArrayList<StaticSprite>> chunkSprites = new ArrayList<>();
+    private WritableImage[] chunkImages = new WritableImage[0];
+    private int[] pixels;
+    // Rectangles to draw again, as x, y, width and height in pixels
+    private int[] dirtyRegions = new int[64];
+    private int dirtyCount;
+
+    private int minColumn;
+    private int minRow;
+    private int maxColumn = -1;
+    private int maxRow = -1;
+    private int drawnChunks;
+    private int repaintedRegions;
+
+    /**
+     * Brings the cache up to date with the given level, and draws any chunks in
+     * the given view that aren't cached.
+     *
+     * @param level      the level being rendered
+     * @param viewX      the left edge of the view, in game units
+     * @param viewY      the top edge of the view, in game units
+     * @param viewWidth  the width of the view, in game units
+     * @param viewHeight the height of the view, in game units
+     */
+    public void update(Level level, double viewX, double viewY, double viewWidth, double viewHeight) {
+        if (level != this.level || (level.getWidth() + Level.CHUNK_SIZE - 1) / Level.CHUNK_SIZE != this.columns
+                || (level.getHeight() + Level.CHUNK_SIZE - 1) / Level.CHUNK_SIZE != this.rows) {
+            this.clear();
+            this.level = level;
+            this.columns = (level.getWidth() + Level.CHUNK_SIZE - 1) / Level.CHUNK_SIZE;
+            this.rows = (level.getHeight() + Level.CHUNK_SIZE - 1) / Level.CHUNK_SIZE;
+            this.chunkImages = new WritableImage[this.columns * this.rows];
+            this.chunkSprites = new ArrayList<>(this.columns * this.rows);
+            for (int i = 0; i < this.columns * this.rows; i++) {
+                this.chunkSprites.add(new ArrayList<>());
+            }
+        }
+        this.findChanges(level.getStaticObjects());
+        this.repaintDirtyRegions();
+
+        int minColumn = Math.max((int) Math.floor(viewX / Level.CHUNK_SIZE), 0);
+        int minRow = Math.max((int) Math.floor(viewY / Level.CHUNK_SIZE), 0);
+        int maxColumn = Math.min((int) Math.floor((viewX + viewWidth) / Level.CHUNK_SIZE), this.columns - 1);
+        int maxRow = Math.min((int) Math.floor((viewY + viewHeight) / Level.CHUNK_SIZE), this.rows - 1);
+        if (minColumn != this.minColumn || minRow != this.minRow || maxColumn != this.maxColumn
+                || maxRow != this.maxRow) {
+            this.minColumn = minColumn;
+            this.minRow = minRow;
+            this.maxColumn = maxColumn;
+            this.maxRow = maxRow;
+            // Forget chunks that are well out of view
+            for (int row = 0; row < this.rows; row++) {
+                for (int column = 0; column < this.columns; column++) {
+                    if (column < minColumn - 1 || column > maxColumn + 1 || row < minRow - 1 || row > maxRow + 1) {
+                        this.chunkImages[row * this.columns + column] = null;
+                    }
+                }
+            }
+        }
+        this.drawnChunks = 0;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int chunk = row * this.columns + column;
+                if (this.chunkImages[chunk] == null && !this.chunkSprites.get(chunk).isEmpty()) {
+                    this.chunkImages[chunk] = this.drawChunk(column, row);
+                    this.drawnChunks++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets every cached image and object.
+     */
+    public void clear() {
+        this.level = null;
+        this.columns = 0;
+        this.rows = 0;
+        this.scanned = false;
+        this.sprites.clear();
+        this.uncachedObjects.clear();
+        this.chunkSprites = new ArrayList<>();
+        this.chunkImages = new WritableImage[0];
+        this.dirtyCount = 0;
+        this.maxColumn = -1;
+        this.maxRow = -1;
+    }
+
+    /**
+     * Returns the static objects that aren't drawn into the cached images, and
+     * must be drawn each frame.
+     *
+     * @return the static objects that aren't cached
+     */
+    public ArrayList<StaticGameObject> getUncachedObjects() {
+        return this.uncachedObjects;
+    }
+
+    /**
+     * Returns the cached image for the given chunk, or {@code null} if it has no
+     * cached objects or isn't in view.
+     *
+     * @param column the column of the chunk
+     * @param row    the row of the chunk
+     * @return the image of the chunk
+     */
+    public Image getChunkImage(int column, int row) {
+        return this.chunkImages[row * this.columns + column];
+    }
+
+    /**
+     * Returns the size of a chunk image, in pixels. Chunk images are square, and
+     * the chunk in a given column and row is drawn at that column and row times
+     * this size.
+     *
+     * @return the width and height of a chunk image
+     */
+    public int getChunkPixels() {
+        return CHUNK_PIXELS;
+    }
+
+    public int getMinColumn() {
+        return this.minColumn;
+    }
+
+    public int getMaxColumn() {
+        return this.maxColumn;
+    }
+
+    public int getMinRow() {
+        return this.minRow;
+    }
+
+    public int getMaxRow() {
+        return this.maxRow;
+    }
+
+    /**
+     * Returns the number of chunks drawn in full during the last update.
+     *
+     * @return the number of chunks drawn
+     */
+    public int getDrawnChunkCount() {
+        return this.drawnChunks;
+    }
+
+    /**
+     * Returns the number of dirty rectangles drawn again during the last update,
+     * counting a rectangle once for each chunk it overlaps.
+     *
+     * @return the number of rectangles drawn again
+     */
+    public int getRepaintedRegionCount() {
+        return this.repaintedRegions;
+    }
+
+    /**
+     * Returns the number of static objects drawn into the cached images.
+     *
+     * @return the number of cached objects
+     */
+    public int getCachedObjectCount() {
+        return this.sprites.size() - this.uncachedObjects.size();
+    }
+
+    /**
+     * Checks the static objects that were changed or added since the last
+     * update, or every static object if they can't be found.
+     */
+    private void findChanges(ArrayList<StaticGameObject> staticObjects) {
+        // Taken even when scanning, so that they aren't found again next time
+        this.changedObjects.clear();
+        boolean scan = !this.level.takeChangedStaticObjects(this, this.changedObjects) || !this.scanned
+                || this.level.getStaticObjectsVersion() != this.staticObjectsVersion;
+        if (!scan) {
+            int added = 0;
+            for (StaticGameObject object : this.changedObjects) {
+                StaticSprite sprite = this.sprites.get(object);
+                if (sprite != null) {
+                    this.checkSprite(sprite);
+                } else if (!object.isDestroyed()) {
+                    added++;
+                }
+            }
+            scan = !this.addNewObjects(staticObjects, added);
+        }
+        this.changedObjects.clear();
+        if (scan) {
+            this.scan(staticObjects);
+        }
+        this.scanned = true;
+        this.staticObjectsVersion = this.level.getStaticObjectsVersion();
+    }
+
+    /**
+     * Brings a single object up to date, marking what it covered before and
+     * after as dirty.
+     */
+    private void checkSprite(StaticSprite sprite) {
+        StaticGameObject object = sprite.object;
+        if (object.isDestroyed()) {
+            this.removeSprite(sprite);
+            this.sprites.remove(object);
+            return;
+        }
+        boolean cache = this.canCache(object);
+        if (cache == sprite.cached && (!cache || !sprite.hasChanged())) {
+            return;
+        }
+        this.removeSprite(sprite);
+        this.placeSprite(sprite, cache);
+    }
+
+    /**
+     * Adds the objects recorded as added, which should be the last
+     * {@code added} objects in the list of static objects, as that is where
+     * levels add them. Returns {@code false} if the list changed in any other
+     * way.
+     */
+    private boolean addNewObjects(ArrayList<StaticGameObject> staticObjects, int added) {
+        int known = this.sprites.size();
+        if (known + added != staticObjects.size()) {
+            return false;
+        }
+        for (int i = known; i < staticObjects.size(); i++) {
+            StaticGameObject object = staticObjects.get(i);
+            if (object.isDestroyed() || this.sprites.containsKey(object) || !this.changedObjects.contains(object)) {
+                return false;
+            }
+        }
+        for (int i = known; i < staticObjects.size(); i++) {
+            StaticSprite sprite = new StaticSprite(staticObjects.get(i));
+            sprite.order = this.nextOrder++;
+            this.sprites.put(sprite.object, sprite);
+            this.placeSprite(sprite, this.canCache(sprite.object));
+        }
+        return true;
+    }
+
+    /**
+     * Compares every static object with how it was last cached, marking
+     * anything that changed as dirty.
+     */
+    private void scan(ArrayList<StaticGameObject> staticObjects) {
+        for (StaticSprite sprite : this.sprites.values()) {
+            sprite.seen = false;
+        }
+        this.uncachedObjects.clear();
+        this.chunkSprites.forEach(ArrayList::clear);
+        int order = 0;
+        for (StaticGameObject object : staticObjects) {
+            if (object.isDestroyed()) {
+                continue;
+            }
+            StaticSprite sprite = this.sprites.get(object);
+            if (sprite == null) {
+                sprite = new StaticSprite(object);
+                this.sprites.put(object, sprite);
+            }
+            boolean cache = this.canCache(object);
+            boolean changed = cache != sprite.cached || cache && sprite.hasChanged();
+            if (changed && sprite.cached) {
+                this.markDirty(sprite);
+            }
+            sprite.cached = cache;
+            sprite.order = order++;
+            sprite.seen = true;
+            if (!cache) {
+                this.uncachedObjects.add(object);
+                continue;
+            }
+            if (changed) {
+                sprite.read();
+                this.markDirty(sprite);
+            }
+            // Objects are added in order, so chunks stay sorted
+            for (int row = sprite.minRow; row <= sprite.maxRow; row++) {
+                for (int column = sprite.minColumn; column <= sprite.maxColumn; column++) {
+                    this.chunkSprites.get(row * this.columns + column).add(sprite);
+                }
+            }
+        }
+        this.nextOrder = order;
+        // Objects no longer in the level
+        Iterator<StaticSprite> iterator = this.sprites.values().iterator();
+        while (iterator.hasNext()) {
+            StaticSprite sprite = iterator.next();
+            if (!sprite.seen) {
+                if (sprite.cached) {
+                    this.markDirty(sprite);
+                }
+                iterator.remove();
+            }
+        }
+        for (int chunk = 0; chunk < this.chunkImages.length; chunk++) {
+            if (this.chunkSprites.get(chunk).isEmpty()) {
+                this.chunkImages[chunk] = null;
+            }
+        }
+    }
+
+    /**
+     * Takes an object out of the chunks it overlaps, or out of the uncached
+     * objects.
+     */
+    private void removeSprite(StaticSprite sprite) {
+        if (!sprite.cached) {
+            this.uncachedObjects.remove(sprite.object);
+            return;
+        }
+        for (int row = sprite.minRow; row <= sprite.maxRow; row++) {
+            for (int column = sprite.minColumn; column <= sprite.maxColumn; column++) {
+                this.chunkSprites.get(row * this.columns + column).remove(sprite);
+            }
+        }
+        this.markDirty(sprite);
+    }
+
+    /**
+     * Puts an object into the chunks it overlaps, keeping them in drawing order,
+     * or into the uncached objects.
+     */
+    private void placeSprite(StaticSprite sprite, boolean cache) {
+        sprite.cached = cache;
+        if (!cache) {
+            this.uncachedObjects.add(sprite.object);
+            return;
+        }
+        sprite.read();
+        for (int row = sprite.minRow; row <= sprite.maxRow; row++) {
+            for (int column = sprite.minColumn; column <= sprite.maxColumn; column++) {
+                ArrayList<StaticSprite> chunkSprites = this.chunkSprites.get(row * this.columns + column);
+                int index = chunkSprites.size();
+                while (index > 0 && chunkSprites.get(index - 1).order > sprite.order) {
+                    index--;
+                }
+                chunkSprites.add(index, sprite);
+            }
+        }
+        this.markDirty(sprite);
+    }
+
+    /**
+     * Marks the rectangle covered by a cached object as needing to be drawn
+     * again, if any chunk it overlaps has an image.
+     */
+    private void markDirty(StaticSprite sprite) {
+        boolean drawn = false;
+        for (int row = sprite.minRow; row <= sprite.maxRow && !drawn; row++) {
+            for (int column = sprite.minColumn; column <= sprite.maxColumn && !drawn; column++) {
+                drawn = this.chunkImages[row * this.columns + column] != null;
+            }
+        }
+        int last = (this.dirtyCount - 1) * 4;
+        if (!drawn || this.dirtyCount > 0 && this.dirtyRegions[last] == sprite.x
+                && this.dirtyRegions[last + 1] == sprite.y && this.dirtyRegions[last + 2] == sprite.width
+                && this.dirtyRegions[last + 3] == sprite.height) {
+            return;
+        }
+        if (this.dirtyCount * 4 == this.dirtyRegions.length) {
+            this.dirtyRegions = Arrays.copyOf(this.dirtyRegions, this.dirtyRegions.length * 2);
+        }
+        int index = this.dirtyCount++ * 4;
+        this.dirtyRegions[index] = sprite.x;
+        this.dirtyRegions[index + 1] = sprite.y;
+        this.dirtyRegions[index + 2] = sprite.width;
+        this.dirtyRegions[index + 3] = sprite.height;
+    }
+
+    /**
+     * Draws every dirty rectangle again, in each chunk image it overlaps. If
+     * there are too many, the chunks they overlap are forgotten instead, to be
+     * drawn again in full when in view, as are chunks left with nothing in them.
+     */
+    private void repaintDirtyRegions() {
+        this.repaintedRegions = 0;
+        boolean forget = this.dirtyCount > MAX_DIRTY_REGIONS;
+        for (int i = 0; i < this.dirtyCount * 4; i += 4) {
+            int x = this.dirtyRegions[i];
+            int y = this.dirtyRegions[i + 1];
+            int maxX = x + this.dirtyRegions[i + 2];
+            int maxY = y + this.dirtyRegions[i + 3];
+            for (int row = y / CHUNK_PIXELS; row <= (maxY - 1) / CHUNK_PIXELS; row++) {
+                for (int column = x / CHUNK_PIXELS; column <= (maxX - 1) / CHUNK_PIXELS; column++) {
+                    int chunk = row * this.columns + column;
+                    if (this.chunkImages[chunk] == null) {
+                        continue;
+                    }
+                    if (forget || this.chunkSprites.get(chunk).isEmpty()) {
+                        this.chunkImages[chunk] = null;
+                        continue;
+                    }
+                    int originX = column * CHUNK_PIXELS;
+                    int originY = row * CHUNK_PIXELS;
+                    this.repaint(chunk, Math.max(x, originX), Math.max(y, originY),
+                            Math.min(maxX, originX + CHUNK_PIXELS), Math.min(maxY, originY + CHUNK_PIXELS));
+                    this.repaintedRegions++;
+                }
+            }
+        }
+        this.dirtyCount = 0;
+    }
+
+    /**
+     * Clears a rectangle of a chunk image, given in pixels within the level, and
+     * draws the objects overlapping it again.
+     */
+    private void repaint(int chunk, int minX, int minY, int maxX, int maxY) {
+        int width = maxX - minX;
+        int height = maxY - minY;
+        if (this.pixels == null) {
+            this.pixels = new int[CHUNK_PIXELS * CHUNK_PIXELS];
+        }
+        Arrays.fill(this.pixels, 0, width * height, 0);
+        for (StaticSprite sprite : this.chunkSprites.get(chunk)) {
+            if (sprite.x < maxX && sprite.x + sprite.width > minX && sprite.y < maxY
+                    && sprite.y + sprite.height > minY) {
+                SpritePixels.draw(sprite.getPixels(), sprite.width, sprite.height, this.pixels, width, height,
+                        sprite.x - minX, sprite.y - minY);
+            }
+        }
+        int column = chunk % this.columns;
+        int row = chunk / this.columns;
+        this.chunkImages[chunk].getPixelWriter().setPixels(minX - column * CHUNK_PIXELS,
+                minY - row * CHUNK_PIXELS, width, height, PixelFormat.getIntArgbInstance(), this.pixels, 0, width);
+    }
+
+    private boolean canCache(StaticGameObject object) {
+        if (!Configuration.INTEGER_SCALE || object.getSpriteScaleX() != 1 || object.getSpriteScaleY() != 1
+                || object.getAnimations().size() != 1) {
+            return false;
+        }
+        SpriteLocation location = object.getCurrentSpriteLocation();
+        int quarterTurns = SpritePixels.getQuarterTurns(location.getRotation() + object.getRotation());
+        if (quarterTurns < 0 || quarterTurns % 2 == 1 && object.getSpriteWidth() != object.getSpriteHeight()) {
+            return false;
+        }
+        // Sprites must line up with pixels, and stay within the chunks
+        double x = getPixelX(object);
+        double y = getPixelY(object);
+        double width = object.getSpriteWidth() * Configuration.ZOOM;
+        double height = object.getSpriteHeight() * Configuration.ZOOM;
+        return x == Math.rint(x) && y == Math.rint(y) && x >= 0 && y >= 0
+                && x + width <= this.columns * CHUNK_PIXELS && y + height <= this.rows * CHUNK_PIXELS;
+    }
+
+    private WritableImage drawChunk(int column, int row) {
+        if (this.pixels == null) {
+            this.pixels = new int[CHUNK_PIXELS * CHUNK_PIXELS];
+        } else {
+            Arrays.fill(this.pixels, 0);
+        }
+        int originX = column * CHUNK_PIXELS;
+        int originY = row * CHUNK_PIXELS;
+        for (StaticSprite sprite : this.chunkSprites.get(row * this.columns + column)) {
+            SpritePixels.draw(sprite.getPixels(), sprite.width, sprite.height, this.pixels, CHUNK_PIXELS,
+                    CHUNK_PIXELS, sprite.x - originX, sprite.y - originY);
+        }
+        WritableImage image = new WritableImage(CHUNK_PIXELS, CHUNK_PIXELS);
+        image.getPixelWriter().setPixels(0, 0, CHUNK_PIXELS, CHUNK_PIXELS, PixelFormat.getIntArgbInstance(),
+                this.pixels, 0, CHUNK_PIXELS);
+        return image;
+    }
+
+    private static double getPixelX(GameObject object) {
+        return object.getLocation().getX() * Configuration.SCALE_FACTOR
+                + object.getSpriteOffsetX() * Configuration.ZOOM;
+    }
+
+    private static double getPixelY(GameObject object) {
+        return object.getLocation().getY() * Configuration.SCALE_FACTOR
+                + object.getSpriteOffsetY() * Configuration.ZOOM;
+    }
+
+    /**
+     * How a static object was drawn, used to tell when it has changed and which
+     * chunks it overlaps.
+     */
+    private static class StaticSprite {
+
+        private final StaticGameObject object;
+        private String spriteSheetFilename;
+        private SpriteLocation location;
+        private double rotation;
+        private int x;
+        private int y;
+        private int width;
+        private int height;
+        private int minColumn;
+        private int minRow;
+        private int maxColumn;
+        private int maxRow;
+        private int[] pixels;
+        // Where the object was in the list of static objects, to draw in order
+        private int order;
+        private boolean cached;
+        private boolean seen;
+
+        private StaticSprite(StaticGameObject object) {
+            this.object = object;
+        }
+
+        private void read() {
+            this.spriteSheetFilename = this.object.getSpriteSheetFilename();
+            // Copied, as some objects change their sprite location in place
+            SpriteLocation location = this.object.getCurrentSpriteLocation();
+            this.location = new SpriteLocation(location.getColumn(), location.getRow(), location.getRotation(),
+                    location.isReflectedHorizontally(), location.isReflectedVertically());
+            this.rotation = this.object.getRotation();
+            this.x = (int) getPixelX(this.object);
+            this.y = (int) getPixelY(this.object);
+            this.width = (int) (this.object.getSpriteWidth() * Configuration.ZOOM);
+            this.height = (int) (this.object.getSpriteHeight() * Configuration.ZOOM);
+            this.minColumn = this.x / CHUNK_PIXELS;
+            this.minRow = this.y / CHUNK_PIXELS;
+            this.maxColumn = (this.x + this.width - 1) / CHUNK_PIXELS;
+            this.maxRow = (this.y + this.height - 1) / CHUNK_PIXELS;
+            this.pixels = null;
+        }
+
+        private boolean hasChanged() {
+            return !this.object.getSpriteSheetFilename().equals(this.spriteSheetFilename)
+                    || !this.object.getCurrentSpriteLocation().equals(this.location)
+                    || this.object.getRotation() != this.rotation || (int) getPixelX(this.object) != this.x
+                    || (int) getPixelY(this.object) != this.y
+                    || (int) (this.object.getSpriteWidth() * Configuration.ZOOM) != this.width
+                    || (int) (this.object.getSpriteHeight() * Configuration.ZOOM) != this.height;
+        }
+
+        private int[] getPixels() {
+            if (this.pixels == null) {
+                Image spriteSheet = AssetManager.getImage(this.spriteSheetFilename);
+                SpriteLocation location = this.location;
+                if (spriteSheet == AssetManager.DEFAULT_IMAGE || spriteSheet == AssetManager.SCALED_DEFAULT_IMAGE) {
+                    location = SpriteGraphics.DEFAULT_IMAGE_LOCATION;
+                }
+                int tileWidth = (int) (this.object.getSpriteTileWidth() * Configuration.ZOOM);
+                int tileHeight = (int) (this.object.getSpriteTileHeight() * Configuration.ZOOM);
+                this.pixels = SpritePixels.read(spriteSheet, location.getColumn() * tileWidth,
+                        location.getRow() * tileHeight, this.width, this.height, location,
+                        SpritePixels.getQuarterTurns(location.getRotation() + this.rotation));
+            }
+            return this.pixels;
+        }
+
+    }
+
+}
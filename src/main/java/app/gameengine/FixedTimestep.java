@@ -0,0 +1,83 @@
+package app.gameengine;
+
+/**
+ * Converts the variable time between rendered frames into a whole number of
+ * fixed length updates.
+ * <p>
+ * Elapsed time is added to an accumulator, and an update is run for each full
+ * tick that has built up. Any leftover time carries over to the next frame, and
+ * is used to draw objects part of the way between their last two locations.
+ * Running the game with a fixed step makes it behave the same on every display,
+ * and means that the cost of updating the game doesn't grow with the refresh
+ * rate.
+ * 
+ * @see Game#update(double)
+ */
+public class FixedTimestep {
+
+    private final double tickLength;
+    private final int maxTicks;
+    private double accumulator = 0;
+
+    /**
+     * Creates a timestep running at the given rate.
+     * 
+     * @param tickRate the number of updates per second
+     * @param maxTicks the maximum number of updates run for a single frame
+     */
+    public FixedTimestep(int tickRate, int maxTicks) {
+        if (tickRate <= 0 || maxTicks <= 0) {
+            throw new IllegalArgumentException("Tick rate and max ticks must be positive");
+        }
+        this.tickLength = 1.0 / tickRate;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Returns the length of a single update, in seconds.
+     * 
+     * @return the fixed time step
+     */
+    public double getTickLength() {
+        return this.tickLength;
+    }
+
+    /**
+     * Adds the time elapsed since the last frame, and returns how many updates
+     * should be run. If more than the maximum number of updates have built up,
+     * the extra time is dropped.
+     * 
+     * @param dt the time elapsed since the last frame, in seconds
+     * @return the number of updates to run
+     */
+    public int advance(double dt) {
+        this.accumulator += Math.max(dt, 0);
+        int ticks = (int) (this.accumulator / this.tickLength);
+        if (ticks > this.maxTicks) {
+            ticks = this.maxTicks;
+            this.accumulator = 0;
+        } else {
+            this.accumulator -= ticks * this.tickLength;
+        }
+        return ticks;
+    }
+
+    /**
+     * Returns how far the leftover time is through the next update, from 0 to 1.
+     * This is how far objects should be drawn between their previous and current
+     * locations.
+     * 
+     * @return the fraction of a tick that has built up
+     */
+    public double getAlpha() {
+        return Math.clamp(this.accumulator / this.tickLength, 0, 1);
+    }
+
+    /**
+     * Drops any time that has built up, for example after loading a new level.
+     */
+    public void reset() {
+        this.accumulator = 0;
+    }
+
+}
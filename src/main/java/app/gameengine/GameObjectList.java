@@ -0,0 +1,89 @@
+package app.gameengine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.UnaryOperator;
+
+import app.gameengine.model.gameobjects.GameObject;
+
+/**
+ * A list of the objects in a level, which tells the level about every object
+ * added to it, however it is added. This lets objects added directly to
+ * {@link Level#getStaticObjects()} or {@link Level#getDynamicObjects()} report
+ * back to their level, just like objects added with
+ * {@link Level#addStaticObject(app.gameengine.model.gameobjects.StaticGameObject)}.
+ * <p>
+ * The list also counts every change made to it, including replacing an object,
+ * so that the level can tell when it was modified in a way it didn't expect.
+ *
+ * @param <T> the type of object in the list
+ * @see Level
+ */
+@SuppressWarnings("serial")
+class GameObjectList<T extends GameObject> extends ArrayList<T> {
+
+    private final Level level;
+
+    GameObjectList(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * Returns the number of changes made to this list so far. If this hasn't
+     * changed, neither has the list, aside from objects replaced through a
+     * sublist.
+     *
+     * @return the number of changes made
+     */
+    int getModificationCount() {
+        return this.modCount;
+    }
+
+    @Override
+    public boolean add(T object) {
+        super.add(object);
+        this.level.objectAdded(object);
+        return true;
+    }
+
+    @Override
+    public void add(int index, T object) {
+        super.add(index, object);
+        this.level.objectAdded(object);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> objects) {
+        int start = this.size();
+        boolean changed = super.addAll(objects);
+        for (int i = start; i < this.size(); i++) {
+            this.level.objectAdded(this.get(i));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> objects) {
+        int end = index + objects.size();
+        boolean changed = super.addAll(index, objects);
+        for (int i = index; i < end; i++) {
+            this.level.objectAdded(this.get(i));
+        }
+        return changed;
+    }
+
+    @Override
+    public T set(int index, T object) {
+        T previous = super.set(index, object);
+        this.modCount++;
+        this.level.objectAdded(object);
+        return previous;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        super.replaceAll(operator);
+        this.forEach(this.level::objectAdded);
+    }
+
+}
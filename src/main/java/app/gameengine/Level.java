@@ -1,8 +1,14 @@
 package app.gameengine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
+import app.Configuration;
 import app.Settings;
 import app.display.common.Background;
 import app.display.common.controller.BasicMouseControls;
@@ -11,10 +17,18 @@ import app.display.common.controller.MouseControls;
 import app.display.common.effects.Effect;
 import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.GameObjectVisitor;
 import app.gameengine.model.gameobjects.Player;
 import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.BroadPhase;
+import app.gameengine.model.physics.CollisionLayers;
+import app.gameengine.model.physics.Hitbox;
 import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.RaycastHit;
+import app.gameengine.model.physics.SpatialHashGrid;
+import app.gameengine.model.physics.StaticTileGrid;
 import app.gameengine.model.physics.Vector2D;
+import app.gameengine.utils.ObjectPool;
 
 /**
  * Represents a single level within a game.
@@ -23,6 +37,13 @@ import app.gameengine.model.physics.Vector2D;
  * generally is most reponsible for the majority of gameplay. This class
  * manages storage and manipulation of {@link GameObject}s,
  * {@link KeyboardControls}, {@link MouseControls}, and a {@link PhysicsEngine}.
+ * <p>
+ * Large levels can be split into square chunks of {@link #CHUNK_SIZE} tiles
+ * using {@link #setActiveChunkRadius(int)}. Only objects in chunks near the
+ * visible portion of the level are then updated and collided, and everything
+ * else stays frozen until the player comes close. Objects that are active but
+ * not visible can also be updated less often, using
+ * {@link #setUpdateRingDistances(double...)}.
  * 
  * @see Game
  * @see PhysicsEngine
@@ -31,19 +52,82 @@ import app.gameengine.model.physics.Vector2D;
  */
 public abstract class Level {
 
+    private static final int QUERY_REGION = 0;
+    private static final int QUERY_RADIUS = 1;
+    private static final int QUERY_POINT = 2;
+    /**
+     * The number of static objects that don't fill a single tile above which
+     * raycasts find them using the broadphase rather than checking each one.
+     */
+    private static final int RAYCAST_UNALIGNED_LIMIT = 16;
+    /**
+     * The width and height of each chunk of a level, in tiles.
+     * 
+     * @see #setActiveChunkRadius(int)
+     */
+    public static final int CHUNK_SIZE = 16;
+
     protected KeyboardControls keyboardControls;
     protected MouseControls mouseControls;
     protected Game game;
     protected PhysicsEngine physicsEngine;
+    private BroadPhase broadPhase;
 
     protected int width;
     protected int height;
-    protected ArrayList<StaticGameObject> staticObjects = new ArrayList<>();
-    protected ArrayList<DynamicGameObject> dynamicObjects = new ArrayList<>();
+    private final GameObjectList<StaticGameObject> staticObjectList = new GameObjectList<>(this);
+    protected ArrayList<StaticGameObject> staticObjects = this.staticObjectList;
+    protected ArrayList<DynamicGameObject> dynamicObjects = new GameObjectList<>(this);
     private ArrayList<StaticGameObject> originalStaticObjects = new ArrayList<>();
     private ArrayList<DynamicGameObject> originalDynamicObjects = new ArrayList<>();
     private ArrayList<StaticGameObject> staticObjectsToAdd = new ArrayList<>();
     private ArrayList<DynamicGameObject> dynamicObjectsToAdd = new ArrayList<>();
+    private boolean queryIndexInvalid = true;
+    private int indexedStaticObjectCount;
+    private int indexedDynamicObjectCount;
+    // Active dynamic objects before this index may have moved since the last
+    // physics update, and those before the second have been refreshed since
+    private int movedDynamicObjectCount = Integer.MAX_VALUE;
+    private int refreshedDynamicObjectCount;
+    private ArrayList<ArrayList<StaticGameObject>> queryCandidates = new ArrayList<>();
+    private ArrayList<ArrayList<DynamicGameObject>> queryDynamicCandidates = new ArrayList<>();
+    private int queryDepth;
+    private StaticTileGrid tileGrid;
+    private boolean tileGridInvalid = true;
+    private RaycastHit lineOfSightHit = new RaycastHit();
+    private boolean hasDestroyedObjects = true;
+    // Static objects whose sprites changed since they were last taken, and by whom
+    private final Set<StaticGameObject> changedStaticObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Object changedStaticObjectReader;
+    // Static objects that may have moved since the broadphase last took them
+    private final ArrayList<StaticGameObject> movedStaticObjects = new ArrayList<>();
+    private boolean tooManyMovedStaticObjects;
+    // Counts changes to the list of static objects not made by this level itself
+    private int staticObjectsVersion;
+    private int expectedStaticObjectModifications;
+    private ArrayList<ObjectPool<? extends GameObject>> objectPools = new ArrayList<>();
+    private int activeChunkRadius = -1;
+    private int activeMinColumn;
+    private int activeMaxColumn;
+    private int activeMinRow;
+    private int activeMaxRow;
+    private double activeMinX = Double.NEGATIVE_INFINITY;
+    private double activeMinY = Double.NEGATIVE_INFINITY;
+    private double activeMaxX = Double.POSITIVE_INFINITY;
+    private double activeMaxY = Double.POSITIVE_INFINITY;
+    private ArrayList<DynamicGameObject> activeDynamicObjects = new ArrayList<>();
+    private ArrayList<StaticGameObject> activeStaticObjects = new ArrayList<>();
+    // Static objects by the chunk containing their location, built when first needed
+    private ArrayList<ArrayList<StaticGameObject>> staticChunks;
+    private boolean staticChunksInvalid = true;
+    private int chunkedStaticObjectCount;
+    private double viewMinX;
+    private double viewMinY;
+    private double viewMaxX;
+    private double viewMaxY;
+    private double[] updateRingDistances;
+    private int[] updateRingCounts = new int[1];
+    private long updateFrame;
 
     protected boolean isLoaded;
     protected Vector2D playerStartLocation = new Vector2D(1.0, 1.0);
@@ -66,9 +150,26 @@ public abstract class Level {
      * @param name          the name of the level
      */
     public Level(Game game, PhysicsEngine physicsEngine, int width, int height, String name) {
+        this(game, physicsEngine, new SpatialHashGrid(), width, height, name);
+    }
+
+    /**
+     * Constructs a level associated with the given game and with the given physics
+     * engine, broadphase, width, height, and name.
+     * 
+     * @param game          the game this level is a part of
+     * @param physicsEngine the physics engine to be used
+     * @param broadPhase    the broadphase used to find possible collisions
+     * @param width         the width of the level, in tiles
+     * @param height        the height of the level, in tiles
+     * @param name          the name of the level
+     */
+    public Level(Game game, PhysicsEngine physicsEngine, BroadPhase broadPhase, int width, int height,
+            String name) {
         this.game = game;
         this.levelName = name;
         this.physicsEngine = physicsEngine;
+        this.broadPhase = broadPhase;
         this.width = width;
         this.height = height;
         this.isLoaded = false;
@@ -129,6 +230,29 @@ public abstract class Level {
         return physicsEngine;
     }
 
+    /**
+     * Returns the broadphase used by the physics engine to find which objects may
+     * be colliding within this level.
+     * 
+     * @return the broadphase
+     */
+    public BroadPhase getBroadPhase() {
+        return this.broadPhase;
+    }
+
+    /**
+     * Sets the broadphase used by the physics engine to find which objects may be
+     * colliding within this level. Which broadphase is fastest depends on the
+     * layout of the level, and changing it does not change how collisions behave.
+     * 
+     * @param broadPhase the broadphase
+     */
+    public void setBroadPhase(BroadPhase broadPhase) {
+        this.broadPhase = broadPhase;
+        this.broadPhase.invalidate();
+        this.queryIndexInvalid = true;
+    }
+
     /**
      * Returns the name of the level.
      * 
@@ -192,6 +316,11 @@ public abstract class Level {
         this.getPlayer().setLocation(playerLocation.getX(), playerLocation.getY());
         this.dynamicObjects.removeIf(GameObject::isPlayer);
         this.dynamicObjects.add(this.getPlayer());
+        this.broadPhase.invalidate();
+        this.queryIndexInvalid = true;
+        this.tileGridInvalid = true;
+        this.staticChunksInvalid = true;
+        this.physicsEngine.clearContacts();
         // Effects
         this.activeEffects.clear();
         this.dynamicObjects.forEach(DynamicGameObject::onSpawn);
@@ -218,6 +347,9 @@ public abstract class Level {
         this.staticObjects.forEach(GameObject::reset);
         this.dynamicObjectsToAdd.clear();
         this.staticObjectsToAdd.clear();
+        this.objectPools.forEach(ObjectPool::releaseAll);
+        // Objects may have been put back that this level hasn't seen since
+        this.hasDestroyedObjects = true;
         // Reset player
         this.getPlayer().reset();
         this.getPlayer().setLocation(playerStartLocation.getX(), playerStartLocation.getY());
@@ -227,6 +359,11 @@ public abstract class Level {
         // Reset controls
         this.keyboardControls.reset();
         this.mouseControls.reset();
+        this.broadPhase.invalidate();
+        this.queryIndexInvalid = true;
+        this.tileGridInvalid = true;
+        this.staticChunksInvalid = true;
+        this.physicsEngine.clearContacts();
         // Effects
         this.activeEffects.clear();
         this.dynamicObjects.forEach(DynamicGameObject::onSpawn);
@@ -247,6 +384,118 @@ public abstract class Level {
 
     }
 
+    /**
+     * Takes a snapshot of the current state of this level, which can be restored
+     * later with {@link #restoreSnapshot(LevelSnapshot)}.
+     * 
+     * @return the snapshot
+     * @see #takeSnapshot(LevelSnapshot)
+     */
+    public LevelSnapshot takeSnapshot() {
+        LevelSnapshot snapshot = new LevelSnapshot();
+        this.takeSnapshot(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Takes a snapshot of the current state of this level into the given snapshot,
+     * replacing whatever it held. This includes the playtime, score, which objects
+     * are in the level, the state each object saves with
+     * {@link GameObject#saveState(LevelSnapshot)}, and any other state this level
+     * saves with {@link #saveState(LevelSnapshot)}. Reusing the same snapshot
+     * avoids allocating each time one is taken, for example when saving a
+     * checkpoint every few seconds.
+     * <p>
+     * Objects added during the current update, which haven't yet been added to the
+     * level, aren't included. Objects returned to an {@link ObjectPool} after the
+     * snapshot is taken may be reused, and so shouldn't be restored.
+     * 
+     * @param snapshot the snapshot to write to
+     */
+    public void takeSnapshot(LevelSnapshot snapshot) {
+        snapshot.clear();
+        snapshot.writeDouble(this.playtime);
+        snapshot.writeDouble(this.score);
+        snapshot.writeInt(this.staticObjects.size());
+        for (int i = 0; i < this.staticObjects.size(); i++) {
+            snapshot.writeReference(this.staticObjects.get(i));
+            this.staticObjects.get(i).saveState(snapshot);
+        }
+        snapshot.writeInt(this.dynamicObjects.size());
+        for (int i = 0; i < this.dynamicObjects.size(); i++) {
+            snapshot.writeReference(this.dynamicObjects.get(i));
+            this.dynamicObjects.get(i).saveState(snapshot);
+        }
+        this.saveState(snapshot);
+    }
+
+    /**
+     * Restores this level to the state saved in the given snapshot, which must
+     * have been taken from this level. Unlike {@link #reset()}, objects are not
+     * reset or spawned again, and {@link #onStart()} is not called, so restoring a
+     * snapshot puts the level back exactly as it was. Active effects are removed.
+     * 
+     * @param snapshot the snapshot to restore
+     * @see #takeSnapshot(LevelSnapshot)
+     */
+    public void restoreSnapshot(LevelSnapshot snapshot) {
+        snapshot.rewind();
+        this.playtime = snapshot.readDouble();
+        this.score = snapshot.readDouble();
+        this.staticObjects.clear();
+        for (int i = snapshot.readInt(); i > 0; i--) {
+            StaticGameObject object = snapshot.readReference();
+            object.restoreState(snapshot);
+            this.staticObjects.add(object);
+        }
+        this.dynamicObjects.clear();
+        for (int i = snapshot.readInt(); i > 0; i--) {
+            DynamicGameObject object = snapshot.readReference();
+            object.restoreState(snapshot);
+            this.dynamicObjects.add(object);
+        }
+        this.dynamicObjectsToAdd.clear();
+        this.staticObjectsToAdd.clear();
+        this.hasDestroyedObjects = true;
+        this.broadPhase.invalidate();
+        this.queryIndexInvalid = true;
+        this.tileGridInvalid = true;
+        this.staticChunksInvalid = true;
+        this.physicsEngine.clearContacts();
+        this.activeEffects.clear();
+        this.restoreState(snapshot);
+    }
+
+    /**
+     * Writes any state of this level that changes while it is played, besides its
+     * playtime, score, and objects, to a snapshot. Subclasses with such state, such
+     * as timers or counters, should override this to write it, along with
+     * {@link #restoreState(LevelSnapshot)} to read it back in the same order.
+     * <p>
+     * By default, this does nothing.
+     * 
+     * @param snapshot the snapshot to write to
+     * @see #takeSnapshot(LevelSnapshot)
+     */
+    protected void saveState(LevelSnapshot snapshot) {
+
+    }
+
+    /**
+     * Restores the state of this level written by
+     * {@link #saveState(LevelSnapshot)}. This is called after every object has
+     * been restored and put back in the level, so anything derived from the
+     * objects can be rebuilt from them.
+     * <p>
+     * By default, this does nothing.
+     * 
+     * @param snapshot the snapshot to read from
+     * @see #restoreSnapshot(LevelSnapshot)
+     */
+    protected void restoreState(LevelSnapshot snapshot) {
+
+    }
+
     /**
      * Returns the {@code Background} used by this level. That background can either
      * be tiled or use one or more background images.
@@ -293,6 +542,7 @@ public abstract class Level {
      * @param object the object to add
      */
     public void addStaticObject(StaticGameObject object) {
+        object.setLevel(this);
         if (!this.isLoaded) {
             this.staticObjects.add(object);
         } else {
@@ -323,6 +573,7 @@ public abstract class Level {
      * @param object the object to add
      */
     public void addDynamicObject(DynamicGameObject object) {
+        object.setLevel(this);
         if (!this.isLoaded) {
             this.dynamicObjects.add(object);
         } else {
@@ -330,6 +581,649 @@ public abstract class Level {
         }
     }
 
+    /**
+     * Records that an object in this level was destroyed, so that destroyed
+     * objects are looked for and removed during the next update. This is called
+     * by {@link GameObject#destroy()}, so that levels only look for destroyed
+     * objects on frames when one of their own objects was destroyed.
+     */
+    public void objectDestroyed() {
+        this.hasDestroyedObjects = true;
+    }
+
+    /**
+     * Called by the lists of objects whenever an object is added to them, so that
+     * the object knows which level it is in however it was added.
+     */
+    void objectAdded(GameObject object) {
+        object.setLevel(this);
+        if (object.isDestroyed()) {
+            this.hasDestroyedObjects = true;
+        }
+        if (object instanceof StaticGameObject staticObject) {
+            this.recordChangedStaticObject(staticObject);
+        }
+    }
+
+    /**
+     * Records that the sprite of a static object in this level has changed. This
+     * is called by {@link StaticGameObject#spriteChanged()}, and each object is
+     * only recorded once until the changes are taken. Static objects added to
+     * this level are recorded in the same way.
+     * 
+     * @param object the static object that changed
+     */
+    public void staticObjectChanged(StaticGameObject object) {
+        this.recordChangedStaticObject(object);
+        if (this.movedStaticObjects.size() < this.staticObjects.size()) {
+            this.movedStaticObjects.add(object);
+        } else {
+            // Checking every static object is then just as fast
+            this.movedStaticObjects.clear();
+            this.tooManyMovedStaticObjects = true;
+        }
+    }
+
+    private void recordChangedStaticObject(StaticGameObject object) {
+        this.changedStaticObjects.add(object);
+        if (this.changedStaticObjects.size() > this.staticObjects.size()) {
+            // Checking every static object is then just as fast, so forget them
+            this.changedStaticObjects.clear();
+            this.changedStaticObjectReader = null;
+        }
+    }
+
+    /**
+     * Adds every static object that was added or whose sprite changed since the
+     * changes were last taken to {@code changed}, and forgets them. Only one
+     * reader, such as the renderer drawing this level, should take the changes.
+     * If a different reader took them last, or there were too many changes to
+     * remember, some changes may have been missed, so {@code false} is returned
+     * and every static object should be checked instead.
+     * 
+     * @param reader  the object taking the changes
+     * @param changed the collection to add changed objects to
+     * @return whether every change since {@code reader} last took them was added
+     */
+    public boolean takeChangedStaticObjects(Object reader, Collection<? super StaticGameObject> changed) {
+        boolean complete = reader == this.changedStaticObjectReader;
+        this.changedStaticObjectReader = reader;
+        changed.addAll(this.changedStaticObjects);
+        this.changedStaticObjects.clear();
+        return complete;
+    }
+
+    /**
+     * Adds every static object that may have moved since they were last taken to
+     * {@code moved}, and forgets them. This is used by the level's
+     * {@link BroadPhase}, so that only static objects that changed are looked at
+     * each frame. If too many objects moved to list them all, {@code false} is
+     * returned and every static object should be checked instead.
+     * 
+     * @param moved the collection to add moved objects to
+     * @return whether every object that may have moved was added
+     * @see #getStaticObjectsVersion()
+     */
+    public boolean takeMovedStaticObjects(Collection<? super StaticGameObject> moved) {
+        boolean complete = !this.tooManyMovedStaticObjects;
+        moved.addAll(this.movedStaticObjects);
+        this.movedStaticObjects.clear();
+        this.tooManyMovedStaticObjects = false;
+        return complete;
+    }
+
+    /**
+     * Returns a number that changes whenever the list of static objects is
+     * modified in any way other than by this level, which adds objects from
+     * {@link #addStaticObject(StaticGameObject)} and removes destroyed objects
+     * itself, passing each change on to its {@link BroadPhase}. Anything else
+     * keeping track of the static objects, such as a broadphase, should check
+     * every static object again when this changes.
+     * 
+     * @return the version of the list of static objects
+     */
+    public int getStaticObjectsVersion() {
+        this.checkStaticObjectEdits();
+        return this.staticObjectsVersion;
+    }
+
+    /**
+     * Notices changes to the list of static objects made from outside this level,
+     * so that everything indexing the static objects is rebuilt.
+     */
+    private void checkStaticObjectEdits() {
+        if (this.staticObjectList.getModificationCount() != this.expectedStaticObjectModifications) {
+            this.expectedStaticObjectModifications = this.staticObjectList.getModificationCount();
+            this.staticObjectsVersion++;
+            this.queryIndexInvalid = true;
+            this.tileGridInvalid = true;
+            this.staticChunksInvalid = true;
+        }
+    }
+
+    /**
+     * Records changes this level made to the list of static objects itself, which
+     * were passed on to everything indexing them.
+     */
+    private void acceptStaticObjectEdits() {
+        this.expectedStaticObjectModifications = this.staticObjectList.getModificationCount();
+    }
+
+    /**
+     * Registers a pool of objects with this level. Objects obtained from the pool
+     * are returned to it once they are destroyed and removed from the level, and
+     * all of them are returned when the level is reset, so they can be reused
+     * without creating new objects. Objects from the pool should be added while
+     * the level is running, such as with {@link #addDynamicObject(DynamicGameObject)},
+     * and a pool should only be registered with one level.
+     * 
+     * @param pool the pool to register
+     */
+    public void addObjectPool(ObjectPool<? extends GameObject> pool) {
+        if (!this.objectPools.contains(pool)) {
+            this.objectPools.add(pool);
+        }
+    }
+
+    /**
+     * Returns how many chunks around the visible portion of this level are
+     * active, or a negative number if every object is always active.
+     * 
+     * @return the active chunk radius
+     * @see #setActiveChunkRadius(int)
+     */
+    public int getActiveChunkRadius() {
+        return this.activeChunkRadius;
+    }
+
+    /**
+     * Sets how many chunks around the visible portion of this level are active.
+     * The level is divided into square chunks of {@link #CHUNK_SIZE} tiles, and
+     * each object belongs to the chunk containing its location. At the start of
+     * each update, the chunks overlapping the part of the level that would be
+     * visible, centered on the player, are found, along with {@code radius} more
+     * chunks in every direction. Only objects in those chunks, and the player,
+     * are updated, moved by the physics engine, and checked for collisions with
+     * other dynamic objects. Objects in every other chunk are frozen exactly as
+     * they are, though active objects still collide with frozen static objects.
+     * Static objects are assumed to stay within the chunk they were added to.
+     * <p>
+     * This lets very large levels run as quickly as small ones, but objects far
+     * from the player stop moving, so it should only be used where that isn't
+     * noticeable. By default, the radius is negative, and every object is always
+     * active.
+     * 
+     * @param radius the number of chunks around the visible portion of the level
+     *               to keep active, or a negative number to keep every object
+     *               active
+     * @see #isActive(GameObject)
+     */
+    public void setActiveChunkRadius(int radius) {
+        this.activeChunkRadius = Math.max(radius, -1);
+        if (this.activeChunkRadius < 0) {
+            this.activeMinX = Double.NEGATIVE_INFINITY;
+            this.activeMinY = Double.NEGATIVE_INFINITY;
+            this.activeMaxX = Double.POSITIVE_INFINITY;
+            this.activeMaxY = Double.POSITIVE_INFINITY;
+            this.staticChunks = null;
+        }
+    }
+
+    /**
+     * Returns whether the given object is in an active chunk of this level, as of
+     * the start of the last update. The player is always active.
+     * 
+     * @param object the object
+     * @return {@code true} if the object is active, {@code false} if it is frozen
+     * @see #setActiveChunkRadius(int)
+     */
+    public boolean isActive(GameObject object) {
+        if (this.activeChunkRadius < 0 || object.isPlayer()) {
+            return true;
+        }
+        double x = object.getLocation().getX();
+        double y = object.getLocation().getY();
+        return x >= this.activeMinX && x < this.activeMaxX && y >= this.activeMinY && y < this.activeMaxY;
+    }
+
+    /**
+     * Returns the distances that divide the objects outside the visible portion of
+     * this level into rings, or an empty array if every object is updated every
+     * frame.
+     * 
+     * @return a copy of the ring distances, in tiles
+     * @see #setUpdateRingDistances(double...)
+     */
+    public double[] getUpdateRingDistances() {
+        return this.updateRingDistances == null ? new double[0] : this.updateRingDistances.clone();
+    }
+
+    /**
+     * Sets the distances, in tiles, that divide the objects outside the visible
+     * portion of this level into rings that are updated less often. Objects that
+     * are at least partly visible are in ring {@code 0}, and are updated every
+     * frame. Objects within the first distance of the visible area are in ring
+     * {@code 1}, those within the second distance are in ring {@code 2}, and so
+     * on, with objects beyond the last distance in the outermost ring. Objects in
+     * ring {@code k} are only updated once every {@code 2^k} frames, and are
+     * given the total time since their last update, so that they behave the same
+     * overall. Objects in the same ring are spread across frames, so that they
+     * aren't all updated at once.
+     * <p>
+     * Physics are unaffected, so objects keep moving and colliding every frame.
+     * Only {@link GameObject#update(double, Level)}, which also advances
+     * animations and removes finished effects, is skipped. Objects that must be
+     * updated every frame can override {@link GameObject#canSkipUpdates()}. By
+     * default, there are no rings, and every object is updated every frame.
+     * 
+     * @param distances the distance from the visible area to the outside of each
+     *                  ring, in tiles, or no distances to update every object
+     *                  every frame
+     * @see #getUpdateRingCount(int)
+     */
+    public void setUpdateRingDistances(double... distances) {
+        if (distances == null || distances.length == 0) {
+            this.updateRingDistances = null;
+            this.updateRingCounts = new int[1];
+        } else {
+            this.updateRingDistances = distances.clone();
+            Arrays.sort(this.updateRingDistances);
+            this.updateRingCounts = new int[this.updateRingDistances.length + 2];
+        }
+    }
+
+    /**
+     * Returns the number of objects that were in the given ring during the last
+     * update, whether or not they were updated. This is useful for tuning the
+     * distances given to {@link #setUpdateRingDistances(double...)}. If there
+     * are no rings, every object is counted in ring {@code 0}.
+     * 
+     * @param ring the ring, where {@code 0} is the visible area
+     * @return the number of objects in the ring
+     */
+    public int getUpdateRingCount(int ring) {
+        return ring >= 0 && ring < this.updateRingCounts.length ? this.updateRingCounts[ring] : 0;
+    }
+
+    /**
+     * Returns the dynamic objects in the active chunks of this level, in the same
+     * order as {@link #getDynamicObjects()}. If every object is active, this is
+     * the list returned by {@link #getDynamicObjects()}. Otherwise it is found
+     * again at the start of each update, and should not be modified.
+     * 
+     * @return a list of the active dynamic objects
+     * @see #setActiveChunkRadius(int)
+     */
+    public ArrayList<DynamicGameObject> getActiveDynamicObjects() {
+        return this.activeChunkRadius < 0 ? this.getDynamicObjects() : this.activeDynamicObjects;
+    }
+
+    /**
+     * Returns the static objects in the active chunks of this level. If every
+     * object is active, this is the list returned by {@link #getStaticObjects()}.
+     * Otherwise it is found again at the start of each update, chunk by chunk,
+     * and should not be modified.
+     * 
+     * @return a list of the active static objects
+     * @see #setActiveChunkRadius(int)
+     */
+    public ArrayList<StaticGameObject> getActiveStaticObjects() {
+        return this.activeChunkRadius < 0 ? this.getStaticObjects() : this.activeStaticObjects;
+    }
+
+    /**
+     * Returns every object whose hitbox overlaps the given area. Objects that only
+     * touch the edge of the area are not included. Static objects come first,
+     * followed by dynamic objects, each in the same order as their lists.
+     * 
+     * @param minX the left edge of the area
+     * @param minY the top edge of the area
+     * @param maxX the right edge of the area
+     * @param maxY the bottom edge of the area
+     * @return a list of the objects in the area
+     * @see #queryRegion(double, double, double, double, GameObjectVisitor)
+     */
+    public ArrayList<GameObject> queryRegion(double minX, double minY, double maxX, double maxY) {
+        ArrayList<GameObject> results = new ArrayList<>();
+        this.queryRegion(minX, minY, maxX, maxY, results::add);
+        return results;
+    }
+
+    /**
+     * Visits every object whose hitbox overlaps the given area, in the same order
+     * as {@link #queryRegion(double, double, double, double)}, without building a
+     * list of results.
+     * <p>
+     * Objects are found using this level's {@link BroadPhase}, so only those
+     * near the area are checked. Dynamic objects that may have moved since the
+     * broadphase last saw them are refreshed first: after the physics update,
+     * only the objects that have been updated since the last query are
+     * refreshed, so each object is refreshed at most once per update. Objects
+     * moved by anything other than the physics engine or their own update may
+     * not be found until they are next updated. Queries may be nested, such as
+     * by querying the level again from within the visitor, but must not be run
+     * from several threads at once.
+     * 
+     * @param minX    the left edge of the area
+     * @param minY    the top edge of the area
+     * @param maxX    the right edge of the area
+     * @param maxY    the bottom edge of the area
+     * @param visitor the callback for each object found
+     * @return {@code true} if every object was visited, {@code false} if the
+     *         visitor stopped the query early
+     */
+    public boolean queryRegion(double minX, double minY, double maxX, double maxY, GameObjectVisitor visitor) {
+        return this.query(QUERY_REGION, minX, minY, maxX, maxY, 0, 0, 0, false, visitor);
+    }
+
+    /**
+     * Visits every static object whose hitbox overlaps the given area, in list
+     * order, without visiting any dynamic objects. This is the same as
+     * {@link #queryRegion(double, double, double, double, GameObjectVisitor)},
+     * but faster when only static objects are wanted.
+     * 
+     * @param minX    the left edge of the area
+     * @param minY    the top edge of the area
+     * @param maxX    the right edge of the area
+     * @param maxY    the bottom edge of the area
+     * @param visitor the callback for each static object found
+     * @return {@code true} if every object was visited, {@code false} if the
+     *         visitor stopped the query early
+     */
+    public boolean queryStaticRegion(double minX, double minY, double maxX, double maxY,
+            GameObjectVisitor visitor) {
+        return this.query(QUERY_REGION, minX, minY, maxX, maxY, 0, 0, 0, true, visitor);
+    }
+
+    /**
+     * Returns every object whose hitbox is closer than {@code radius} to the given
+     * center, in the same order as
+     * {@link #queryRegion(double, double, double, double)}. An object whose hitbox
+     * contains the center is at a distance of zero.
+     * 
+     * @param center the center of the circle
+     * @param radius the radius of the circle
+     * @return a list of the objects in the circle
+     * @see #queryRadius(Vector2D, double, GameObjectVisitor)
+     */
+    public ArrayList<GameObject> queryRadius(Vector2D center, double radius) {
+        ArrayList<GameObject> results = new ArrayList<>();
+        this.queryRadius(center, radius, results::add);
+        return results;
+    }
+
+    /**
+     * Visits every object whose hitbox is closer than {@code radius} to the given
+     * center, without building a list of results.
+     * 
+     * @param center  the center of the circle
+     * @param radius  the radius of the circle
+     * @param visitor the callback for each object found
+     * @return {@code true} if every object was visited, {@code false} if the
+     *         visitor stopped the query early
+     * @see #queryRegion(double, double, double, double, GameObjectVisitor)
+     */
+    public boolean queryRadius(Vector2D center, double radius, GameObjectVisitor visitor) {
+        double x = center.getX();
+        double y = center.getY();
+        return this.query(QUERY_RADIUS, x - radius, y - radius, x + radius, y + radius, x, y, radius, false,
+                visitor);
+    }
+
+    /**
+     * Returns every object whose hitbox contains the given point, in the same
+     * order as {@link #queryRegion(double, double, double, double)}. A point on
+     * the left or top edge of a hitbox is inside it, and a point on the right or
+     * bottom edge is not, so a point on the edge between two tiles is only in one
+     * of them.
+     * 
+     * @param point the point
+     * @return a list of the objects containing the point
+     * @see #queryPoint(Vector2D, GameObjectVisitor)
+     */
+    public ArrayList<GameObject> queryPoint(Vector2D point) {
+        ArrayList<GameObject> results = new ArrayList<>();
+        this.queryPoint(point, results::add);
+        return results;
+    }
+
+    /**
+     * Visits every object whose hitbox contains the given point, without building
+     * a list of results.
+     * 
+     * @param point   the point
+     * @param visitor the callback for each object found
+     * @return {@code true} if every object was visited, {@code false} if the
+     *         visitor stopped the query early
+     * @see #queryPoint(Vector2D)
+     * @see #queryRegion(double, double, double, double, GameObjectVisitor)
+     */
+    public boolean queryPoint(Vector2D point, GameObjectVisitor visitor) {
+        double x = point.getX();
+        double y = point.getY();
+        return this.query(QUERY_POINT, Math.nextDown(x), Math.nextDown(y), Math.nextUp(x), Math.nextUp(y), x, y, 0,
+                false, visitor);
+    }
+
+    private boolean query(int shape, double minX, double minY, double maxX, double maxY, double x, double y,
+            double radius, boolean staticOnly, GameObjectVisitor visitor) {
+        this.syncQueryIndex();
+        if (!staticOnly) {
+            this.refreshMovedDynamicObjects();
+        }
+        // Each level of nesting gets its own lists, so that visitors can query again
+        if (this.queryDepth == this.queryCandidates.size()) {
+            this.queryCandidates.add(new ArrayList<>());
+            this.queryDynamicCandidates.add(new ArrayList<>());
+        }
+        ArrayList<StaticGameObject> candidates = this.queryCandidates.get(this.queryDepth);
+        ArrayList<DynamicGameObject> dynamicCandidates = this.queryDynamicCandidates.get(this.queryDepth);
+        this.queryDepth++;
+        try {
+            this.broadPhase.queryStaticObjects(minX, minY, maxX, maxY, candidates);
+            for (int i = 0; i < candidates.size(); i++) {
+                StaticGameObject object = candidates.get(i);
+                if (matches(object, shape, minX, minY, maxX, maxY, x, y, radius) && !visitor.visit(object)) {
+                    return false;
+                }
+            }
+            if (staticOnly) {
+                return true;
+            }
+            this.broadPhase.queryDynamicObjects(minX, minY, maxX, maxY, dynamicCandidates);
+            for (int i = 0; i < dynamicCandidates.size(); i++) {
+                DynamicGameObject object = dynamicCandidates.get(i);
+                if (matches(object, shape, minX, minY, maxX, maxY, x, y, radius) && !visitor.visit(object)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            candidates.clear();
+            dynamicCandidates.clear();
+            this.queryDepth--;
+        }
+    }
+
+    private void syncQueryIndex() {
+        this.checkStaticObjectEdits();
+        if (this.queryIndexInvalid || !this.movedStaticObjects.isEmpty() || this.tooManyMovedStaticObjects
+                || this.indexedStaticObjectCount != this.staticObjects.size()
+                || this.indexedDynamicObjectCount != this.dynamicObjects.size()) {
+            this.broadPhase.update(this);
+            this.queryIndexInvalid = false;
+            this.indexedStaticObjectCount = this.staticObjects.size();
+            this.indexedDynamicObjectCount = this.dynamicObjects.size();
+            this.refreshedDynamicObjectCount = this.movedDynamicObjectCount;
+        }
+    }
+
+    /**
+     * Refreshes the active dynamic objects that may have moved since they were
+     * last refreshed, which after the physics update is only those updated since
+     * the last query.
+     */
+    private void refreshMovedDynamicObjects() {
+        ArrayList<DynamicGameObject> dynamicObjects = this.getActiveDynamicObjects();
+        int moved = Math.min(this.movedDynamicObjectCount, dynamicObjects.size());
+        for (int i = this.refreshedDynamicObjectCount; i < moved; i++) {
+            this.broadPhase.refresh(dynamicObjects.get(i));
+        }
+        this.refreshedDynamicObjectCount = Math.max(this.refreshedDynamicObjectCount, moved);
+    }
+
+    /**
+     * Casts a ray through the level and returns the first object it enters, or
+     * {@code null} if it doesn't reach any object. Only objects whose collision
+     * layers overlap {@code layerMask} are hit, and objects that the ray starts
+     * inside of are ignored.
+     * 
+     * @param origin      the point the ray starts from
+     * @param direction   the direction of the ray, which doesn't need to be a unit
+     *                    vector
+     * @param maxDistance how far the ray reaches, in tiles
+     * @param layerMask   the collision layers that the ray can hit, as a bitfield
+     *                    of {@code CollisionLayers}
+     * @return the first hit, or {@code null} if nothing was hit
+     * @see #raycast(Vector2D, Vector2D, double, int, RaycastHit)
+     */
+    public RaycastHit raycast(Vector2D origin, Vector2D direction, double maxDistance, int layerMask) {
+        RaycastHit hit = new RaycastHit();
+        return this.raycast(origin, direction, maxDistance, layerMask, hit) ? hit : null;
+    }
+
+    /**
+     * Casts a ray through the level and stores the first object it enters in
+     * {@code hit}, so that no objects are created.
+     * <p>
+     * Static objects that exactly fill a single tile, such as walls, are found by
+     * stepping through the tiles that the ray passes through in order, stopping
+     * at the first hit. Other static objects are found using this level's
+     * {@link BroadPhase}, and dynamic objects are checked directly. Raycasts must
+     * not be run from several threads at once.
+     * 
+     * @param origin      the point the ray starts from
+     * @param direction   the direction of the ray, which doesn't need to be a unit
+     *                    vector
+     * @param maxDistance how far the ray reaches, in tiles
+     * @param layerMask   the collision layers that the ray can hit, as a bitfield
+     *                    of {@code CollisionLayers}
+     * @param hit         where to store the first hit
+     * @return {@code true} if anything was hit, {@code false} otherwise
+     * @see #hasLineOfSight(GameObject, GameObject)
+     */
+    public boolean raycast(Vector2D origin, Vector2D direction, double maxDistance, int layerMask, RaycastHit hit) {
+        double length = Math.hypot(direction.getX(), direction.getY());
+        hit.set(null, Double.POSITIVE_INFINITY, 0, 0);
+        if (length == 0 || Double.isNaN(length)) {
+            return false;
+        }
+        return this.raycast(origin.getX(), origin.getY(), direction.getX() / length, direction.getY() / length,
+                maxDistance, layerMask, false, null, hit);
+    }
+
+    /**
+     * Returns whether there is a clear line between the centers of the hitboxes
+     * of two objects. Only solid static objects, such as walls, block the line.
+     * 
+     * @param from the object looking
+     * @param to   the object being looked at
+     * @return {@code true} if no solid static object is in the way
+     * @see #raycast(Vector2D, Vector2D, double, int, RaycastHit)
+     */
+    public boolean hasLineOfSight(GameObject from, GameObject to) {
+        Hitbox fromHitbox = from.getHitbox();
+        Hitbox toHitbox = to.getHitbox();
+        double x = (fromHitbox.getMinX() + fromHitbox.getMaxX()) / 2;
+        double y = (fromHitbox.getMinY() + fromHitbox.getMaxY()) / 2;
+        double dx = (toHitbox.getMinX() + toHitbox.getMaxX()) / 2 - x;
+        double dy = (toHitbox.getMinY() + toHitbox.getMaxY()) / 2 - y;
+        double distance = Math.hypot(dx, dy);
+        if (distance == 0) {
+            return true;
+        }
+        this.lineOfSightHit.set(null, Double.POSITIVE_INFINITY, 0, 0);
+        boolean blocked = this.raycast(x, y, dx / distance, dy / distance, distance, CollisionLayers.ALL, true, to,
+                this.lineOfSightHit);
+        this.lineOfSightHit.set(null, Double.POSITIVE_INFINITY, 0, 0);
+        return !blocked;
+    }
+
+    private boolean raycast(double x, double y, double dx, double dy, double maxDistance, int layerMask,
+            boolean solidStaticOnly, GameObject ignore, RaycastHit hit) {
+        this.checkStaticObjectEdits();
+        if (this.tileGrid == null || this.tileGridInvalid || this.tileGrid.size() != this.staticObjects.size()) {
+            this.tileGrid = new StaticTileGrid(this.width, this.height);
+            this.staticObjects.forEach(this.tileGrid::add);
+            this.tileGridInvalid = false;
+        }
+        this.tileGrid.raycast(x, y, dx, dy, maxDistance, layerMask, solidStaticOnly, ignore, hit);
+        // Static objects that don't fit the grid
+        double reach = Math.min(maxDistance, hit.getDistance());
+        ArrayList<StaticGameObject> unaligned = this.tileGrid.getUnalignedObjects();
+        if (unaligned.size() <= RAYCAST_UNALIGNED_LIMIT || Double.isInfinite(reach)) {
+            for (int i = 0; i < unaligned.size(); i++) {
+                raycastObject(unaligned.get(i), x, y, dx, dy, maxDistance, layerMask, solidStaticOnly, ignore, hit);
+            }
+        } else {
+            this.syncQueryIndex();
+            if (this.queryDepth == this.queryCandidates.size()) {
+                this.queryCandidates.add(new ArrayList<>());
+            }
+            ArrayList<StaticGameObject> candidates = this.queryCandidates.get(this.queryDepth++);
+            try {
+                // Padded so that objects entered exactly at the end of the ray are found
+                this.broadPhase.queryStaticObjects(Math.min(x, x + dx * reach) - 1, Math.min(y, y + dy * reach) - 1,
+                        Math.max(x, x + dx * reach) + 1, Math.max(y, y + dy * reach) + 1, candidates);
+                for (int i = 0; i < candidates.size(); i++) {
+                    StaticGameObject object = candidates.get(i);
+                    if (!this.tileGrid.isAligned(object)) {
+                        raycastObject(object, x, y, dx, dy, maxDistance, layerMask, solidStaticOnly, ignore, hit);
+                    }
+                }
+            } finally {
+                candidates.clear();
+                this.queryDepth--;
+            }
+        }
+        if (!solidStaticOnly) {
+            for (int i = 0; i < this.dynamicObjects.size(); i++) {
+                raycastObject(this.dynamicObjects.get(i), x, y, dx, dy, maxDistance, layerMask, false, ignore, hit);
+            }
+        }
+        return hit.getObject() != null;
+    }
+
+    private static void raycastObject(GameObject object, double x, double y, double dx, double dy,
+            double maxDistance, int layerMask, boolean solidOnly, GameObject ignore, RaycastHit hit) {
+        if (object == ignore || (object.getCollisionLayer() & layerMask) == 0 || (solidOnly && !object.isSolid())) {
+            return;
+        }
+        double entry = RaycastHit.entryDistance(x, y, dx, dy, object.getHitbox());
+        if (entry <= maxDistance && entry < hit.getDistance()) {
+            hit.set(object, entry, x + dx * entry, y + dy * entry);
+        }
+    }
+
+    private static boolean matches(GameObject object, int shape, double minX, double minY, double maxX, double maxY,
+            double x, double y, double radius) {
+        Hitbox hitbox = object.getHitbox();
+        double objectMinX = hitbox.getMinX();
+        double objectMinY = hitbox.getMinY();
+        double objectMaxX = hitbox.getMaxX();
+        double objectMaxY = hitbox.getMaxY();
+        switch (shape) {
+            case QUERY_RADIUS:
+                double dx = x - Math.max(objectMinX, Math.min(x, objectMaxX));
+                double dy = y - Math.max(objectMinY, Math.min(y, objectMaxY));
+                return dx * dx + dy * dy < radius * radius;
+            case QUERY_POINT:
+                return objectMinX <= x && x < objectMaxX && objectMinY <= y && y < objectMaxY;
+            default:
+                return objectMinX < maxX && minX < objectMaxX && objectMinY < maxY && minY < objectMaxY;
+        }
+    }
+
     /**
      * Returns the starting location of the {@code Player} within the level. If it
      * has not been set, it defaults to (1, 1).
@@ -434,6 +1328,12 @@ public abstract class Level {
      * Returns a mapping of all {@link Effect}s that are currently active within the
      * level to their central point. These can be associated with the level itself
      * or any of the {@code GameObject}s within the level.
+     * <p>
+     * Effects of a {@code GameObject} are added the first time the level is
+     * updated after they are added to {@link GameObject#getEffects()}, and are
+     * mapped to the object's own location, so they follow it as it moves. Once
+     * the object is destroyed and removed, they stay where it was removed.
+     * Effects are removed from the mapping once they are finished.
      * 
      * @return a mapping of effects to their location
      */
@@ -466,32 +1366,287 @@ public abstract class Level {
             this.dynamicObjects.addAll(this.dynamicObjectsToAdd);
             this.dynamicObjectsToAdd.clear();
         }
+        this.checkStaticObjectEdits();
         if (!this.staticObjectsToAdd.isEmpty()) {
             this.staticObjects.addAll(this.staticObjectsToAdd);
+            this.acceptStaticObjectEdits();
+            this.staticObjectsToAdd.forEach(this.broadPhase::addStaticObject);
+            if (this.tileGrid != null) {
+                this.staticObjectsToAdd.forEach(this.tileGrid::add);
+            }
+            if (this.staticChunks != null) {
+                this.staticObjectsToAdd.forEach(object -> this.staticChunks.get(this.chunkOf(object)).add(object));
+                this.chunkedStaticObjectCount += this.staticObjectsToAdd.size();
+            }
+            this.indexedStaticObjectCount += this.staticObjectsToAdd.size();
             this.staticObjectsToAdd.clear();
+            this.wakeDynamicObjects();
         }
         this.playtime += dt;
-        this.dynamicObjects.removeIf(GameObject::isDestroyed);
-        this.staticObjects.removeIf(GameObject::isDestroyed);
+        this.removeDestroyedObjects();
+        if (this.activeChunkRadius >= 0 || this.updateRingDistances != null) {
+            this.updateViewBounds();
+        }
+        this.updateActiveChunks();
+        // The physics engine syncs the broadphase before handling any collisions,
+        // so queries made from collision callbacks don't need to sync it again
+        this.queryIndexInvalid = false;
+        this.indexedStaticObjectCount = this.staticObjects.size();
+        this.indexedDynamicObjectCount = this.dynamicObjects.size();
+        this.movedDynamicObjectCount = 0;
+        this.refreshedDynamicObjectCount = 0;
         this.physicsEngine.updateLevel(dt, this);
-        for (int i = 0; i < this.getDynamicObjects().size(); i++) {
-            DynamicGameObject object = this.getDynamicObjects().get(i);
-            object.update(dt, this);
-            object.getEffects().forEach(a -> this.activeEffects.put(a, object.getLocation().copy()));
-        }
-        for (int i = 0; i < this.getStaticObjects().size(); i++) {
-            StaticGameObject object = this.getStaticObjects().get(i);
-            object.update(dt, this);
-            object.getEffects().forEach(a -> this.activeEffects.put(a, object.getLocation().copy()));
-        }
-        this.dynamicObjects.removeIf(GameObject::isDestroyed);
-        this.staticObjects.removeIf(GameObject::isDestroyed);
+        ArrayList<DynamicGameObject> dynamicObjects = this.getActiveDynamicObjects();
+        Arrays.fill(this.updateRingCounts, 0);
+        this.updateFrame++;
+        for (int i = 0; i < dynamicObjects.size(); i++) {
+            // Objects may move themselves when updated
+            this.movedDynamicObjectCount = i + 1;
+            this.updateObject(dynamicObjects.get(i), dt, i);
+        }
+        this.movedDynamicObjectCount = Integer.MAX_VALUE;
+        ArrayList<StaticGameObject> staticObjects = this.getActiveStaticObjects();
+        for (int i = 0; i < staticObjects.size(); i++) {
+            this.updateObject(staticObjects.get(i), dt, i);
+        }
+        this.removeDestroyedObjects();
         if (Settings.showHitboxes()) {
             this.dynamicObjects.forEach(a -> a.showHitbox());
             this.staticObjects.forEach(a -> a.showHitbox());
         }
-        this.activeEffects.forEach((k, v) -> k.update(dt));
-        this.activeEffects.entrySet().removeIf(e -> e.getKey().isFinished());
+        this.activeEffects.keySet().removeIf(effect -> {
+            effect.update(dt);
+            return effect.isFinished();
+        });
+    }
+
+    /**
+     * Updates a single object, unless it is in a ring that isn't updated this
+     * frame, in which case the time is saved for its next update.
+     */
+    private void updateObject(GameObject object, double dt, int index) {
+        if (this.updateRingDistances == null) {
+            this.updateRingCounts[0]++;
+            if (object.getSkippedUpdateTime() != 0) {
+                // Left over from before the rings were removed
+                dt += object.getSkippedUpdateTime();
+                object.setSkippedUpdateTime(0);
+            }
+        } else {
+            int ring = this.getUpdateRing(object);
+            this.updateRingCounts[ring]++;
+            if (object.canSkipUpdates()) {
+                double time = object.getSkippedUpdateTime() + dt;
+                // Objects are given different turns using their index
+                if (((this.updateFrame + index) & ((1L << ring) - 1)) != 0) {
+                    object.setSkippedUpdateTime(time);
+                    return;
+                }
+                object.setSkippedUpdateTime(0);
+                dt = time;
+            }
+        }
+        object.update(dt, this);
+        this.addActiveEffects(object);
+    }
+
+    private int getUpdateRing(GameObject object) {
+        // Sprite bounds, as culled when drawing
+        double minX = object.getLocation().getX() + object.getSpriteOffsetX() / (double) Configuration.SPRITE_SIZE;
+        double minY = object.getLocation().getY() + object.getSpriteOffsetY() / (double) Configuration.SPRITE_SIZE;
+        double maxX = minX + object.getSpriteWidth() * object.getSpriteScaleX() / Configuration.SPRITE_SIZE;
+        double maxY = minY + object.getSpriteHeight() * object.getSpriteScaleY() / Configuration.SPRITE_SIZE;
+        double distance = Math.max(Math.max(this.viewMinX - maxX, minX - this.viewMaxX),
+                Math.max(this.viewMinY - maxY, minY - this.viewMaxY));
+        if (distance <= 0) {
+            return 0;
+        }
+        for (int i = 0; i < this.updateRingDistances.length; i++) {
+            if (distance <= this.updateRingDistances[i]) {
+                return i + 1;
+            }
+        }
+        return this.updateRingDistances.length + 1;
+    }
+
+    /**
+     * Adds any new effects of an object to the active effects, located at the
+     * object's own location vector, so that they follow the object without being
+     * updated every frame.
+     */
+    private void addActiveEffects(GameObject object) {
+        ArrayList<Effect> effects = object.getEffects();
+        for (int i = 0; i < effects.size(); i++) {
+            this.activeEffects.putIfAbsent(effects.get(i), object.getLocation());
+        }
+    }
+
+    private void releaseToObjectPool(GameObject object) {
+        for (int i = 0; i < this.objectPools.size(); i++) {
+            if (this.objectPools.get(i).release(object)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gives the active effects of an object that is being removed a copy of its
+     * location, so that they stay where the object was removed even if the object
+     * is later reused.
+     */
+    private void detachActiveEffects(GameObject object) {
+        ArrayList<Effect> effects = object.getEffects();
+        for (int i = 0; i < effects.size(); i++) {
+            if (this.activeEffects.get(effects.get(i)) == object.getLocation()) {
+                this.activeEffects.put(effects.get(i), object.getLocation().copy());
+            }
+        }
+    }
+
+    private void removeDestroyedObjects() {
+        // Only search the lists if an object in this level was destroyed, or added
+        // already destroyed, since the last search, as nothing can need removing
+        if (!this.hasDestroyedObjects) {
+            return;
+        }
+        this.hasDestroyedObjects = false;
+        this.dynamicObjects.removeIf(object -> {
+            if (object.isDestroyed()) {
+                this.detachActiveEffects(object);
+                this.releaseToObjectPool(object);
+                return true;
+            }
+            return false;
+        });
+        boolean removedStaticObjects = this.staticObjects.removeIf(object -> {
+            if (object.isDestroyed()) {
+                this.detachActiveEffects(object);
+                this.releaseToObjectPool(object);
+                this.broadPhase.removeStaticObject(object);
+                this.indexedStaticObjectCount--;
+                if (this.tileGrid != null) {
+                    this.tileGrid.remove(object);
+                }
+                if (this.staticChunks != null && this.staticChunks.get(this.chunkOf(object)).remove(object)) {
+                    this.chunkedStaticObjectCount--;
+                }
+                return true;
+            }
+            return false;
+        });
+        if (removedStaticObjects) {
+            this.acceptStaticObjectEdits();
+            this.wakeDynamicObjects();
+        }
+    }
+
+    /**
+     * Finds the part of the level that would be visible, computed the same way as
+     * the view that is drawn, but from the player's current location.
+     */
+    private void updateViewBounds() {
+        double centerX = this.playerStartLocation.getX();
+        double centerY = this.playerStartLocation.getY();
+        if (this.getPlayer() != null) {
+            centerX = this.getPlayer().getLocation().getX() + this.getPlayer().getSpriteDimensions().getX() / 2;
+            centerY = this.getPlayer().getLocation().getY() + this.getPlayer().getSpriteDimensions().getY() / 2;
+        }
+        int viewWidth = Math.min(this.getViewWidth(), this.width);
+        int viewHeight = Math.min(this.getViewHeight(), this.height);
+        this.viewMinX = Math.clamp(centerX - viewWidth / 2, 0, this.width - viewWidth);
+        this.viewMinY = Math.clamp(centerY - viewHeight / 2, 0, this.height - viewHeight);
+        this.viewMaxX = this.viewMinX + viewWidth;
+        this.viewMaxY = this.viewMinY + viewHeight;
+    }
+
+    /**
+     * Finds the active chunks around the visible part of the level, and the
+     * objects within them.
+     */
+    private void updateActiveChunks() {
+        if (this.activeChunkRadius < 0) {
+            return;
+        }
+        int columns = this.getChunkColumns();
+        int rows = this.getChunkRows();
+        this.activeMinColumn = Math.max((int) Math.floor(this.viewMinX / CHUNK_SIZE) - this.activeChunkRadius, 0);
+        this.activeMaxColumn = Math.min((int) Math.floor(this.viewMaxX / CHUNK_SIZE) + this.activeChunkRadius,
+                columns - 1);
+        this.activeMinRow = Math.max((int) Math.floor(this.viewMinY / CHUNK_SIZE) - this.activeChunkRadius, 0);
+        this.activeMaxRow = Math.min((int) Math.floor(this.viewMaxY / CHUNK_SIZE) + this.activeChunkRadius,
+                rows - 1);
+        // Objects outside the level belong to the nearest chunk
+        this.activeMinX = this.activeMinColumn == 0 ? Double.NEGATIVE_INFINITY
+                : this.activeMinColumn * CHUNK_SIZE;
+        this.activeMaxX = this.activeMaxColumn == columns - 1 ? Double.POSITIVE_INFINITY
+                : (this.activeMaxColumn + 1) * CHUNK_SIZE;
+        this.activeMinY = this.activeMinRow == 0 ? Double.NEGATIVE_INFINITY : this.activeMinRow * CHUNK_SIZE;
+        this.activeMaxY = this.activeMaxRow == rows - 1 ? Double.POSITIVE_INFINITY
+                : (this.activeMaxRow + 1) * CHUNK_SIZE;
+
+        this.activeDynamicObjects.clear();
+        for (int i = 0; i < this.dynamicObjects.size(); i++) {
+            if (this.isActive(this.dynamicObjects.get(i))) {
+                this.activeDynamicObjects.add(this.dynamicObjects.get(i));
+            }
+        }
+        if (this.staticChunks == null || this.staticChunksInvalid
+                || this.chunkedStaticObjectCount != this.staticObjects.size()) {
+            this.rebuildStaticChunks();
+        }
+        this.activeStaticObjects.clear();
+        for (int row = this.activeMinRow; row <= this.activeMaxRow; row++) {
+            for (int column = this.activeMinColumn; column <= this.activeMaxColumn; column++) {
+                this.activeStaticObjects.addAll(this.staticChunks.get(row * columns + column));
+            }
+        }
+    }
+
+    private void rebuildStaticChunks() {
+        int chunkCount = this.getChunkColumns() * this.getChunkRows();
+        if (this.staticChunks == null || this.staticChunks.size() != chunkCount) {
+            this.staticChunks = new ArrayList<>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                this.staticChunks.add(new ArrayList<>());
+            }
+        } else {
+            this.staticChunks.forEach(ArrayList::clear);
+        }
+        for (int i = 0; i < this.staticObjects.size(); i++) {
+            this.staticChunks.get(this.chunkOf(this.staticObjects.get(i))).add(this.staticObjects.get(i));
+        }
+        this.chunkedStaticObjectCount = this.staticObjects.size();
+        this.staticChunksInvalid = false;
+    }
+
+    private int chunkOf(GameObject object) {
+        int column = Math.clamp((long) Math.floor(object.getLocation().getX() / CHUNK_SIZE), 0,
+                this.getChunkColumns() - 1);
+        int row = Math.clamp((long) Math.floor(object.getLocation().getY() / CHUNK_SIZE), 0,
+                this.getChunkRows() - 1);
+        return row * this.getChunkColumns() + column;
+    }
+
+    private int getChunkColumns() {
+        return Math.max((this.width + CHUNK_SIZE - 1) / CHUNK_SIZE, 1);
+    }
+
+    private int getChunkRows() {
+        return Math.max((this.height + CHUNK_SIZE - 1) / CHUNK_SIZE, 1);
+    }
+
+    /**
+     * Wakes every sleeping dynamic object. Sleeping objects don't check for
+     * collisions with static objects, so they must be woken whenever static
+     * objects are added or removed, for example so that objects resting on a
+     * destroyed block fall.
+     */
+    private void wakeDynamicObjects() {
+        for (int i = 0; i < this.dynamicObjects.size(); i++) {
+            if (this.dynamicObjects.get(i).isSleeping()) {
+                this.dynamicObjects.get(i).wakeUp();
+            }
+        }
     }
 
     /**
@@ -0,0 +1,150 @@
+package app.gameengine;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import app.gameengine.model.gameobjects.GameObject;
+
+/**
+ * A saved copy of the state of a {@link Level} and every object within it, which
+ * can be restored later.
+ * <p>
+ * Numbers and flags are written one after another into a single byte buffer,
+ * and read back in the same order. Objects themselves, and other references
+ * such as animation state names, are kept in a separate list. The buffer and
+ * list are reused each time a snapshot is taken, so taking a snapshot into an
+ * existing {@code LevelSnapshot} doesn't allocate once it is large enough.
+ * <p>
+ * Objects write their state with {@link GameObject#saveState(LevelSnapshot)}
+ * and read it back with {@link GameObject#restoreState(LevelSnapshot)}, which
+ * subclasses with more state may override.
+ *
+ * @see Level#takeSnapshot(LevelSnapshot)
+ * @see Level#restoreSnapshot(LevelSnapshot)
+ */
+public class LevelSnapshot {
+
+    private ByteBuffer data = ByteBuffer.allocate(1024);
+    private final ArrayList<Object> references = new ArrayList<>();
+    private int readPosition;
+    private int readIndex;
+
+    /**
+     * Removes everything written to this snapshot, keeping its memory for reuse.
+     */
+    public void clear() {
+        this.data.clear();
+        this.references.clear();
+        this.rewind();
+    }
+
+    /**
+     * Starts reading this snapshot again from the beginning.
+     */
+    public void rewind() {
+        this.readPosition = 0;
+        this.readIndex = 0;
+    }
+
+    /**
+     * Returns the number of bytes written to this snapshot.
+     *
+     * @return the size of the snapshot, in bytes
+     */
+    public int size() {
+        return this.data.position();
+    }
+
+    /**
+     * Writes a number.
+     *
+     * @param value the value to write
+     */
+    public void writeDouble(double value) {
+        this.ensureCapacity(Double.BYTES);
+        this.data.putDouble(value);
+    }
+
+    /**
+     * Writes a number.
+     *
+     * @param value the value to write
+     */
+    public void writeInt(int value) {
+        this.ensureCapacity(Integer.BYTES);
+        this.data.putInt(value);
+    }
+
+    /**
+     * Writes a flag.
+     *
+     * @param value the value to write
+     */
+    public void writeBoolean(boolean value) {
+        this.ensureCapacity(1);
+        this.data.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Writes a reference to an object. The object itself is not copied, so it
+     * should either not change, such as a {@code String}, or have its own state
+     * saved separately.
+     *
+     * @param value the object to write
+     */
+    public void writeReference(Object value) {
+        this.references.add(value);
+    }
+
+    /**
+     * Reads the next number.
+     *
+     * @return the value read
+     */
+    public double readDouble() {
+        double value = this.data.getDouble(this.readPosition);
+        this.readPosition += Double.BYTES;
+        return value;
+    }
+
+    /**
+     * Reads the next number.
+     *
+     * @return the value read
+     */
+    public int readInt() {
+        int value = this.data.getInt(this.readPosition);
+        this.readPosition += Integer.BYTES;
+        return value;
+    }
+
+    /**
+     * Reads the next flag.
+     *
+     * @return the value read
+     */
+    public boolean readBoolean() {
+        return this.data.get(this.readPosition++) != 0;
+    }
+
+    /**
+     * Reads the next reference.
+     *
+     * @param <T> the type of the object
+     * @return the object read
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T readReference() {
+        return (T) this.references.get(this.readIndex++);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (this.data.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(this.data.capacity() * 2, this.data.position() + bytes));
+            this.data.flip();
+            larger.put(this.data);
+            this.data = larger;
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import app.Settings;
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.datastructures.LinkedListNode;
 import app.gameengine.model.physics.Vector2D;
 import app.gameengine.utils.Timer;
@@ -104,7 +105,7 @@ public abstract class Agent extends DynamicGameObject {
             tiles.clear();
             for (LinkedListNode<Vector2D> node = this.path; node != null; node = node.getNext()) {
                 PathTile tile = new PathTile(node.getValue().getX(), node.getValue().getY());
-                level.getStaticObjects().add(tile);
+                level.addStaticObject(tile);
                 tiles.add(tile);
             }
         } else if (!Settings.showPaths()) {
@@ -126,6 +127,26 @@ public abstract class Agent extends DynamicGameObject {
         this.tiles.clear();
     }
 
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        snapshot.writeDouble(this.movementSpeed);
+        snapshot.writeDouble(this.lastOrientation.getX());
+        snapshot.writeDouble(this.lastOrientation.getY());
+        snapshot.writeReference(this.path);
+        snapshot.writeDouble(this.timer.getElapsedTime());
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.movementSpeed = snapshot.readDouble();
+        this.lastOrientation.setX(snapshot.readDouble());
+        this.lastOrientation.setY(snapshot.readDouble());
+        this.path = snapshot.readReference();
+        this.timer.setElapsedTime(snapshot.readDouble());
+    }
+
     @Override
     public void destroy() {
         super.destroy();
@@ -1,6 +1,7 @@
 package app.gameengine.model.gameobjects;
 
 import app.gameengine.Game;
+import app.gameengine.model.physics.CollisionLayers;
 
 /**
  * A static object which is added to the player's inventory on collision.
@@ -12,6 +13,8 @@ public abstract class Collectible extends StaticGameObject {
 
     public Collectible(double x, double y, Game game, String itemID) {
         super(x, y);
+        this.setCollisionLayer(CollisionLayers.COLLECTIBLE);
+        this.setCollisionMask(CollisionLayers.PLAYER);
     }
 
     @Override
@@ -3,6 +3,7 @@ package app.gameengine.model.gameobjects;
 import app.display.common.sound.AudioManager;
 import app.gameengine.Game;
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.physics.Vector2D;
 import app.games.commonobjects.Projectile;
 
@@ -12,6 +13,10 @@ import app.games.commonobjects.Projectile;
  * One of the two main subsets of {@code GameObject}s, objects of this class are
  * capable of movement, through storing both velocity and orientation. They are
  * have health and are capable of taking damage and dying.
+ * <p>
+ * Objects that stay still for long enough fall asleep, and are skipped by the
+ * physics engine until they start moving again or something moving collides
+ * with them.
  * 
  * @see GameObject
  * @see StaticGameObject
@@ -20,11 +25,21 @@ import app.games.commonobjects.Projectile;
  */
 public abstract class DynamicGameObject extends GameObject {
 
+    /**
+     * The number of consecutive physics updates an object must spend without
+     * moving before it falls asleep.
+     */
+    public static final int FRAMES_UNTIL_SLEEP = 30;
+
     protected int maxHP;
     protected int hp;
     private boolean isOnGround = false;
     private final Vector2D velocity = new Vector2D(0.0, 0.0);
     private final Vector2D orientation = new Vector2D(0.0, 0.0);
+    private boolean sleeping = false;
+    private int idleFrames = 0;
+    private double lastX;
+    private double lastY;
 
     /**
      * Constructs a player with the given location and max HP.
@@ -82,6 +97,9 @@ public abstract class DynamicGameObject extends GameObject {
     public void setVelocity(double x, double y) {
         this.velocity.setX(x);
         this.velocity.setY(y);
+        if (x != 0 || y != 0) {
+            this.wakeUp();
+        }
     }
 
     /**
@@ -155,6 +173,74 @@ public abstract class DynamicGameObject extends GameObject {
         isOnGround = onGround;
     }
 
+    /**
+     * Returns whether this object is allowed to fall asleep. Objects that need
+     * every collision to be processed, even while standing still, should
+     * override this to return {@code false}.
+     * 
+     * @return {@code true} if this object can sleep, {@code false} otherwise
+     */
+    public boolean canSleep() {
+        return true;
+    }
+
+    /**
+     * Returns whether this object may move far enough in a single update to pass
+     * straight through walls. The physics engine sweeps the hitbox of a fast
+     * object along the path it moved, and stops it at the first solid static
+     * object it would have hit, so those collisions are not missed at low frame
+     * rates.
+     * 
+     * @return {@code true} if this object is fast, {@code false} otherwise
+     * @see app.gameengine.model.physics.PhysicsEngine#updateLevel(double, Level)
+     */
+    public boolean isFast() {
+        return false;
+    }
+
+    /**
+     * Returns whether this object is asleep. Sleeping objects are not moved by the
+     * physics engine, and collisions between a sleeping object and a static or
+     * sleeping object are not checked.
+     * 
+     * @return {@code true} if this object is asleep, {@code false} otherwise
+     */
+    public boolean isSleeping() {
+        return this.sleeping;
+    }
+
+    /**
+     * Wakes this object up, so that it is fully processed by the physics engine
+     * for at least {@link #FRAMES_UNTIL_SLEEP} more updates.
+     */
+    public void wakeUp() {
+        this.sleeping = false;
+        this.idleFrames = 0;
+    }
+
+    /**
+     * Updates whether this object is asleep. This is called by the physics engine
+     * once per update, before moving the object. An object falls asleep after
+     * {@link #FRAMES_UNTIL_SLEEP} updates without any velocity or change in
+     * location, and wakes up as soon as it has velocity or is moved.
+     */
+    public void updateSleepState() {
+        Vector2D location = this.getLocation();
+        boolean idle = this.canSleep() && this.velocity.getX() == 0 && this.velocity.getY() == 0
+                && location.getX() == this.lastX && location.getY() == this.lastY;
+        this.lastX = location.getX();
+        this.lastY = location.getY();
+        if (this.sleeping) {
+            if (!idle) {
+                this.wakeUp();
+            }
+        } else if (!idle) {
+            this.idleFrames = 0;
+        } else if (++this.idleFrames >= FRAMES_UNTIL_SLEEP) {
+            this.sleeping = true;
+        }
+    }
+
     @Override
     public void update(double dt, Level level) {
         super.update(dt, level);
@@ -168,6 +254,7 @@ public abstract class DynamicGameObject extends GameObject {
         super.revive();
         this.hp = this.maxHP;
         this.setVelocity(0, 0);
+        this.wakeUp();
     }
 
     @Override
@@ -177,6 +264,37 @@ public abstract class DynamicGameObject extends GameObject {
         this.setVelocity(0, 0);
         this.setOrientation(0, 0);
         this.isOnGround = false;
+        this.wakeUp();
+    }
+
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        snapshot.writeInt(this.hp);
+        snapshot.writeDouble(this.velocity.getX());
+        snapshot.writeDouble(this.velocity.getY());
+        snapshot.writeDouble(this.orientation.getX());
+        snapshot.writeDouble(this.orientation.getY());
+        snapshot.writeBoolean(this.isOnGround);
+        snapshot.writeBoolean(this.sleeping);
+        snapshot.writeInt(this.idleFrames);
+        snapshot.writeDouble(this.lastX);
+        snapshot.writeDouble(this.lastY);
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.hp = snapshot.readInt();
+        this.velocity.setX(snapshot.readDouble());
+        this.velocity.setY(snapshot.readDouble());
+        this.orientation.setX(snapshot.readDouble());
+        this.orientation.setY(snapshot.readDouble());
+        this.isOnGround = snapshot.readBoolean();
+        this.sleeping = snapshot.readBoolean();
+        this.idleFrames = snapshot.readInt();
+        this.lastX = snapshot.readDouble();
+        this.lastY = snapshot.readDouble();
     }
 
     @Override
@@ -10,7 +10,9 @@ import app.display.common.SpriteLocation;
 import app.display.common.effects.Effect;
 import app.display.common.effects.HitboxOutline;
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.physics.Collidable;
+import app.gameengine.model.physics.CollisionLayers;
 import app.gameengine.model.physics.Hitbox;
 import app.gameengine.model.physics.Vector2D;
 
@@ -38,9 +40,17 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
     // Collision
     private Vector2D location;
     private Vector2D startingLocation;
+    private double previousX;
+    private double previousY;
+    private boolean hasPreviousLocation = false;
     private Hitbox hitbox;
+    private int collisionLayer = CollisionLayers.DEFAULT;
+    private int collisionMask = CollisionLayers.ALL;
 
     private boolean destroyed = false;
+    // Told when this object is destroyed, so that it can skip looking for
+    // destroyed objects on frames when none were, and when a static object changes
+    private Level level;
 
     // Graphics
     protected String spriteSheetFilename = "";
@@ -51,6 +61,7 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
     protected boolean freezeAnimations = false;
     protected double animationDuration = Configuration.ANIMATION_TIME;
     private double rotation;
+    private double skippedUpdateTime;
 
     private ArrayList<Effect> effects = new ArrayList<>();
     protected HitboxOutline outlineEffect;
@@ -100,6 +111,55 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
         this.location.setY(y);
     }
 
+    /**
+     * Stores the current location of this object, so that it can be drawn between
+     * this location and the next one. This should be called just before each
+     * fixed update.
+     * 
+     * @see #getInterpolatedX(double)
+     */
+    public void savePreviousLocation() {
+        this.previousX = this.location.getX();
+        this.previousY = this.location.getY();
+        this.hasPreviousLocation = true;
+    }
+
+    /**
+     * Returns the x location at which this object should be drawn, between its
+     * location before the last update and its current location.
+     * 
+     * @param alpha how far between the two locations, from 0 to 1
+     * @return the x location to draw this object at
+     * @see #savePreviousLocation()
+     */
+    public double getInterpolatedX(double alpha) {
+        if (!this.isInterpolated()) {
+            return this.location.getX();
+        }
+        return this.previousX + (this.location.getX() - this.previousX) * alpha;
+    }
+
+    /**
+     * Returns the y location at which this object should be drawn, between its
+     * location before the last update and its current location.
+     * 
+     * @param alpha how far between the two locations, from 0 to 1
+     * @return the y location to draw this object at
+     * @see #savePreviousLocation()
+     */
+    public double getInterpolatedY(double alpha) {
+        if (!this.isInterpolated()) {
+            return this.location.getY();
+        }
+        return this.previousY + (this.location.getY() - this.previousY) * alpha;
+    }
+
+    private boolean isInterpolated() {
+        // Objects that jumped a long way were teleported, and are drawn where they are
+        return this.hasPreviousLocation && Math.abs(this.location.getX() - this.previousX) < 2
+                && Math.abs(this.location.getY() - this.previousY) < 2;
+    }
+
     /**
      * Returns a {@code Vector2D} object representing the dimensions of this
      * {@code GameObject}'s graphical sprite in world units (ie, not pixels).
@@ -140,6 +200,9 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
      */
     public void destroy() {
         this.destroyed = true;
+        if (this.level != null) {
+            this.level.objectDestroyed();
+        }
         this.onDestroy();
     }
 
@@ -165,6 +228,29 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
         return this.destroyed;
     }
 
+    /**
+     * Sets the level this object is in, which is told whenever this object is
+     * destroyed. Levels set this themselves as objects are added to them, so this
+     * should not usually be called elsewhere.
+     * 
+     * @param level the level containing this object
+     * @see Level#objectDestroyed()
+     */
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * Returns the level this object was last added to, or {@code null} if it
+     * hasn't been added to one.
+     * 
+     * @return the level containing this object
+     * @see #setLevel(Level)
+     */
+    public Level getLevel() {
+        return this.level;
+    }
+
     /**
      * Revive the object without fully resetting it. For some objects, there may not
      * be a difference between this and the {@link #reset()} method.
@@ -187,9 +273,53 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
         this.timeInAnimationState = 0;
         this.animationState = "default";
         this.freezeAnimations = false;
+        this.hasPreviousLocation = false;
+        this.skippedUpdateTime = 0;
         this.onSpawn();
     }
 
+    /**
+     * Writes the state of this object that changes while a level is played, such
+     * as its location, animation, and whether it is destroyed, to a snapshot.
+     * Subclasses with more such state should override this to also write it,
+     * along with {@link #restoreState(LevelSnapshot)} to read it back in the same
+     * order.
+     * 
+     * @param snapshot the snapshot to write to
+     * @see Level#takeSnapshot(LevelSnapshot)
+     */
+    public void saveState(LevelSnapshot snapshot) {
+        snapshot.writeDouble(this.location.getX());
+        snapshot.writeDouble(this.location.getY());
+        snapshot.writeBoolean(this.destroyed);
+        snapshot.writeReference(this.animationState);
+        snapshot.writeDouble(this.timeInAnimationState);
+        snapshot.writeBoolean(this.freezeAnimations);
+        snapshot.writeDouble(this.rotation);
+        snapshot.writeDouble(this.skippedUpdateTime);
+    }
+
+    /**
+     * Restores the state of this object written by
+     * {@link #saveState(LevelSnapshot)}. No effects are applied, and the object
+     * is drawn at its restored location without interpolating from its current
+     * one.
+     * 
+     * @param snapshot the snapshot to read from
+     * @see Level#restoreSnapshot(LevelSnapshot)
+     */
+    public void restoreState(LevelSnapshot snapshot) {
+        this.location.setX(snapshot.readDouble());
+        this.location.setY(snapshot.readDouble());
+        this.destroyed = snapshot.readBoolean();
+        this.animationState = snapshot.readReference();
+        this.timeInAnimationState = snapshot.readDouble();
+        this.freezeAnimations = snapshot.readBoolean();
+        this.rotation = snapshot.readDouble();
+        this.skippedUpdateTime = snapshot.readDouble();
+        this.hasPreviousLocation = false;
+    }
+
     /**
      * Intended to be called whenever an object is spawned, or placed into a level,
      * this method should apply any graphical or sound effects associated with this
@@ -221,6 +351,43 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
         this.effects.removeIf(Effect::isFinished);
     }
 
+    /**
+     * Returns whether the level may update this object less often while it is
+     * far from the visible portion of the level. Objects whose
+     * {@link #update(double, Level)} must run every frame, for example to turn
+     * around before walking off a ledge, should override this to return
+     * {@code false}.
+     * 
+     * @return {@code true} if updates to this object can be skipped,
+     *         {@code false} otherwise
+     * @see Level#setUpdateRingDistances(double...)
+     */
+    public boolean canSkipUpdates() {
+        return true;
+    }
+
+    /**
+     * Returns the time that has passed since this object was last updated, in
+     * updates that its level skipped. The next update is given this much extra
+     * time, so that the object behaves the same overall.
+     * 
+     * @return the time skipped, in seconds
+     * @see Level#setUpdateRingDistances(double...)
+     */
+    public double getSkippedUpdateTime() {
+        return this.skippedUpdateTime;
+    }
+
+    /**
+     * Sets the time that has passed since this object was last updated. This is
+     * used by the level when skipping updates, and should not be used otherwise.
+     * 
+     * @param time the time skipped, in seconds
+     */
+    public void setSkippedUpdateTime(double time) {
+        this.skippedUpdateTime = time;
+    }
+
     /**
      * Returns this object's class name. This can be useful for actions that should
      * only affect certain classes. It should be used carefully, however, as
@@ -284,6 +451,36 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
         return this.hitbox;
     }
 
+    @Override
+    public int getCollisionLayer() {
+        return this.collisionLayer;
+    }
+
+    /**
+     * Sets the collision layers this object belongs to, as a bitfield of
+     * {@link CollisionLayers}.
+     * 
+     * @param collisionLayer the collision layers of this object
+     */
+    public void setCollisionLayer(int collisionLayer) {
+        this.collisionLayer = collisionLayer;
+    }
+
+    @Override
+    public int getCollisionMask() {
+        return this.collisionMask;
+    }
+
+    /**
+     * Sets the collision layers this object reacts to, as a bitfield of
+     * {@link CollisionLayers}.
+     * 
+     * @param collisionMask the collision mask of this object
+     */
+    public void setCollisionMask(int collisionMask) {
+        this.collisionMask = collisionMask;
+    }
+
     @Override
     public String getSpriteSheetFilename() {
         return this.spriteSheetFilename;
@@ -349,4 +546,19 @@ public abstract class GameObject implements RenderableAsSprite, Collidable {
 
     }
 
+    @Override
+    public void onCollisionEnter(GameObject otherObject) {
+
+    }
+
+    @Override
+    public void onCollisionStay(GameObject otherObject) {
+
+    }
+
+    @Override
+    public void onCollisionExit(GameObject otherObject) {
+
+    }
+
 }
@@ -0,0 +1,28 @@
+package app.gameengine.model.gameobjects;
+
+import app.gameengine.Level;
+
+/**
+ * Callback for visiting the objects found by a spatial query, without building
+ * a list of results.
+ * <p>
+ * Returning {@code false} from {@link #visit(GameObject)} stops the query
+ * early, which is useful when only the first matching object matters.
+ *
+ * @see Level#queryRegion(double, double, double, double, GameObjectVisitor)
+ * @see Level#queryRadius(app.gameengine.model.physics.Vector2D, double,
+ *      GameObjectVisitor)
+ * @see Level#queryPoint(app.gameengine.model.physics.Vector2D,
+ *      GameObjectVisitor)
+ */
+public interface GameObjectVisitor {
+
+    /**
+     * Visits a single object found by a query.
+     *
+     * @param object the object that was found
+     * @return {@code true} to continue visiting objects, {@code false} to stop
+     */
+    boolean visit(GameObject object);
+
+}
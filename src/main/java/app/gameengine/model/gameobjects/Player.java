@@ -7,6 +7,8 @@ import app.Settings;
 import app.display.common.SpriteLocation;
 import app.gameengine.Game;
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
+import app.gameengine.model.physics.CollisionLayers;
 
 /**
  * Represents the object controlled by the player.
@@ -36,6 +38,7 @@ public class Player extends DynamicGameObject {
         this.getHitbox().setDimensions(0.8, 0.8);
         this.getHitbox().setOffset(0.1, 0.1);
         this.spriteSheetFilename = "MiniWorldSprites/Characters/Soldiers/Melee/CyanMelee/AxemanCyan.png";
+        this.setCollisionLayer(CollisionLayers.PLAYER);
     }
 
     public double getInvincibilityFrames() {
@@ -106,6 +109,17 @@ public class Player extends DynamicGameObject {
         return true;
     }
 
+    @Override
+    public boolean canSleep() {
+        // Standing still on spikes or collectibles should still trigger them
+        return false;
+    }
+
+    @Override
+    public boolean canSkipUpdates() {
+        return false;
+    }
+
     @Override
     public void reset() {
         super.reset();
@@ -113,6 +127,18 @@ public class Player extends DynamicGameObject {
         this.clearInventory();
     }
 
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        snapshot.writeDouble(this.iFrames);
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.iFrames = snapshot.readDouble();
+    }
+
     @Override
     public void update(double dt, Level level) {
         super.update(dt, level);
@@ -1,7 +1,10 @@
 package app.gameengine.model.gameobjects;
 
+import java.util.Collection;
+
 import app.gameengine.Game;
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
 
 /**
  * A {@code GameObject} not capable of movement.
@@ -10,6 +13,17 @@ import app.gameengine.Level;
  * generally not intended to move or have complex behavior. This class should be
  * used for objects like walls and doors that do not move, but are still solid
  * and prevent collision and pathing.
+ * <p>
+ * Because static objects rarely change, renderers may draw them once and keep
+ * the result. Any change to how a static object is drawn, through its
+ * location, rotation or animation state, or by being destroyed, is recorded
+ * by the level the object is in, and can be found with
+ * {@link Level#takeChangedStaticObjects(Object, Collection)}. Subclasses that
+ * change their sprite in any other way, such as by assigning
+ * {@code defaultSpriteLocation} after they are created, or that move other than
+ * with {@link #setLocation(double, double)}, should call
+ * {@link #spriteChanged()} afterwards. Levels also use these changes to keep
+ * their {@link app.gameengine.model.physics.BroadPhase} up to date.
  * 
  * @see GameObject
  * @see DynamicGameObject
@@ -28,6 +42,71 @@ public abstract class StaticGameObject extends GameObject {
         super(x, y);
     }
 
+    /**
+     * Records that the sprite of this object has changed. This is done
+     * automatically by the methods of this class that change it.
+     */
+    public void spriteChanged() {
+        if (this.getLevel() != null) {
+            this.getLevel().staticObjectChanged(this);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        boolean destroyed = this.isDestroyed();
+        super.destroy();
+        if (!destroyed) {
+            this.spriteChanged();
+        }
+    }
+
+    @Override
+    public void setLocation(double x, double y) {
+        if (x != this.getLocation().getX() || y != this.getLocation().getY()) {
+            super.setLocation(x, y);
+            this.spriteChanged();
+        }
+    }
+
+    @Override
+    public void setRotation(double rotation) {
+        if (rotation != this.getRotation()) {
+            super.setRotation(rotation);
+            this.spriteChanged();
+        }
+    }
+
+    @Override
+    public void setAnimationState(String newState) {
+        String state = this.getAnimationState();
+        super.setAnimationState(newState);
+        if (!state.equals(this.getAnimationState())) {
+            this.spriteChanged();
+        }
+    }
+
+    @Override
+    public void revive() {
+        boolean destroyed = this.isDestroyed();
+        super.revive();
+        if (destroyed) {
+            this.spriteChanged();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.spriteChanged();
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.spriteChanged();
+    }
+
     @Override
     public boolean isSolid() {
         return true;
@@ -0,0 +1,419 @@
+package app.gameengine.model.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+
+/**
+ * Shared bookkeeping for {@link BroadPhase} implementations that store a proxy
+ * for each object.
+ * <p>
+ * This class keeps proxies in sync with the level's lists of objects, and takes
+ * care of ordering and de-duplicating query results. Subclasses only need to
+ * decide how proxies are stored, and which proxies are near a given area.
+ * <p>
+ * Static objects are added and removed incrementally, and are numbered in the
+ * order they were added, which always matches their order within the level as
+ * long as new objects are appended. Only the static objects that the level
+ * reports as changed, through {@link Level#takeMovedStaticObjects(Collection)},
+ * are refreshed at each update. If the list is modified in any way the level
+ * doesn't pass on, as shown by {@link Level#getStaticObjectsVersion()}, the
+ * static objects are added again from scratch. Dynamic objects are numbered by
+ * their position in the level's list at each update. Objects in frozen chunks
+ * of the level aren't refreshed, as they aren't updated and so don't move.
+ * <p>
+ * Each thread uses its own {@link Query} state, so queries may be run from
+ * several threads at once, as long as nothing is added, removed, updated, or
+ * refreshed at the same time.
+ *
+ * @see BroadPhase
+ * @see SpatialHashGrid
+ * @see SweepAndPruneBroadPhase
+ * @see DynamicAabbTree
+ */
+public abstract class AbstractBroadPhase implements BroadPhase {
+
+    private static final Comparator<Proxy> BY_ORDER = (a, b) -> Integer.compare(a.order, b.order);
+
+    private final IdentityHashMap<GameObject, Proxy> staticProxies = new IdentityHashMap<>();
+    private final IdentityHashMap<GameObject, Proxy> dynamicProxies = new IdentityHashMap<>();
+    private final ArrayList<Proxy> staticProxyList = new ArrayList<>();
+    private final ArrayList<Proxy> dynamicProxyList = new ArrayList<>();
+    private final ArrayList<StaticGameObject> movedStaticObjects = new ArrayList<>();
+
+    private final ThreadLocal<Query> queries = ThreadLocal.withInitial(Query::new);
+
+    private boolean staticObjectsInvalid = true;
+    private int staticObjectsVersion;
+    private int nextStaticOrder;
+    private int frame;
+
+    /**
+     * Stores the location of a single object within the broadphase. Subclasses
+     * may extend this to store additional information.
+     */
+    protected static class Proxy {
+
+        protected final GameObject object;
+        protected final boolean isStatic;
+        protected double minX;
+        protected double minY;
+        protected double maxX;
+        protected double maxY;
+
+        private int order;
+        private int listIndex;
+        private int frame;
+
+        protected Proxy(GameObject object, boolean isStatic) {
+            this.object = object;
+            this.isStatic = isStatic;
+        }
+
+        /**
+         * Returns whether this proxy's bounds strictly overlap the given bounds.
+         */
+        protected boolean overlaps(double minX, double minY, double maxX, double maxY) {
+            return this.minX < maxX && minX < this.maxX && this.minY < maxY && minY < this.maxY;
+        }
+
+    }
+
+    /**
+     * The results of a single query, along with scratch space for subclasses to
+     * use while searching.
+     */
+    protected static final class Query {
+
+        private GameObject object;
+        private int afterOrder;
+        private Proxy[] results = new Proxy[16];
+        private int resultCount;
+        private int[] stack = new int[64];
+
+        /**
+         * Adds a proxy to the results, ignoring the object being queried and
+         * objects before the requested position. Duplicates are removed once the
+         * query is complete.
+         *
+         * @param proxy the candidate proxy
+         */
+        public void add(Proxy proxy) {
+            if (proxy.order <= this.afterOrder || proxy.object == this.object) {
+                return;
+            }
+            if (this.resultCount == this.results.length) {
+                this.results = Arrays.copyOf(this.results, this.resultCount * 2);
+            }
+            this.results[this.resultCount++] = proxy;
+        }
+
+        /**
+         * Returns scratch space for searching with a stack.
+         *
+         * @return the stack
+         */
+        public int[] getStack() {
+            return this.stack;
+        }
+
+        /**
+         * Doubles the size of the scratch stack, keeping its contents.
+         *
+         * @return the larger stack
+         */
+        public int[] growStack() {
+            this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+            return this.stack;
+        }
+
+    }
+
+    /**
+     * Creates the proxy for a newly added object. Subclasses that store extra
+     * information per object should override this.
+     *
+     * @param object   the object being added
+     * @param isStatic whether the object is static
+     * @return the new proxy
+     */
+    protected Proxy createProxy(GameObject object, boolean isStatic) {
+        return new Proxy(object, isStatic);
+    }
+
+    /**
+     * Stores a new proxy. Its bounds have already been set.
+     *
+     * @param proxy the proxy being added
+     */
+    protected abstract void insertProxy(Proxy proxy);
+
+    /**
+     * Removes a proxy from storage.
+     *
+     * @param proxy the proxy being removed
+     */
+    protected abstract void removeProxy(Proxy proxy);
+
+    /**
+     * Updates storage for a proxy whose bounds have changed.
+     *
+     * @param proxy the proxy that moved
+     * @return {@code true} if query results involving this proxy may have changed
+     */
+    protected abstract boolean moveProxy(Proxy proxy);
+
+    /**
+     * Passes every static or dynamic proxy that may strictly overlap the given
+     * bounds to {@link Query#add(Proxy)}. Passing the same proxy more than once,
+     * or proxies that do not overlap, is allowed.
+     * <p>
+     * This may be called from several threads at once, so it must not modify the
+     * broadphase.
+     *
+     * @param query    the query to add results to
+     * @param isStatic whether to search static or dynamic proxies
+     * @param minX     the left edge of the area
+     * @param minY     the top edge of the area
+     * @param maxX     the right edge of the area
+     * @param maxY     the bottom edge of the area
+     */
+    protected abstract void collectCandidates(Query query, boolean isStatic, double minX, double minY, double maxX,
+            double maxY);
+
+    /**
+     * Called after all proxies have been synced in {@link #update(Level)}. By
+     * default, this does nothing.
+     */
+    protected void afterUpdate() {
+
+    }
+
+    @Override
+    public void addStaticObject(StaticGameObject object) {
+        if (this.staticObjectsInvalid || this.staticProxies.containsKey(object)) {
+            return;
+        }
+        Proxy proxy = createProxy(object, true);
+        proxy.order = this.nextStaticOrder++;
+        proxy.listIndex = this.staticProxyList.size();
+        readBounds(proxy);
+        this.staticProxies.put(object, proxy);
+        this.staticProxyList.add(proxy);
+        insertProxy(proxy);
+    }
+
+    @Override
+    public void removeStaticObject(StaticGameObject object) {
+        if (this.staticObjectsInvalid) {
+            return;
+        }
+        Proxy proxy = this.staticProxies.remove(object);
+        if (proxy != null) {
+            removeProxy(proxy);
+            removeFromList(this.staticProxyList, proxy);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        this.staticObjectsInvalid = true;
+    }
+
+    @Override
+    public void update(Level level) {
+        // Taken even when rebuilding, so that they aren't refreshed again next time
+        boolean listed = level.takeMovedStaticObjects(this.movedStaticObjects);
+        int version = level.getStaticObjectsVersion();
+        if (this.staticObjectsInvalid || version != this.staticObjectsVersion || !listed) {
+            rebuildStaticObjects(level.getStaticObjects());
+            this.staticObjectsVersion = version;
+        } else {
+            for (int i = 0; i < this.movedStaticObjects.size(); i++) {
+                Proxy proxy = this.staticProxies.get(this.movedStaticObjects.get(i));
+                if (proxy != null) {
+                    refresh(proxy);
+                }
+            }
+        }
+        this.movedStaticObjects.clear();
+
+        this.frame++;
+        ArrayList<DynamicGameObject> dynamicObjects = level.getDynamicObjects();
+        for (int i = 0; i < dynamicObjects.size(); i++) {
+            DynamicGameObject object = dynamicObjects.get(i);
+            Proxy proxy = this.dynamicProxies.get(object);
+            if (proxy == null) {
+                proxy = createProxy(object, false);
+                proxy.listIndex = this.dynamicProxyList.size();
+                readBounds(proxy);
+                this.dynamicProxies.put(object, proxy);
+                this.dynamicProxyList.add(proxy);
+                insertProxy(proxy);
+            } else if (level.isActive(object)) {
+                refresh(proxy);
+            }
+            proxy.order = i;
+            proxy.frame = this.frame;
+        }
+        for (int i = this.dynamicProxyList.size() - 1; i >= 0; i--) {
+            Proxy proxy = this.dynamicProxyList.get(i);
+            if (proxy.frame != this.frame) {
+                this.dynamicProxies.remove(proxy.object);
+                removeProxy(proxy);
+                removeFromList(this.dynamicProxyList, proxy);
+            }
+        }
+        afterUpdate();
+    }
+
+    @Override
+    public boolean supportsConcurrentQueries() {
+        return true;
+    }
+
+    @Override
+    public boolean refresh(GameObject object) {
+        Proxy proxy = this.dynamicProxies.get(object);
+        if (proxy == null) {
+            proxy = this.staticProxies.get(object);
+        }
+        return proxy != null && refresh(proxy);
+    }
+
+    @Override
+    public void queryDynamicObjects(GameObject object, DynamicGameObject after, ArrayList<DynamicGameObject> out) {
+        Proxy afterProxy = after == null ? null : this.dynamicProxies.get(after);
+        copyResults(query(object, false, afterProxy), out);
+    }
+
+    @Override
+    public void queryStaticObjects(GameObject object, StaticGameObject after, ArrayList<StaticGameObject> out) {
+        Proxy afterProxy = after == null ? null : this.staticProxies.get(after);
+        copyResults(query(object, true, afterProxy), out);
+    }
+
+    @Override
+    public void queryDynamicObjects(double minX, double minY, double maxX, double maxY,
+            ArrayList<DynamicGameObject> out) {
+        copyResults(query(null, false, null, minX, minY, maxX, maxY), out);
+    }
+
+    @Override
+    public void queryStaticObjects(double minX, double minY, double maxX, double maxY,
+            ArrayList<StaticGameObject> out) {
+        copyResults(query(null, true, null, minX, minY, maxX, maxY), out);
+    }
+
+    /**
+     * Returns the proxies for all static objects, in no particular order.
+     *
+     * @return the static proxies
+     */
+    protected ArrayList<Proxy> getStaticProxies() {
+        return this.staticProxyList;
+    }
+
+    /**
+     * Returns the proxies for all dynamic objects, in no particular order.
+     *
+     * @return the dynamic proxies
+     */
+    protected ArrayList<Proxy> getDynamicProxies() {
+        return this.dynamicProxyList;
+    }
+
+    private boolean refresh(Proxy proxy) {
+        double minX = proxy.minX;
+        double minY = proxy.minY;
+        double maxX = proxy.maxX;
+        double maxY = proxy.maxY;
+        readBounds(proxy);
+        if (minX == proxy.minX && minY == proxy.minY && maxX == proxy.maxX && maxY == proxy.maxY) {
+            return false;
+        }
+        return moveProxy(proxy);
+    }
+
+    private Query query(GameObject object, boolean isStatic, Proxy after) {
+        Hitbox hitbox = object.getHitbox();
+        return query(object, isStatic, after, hitbox.getMinX(), hitbox.getMinY(), hitbox.getMaxX(), hitbox.getMaxY());
+    }
+
+    private Query query(GameObject object, boolean isStatic, Proxy after, double minX, double minY, double maxX,
+            double maxY) {
+        Query query = this.queries.get();
+        query.resultCount = 0;
+        query.object = object;
+        query.afterOrder = after == null ? Integer.MIN_VALUE : after.order;
+        collectCandidates(query, isStatic, minX, minY, maxX, maxY);
+        query.object = null;
+        Proxy[] results = query.results;
+        if (query.resultCount > 32) {
+            Arrays.sort(results, 0, query.resultCount, BY_ORDER);
+            return query;
+        }
+        // Results are usually few and nearly sorted, so insertion sort is fastest
+        for (int i = 1; i < query.resultCount; i++) {
+            Proxy proxy = results[i];
+            int j = i - 1;
+            while (j >= 0 && results[j].order > proxy.order) {
+                results[j + 1] = results[j];
+                j--;
+            }
+            results[j + 1] = proxy;
+        }
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends GameObject> void copyResults(Query query, ArrayList<T> out) {
+        out.clear();
+        Proxy previous = null;
+        for (int i = 0; i < query.resultCount; i++) {
+            // Duplicates are next to each other once sorted
+            if (query.results[i] != previous) {
+                previous = query.results[i];
+                out.add((T) previous.object);
+            }
+        }
+        Arrays.fill(query.results, 0, query.resultCount, null);
+    }
+
+    private void rebuildStaticObjects(ArrayList<StaticGameObject> staticObjects) {
+        for (Proxy proxy : this.staticProxyList) {
+            removeProxy(proxy);
+        }
+        this.staticProxies.clear();
+        this.staticProxyList.clear();
+        this.staticObjectsInvalid = false;
+        this.nextStaticOrder = 0;
+        for (StaticGameObject object : staticObjects) {
+            addStaticObject(object);
+        }
+    }
+
+    private static void readBounds(Proxy proxy) {
+        Hitbox hitbox = proxy.object.getHitbox();
+        proxy.minX = hitbox.getMinX();
+        proxy.minY = hitbox.getMinY();
+        proxy.maxX = hitbox.getMaxX();
+        proxy.maxY = hitbox.getMaxY();
+    }
+
+    private static void removeFromList(ArrayList<Proxy> list, Proxy proxy) {
+        Proxy last = list.removeLast();
+        if (last != proxy) {
+            last.listIndex = proxy.listIndex;
+            list.set(proxy.listIndex, last);
+        }
+    }
+
+}
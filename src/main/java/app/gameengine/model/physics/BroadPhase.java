@@ -0,0 +1,138 @@
+package app.gameengine.model.physics;
+
+import java.util.ArrayList;
+
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+
+/**
+ * Strategy for quickly finding which objects in a level may be colliding.
+ * <p>
+ * Checking every pair of objects for collisions gets very slow as the number of
+ * objects grows. A {@code BroadPhase} keeps track of where each object is, so
+ * that the {@link PhysicsEngine} only needs to run the exact collision check on
+ * objects that are near each other. Each {@link Level} has its own
+ * {@code BroadPhase}, and different implementations suit different kinds of
+ * levels.
+ * <p>
+ * Query results may include objects that are not actually colliding, but must
+ * never leave out an object that is. Results are always in the same order as
+ * the level's object lists, so that collisions are handled in the same order
+ * regardless of which implementation is used.
+ *
+ * @see PhysicsEngine
+ * @see Level
+ * @see SpatialHashGrid
+ * @see SweepAndPruneBroadPhase
+ * @see DynamicAabbTree
+ * @see BruteForceBroadPhase
+ */
+public interface BroadPhase {
+
+    /**
+     * Adds a static object. This should be called whenever an object is appended
+     * to the level's list of static objects.
+     *
+     * @param object the object being added
+     */
+    void addStaticObject(StaticGameObject object);
+
+    /**
+     * Removes a static object. This should be called whenever an object is
+     * removed from the level's list of static objects.
+     *
+     * @param object the object being removed
+     */
+    void removeStaticObject(StaticGameObject object);
+
+    /**
+     * Marks all static objects as out of date, so that they are added again on
+     * the next call to {@link #update(Level)}. This should be called whenever the
+     * level's list of static objects is rebuilt.
+     */
+    void invalidate();
+
+    /**
+     * Syncs with the objects currently in the level. This is called once by the
+     * physics engine before processing collisions. Static objects only need to be
+     * refreshed if the level reports them with
+     * {@link Level#takeMovedStaticObjects(java.util.Collection)}, and only need
+     * to be added again from scratch when
+     * {@link Level#getStaticObjectsVersion()} changes.
+     *
+     * @param level the level being updated
+     */
+    void update(Level level);
+
+    /**
+     * Updates a single object that may have moved since the last update, such as
+     * an object moved during collision resolution.
+     *
+     * @param object the object that may have moved
+     * @return {@code true} if previous query results for this object may now be
+     *         out of date, {@code false} otherwise
+     */
+    boolean refresh(GameObject object);
+
+    /**
+     * Finds the dynamic objects that may be colliding with the given object, and
+     * that come after {@code after} in the level's list of dynamic objects. The
+     * results are placed in {@code out} in list order.
+     *
+     * @param object the object being queried
+     * @param after  only objects after this one in the list are returned, or all
+     *               objects if {@code null}
+     * @param out    the list to fill with results, which is cleared first
+     */
+    void queryDynamicObjects(GameObject object, DynamicGameObject after, ArrayList<DynamicGameObject> out);
+
+    /**
+     * Finds the static objects that may be colliding with the given object, and
+     * that come after {@code after} in the level's list of static objects. The
+     * results are placed in {@code out} in list order.
+     *
+     * @param object the object being queried
+     * @param after  only objects after this one in the list are returned, or all
+     *               objects if {@code null}
+     * @param out    the list to fill with results, which is cleared first
+     */
+    void queryStaticObjects(GameObject object, StaticGameObject after, ArrayList<StaticGameObject> out);
+
+    /**
+     * Finds the dynamic objects whose hitboxes may overlap the given area. The
+     * results are placed in {@code out} in list order.
+     *
+     * @param minX the left edge of the area
+     * @param minY the top edge of the area
+     * @param maxX the right edge of the area
+     * @param maxY the bottom edge of the area
+     * @param out  the list to fill with results, which is cleared first
+     */
+    void queryDynamicObjects(double minX, double minY, double maxX, double maxY, ArrayList<DynamicGameObject> out);
+
+    /**
+     * Finds the static objects whose hitboxes may overlap the given area. The
+     * results are placed in {@code out} in list order.
+     *
+     * @param minX the left edge of the area
+     * @param minY the top edge of the area
+     * @param maxX the right edge of the area
+     * @param maxY the bottom edge of the area
+     * @param out  the list to fill with results, which is cleared first
+     */
+    void queryStaticObjects(double minX, double minY, double maxX, double maxY, ArrayList<StaticGameObject> out);
+
+    /**
+     * Returns whether queries may be run from several threads at once, as long as
+     * nothing is added, removed, updated, or refreshed at the same time. By
+     * default, this is {@code false}.
+     *
+     * @return {@code true} if queries are thread-safe, {@code false} otherwise
+     */
+    default boolean supportsConcurrentQueries() {
+        return false;
+    }
+
+}
@@ -0,0 +1,89 @@
+package app.gameengine.model.physics;
+
+import java.util.ArrayList;
+
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+
+/**
+ * A {@link BroadPhase} that does no filtering at all, and returns every object
+ * in the level from every query.
+ * <p>
+ * This is equivalent to checking every pair of objects for collisions. It is
+ * the fastest option for levels with only a handful of objects, and is useful
+ * as a reference to compare other implementations against.
+ *
+ * @see BroadPhase
+ * @see SpatialHashGrid
+ * @see SweepAndPruneBroadPhase
+ */
+public class BruteForceBroadPhase implements BroadPhase {
+
+    private Level level;
+
+    @Override
+    public void addStaticObject(StaticGameObject object) {
+
+    }
+
+    @Override
+    public void removeStaticObject(StaticGameObject object) {
+
+    }
+
+    @Override
+    public void invalidate() {
+
+    }
+
+    @Override
+    public void update(Level level) {
+        this.level = level;
+    }
+
+    @Override
+    public boolean refresh(GameObject object) {
+        return false;
+    }
+
+    @Override
+    public boolean supportsConcurrentQueries() {
+        return true;
+    }
+
+    @Override
+    public void queryDynamicObjects(GameObject object, DynamicGameObject after, ArrayList<DynamicGameObject> out) {
+        query(object, after, this.level.getDynamicObjects(), out);
+    }
+
+    @Override
+    public void queryStaticObjects(GameObject object, StaticGameObject after, ArrayList<StaticGameObject> out) {
+        query(object, after, this.level.getStaticObjects(), out);
+    }
+
+    @Override
+    public void queryDynamicObjects(double minX, double minY, double maxX, double maxY,
+            ArrayList<DynamicGameObject> out) {
+        query(null, null, this.level.getDynamicObjects(), out);
+    }
+
+    @Override
+    public void queryStaticObjects(double minX, double minY, double maxX, double maxY,
+            ArrayList<StaticGameObject> out) {
+        query(null, null, this.level.getStaticObjects(), out);
+    }
+
+    private static <T extends GameObject> void query(GameObject object, T after, ArrayList<T> objects,
+            ArrayList<T> out) {
+        out.clear();
+        int start = after == null ? 0 : objects.indexOf(after) + 1;
+        for (int i = start; i < objects.size(); i++) {
+            if (objects.get(i) != object) {
+                out.add(objects.get(i));
+            }
+        }
+    }
+
+}
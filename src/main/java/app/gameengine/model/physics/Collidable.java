@@ -1,6 +1,7 @@
 package app.gameengine.model.physics;
 
 import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
 
 /**
@@ -11,8 +12,18 @@ import app.gameengine.model.gameobjects.StaticGameObject;
  * physical interactions via hitboxes. It provides methods for configuring and
  * accessing hitbox properties, such as location offset and dimensions, and
  * methods for handling collisions with other objects.
+ * <p>
+ * Each {@code Collidable} also has collision layers and a collision mask, which
+ * let the physics engine skip pairs of objects that would ignore each other.
+ * <p>
+ * The collision methods are called every update for as long as two objects
+ * overlap. Objects that only care about when a collision begins or ends can use
+ * {@link #onCollisionEnter(GameObject)} and
+ * {@link #onCollisionExit(GameObject)} instead, which the physics engine calls
+ * once per contact.
  *
  * @see Hitbox
+ * @see CollisionLayers
  * @see Vector2D
  * @see DynamicGameObject
  * @see StaticGameObject
@@ -38,6 +49,24 @@ public interface Collidable {
      */
     boolean isSolid();
 
+    /**
+     * Returns the collision layers this {@code Collidable} belongs to, as a
+     * bitfield of {@link CollisionLayers}.
+     * 
+     * @return the collision layers of this object
+     */
+    int getCollisionLayer();
+
+    /**
+     * Returns the collision layers this {@code Collidable} reacts to, as a
+     * bitfield of {@link CollisionLayers}. If neither object in a pair reacts to
+     * the other's layers, the pair is never checked for collisions, so an object
+     * should include every layer that its collision methods do something with.
+     * 
+     * @return the collision mask of this object
+     */
+    int getCollisionMask();
+
     /**
      * Defines how this {@code Collidable} responds when colliding with a
      * {@code StaticGameObject}.
@@ -54,4 +83,32 @@ public interface Collidable {
      */
     void collideWithDynamicObject(DynamicGameObject otherObject);
 
+    /**
+     * Called when this {@code Collidable} starts colliding with another object,
+     * after the collision methods for the first update of the collision.
+     * 
+     * @param otherObject the object this {@code Collidable} started colliding with
+     */
+    void onCollisionEnter(GameObject otherObject);
+
+    /**
+     * Called on each update after the first that this {@code Collidable} is still
+     * colliding with another object, after the collision methods for that update.
+     * Pairs that aren't checked because their objects are asleep remain in
+     * contact, but this is not called for them.
+     * 
+     * @param otherObject the object this {@code Collidable} is colliding with
+     */
+    void onCollisionStay(GameObject otherObject);
+
+    /**
+     * Called on the first update that this {@code Collidable} is no longer
+     * colliding with another object, including when either object has been
+     * destroyed. This is called after all collisions for that update have been
+     * handled.
+     * 
+     * @param otherObject the object this {@code Collidable} stopped colliding with
+     */
+    void onCollisionExit(GameObject otherObject);
+
 }
@@ -0,0 +1,71 @@
+package app.gameengine.model.physics;
+
+/**
+ * Static class containing the standard collision layers, and the check used to
+ * decide whether two objects may collide at all.
+ * <p>
+ * Every {@link Collidable} belongs to a set of layers, and has a mask of the
+ * layers it reacts to. Both are stored as bitfields, so an object can belong to
+ * or react to any combination of layers. Two objects are only checked for
+ * collisions if at least one of them reacts to a layer the other belongs to.
+ * Pairs where neither object would do anything are rejected with a couple of
+ * bitwise operations, before any hitbox math.
+ * <p>
+ * Games may define their own layers using the bits from
+ * {@link #FIRST_CUSTOM_LAYER} upwards.
+ *
+ * @see Collidable
+ * @see PhysicsEngine
+ */
+public class CollisionLayers {
+
+    /**
+     * Prevent instantiation, as this class is intended to be static.
+     */
+    private CollisionLayers() {
+    }
+
+    /**
+     * No layers. An object on no layers with an empty mask never collides with
+     * anything.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Every layer. An object with this mask reacts to every other object.
+     */
+    public static final int ALL = ~0;
+
+    /**
+     * The layer for objects that don't specify one.
+     */
+    public static final int DEFAULT = 1;
+
+    public static final int WALL = 1 << 1;
+    public static final int SPIKE = 1 << 2;
+    public static final int COLLECTIBLE = 1 << 3;
+    public static final int PROJECTILE = 1 << 4;
+    public static final int ENEMY = 1 << 5;
+    public static final int PLAYER = 1 << 6;
+
+    /**
+     * The lowest bit not used by the standard layers. Games may use this and any
+     * higher bits for their own layers.
+     */
+    public static final int FIRST_CUSTOM_LAYER = 1 << 16;
+
+    /**
+     * Returns whether two objects may collide, meaning that at least one of them
+     * reacts to a layer the other belongs to.
+     *
+     * @param collidable1 the first object
+     * @param collidable2 the second object
+     * @return {@code true} if the pair should be checked for collisions,
+     *         {@code false} if it can be skipped
+     */
+    public static boolean canCollide(Collidable collidable1, Collidable collidable2) {
+        return ((collidable1.getCollisionLayer() & collidable2.getCollisionMask())
+                | (collidable2.getCollisionLayer() & collidable1.getCollisionMask())) != 0;
+    }
+
+}
@@ -0,0 +1,134 @@
+package app.gameengine.model.physics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+
+/**
+ * Keeps track of which pairs of objects are in contact across calls to
+ * {@link PhysicsEngine#processAllCollisions(app.gameengine.Level)}, so that
+ * {@link Collidable#onCollisionEnter(GameObject)},
+ * {@link Collidable#onCollisionStay(GameObject)}, and
+ * {@link Collidable#onCollisionExit(GameObject)} can be fired.
+ * <p>
+ * Contacts are kept in a list in the order they began, alongside a map for
+ * looking them up, so that exit events are always fired in the same order.
+ * Looking up a pair uses a reusable key, so only new contacts allocate.
+ *
+ * @see PhysicsEngine
+ */
+final class ContactCache {
+
+    private final HashMap<Contact, Contact> contacts = new HashMap<>();
+    private final ArrayList<Contact> contactList = new ArrayList<>();
+    private final Contact key = new Contact();
+    private int frame;
+
+    /**
+     * Records that two objects are colliding, and fires either the enter or stay
+     * event on both of them. Reporting the same pair again before
+     * {@link #expire()} does nothing.
+     */
+    void report(GameObject object1, GameObject object2) {
+        this.key.set(object1, object2);
+        Contact contact = this.contacts.get(this.key);
+        this.key.set(null, null);
+        if (contact == null) {
+            contact = new Contact();
+            contact.set(object1, object2);
+            contact.frame = this.frame;
+            this.contacts.put(contact, contact);
+            this.contactList.add(contact);
+            object1.onCollisionEnter(object2);
+            object2.onCollisionEnter(object1);
+        } else if (contact.frame != this.frame) {
+            contact.frame = this.frame;
+            object1.onCollisionStay(object2);
+            object2.onCollisionStay(object1);
+        }
+    }
+
+    /**
+     * Fires the exit event for every contact that was not reported since the last
+     * call, and removes it. Contacts that weren't checked because their objects
+     * are asleep are kept, without firing any events.
+     */
+    void expire() {
+        int kept = 0;
+        int size = this.contactList.size();
+        for (int i = 0; i < size; i++) {
+            Contact contact = this.contactList.get(i);
+            if (contact.frame == this.frame || contact.isAsleep()) {
+                this.contactList.set(kept++, contact);
+                continue;
+            }
+            this.contacts.remove(contact);
+            contact.object1.onCollisionExit(contact.object2);
+            contact.object2.onCollisionExit(contact.object1);
+        }
+        this.contactList.subList(kept, size).clear();
+        this.frame++;
+    }
+
+    /**
+     * Removes every contact without firing any events.
+     */
+    void clear() {
+        this.contacts.clear();
+        this.contactList.clear();
+    }
+
+    int size() {
+        return this.contactList.size();
+    }
+
+    /**
+     * An unordered pair of objects in contact.
+     */
+    private static final class Contact {
+
+        private GameObject object1;
+        private GameObject object2;
+        private int hash;
+        private int frame;
+
+        private void set(GameObject object1, GameObject object2) {
+            this.object1 = object1;
+            this.object2 = object2;
+            this.hash = System.identityHashCode(object1) ^ System.identityHashCode(object2);
+        }
+
+        /**
+         * Returns whether this pair is skipped by the physics engine because of
+         * sleeping objects, in which case it is still in contact. Destroyed objects
+         * have been removed from the level, so their contacts have always ended.
+         */
+        private boolean isAsleep() {
+            if (this.object1.isDestroyed() || this.object2.isDestroyed()) {
+                return false;
+            }
+            boolean asleep1 = this.object1 instanceof DynamicGameObject dynamic1 && dynamic1.isSleeping();
+            boolean asleep2 = this.object2 instanceof DynamicGameObject dynamic2 && dynamic2.isSleeping();
+            if (this.object1 instanceof DynamicGameObject && this.object2 instanceof DynamicGameObject) {
+                return asleep1 && asleep2;
+            }
+            return asleep1 || asleep2;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Contact contact
+                    && ((this.object1 == contact.object1 && this.object2 == contact.object2)
+                            || (this.object1 == contact.object2 && this.object2 == contact.object1));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+    }
+
+}
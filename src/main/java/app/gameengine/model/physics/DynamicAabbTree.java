@@ -0,0 +1,598 @@
+package app.gameengine.model.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+
+/**
+ * Bounding volume hierarchy broadphase for finding which objects may be
+ * colliding.
+ * <p>
+ * Each object is stored as a leaf of a balanced binary tree, where every
+ * internal node has a box around both of its children. Finding the objects
+ * near an area only needs to visit the branches whose boxes overlap that area.
+ * Unlike {@link SpatialHashGrid}, this does not depend on any fixed cell size,
+ * so it works well with hitboxes of any size and position.
+ * <p>
+ * Leaves store a "fat" box, which is slightly larger than the object's
+ * {@code Hitbox}, and stretched further in the direction the object is moving.
+ * As long as an object stays inside its fat box, the tree doesn't need to
+ * change at all. When it does leave, only that leaf is removed and inserted
+ * again, so objects that are constantly added and removed, such as
+ * projectiles, never cause the tree to be rebuilt.
+ * <p>
+ * Besides the queries used by the {@link PhysicsEngine}, the tree can also find
+ * every object in a region with
+ * {@link #queryRegion(double, double, double, double, ArrayList)}, and every
+ * object along a line with
+ * {@link #raycast(double, double, double, double, ArrayList)}.
+ *
+ * @see BroadPhase
+ * @see SpatialHashGrid
+ * @see SweepAndPruneBroadPhase
+ * @see Level
+ */
+public class DynamicAabbTree extends AbstractBroadPhase {
+
+    /**
+     * How far, in tiles, a fat box extends past the hitbox on every side.
+     */
+    private static final double FAT_MARGIN = 0.1;
+
+    /**
+     * How many times an object's most recent movement a fat box is stretched in
+     * the direction of that movement.
+     */
+    private static final double DISPLACEMENT_MULTIPLIER = 2.0;
+
+    private final Tree staticTree = new Tree();
+    private final Tree dynamicTree = new Tree();
+
+    private int[] stack = new int[64];
+    private TreeProxy[] rayHits = new TreeProxy[16];
+    private double[] rayDistances = new double[16];
+
+    @Override
+    protected Proxy createProxy(GameObject object, boolean isStatic) {
+        return new TreeProxy(object, isStatic);
+    }
+
+    @Override
+    protected void insertProxy(Proxy proxy) {
+        TreeProxy treeProxy = (TreeProxy) proxy;
+        treeProxy.previousMinX = proxy.minX;
+        treeProxy.previousMinY = proxy.minY;
+        treeFor(proxy).insert(treeProxy, 0, 0);
+    }
+
+    @Override
+    protected void removeProxy(Proxy proxy) {
+        treeFor(proxy).remove((TreeProxy) proxy);
+    }
+
+    @Override
+    protected boolean moveProxy(Proxy proxy) {
+        TreeProxy treeProxy = (TreeProxy) proxy;
+        double displacementX = proxy.minX - treeProxy.previousMinX;
+        double displacementY = proxy.minY - treeProxy.previousMinY;
+        treeProxy.previousMinX = proxy.minX;
+        treeProxy.previousMinY = proxy.minY;
+        Tree tree = treeFor(proxy);
+        if (treeProxy.node == Tree.NULL || !tree.containsBounds(treeProxy.node, proxy)) {
+            tree.remove(treeProxy);
+            tree.insert(treeProxy, displacementX, displacementY);
+        }
+        return true;
+    }
+
+    @Override
+    protected void collectCandidates(Query query, boolean isStatic, double minX, double minY, double maxX,
+            double maxY) {
+        Tree tree = isStatic ? this.staticTree : this.dynamicTree;
+        if (!isFinite(minX, minY, maxX, maxY)) {
+            // Can't be compared against the tree, so check every object
+            for (Proxy proxy : isStatic ? getStaticProxies() : getDynamicProxies()) {
+                query.add(proxy);
+            }
+            return;
+        }
+        if (tree.root != Tree.NULL) {
+            int[] stack = query.getStack();
+            int top = 0;
+            stack[top++] = tree.root;
+            while (top > 0) {
+                int node = stack[--top];
+                if (!tree.overlaps(node, minX, minY, maxX, maxY)) {
+                    continue;
+                }
+                if (tree.isLeaf(node)) {
+                    if (tree.proxies[node].overlaps(minX, minY, maxX, maxY)) {
+                        query.add(tree.proxies[node]);
+                    }
+                } else {
+                    if (top + 2 > stack.length) {
+                        stack = query.growStack();
+                    }
+                    stack[top++] = tree.child1[node];
+                    stack[top++] = tree.child2[node];
+                }
+            }
+        }
+        for (TreeProxy proxy : tree.unbounded) {
+            query.add(proxy);
+        }
+    }
+
+    /**
+     * Finds every object whose hitbox overlaps the given region. Static objects
+     * are placed in {@code out} before dynamic objects, but are otherwise in no
+     * particular order. Objects only touching the edge of the region are not
+     * included.
+     *
+     * @param minX the left edge of the region
+     * @param minY the top edge of the region
+     * @param maxX the right edge of the region
+     * @param maxY the bottom edge of the region
+     * @param out  the list to fill with results, which is cleared first
+     */
+    public void queryRegion(double minX, double minY, double maxX, double maxY, ArrayList<GameObject> out) {
+        out.clear();
+        queryRegion(this.staticTree, minX, minY, maxX, maxY, out);
+        queryRegion(this.dynamicTree, minX, minY, maxX, maxY, out);
+    }
+
+    /**
+     * Finds every object whose hitbox is crossed by the line segment between the
+     * given points, as of the last update. The results are placed in {@code out}
+     * in order of distance from the start of the segment, with ties broken by
+     * placing static objects first.
+     *
+     * @param startX the x coordinate of the start of the segment
+     * @param startY the y coordinate of the start of the segment
+     * @param endX   the x coordinate of the end of the segment
+     * @param endY   the y coordinate of the end of the segment
+     * @param out    the list to fill with results, which is cleared first
+     */
+    public void raycast(double startX, double startY, double endX, double endY, ArrayList<GameObject> out) {
+        out.clear();
+        int hitCount = raycast(this.staticTree, startX, startY, endX, endY, 0);
+        hitCount = raycast(this.dynamicTree, startX, startY, endX, endY, hitCount);
+        // Stable insertion sort by distance, as there are usually few hits
+        for (int i = 1; i < hitCount; i++) {
+            TreeProxy proxy = this.rayHits[i];
+            double distance = this.rayDistances[i];
+            int j = i - 1;
+            while (j >= 0 && this.rayDistances[j] > distance) {
+                this.rayHits[j + 1] = this.rayHits[j];
+                this.rayDistances[j + 1] = this.rayDistances[j];
+                j--;
+            }
+            this.rayHits[j + 1] = proxy;
+            this.rayDistances[j + 1] = distance;
+        }
+        for (int i = 0; i < hitCount; i++) {
+            out.add(this.rayHits[i].object);
+            this.rayHits[i] = null;
+        }
+    }
+
+    private void queryRegion(Tree tree, double minX, double minY, double maxX, double maxY,
+            ArrayList<GameObject> out) {
+        if (tree.root != Tree.NULL) {
+            int top = 0;
+            this.stack[top++] = tree.root;
+            while (top > 0) {
+                int node = this.stack[--top];
+                if (!tree.overlaps(node, minX, minY, maxX, maxY)) {
+                    continue;
+                }
+                if (tree.isLeaf(node)) {
+                    if (tree.proxies[node].overlaps(minX, minY, maxX, maxY)) {
+                        out.add(tree.proxies[node].object);
+                    }
+                } else {
+                    if (top + 2 > this.stack.length) {
+                        this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+                    }
+                    this.stack[top++] = tree.child1[node];
+                    this.stack[top++] = tree.child2[node];
+                }
+            }
+        }
+        for (TreeProxy proxy : tree.unbounded) {
+            if (proxy.overlaps(minX, minY, maxX, maxY)) {
+                out.add(proxy.object);
+            }
+        }
+    }
+
+    private int raycast(Tree tree, double startX, double startY, double endX, double endY, int hitCount) {
+        double directionX = endX - startX;
+        double directionY = endY - startY;
+        if (tree.root != Tree.NULL) {
+            int top = 0;
+            this.stack[top++] = tree.root;
+            while (top > 0) {
+                int node = this.stack[--top];
+                if (segmentEntry(startX, startY, directionX, directionY, tree.minX[node], tree.minY[node],
+                        tree.maxX[node], tree.maxY[node]) < 0) {
+                    continue;
+                }
+                if (tree.isLeaf(node)) {
+                    hitCount = addRayHit(tree.proxies[node], startX, startY, directionX, directionY, hitCount);
+                } else {
+                    if (top + 2 > this.stack.length) {
+                        this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+                    }
+                    this.stack[top++] = tree.child1[node];
+                    this.stack[top++] = tree.child2[node];
+                }
+            }
+        }
+        for (TreeProxy proxy : tree.unbounded) {
+            hitCount = addRayHit(proxy, startX, startY, directionX, directionY, hitCount);
+        }
+        return hitCount;
+    }
+
+    private int addRayHit(TreeProxy proxy, double startX, double startY, double directionX, double directionY,
+            int hitCount) {
+        double distance = segmentEntry(startX, startY, directionX, directionY, proxy.minX, proxy.minY, proxy.maxX,
+                proxy.maxY);
+        if (distance < 0) {
+            return hitCount;
+        }
+        if (hitCount == this.rayHits.length) {
+            this.rayHits = Arrays.copyOf(this.rayHits, hitCount * 2);
+            this.rayDistances = Arrays.copyOf(this.rayDistances, hitCount * 2);
+        }
+        this.rayHits[hitCount] = proxy;
+        this.rayDistances[hitCount] = distance;
+        return hitCount + 1;
+    }
+
+    /**
+     * Returns the fraction of the way along the segment where it first enters
+     * the given box, which is 0 if it starts inside, or -1 if it never enters.
+     */
+    private static double segmentEntry(double startX, double startY, double directionX, double directionY,
+            double minX, double minY, double maxX, double maxY) {
+        double entry = 0;
+        double exit = 1;
+        if (directionX == 0) {
+            if (startX <= minX || startX >= maxX) {
+                return -1;
+            }
+        } else {
+            double t1 = (minX - startX) / directionX;
+            double t2 = (maxX - startX) / directionX;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (directionY == 0) {
+            if (startY <= minY || startY >= maxY) {
+                return -1;
+            }
+        } else {
+            double t1 = (minY - startY) / directionY;
+            double t2 = (maxY - startY) / directionY;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return entry <= exit ? entry : -1;
+    }
+
+    private Tree treeFor(Proxy proxy) {
+        return proxy.isStatic ? this.staticTree : this.dynamicTree;
+    }
+
+    private static boolean isFinite(double minX, double minY, double maxX, double maxY) {
+        return Double.isFinite(minX) && Double.isFinite(minY) && Double.isFinite(maxX) && Double.isFinite(maxY);
+    }
+
+    /**
+     * Proxy that remembers its leaf within the tree.
+     */
+    private static class TreeProxy extends Proxy {
+
+        private int node = Tree.NULL;
+        private double previousMinX;
+        private double previousMinY;
+
+        private TreeProxy(GameObject object, boolean isStatic) {
+            super(object, isStatic);
+        }
+
+    }
+
+    /**
+     * A balanced tree of boxes. Nodes are stored in parallel arrays and referred
+     * to by index, and removed nodes are kept in a free list to be reused, so the
+     * tree only allocates when it grows larger than it has ever been.
+     */
+    private static class Tree {
+
+        private static final int NULL = -1;
+
+        private double[] minX;
+        private double[] minY;
+        private double[] maxX;
+        private double[] maxY;
+        private int[] parent;
+        private int[] child1;
+        private int[] child2;
+        private int[] height;
+        private TreeProxy[] proxies;
+        private int root = NULL;
+        private int freeList = NULL;
+
+        /**
+         * Proxies with bounds that can't be stored in the tree, such as infinite
+         * hitboxes. These are returned by every query.
+         */
+        private final ArrayList<TreeProxy> unbounded = new ArrayList<>();
+
+        private Tree() {
+            this.minX = new double[0];
+            this.minY = new double[0];
+            this.maxX = new double[0];
+            this.maxY = new double[0];
+            this.parent = new int[0];
+            this.child1 = new int[0];
+            this.child2 = new int[0];
+            this.height = new int[0];
+            this.proxies = new TreeProxy[0];
+            grow();
+        }
+
+        private void insert(TreeProxy proxy, double displacementX, double displacementY) {
+            if (!DynamicAabbTree.isFinite(proxy.minX, proxy.minY, proxy.maxX, proxy.maxY)) {
+                proxy.node = NULL;
+                this.unbounded.add(proxy);
+                return;
+            }
+            int leaf = allocateNode();
+            this.proxies[leaf] = proxy;
+            this.minX[leaf] = proxy.minX - FAT_MARGIN + Math.min(0, displacementX * DISPLACEMENT_MULTIPLIER);
+            this.minY[leaf] = proxy.minY - FAT_MARGIN + Math.min(0, displacementY * DISPLACEMENT_MULTIPLIER);
+            this.maxX[leaf] = proxy.maxX + FAT_MARGIN + Math.max(0, displacementX * DISPLACEMENT_MULTIPLIER);
+            this.maxY[leaf] = proxy.maxY + FAT_MARGIN + Math.max(0, displacementY * DISPLACEMENT_MULTIPLIER);
+            proxy.node = leaf;
+            insertLeaf(leaf);
+        }
+
+        private void remove(TreeProxy proxy) {
+            if (proxy.node == NULL) {
+                this.unbounded.remove(proxy);
+                return;
+            }
+            removeLeaf(proxy.node);
+            freeNode(proxy.node);
+            proxy.node = NULL;
+        }
+
+        private boolean isLeaf(int node) {
+            return this.child1[node] == NULL;
+        }
+
+        private boolean containsBounds(int node, Proxy proxy) {
+            return this.minX[node] <= proxy.minX && this.minY[node] <= proxy.minY && proxy.maxX <= this.maxX[node]
+                    && proxy.maxY <= this.maxY[node];
+        }
+
+        private boolean overlaps(int node, double minX, double minY, double maxX, double maxY) {
+            return this.minX[node] < maxX && minX < this.maxX[node] && this.minY[node] < maxY
+                    && minY < this.maxY[node];
+        }
+
+        private double perimeter(int node) {
+            return 2 * (this.maxX[node] - this.minX[node] + this.maxY[node] - this.minY[node]);
+        }
+
+        private double combinedPerimeter(int node1, int node2) {
+            double width = Math.max(this.maxX[node1], this.maxX[node2]) - Math.min(this.minX[node1], this.minX[node2]);
+            double height = Math.max(this.maxY[node1], this.maxY[node2])
+                    - Math.min(this.minY[node1], this.minY[node2]);
+            return 2 * (width + height);
+        }
+
+        /**
+         * Inserts a leaf next to the sibling that increases the total perimeter of
+         * the tree the least, then rebalances every node above it.
+         */
+        private void insertLeaf(int leaf) {
+            if (this.root == NULL) {
+                this.root = leaf;
+                this.parent[leaf] = NULL;
+                return;
+            }
+            int index = this.root;
+            while (!isLeaf(index)) {
+                double perimeter = perimeter(index);
+                double combined = combinedPerimeter(index, leaf);
+                // Cost of making a new parent for this node and the leaf
+                double cost = 2 * combined;
+                // Minimum cost of pushing the leaf further down the tree
+                double inheritance = 2 * (combined - perimeter);
+                double cost1 = descendCost(this.child1[index], leaf) + inheritance;
+                double cost2 = descendCost(this.child2[index], leaf) + inheritance;
+                if (cost < cost1 && cost < cost2) {
+                    break;
+                }
+                index = cost1 < cost2 ? this.child1[index] : this.child2[index];
+            }
+
+            int sibling = index;
+            int oldParent = this.parent[sibling];
+            int newParent = allocateNode();
+            this.parent[newParent] = oldParent;
+            this.height[newParent] = this.height[sibling] + 1;
+            if (oldParent == NULL) {
+                this.root = newParent;
+            } else if (this.child1[oldParent] == sibling) {
+                this.child1[oldParent] = newParent;
+            } else {
+                this.child2[oldParent] = newParent;
+            }
+            this.child1[newParent] = sibling;
+            this.child2[newParent] = leaf;
+            this.parent[sibling] = newParent;
+            this.parent[leaf] = newParent;
+            refitAncestors(newParent);
+        }
+
+        private double descendCost(int child, int leaf) {
+            if (isLeaf(child)) {
+                return combinedPerimeter(child, leaf);
+            }
+            return combinedPerimeter(child, leaf) - perimeter(child);
+        }
+
+        private void removeLeaf(int leaf) {
+            if (leaf == this.root) {
+                this.root = NULL;
+                return;
+            }
+            int parent = this.parent[leaf];
+            int grandParent = this.parent[parent];
+            int sibling = this.child1[parent] == leaf ? this.child2[parent] : this.child1[parent];
+            if (grandParent == NULL) {
+                this.root = sibling;
+                this.parent[sibling] = NULL;
+                freeNode(parent);
+                return;
+            }
+            if (this.child1[grandParent] == parent) {
+                this.child1[grandParent] = sibling;
+            } else {
+                this.child2[grandParent] = sibling;
+            }
+            this.parent[sibling] = grandParent;
+            freeNode(parent);
+            refitAncestors(grandParent);
+        }
+
+        /**
+         * Rebalances and recomputes the boxes of the given node and every node
+         * above it.
+         */
+        private void refitAncestors(int index) {
+            while (index != NULL) {
+                index = balance(index);
+                int left = this.child1[index];
+                int right = this.child2[index];
+                this.height[index] = 1 + Math.max(this.height[left], this.height[right]);
+                setUnion(index, left, right);
+                index = this.parent[index];
+            }
+        }
+
+        /**
+         * Performs a left or right rotation if the children of the given node
+         * differ in height by more than one.
+         *
+         * @return the node now in the given node's place
+         */
+        private int balance(int a) {
+            if (isLeaf(a) || this.height[a] < 2) {
+                return a;
+            }
+            int b = this.child1[a];
+            int c = this.child2[a];
+            int difference = this.height[c] - this.height[b];
+            if (difference > 1) {
+                rotateUp(a, c, b, false);
+                return c;
+            }
+            if (difference < -1) {
+                rotateUp(a, b, c, true);
+                return b;
+            }
+            return a;
+        }
+
+        /**
+         * Moves {@code up}, the taller child of {@code a}, into the place of
+         * {@code a}. The taller grandchild stays under {@code up}, and the shorter
+         * grandchild is moved under {@code a} in place of {@code up}.
+         */
+        private void rotateUp(int a, int up, int other, boolean upIsChild1) {
+            int f = this.child1[up];
+            int g = this.child2[up];
+            this.child1[up] = a;
+            this.parent[up] = this.parent[a];
+            this.parent[a] = up;
+            int upParent = this.parent[up];
+            if (upParent == NULL) {
+                this.root = up;
+            } else if (this.child1[upParent] == a) {
+                this.child1[upParent] = up;
+            } else {
+                this.child2[upParent] = up;
+            }
+            int keep = this.height[f] > this.height[g] ? f : g;
+            int move = keep == f ? g : f;
+            this.child2[up] = keep;
+            if (upIsChild1) {
+                this.child1[a] = move;
+            } else {
+                this.child2[a] = move;
+            }
+            this.parent[move] = a;
+            setUnion(a, other, move);
+            setUnion(up, a, keep);
+            this.height[a] = 1 + Math.max(this.height[other], this.height[move]);
+            this.height[up] = 1 + Math.max(this.height[a], this.height[keep]);
+        }
+
+        private void setUnion(int node, int node1, int node2) {
+            this.minX[node] = Math.min(this.minX[node1], this.minX[node2]);
+            this.minY[node] = Math.min(this.minY[node1], this.minY[node2]);
+            this.maxX[node] = Math.max(this.maxX[node1], this.maxX[node2]);
+            this.maxY[node] = Math.max(this.maxY[node1], this.maxY[node2]);
+        }
+
+        private int allocateNode() {
+            if (this.freeList == NULL) {
+                grow();
+            }
+            int node = this.freeList;
+            this.freeList = this.child1[node];
+            this.parent[node] = NULL;
+            this.child1[node] = NULL;
+            this.child2[node] = NULL;
+            this.height[node] = 0;
+            return node;
+        }
+
+        private void freeNode(int node) {
+            this.child1[node] = this.freeList;
+            this.height[node] = -1;
+            this.proxies[node] = null;
+            this.freeList = node;
+        }
+
+        private void grow() {
+            int oldCapacity = this.parent.length;
+            int capacity = Math.max(16, oldCapacity * 2);
+            this.minX = Arrays.copyOf(this.minX, capacity);
+            this.minY = Arrays.copyOf(this.minY, capacity);
+            this.maxX = Arrays.copyOf(this.maxX, capacity);
+            this.maxY = Arrays.copyOf(this.maxY, capacity);
+            this.parent = Arrays.copyOf(this.parent, capacity);
+            this.child1 = Arrays.copyOf(this.child1, capacity);
+            this.child2 = Arrays.copyOf(this.child2, capacity);
+            this.height = Arrays.copyOf(this.height, capacity);
+            this.proxies = Arrays.copyOf(this.proxies, capacity);
+            for (int i = oldCapacity; i < capacity; i++) {
+                this.child1[i] = i + 1 < capacity ? i + 1 : this.freeList;
+                this.height[i] = -1;
+            }
+            this.freeList = oldCapacity;
+        }
+
+    }
+
+}
@@ -46,6 +46,9 @@ public class Hitbox {
      * Returns the location of the hitbox, including its offset. Note that this is
      * likely not the same reference as that of the location of the object, if any,
      * that possesses the hitbox, and modification of one will not impact the other.
+     * <p>
+     * A new vector is created on every call, so code that runs for every pair of
+     * objects should use {@link #getMinX()} and the related methods instead.
      * 
      * @return the location of the hitbox
      */
@@ -53,6 +56,52 @@ public class Hitbox {
         return Vector2D.add(this.baseLocation, this.offset);
     }
 
+    /**
+     * Returns the x coordinate of the left edge of the hitbox, including its
+     * offset. This is equal to {@code getLocation().getX()}, but does not create a
+     * new vector.
+     * <p>
+     * The edges are calculated from the base location on every call rather than
+     * stored, as the base location is usually the location of the object that
+     * possesses the hitbox, and may be modified directly at any time.
+     * 
+     * @return the left edge of the hitbox
+     */
+    public double getMinX() {
+        return this.baseLocation.getX() + this.offset.getX();
+    }
+
+    /**
+     * Returns the y coordinate of the top edge of the hitbox, including its
+     * offset. This is equal to {@code getLocation().getY()}, but does not create a
+     * new vector.
+     * 
+     * @return the top edge of the hitbox
+     */
+    public double getMinY() {
+        return this.baseLocation.getY() + this.offset.getY();
+    }
+
+    /**
+     * Returns the x coordinate of the right edge of the hitbox, including its
+     * offset.
+     * 
+     * @return the right edge of the hitbox
+     */
+    public double getMaxX() {
+        return this.getMinX() + this.dimensions.getX();
+    }
+
+    /**
+     * Returns the y coordinate of the bottom edge of the hitbox, including its
+     * offset.
+     * 
+     * @return the bottom edge of the hitbox
+     */
+    public double getMaxY() {
+        return this.getMinY() + this.dimensions.getY();
+    }
+
     /**
      * Returns the dimensions of the hitbox.
      * 
@@ -0,0 +1,344 @@
+package app.gameengine.model.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import app.Settings;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+
+/**
+ * Processes collisions for a {@link PhysicsEngine} using several threads, while
+ * handling every collision in exactly the same order as the serial loop in
+ * {@link PhysicsEngine#processAllCollisions(app.gameengine.Level)}.
+ * <p>
+ * Collisions are processed in two passes. First, the dynamic objects are split
+ * into partitions, and each partition finds the broadphase candidates of its
+ * objects and checks which of them are colliding, on the common
+ * {@code ForkJoinPool}. Then the collision callbacks are run in list order on
+ * the calling thread.
+ * <p>
+ * The callbacks may move objects, which makes the results of the first pass
+ * out of date. Objects that move during the second pass are tracked, and any
+ * dynamic object whose candidates may have changed is queried again, exactly as
+ * the serial loop would. Like the serial loop, this assumes that callbacks only
+ * move the two objects involved in a collision, and that static objects do not
+ * move while collisions are processed.
+ *
+ * @see PhysicsEngine#setParallel(boolean)
+ */
+final class ParallelCollisionPass {
+
+    /**
+     * The number of dynamic objects handled by each task in the first pass.
+     */
+    static final int PARTITION_SIZE = 64;
+
+    private final PhysicsEngine engine;
+    private final ArrayList<Partition> partitions = new ArrayList<>();
+    private final ArrayList<DynamicGameObject> dynamicCandidates = new ArrayList<>();
+    private final ArrayList<StaticGameObject> staticCandidates = new ArrayList<>();
+
+    // Which dynamic objects have moved since the first pass, by list index
+    private boolean[] moved = new boolean[PARTITION_SIZE];
+    private int lastMovedIndex;
+    // The list index of each dynamic object, found the first time one is needed in a pass
+    private final IdentityHashMap<DynamicGameObject, Integer> indices = new IdentityHashMap<>();
+
+    // Hitbox bounds of the objects in a collision, from just before its callbacks
+    private final double[] bounds1 = new double[4];
+    private final double[] bounds2 = new double[4];
+
+    ParallelCollisionPass(PhysicsEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Processes all collisions between the given objects. The broadphase must
+     * already be up to date.
+     *
+     * @param level          the level being updated
+     * @param dynamicObjects the level's active dynamic objects
+     * @param broadPhase     the level's broadphase
+     */
+    void process(Level level, ArrayList<DynamicGameObject> dynamicObjects, BroadPhase broadPhase) {
+        int count = dynamicObjects.size();
+        int partitionCount = (count + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        while (this.partitions.size() < partitionCount) {
+            this.partitions.add(new Partition());
+        }
+        for (int p = 0; p < partitionCount; p++) {
+            Partition partition = this.partitions.get(p);
+            partition.reinitialize();
+            partition.engine = this.engine;
+            partition.objects = dynamicObjects;
+            partition.broadPhase = broadPhase;
+            partition.start = p * PARTITION_SIZE;
+            partition.end = Math.min(count, partition.start + PARTITION_SIZE);
+        }
+        if (partitionCount == 1) {
+            this.partitions.getFirst().invoke();
+        } else if (partitionCount > 1) {
+            ForkJoinTask.invokeAll(this.partitions.subList(0, partitionCount));
+        }
+
+        if (this.moved.length < count) {
+            this.moved = new boolean[Math.max(count, this.moved.length * 2)];
+        } else {
+            Arrays.fill(this.moved, 0, count, false);
+        }
+        this.lastMovedIndex = -1;
+        this.indices.clear();
+        for (int i = 0; i < count; i++) {
+            DynamicGameObject object1 = dynamicObjects.get(i);
+            if (Settings.noclip() && object1.isPlayer()) {
+                continue;
+            }
+            Partition partition = this.partitions.get(i / PARTITION_SIZE);
+            int index = i - partition.start;
+            broadPhase.refresh(object1);
+            processDynamicCollisions(level, dynamicObjects, broadPhase, i, partition, index);
+            if (object1.isSleeping()) {
+                continue;
+            }
+            processStaticCollisions(dynamicObjects, broadPhase, i, partition, index);
+        }
+        for (int p = 0; p < partitionCount; p++) {
+            this.partitions.get(p).clear();
+        }
+        this.indices.clear();
+    }
+
+    private void processDynamicCollisions(Level level, ArrayList<DynamicGameObject> dynamicObjects,
+            BroadPhase broadPhase, int i, Partition partition, int index) {
+        DynamicGameObject object1 = dynamicObjects.get(i);
+        // If nothing from this object onwards has moved, the first pass is still
+        // exactly what the broadphase and collision checks would return
+        boolean upToDate = this.lastMovedIndex < i;
+        boolean fromPartition = upToDate;
+        int j;
+        int size;
+        if (fromPartition) {
+            j = index == 0 ? 0 : partition.dynamicEnds[index - 1];
+            size = partition.dynamicEnds[index];
+        } else {
+            broadPhase.queryDynamicObjects(object1, object1, this.dynamicCandidates);
+            j = 0;
+            size = this.dynamicCandidates.size();
+        }
+        for (; j < size; j++) {
+            DynamicGameObject object2 = fromPartition ? partition.dynamicCandidates[j]
+                    : this.dynamicCandidates.get(j);
+            if (Settings.noclip() && object2.isPlayer()) {
+                continue;
+            }
+            if (!level.isActive(object2)) {
+                continue;
+            }
+            if (object1.isSleeping() && object2.isSleeping()) {
+                continue;
+            }
+            if (!this.engine.canCollide(object1, object2)) {
+                continue;
+            }
+            boolean colliding = upToDate ? partition.dynamicHits[j]
+                    : this.engine.detectCollision(object1.getHitbox(), object2.getHitbox());
+            if (colliding) {
+                saveBounds(object1, this.bounds1);
+                saveBounds(object2, this.bounds2);
+                object1.collideWithDynamicObject(object2);
+                object2.collideWithDynamicObject(object1);
+                this.engine.reportContact(object1, object2);
+                this.engine.wakeOnContact(object1, object2);
+                broadPhase.refresh(object2);
+                if (hasMoved(object2, this.bounds2)) {
+                    setMoved(indexOf(dynamicObjects, object2));
+                }
+                if (hasMoved(object1, this.bounds1)) {
+                    setMoved(i);
+                    upToDate = false;
+                }
+                if (broadPhase.refresh(object1)) {
+                    // Results may be out of date, so look for later objects from the new location
+                    broadPhase.queryDynamicObjects(object1, object2, this.dynamicCandidates);
+                    fromPartition = false;
+                    upToDate = false;
+                    j = -1;
+                    size = this.dynamicCandidates.size();
+                }
+            }
+        }
+        this.dynamicCandidates.clear();
+    }
+
+    private void processStaticCollisions(ArrayList<DynamicGameObject> dynamicObjects, BroadPhase broadPhase, int i,
+            Partition partition, int index) {
+        DynamicGameObject object1 = dynamicObjects.get(i);
+        // Static objects don't move, so only this object moving changes anything
+        boolean upToDate = !this.moved[i];
+        boolean fromPartition = upToDate;
+        int j;
+        int size;
+        if (fromPartition) {
+            j = index == 0 ? 0 : partition.staticEnds[index - 1];
+            size = partition.staticEnds[index];
+        } else {
+            broadPhase.queryStaticObjects(object1, null, this.staticCandidates);
+            j = 0;
+            size = this.staticCandidates.size();
+        }
+        for (; j < size; j++) {
+            StaticGameObject staticObject = fromPartition ? partition.staticCandidates[j]
+                    : this.staticCandidates.get(j);
+            if (!this.engine.canCollide(object1, staticObject)) {
+                continue;
+            }
+            boolean colliding = upToDate ? partition.staticHits[j]
+                    : this.engine.detectCollision(object1.getHitbox(), staticObject.getHitbox());
+            if (colliding) {
+                saveBounds(object1, this.bounds1);
+                staticObject.collideWithDynamicObject(object1);
+                object1.collideWithStaticObject(staticObject);
+                this.engine.reportContact(staticObject, object1);
+                if (hasMoved(object1, this.bounds1)) {
+                    setMoved(i);
+                    upToDate = false;
+                }
+                if (broadPhase.refresh(object1)) {
+                    broadPhase.queryStaticObjects(object1, staticObject, this.staticCandidates);
+                    fromPartition = false;
+                    upToDate = false;
+                    j = -1;
+                    size = this.staticCandidates.size();
+                }
+            }
+        }
+        this.staticCandidates.clear();
+    }
+
+    /**
+     * Returns the index of an object in the list of active dynamic objects, or
+     * -1 if it isn't active. The indices of every object are found together the
+     * first time this is called in a pass, rather than searching the list for
+     * each collision.
+     */
+    private int indexOf(ArrayList<DynamicGameObject> dynamicObjects, DynamicGameObject object) {
+        if (this.indices.isEmpty()) {
+            for (int i = 0; i < dynamicObjects.size(); i++) {
+                this.indices.put(dynamicObjects.get(i), i);
+            }
+        }
+        Integer index = this.indices.get(object);
+        return index == null ? -1 : index;
+    }
+
+    private void setMoved(int index) {
+        if (index >= 0) {
+            this.moved[index] = true;
+            this.lastMovedIndex = Math.max(this.lastMovedIndex, index);
+        }
+    }
+
+    private static void saveBounds(GameObject object, double[] bounds) {
+        Hitbox hitbox = object.getHitbox();
+        bounds[0] = hitbox.getMinX();
+        bounds[1] = hitbox.getMinY();
+        bounds[2] = hitbox.getDimensions().getX();
+        bounds[3] = hitbox.getDimensions().getY();
+    }
+
+    private static boolean hasMoved(GameObject object, double[] bounds) {
+        Hitbox hitbox = object.getHitbox();
+        return hitbox.getMinX() != bounds[0] || hitbox.getMinY() != bounds[1]
+                || hitbox.getDimensions().getX() != bounds[2] || hitbox.getDimensions().getY() != bounds[3];
+    }
+
+    /**
+     * Finds the candidates of a range of dynamic objects, and which of them are
+     * colliding. The candidates of every object are stored one after another,
+     * with the end of each object's candidates in {@code dynamicEnds} and
+     * {@code staticEnds}.
+     */
+    @SuppressWarnings("serial")
+    private static class Partition extends RecursiveAction {
+
+        private PhysicsEngine engine;
+        private ArrayList<DynamicGameObject> objects;
+        private BroadPhase broadPhase;
+        private int start;
+        private int end;
+
+        private final ArrayList<DynamicGameObject> dynamicResults = new ArrayList<>();
+        private final ArrayList<StaticGameObject> staticResults = new ArrayList<>();
+        private DynamicGameObject[] dynamicCandidates = new DynamicGameObject[PARTITION_SIZE];
+        private boolean[] dynamicHits = new boolean[PARTITION_SIZE];
+        private final int[] dynamicEnds = new int[PARTITION_SIZE];
+        private int dynamicCount;
+        private StaticGameObject[] staticCandidates = new StaticGameObject[PARTITION_SIZE];
+        private boolean[] staticHits = new boolean[PARTITION_SIZE];
+        private final int[] staticEnds = new int[PARTITION_SIZE];
+        private int staticCount;
+
+        @Override
+        protected void compute() {
+            this.dynamicCount = 0;
+            this.staticCount = 0;
+            for (int i = this.start; i < this.end; i++) {
+                DynamicGameObject object1 = this.objects.get(i);
+                Hitbox hitbox1 = object1.getHitbox();
+                this.broadPhase.queryDynamicObjects(object1, object1, this.dynamicResults);
+                for (int j = 0; j < this.dynamicResults.size(); j++) {
+                    DynamicGameObject object2 = this.dynamicResults.get(j);
+                    addDynamic(object2, CollisionLayers.canCollide(object1, object2)
+                            && this.engine.detectCollision(hitbox1, object2.getHitbox()));
+                }
+                this.dynamicEnds[i - this.start] = this.dynamicCount;
+                this.broadPhase.queryStaticObjects(object1, null, this.staticResults);
+                for (int j = 0; j < this.staticResults.size(); j++) {
+                    StaticGameObject object2 = this.staticResults.get(j);
+                    addStatic(object2, CollisionLayers.canCollide(object1, object2)
+                            && this.engine.detectCollision(hitbox1, object2.getHitbox()));
+                }
+                this.staticEnds[i - this.start] = this.staticCount;
+            }
+            this.dynamicResults.clear();
+            this.staticResults.clear();
+        }
+
+        private void addDynamic(DynamicGameObject object, boolean hit) {
+            if (this.dynamicCount == this.dynamicCandidates.length) {
+                this.dynamicCandidates = Arrays.copyOf(this.dynamicCandidates, this.dynamicCount * 2);
+                this.dynamicHits = Arrays.copyOf(this.dynamicHits, this.dynamicCount * 2);
+            }
+            this.dynamicCandidates[this.dynamicCount] = object;
+            this.dynamicHits[this.dynamicCount++] = hit;
+        }
+
+        private void addStatic(StaticGameObject object, boolean hit) {
+            if (this.staticCount == this.staticCandidates.length) {
+                this.staticCandidates = Arrays.copyOf(this.staticCandidates, this.staticCount * 2);
+                this.staticHits = Arrays.copyOf(this.staticHits, this.staticCount * 2);
+            }
+            this.staticCandidates[this.staticCount] = object;
+            this.staticHits[this.staticCount++] = hit;
+        }
+
+        /**
+         * Releases every reference held from the last frame.
+         */
+        private void clear() {
+            Arrays.fill(this.dynamicCandidates, 0, this.dynamicCount, null);
+            Arrays.fill(this.staticCandidates, 0, this.staticCount, null);
+            this.engine = null;
+            this.objects = null;
+            this.broadPhase = null;
+        }
+
+    }
+
+}
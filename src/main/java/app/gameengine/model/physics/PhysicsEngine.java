@@ -1,10 +1,12 @@
 package app.gameengine.model.physics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import app.Settings;
 import app.gameengine.Level;
 import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
 
 /**
@@ -13,6 +15,16 @@ import app.gameengine.model.gameobjects.StaticGameObject;
  * This class is meant to be the used when updating objects to apply physics and
  * object interactions. Whenever objects collide, that should be observed and
  * handled from here.
+ * <p>
+ * Objects that are {@link DynamicGameObject#isFast() fast} may move further
+ * than their own size in a single update, and could pass straight through a
+ * thin wall. After every object has been updated, the path of each fast object
+ * is swept, and it is moved back to the first solid object it would have
+ * entered, so that the collision is still processed.
+ * <p>
+ * The engine also remembers which pairs of objects were colliding during the
+ * last update, and uses that to fire {@link Collidable#onCollisionEnter},
+ * {@link Collidable#onCollisionStay}, and {@link Collidable#onCollisionExit}.
  * 
  * @see Collidable
  * @see DynamicGameObject
@@ -21,21 +33,128 @@ import app.gameengine.model.gameobjects.StaticGameObject;
  */
 public class PhysicsEngine {
 
+    // Reused between queries to avoid allocating every frame
+    protected final ArrayList<DynamicGameObject> dynamicCandidates = new ArrayList<>();
+    protected final ArrayList<StaticGameObject> staticCandidates = new ArrayList<>();
+
+    // How far a fast object is moved into the first object it would have hit, so
+    // that the collision is detected
+    private static final double CONTACT_DEPTH = 0.01;
+
+    private int sleepingObjectCount;
+    private int candidatePairCount;
+    private int rejectedPairCount;
+
+    // Fast objects moved during the current update, and where their hitboxes
+    // started, reused every frame to avoid allocating
+    private final ArrayList<DynamicGameObject> fastObjects = new ArrayList<>();
+    private double[] fastStartX = new double[8];
+    private double[] fastStartY = new double[8];
+
+    private ParallelCollisionPass parallelPass;
+    private final ContactCache contacts = new ContactCache();
+    // The broad phase already synced during this step, if any
+    private BroadPhase syncedBroadPhase;
+
     /**
      * Update the physics for an entire level. This means updating each dynamic
      * object according to its velocity, and handling all collisions within the
-     * level.
+     * level. Objects that are asleep are not updated, and fast objects are
+     * stopped at the first solid object in their path. Only objects in the active
+     * chunks of the level are updated.
      * 
      * @param dt    the time elapsed since the last update, in seconds
      * @param level the level being updated
+     * @see DynamicGameObject#isSleeping()
+     * @see DynamicGameObject#isFast()
+     * @see Level#getActiveDynamicObjects()
      */
     public void updateLevel(double dt, Level level) {
-        for (DynamicGameObject gameObject : level.getDynamicObjects()) {
-            updateObject(dt, gameObject);
+        this.sleepingObjectCount = 0;
+        this.syncedBroadPhase = null;
+        for (DynamicGameObject gameObject : level.getActiveDynamicObjects()) {
+            gameObject.updateSleepState();
+            if (gameObject.isSleeping()) {
+                this.sleepingObjectCount++;
+            } else {
+                if (gameObject.isFast()) {
+                    addFastObject(gameObject);
+                }
+                updateObject(dt, gameObject);
+            }
         }
+        sweepFastObjects(level);
         processAllCollisions(level);
     }
 
+    /**
+     * Returns the number of dynamic objects that were asleep during the last call
+     * to {@link #updateLevel(double, Level)}.
+     * 
+     * @return the number of sleeping objects
+     */
+    public int getSleepingObjectCount() {
+        return this.sleepingObjectCount;
+    }
+
+    /**
+     * Returns the number of pairs returned by the broadphase during the last call
+     * to {@link #processAllCollisions(Level)}.
+     * 
+     * @return the number of candidate pairs
+     */
+    public int getCandidatePairCount() {
+        return this.candidatePairCount;
+    }
+
+    /**
+     * Returns the number of candidate pairs that were skipped during the last call
+     * to {@link #processAllCollisions(Level)} because of their collision layers,
+     * without checking their hitboxes.
+     * 
+     * @return the number of rejected pairs
+     * @see CollisionLayers
+     */
+    public int getRejectedPairCount() {
+        return this.rejectedPairCount;
+    }
+
+    /**
+     * Returns whether collisions are found using several threads.
+     * 
+     * @return {@code true} if collisions are processed in parallel,
+     *         {@code false} otherwise
+     * @see #setParallel(boolean)
+     */
+    public boolean isParallel() {
+        return this.parallelPass != null;
+    }
+
+    /**
+     * Sets whether collisions are found using several threads. When enabled,
+     * broadphase queries and {@link #detectCollision(Hitbox, Hitbox)} are run for
+     * many objects at once on the common {@code ForkJoinPool}, while the collision
+     * callbacks are still run one at a time on the calling thread. Collisions are
+     * handled in exactly the same order either way, so this can be toggled to
+     * compare the two.
+     * <p>
+     * This requires {@link #detectCollision(Hitbox, Hitbox)} to be safe to call
+     * from several threads, and only takes effect if the level's
+     * {@link BroadPhase#supportsConcurrentQueries() broadphase} allows it. It
+     * only pays off for levels with many dynamic objects. Engines that override
+     * {@link #processAllCollisions(Level)} are not affected.
+     * 
+     * @param parallel {@code true} to process collisions in parallel,
+     *                 {@code false} to process them on a single thread
+     */
+    public void setParallel(boolean parallel) {
+        if (!parallel) {
+            this.parallelPass = null;
+        } else if (this.parallelPass == null) {
+            this.parallelPass = new ParallelCollisionPass(this);
+        }
+    }
+
     /**
      * Update a single dynamic object according to its velocity.
      * 
@@ -50,6 +169,10 @@ public class PhysicsEngine {
      * Detect whether a collision between two hitboxes has occurred. A collision is
      * defined as the two hitboxes having an overlapping distance of strictly
      * greater than 0.
+     * <p>
+     * This is called for every nearby pair of objects, so
+     * {@link Hitbox#getMinX()} and the related methods should be preferred over
+     * {@link Hitbox#getLocation()}, which creates a new vector on every call.
      * 
      * @param hitbox1 the first hitbox
      * @param hitbox2 the second hitbox
@@ -66,6 +189,9 @@ public class PhysicsEngine {
      * <p>
      * This method assumes that the hitboxes are already colliding, and the results
      * are undefined otherwise.
+     * <p>
+     * As with {@link #detectCollision(Hitbox, Hitbox)}, this is called often, and
+     * should avoid creating new vectors.
      * 
      * @param hitbox1 the first hitbox
      * @param hitbox2 the second hitbox
@@ -79,35 +205,349 @@ public class PhysicsEngine {
      * Process all collisions within a level. This means that for each dynamic
      * object, detect which other dynamic or static objects it is colliding with,
      * and defer collision behavior to the respective objects.
+     * <p>
+     * Rather than checking every pair of objects, the level's {@link BroadPhase}
+     * is used to find the objects that may be colliding.
+     * Collisions are still handled in the same order as if every pair were
+     * checked: for each dynamic object in list order, first every later dynamic
+     * object, then every static object.
+     * <p>
+     * Pairs of sleeping objects, and sleeping objects with static objects, are
+     * skipped. A sleeping object is woken up if a moving object collides with it.
+     * <p>
+     * Pairs whose {@link CollisionLayers collision layers} don't interact are
+     * skipped before their hitboxes are checked, as are dynamic objects outside
+     * the {@link Level#isActive(GameObject) active} chunks of the level.
      * 
      * @param level the level being updated
+     * @see #setParallel(boolean)
      */
     public void processAllCollisions(Level level) {
-        ArrayList<DynamicGameObject> dynamicObjects = level.getDynamicObjects();
-        ArrayList<StaticGameObject> staticObjects = level.getStaticObjects();
+        ArrayList<DynamicGameObject> dynamicObjects = level.getActiveDynamicObjects();
+        BroadPhase broadPhase = updateBroadPhase(level);
+        resetPairCounts();
+        if (this.parallelPass != null && broadPhase.supportsConcurrentQueries()) {
+            this.parallelPass.process(level, dynamicObjects, broadPhase);
+            expireContacts();
+            return;
+        }
 
         for (int i = 0; i < dynamicObjects.size(); i++) {
             DynamicGameObject object1 = dynamicObjects.get(i);
             if (Settings.noclip() && object1.isPlayer()) {
                 continue;
             }
-            for (int j = i + 1; j < dynamicObjects.size(); j++) {
-                DynamicGameObject object2 = dynamicObjects.get(j);
+            broadPhase.refresh(object1);
+            broadPhase.queryDynamicObjects(object1, object1, this.dynamicCandidates);
+            for (int j = 0; j < this.dynamicCandidates.size(); j++) {
+                DynamicGameObject object2 = this.dynamicCandidates.get(j);
                 if (Settings.noclip() && object2.isPlayer()) {
                     continue;
                 }
+                if (!level.isActive(object2)) {
+                    continue;
+                }
+                if (object1.isSleeping() && object2.isSleeping()) {
+                    continue;
+                }
+                if (!canCollide(object1, object2)) {
+                    continue;
+                }
                 if (detectCollision(object1.getHitbox(), object2.getHitbox())) {
                     object1.collideWithDynamicObject(object2);
                     object2.collideWithDynamicObject(object1);
+                    reportContact(object1, object2);
+                    wakeOnContact(object1, object2);
+                    broadPhase.refresh(object2);
+                    if (broadPhase.refresh(object1)) {
+                        // Results may be out of date, so look for later objects from the new location
+                        broadPhase.queryDynamicObjects(object1, object2, this.dynamicCandidates);
+                        j = -1;
+                    }
                 }
             }
-            for (int j = 0; j < staticObjects.size(); j++) {
-                StaticGameObject staticObject = staticObjects.get(j);
+            if (object1.isSleeping()) {
+                continue;
+            }
+            broadPhase.queryStaticObjects(object1, null, this.staticCandidates);
+            for (int j = 0; j < this.staticCandidates.size(); j++) {
+                StaticGameObject staticObject = this.staticCandidates.get(j);
+                if (!canCollide(object1, staticObject)) {
+                    continue;
+                }
                 if (detectCollision(object1.getHitbox(), staticObject.getHitbox())) {
                     staticObject.collideWithDynamicObject(object1);
                     object1.collideWithStaticObject(staticObject);
+                    reportContact(staticObject, object1);
+                    if (broadPhase.refresh(object1)) {
+                        broadPhase.queryStaticObjects(object1, staticObject, this.staticCandidates);
+                        j = -1;
+                    }
                 }
             }
         }
+        expireContacts();
+    }
+
+    /**
+     * Syncs the level's broad phase with its objects, and returns it. If fast
+     * objects were swept earlier in this step, the broad phase was already
+     * synced, and isn't synced again.
+     * 
+     * @param level the level being updated
+     * @return the level's broad phase
+     */
+    protected BroadPhase updateBroadPhase(Level level) {
+        BroadPhase broadPhase = level.getBroadPhase();
+        if (broadPhase != this.syncedBroadPhase) {
+            broadPhase.update(level);
+        }
+        this.syncedBroadPhase = null;
+        return broadPhase;
+    }
+
+    private void addFastObject(DynamicGameObject object) {
+        int index = this.fastObjects.size();
+        if (index == this.fastStartX.length) {
+            this.fastStartX = Arrays.copyOf(this.fastStartX, index * 2);
+            this.fastStartY = Arrays.copyOf(this.fastStartY, index * 2);
+        }
+        this.fastObjects.add(object);
+        this.fastStartX[index] = object.getHitbox().getMinX();
+        this.fastStartY[index] = object.getHitbox().getMinY();
+    }
+
+    /**
+     * Sweeps the hitbox of each fast object from where it started this update to
+     * where it ended up. If it would have entered an object that
+     * {@link #stopsFastObject(DynamicGameObject, GameObject)} along the way, it is
+     * moved back to just inside the first one. Only objects that moved more than
+     * half their own size are swept, as slower objects can't skip past anything.
+     * <p>
+     * By default only solid static objects stop fast objects, so a fast object
+     * may still skip past pickups and other dynamic objects.
+     * 
+     * @param level the level being updated
+     */
+    protected void sweepFastObjects(Level level) {
+        if (this.fastObjects.isEmpty()) {
+            return;
+        }
+        BroadPhase broadPhase = level.getBroadPhase();
+        broadPhase.update(level);
+        // Objects moved by the sweep are refreshed, so the collision pass can reuse this update
+        this.syncedBroadPhase = broadPhase;
+        for (int i = 0; i < this.fastObjects.size(); i++) {
+            DynamicGameObject object = this.fastObjects.get(i);
+            if (!(Settings.noclip() && object.isPlayer())) {
+                sweep(object, this.fastStartX[i], this.fastStartY[i], broadPhase);
+            }
+        }
+        this.fastObjects.clear();
+    }
+
+    private void sweep(DynamicGameObject object, double startX, double startY, BroadPhase broadPhase) {
+        Hitbox hitbox = object.getHitbox();
+        double endX = hitbox.getMinX();
+        double endY = hitbox.getMinY();
+        double width = hitbox.getDimensions().getX();
+        double height = hitbox.getDimensions().getY();
+        double dx = endX - startX;
+        double dy = endY - startY;
+        if (!(Math.abs(dx) > width / 2 || Math.abs(dy) > height / 2)) {
+            return;
+        }
+        double minX = Math.min(startX, endX);
+        double minY = Math.min(startY, endY);
+        double maxX = Math.max(startX, endX) + width;
+        double maxY = Math.max(startY, endY) + height;
+        double time = 1;
+        broadPhase.queryStaticObjects(minX, minY, maxX, maxY, this.staticCandidates);
+        for (int i = 0; i < this.staticCandidates.size(); i++) {
+            StaticGameObject other = this.staticCandidates.get(i);
+            if (stopsFastObject(object, other) && CollisionLayers.canCollide(object, other)) {
+                time = Math.min(time, sweepTime(startX, startY, width, height, dx, dy, other.getHitbox()));
+            }
+        }
+        broadPhase.queryDynamicObjects(minX, minY, maxX, maxY, this.dynamicCandidates);
+        for (int i = 0; i < this.dynamicCandidates.size(); i++) {
+            DynamicGameObject other = this.dynamicCandidates.get(i);
+            if (other == object || (Settings.noclip() && other.isPlayer())) {
+                continue;
+            }
+            if (stopsFastObject(object, other) && CollisionLayers.canCollide(object, other)) {
+                time = Math.min(time, sweepTime(startX, startY, width, height, dx, dy, other.getHitbox()));
+            }
+        }
+        this.staticCandidates.clear();
+        this.dynamicCandidates.clear();
+        if (time < 1) {
+            Vector2D location = object.getLocation();
+            object.setLocation(location.getX() - dx * (1 - time), location.getY() - dy * (1 - time));
+            broadPhase.refresh(object);
+        }
+    }
+
+    /**
+     * Returns whether a fast object that would pass through another object while
+     * moving should be stopped at it. Contact between two dynamic objects only
+     * notifies them and never blocks movement, so by default only solid static
+     * objects, such as walls, stop fast objects. Engines where other objects
+     * should stop them, such as projectiles that must always hit enemies, may
+     * override this.
+     * 
+     * @param object the fast object being swept
+     * @param other  an object in its path
+     * @return {@code true} if {@code object} should stop at {@code other}
+     * @see #sweepFastObjects(Level)
+     */
+    protected boolean stopsFastObject(DynamicGameObject object, GameObject other) {
+        return other instanceof StaticGameObject && other.isSolid();
+    }
+
+    /**
+     * Returns the fraction of a movement at which a moving hitbox should be
+     * placed so that it has just entered the target hitbox, or 1 if it never
+     * enters the target. Targets that the hitbox already overlapped before
+     * moving are ignored.
+     * 
+     * @param startX the left edge of the moving hitbox before it moved
+     * @param startY the top edge of the moving hitbox before it moved
+     * @param width  the width of the moving hitbox
+     * @param height the height of the moving hitbox
+     * @param dx     how far the hitbox moved horizontally
+     * @param dy     how far the hitbox moved vertically
+     * @param target the hitbox it may have entered
+     * @return the fraction of the movement to keep, from 0 to 1
+     */
+    public static double sweepTime(double startX, double startY, double width, double height, double dx,
+            double dy, Hitbox target) {
+        // Sweep a point against the target grown by the size of the moving hitbox
+        double minX = target.getMinX() - width;
+        double minY = target.getMinY() - height;
+        double maxX = target.getMaxX();
+        double maxY = target.getMaxY();
+        double entryX;
+        double exitX;
+        if (dx == 0) {
+            if (!(minX < startX && startX < maxX)) {
+                return 1;
+            }
+            entryX = Double.NEGATIVE_INFINITY;
+            exitX = Double.POSITIVE_INFINITY;
+        } else {
+            entryX = ((dx > 0 ? minX : maxX) - startX) / dx;
+            exitX = ((dx > 0 ? maxX : minX) - startX) / dx;
+        }
+        double entryY;
+        double exitY;
+        if (dy == 0) {
+            if (!(minY < startY && startY < maxY)) {
+                return 1;
+            }
+            entryY = Double.NEGATIVE_INFINITY;
+            exitY = Double.POSITIVE_INFINITY;
+        } else {
+            entryY = ((dy > 0 ? minY : maxY) - startY) / dy;
+            exitY = ((dy > 0 ? maxY : minY) - startY) / dy;
+        }
+        double entry = Math.max(entryX, entryY);
+        double exit = Math.min(exitX, exitY);
+        if (!(entry < exit) || entry < 0 || entry >= 1) {
+            return 1;
+        }
+        // Move slightly past the point of contact, but never out the other side
+        double speed = entryX > entryY ? Math.abs(dx) : Math.abs(dy);
+        return Math.min(1, Math.min(entry + CONTACT_DEPTH / speed, (entry + exit) / 2));
+    }
+
+    /**
+     * Resets the counts returned by {@link #getCandidatePairCount()} and
+     * {@link #getRejectedPairCount()}. Should be called at the start of
+     * {@link #processAllCollisions(Level)}.
+     */
+    protected void resetPairCounts() {
+        this.candidatePairCount = 0;
+        this.rejectedPairCount = 0;
+    }
+
+    /**
+     * Returns whether a candidate pair may collide according to their collision
+     * layers, and counts the pair.
+     * 
+     * @param collidable1 the first object
+     * @param collidable2 the second object
+     * @return {@code true} if the pair should be checked for a collision
+     * @see CollisionLayers#canCollide(Collidable, Collidable)
+     */
+    protected boolean canCollide(Collidable collidable1, Collidable collidable2) {
+        this.candidatePairCount++;
+        if (CollisionLayers.canCollide(collidable1, collidable2)) {
+            return true;
+        }
+        this.rejectedPairCount++;
+        return false;
+    }
+
+    /**
+     * Records that two objects are colliding during the current call to
+     * {@link #processAllCollisions(Level)}, and fires
+     * {@link Collidable#onCollisionEnter} on both if they weren't colliding during
+     * the last call, or {@link Collidable#onCollisionStay} otherwise. Should be
+     * called right after the collision methods of each collision.
+     * 
+     * @param object1 the first object in the collision
+     * @param object2 the second object in the collision
+     */
+    protected void reportContact(GameObject object1, GameObject object2) {
+        this.contacts.report(object1, object2);
+    }
+
+    /**
+     * Fires {@link Collidable#onCollisionExit} on every pair of objects that was
+     * colliding during the last call to {@link #processAllCollisions(Level)}, but
+     * has not been reported during this one. Should be called at the end of
+     * {@link #processAllCollisions(Level)}.
+     */
+    protected void expireContacts() {
+        this.contacts.expire();
+    }
+
+    /**
+     * Forgets every pair of objects currently in contact, without firing
+     * {@link Collidable#onCollisionExit}. This is called whenever a level is loaded
+     * or reset, as every object is put back where it started.
+     */
+    public void clearContacts() {
+        this.contacts.clear();
+    }
+
+    /**
+     * Returns the number of pairs of objects currently in contact.
+     * 
+     * @return the number of contacts
+     */
+    public int getContactCount() {
+        return this.contacts.size();
+    }
+
+    /**
+     * Wakes up either object if it is asleep and the other object is moving.
+     * Objects resting against each other do not wake each other up.
+     * 
+     * @param object1 the first object in the collision
+     * @param object2 the second object in the collision
+     */
+    protected void wakeOnContact(DynamicGameObject object1, DynamicGameObject object2) {
+        if (object1.isSleeping() && isMoving(object2)) {
+            object1.wakeUp();
+        }
+        if (object2.isSleeping() && isMoving(object1)) {
+            object2.wakeUp();
+        }
+    }
+
+    private static boolean isMoving(DynamicGameObject object) {
+        return object.getVelocity().getX() != 0 || object.getVelocity().getY() != 0;
     }
 }
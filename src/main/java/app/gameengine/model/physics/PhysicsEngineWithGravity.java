@@ -1,12 +1,12 @@
 package app.gameengine.model.physics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import app.Settings;
 import app.gameengine.Level;
 import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
-import javafx.util.Pair;
 
 /**
  * Physics engine that applies downward acceleration.
@@ -22,6 +22,11 @@ public class PhysicsEngineWithGravity extends PhysicsEngine {
 
     private static double DEFAULT_GRAVITY = 40;
 
+    // Collisions found for the current object, as indices into the candidate
+    // lists, reused every frame to avoid allocating
+    private int[] collisionIndices = new int[8];
+    private double[] collisionOverlaps = new double[8];
+
     public PhysicsEngineWithGravity() {
         this(DEFAULT_GRAVITY);
     }
@@ -30,10 +35,30 @@ public class PhysicsEngineWithGravity extends PhysicsEngine {
         super();
     }
 
+    /**
+     * Process all collisions within a level. For each dynamic object, collisions
+     * with static objects are handled first, from largest to smallest overlap,
+     * followed by collisions with dynamic objects, from smallest to largest
+     * overlap. Objects with equal overlap are handled in list order. Only objects
+     * returned by the level's {@link BroadPhase} are checked.
+     * <p>
+     * The overlap of each candidate is computed once, and both finds the
+     * initial collisions and orders them. Each collision is detected again just
+     * before it is handled, as handling earlier collisions may have moved the
+     * object.
+     * <p>
+     * As in {@link PhysicsEngine#processAllCollisions(Level)}, sleeping objects
+     * are only checked against objects that are awake, and pairs whose collision
+     * layers don't interact, or that include a frozen dynamic object, are
+     * skipped.
+     * 
+     * @param level the level being updated
+     */
     @Override
     public void processAllCollisions(Level level) {
-        ArrayList<DynamicGameObject> dynamicObjects = level.getDynamicObjects();
-        ArrayList<StaticGameObject> staticObjects = level.getStaticObjects();
+        ArrayList<DynamicGameObject> dynamicObjects = level.getActiveDynamicObjects();
+        BroadPhase broadPhase = updateBroadPhase(level);
+        resetPairCounts();
 
         for (int i = 0; i < dynamicObjects.size(); i++) {
             DynamicGameObject object1 = dynamicObjects.get(i);
@@ -41,44 +66,101 @@ public class PhysicsEngineWithGravity extends PhysicsEngine {
                 continue;
             }
             // Detect initial static object collisions
-            ArrayList<Pair<StaticGameObject, Double>> staticCollisions = new ArrayList<>();
-            for (StaticGameObject object2 : staticObjects) {
-                double overlap = getOverlap(object1.getHitbox(), object2.getHitbox());
+            broadPhase.refresh(object1);
+            if (object1.isSleeping()) {
+                this.staticCandidates.clear();
+            } else {
+                broadPhase.queryStaticObjects(object1, null, this.staticCandidates);
+            }
+            int collisionCount = 0;
+            for (int j = 0; j < this.staticCandidates.size(); j++) {
+                StaticGameObject staticObject = this.staticCandidates.get(j);
+                if (!canCollide(object1, staticObject)) {
+                    continue;
+                }
+                double overlap = getOverlap(object1.getHitbox(), staticObject.getHitbox());
                 if (overlap > 0) {
-                    staticCollisions.add(new Pair<>(object2, overlap));
+                    collisionCount = addCollision(collisionCount, j, overlap);
                 }
             }
             // Process static object collisions in order of distance
-            staticCollisions.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
-            for (int j = 0; j < staticCollisions.size(); j++) {
-                StaticGameObject staticObject = staticCollisions.get(j).getKey();
+            sortCollisions(collisionCount, true);
+            for (int j = 0; j < collisionCount; j++) {
+                StaticGameObject staticObject = this.staticCandidates.get(this.collisionIndices[j]);
                 if (detectCollision(object1.getHitbox(), staticObject.getHitbox())) {
                     staticObject.collideWithDynamicObject(object1);
                     object1.collideWithStaticObject(staticObject);
+                    reportContact(staticObject, object1);
                 }
             }
             // Detect initial dynamic object collisions
-            ArrayList<Pair<DynamicGameObject, Double>> dynamicCollisions = new ArrayList<>();
-            for (int j = i + 1; j < dynamicObjects.size(); j++) {
-                DynamicGameObject object2 = dynamicObjects.get(j);
+            broadPhase.refresh(object1);
+            broadPhase.queryDynamicObjects(object1, object1, this.dynamicCandidates);
+            collisionCount = 0;
+            for (int j = 0; j < this.dynamicCandidates.size(); j++) {
+                DynamicGameObject object2 = this.dynamicCandidates.get(j);
                 if (Settings.noclip() && object2.isPlayer()) {
                     continue;
                 }
+                if (!level.isActive(object2)) {
+                    continue;
+                }
+                if (object1.isSleeping() && object2.isSleeping()) {
+                    continue;
+                }
+                if (!canCollide(object1, object2)) {
+                    continue;
+                }
                 double overlap = getOverlap(object1.getHitbox(), object2.getHitbox());
                 if (overlap > 0) {
-                    dynamicCollisions.add(new Pair<>(object2, overlap));
+                    collisionCount = addCollision(collisionCount, j, overlap);
                 }
             }
             // Process dynamic object collisions in order of distance
-            dynamicCollisions.sort((a, b) -> Double.compare(a.getValue(), b.getValue()));
-            for (int j = 0; j < dynamicCollisions.size(); j++) {
-                DynamicGameObject object2 = dynamicCollisions.get(j).getKey();
+            sortCollisions(collisionCount, false);
+            for (int j = 0; j < collisionCount; j++) {
+                DynamicGameObject object2 = this.dynamicCandidates.get(this.collisionIndices[j]);
                 if (detectCollision(object1.getHitbox(), object2.getHitbox())) {
                     object1.collideWithDynamicObject(object2);
                     object2.collideWithDynamicObject(object1);
+                    reportContact(object1, object2);
+                    wakeOnContact(object1, object2);
+                    broadPhase.refresh(object2);
                 }
             }
         }
+        expireContacts();
+    }
+
+    private int addCollision(int count, int candidateIndex, double overlap) {
+        if (count == this.collisionIndices.length) {
+            this.collisionIndices = Arrays.copyOf(this.collisionIndices, count * 2);
+            this.collisionOverlaps = Arrays.copyOf(this.collisionOverlaps, count * 2);
+        }
+        this.collisionIndices[count] = candidateIndex;
+        this.collisionOverlaps[count] = overlap;
+        return count + 1;
+    }
+
+    /**
+     * Sorts the first {@code count} collisions by overlap. The sort is stable, so
+     * collisions with equal overlap stay in list order. An object rarely collides
+     * with more than a few others at once, so insertion sort is used.
+     */
+    private void sortCollisions(int count, boolean largestFirst) {
+        for (int i = 1; i < count; i++) {
+            int index = this.collisionIndices[i];
+            double overlap = this.collisionOverlaps[i];
+            int j = i - 1;
+            while (j >= 0 && (largestFirst ? Double.compare(overlap, this.collisionOverlaps[j]) > 0
+                    : Double.compare(overlap, this.collisionOverlaps[j]) < 0)) {
+                this.collisionIndices[j + 1] = this.collisionIndices[j];
+                this.collisionOverlaps[j + 1] = this.collisionOverlaps[j];
+                j--;
+            }
+            this.collisionIndices[j + 1] = index;
+            this.collisionOverlaps[j + 1] = overlap;
+        }
     }
 
 }
@@ -0,0 +1,120 @@
+package app.gameengine.model.physics;
+
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+
+/**
+ * The result of a raycast: the first object hit, and where the ray hit it.
+ * <p>
+ * A single {@code RaycastHit} can be reused for many raycasts, so that casting
+ * rays every frame doesn't create any objects.
+ *
+ * @see Level#raycast(Vector2D, Vector2D, double, int, RaycastHit)
+ */
+public class RaycastHit {
+
+    private GameObject object;
+    private double distance;
+    private double x;
+    private double y;
+
+    /**
+     * Returns the object that was hit, or {@code null} if nothing was hit.
+     *
+     * @return the object hit
+     */
+    public GameObject getObject() {
+        return this.object;
+    }
+
+    /**
+     * Returns the distance along the ray, in tiles, from its origin to the edge of
+     * the object that was hit.
+     *
+     * @return the distance to the hit
+     */
+    public double getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * Returns the x coordinate of the point where the ray entered the object.
+     *
+     * @return the x coordinate of the hit
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Returns the y coordinate of the point where the ray entered the object.
+     *
+     * @return the y coordinate of the hit
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * Sets the result of a raycast. This is used by whatever performs the
+     * raycast, and should not be used otherwise.
+     *
+     * @param object   the object hit, or {@code null} if nothing was hit
+     * @param distance the distance to the hit
+     * @param x        the x coordinate of the hit
+     * @param y        the y coordinate of the hit
+     */
+    public void set(GameObject object, double distance, double x, double y) {
+        this.object = object;
+        this.distance = distance;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the distance along a ray at which it enters the given hitbox, or
+     * {@link Double#POSITIVE_INFINITY} if it never does. Rays that only touch the
+     * edge of the hitbox don't enter it, and neither do rays that start inside it.
+     *
+     * @param originX    the x coordinate of the origin of the ray
+     * @param originY    the y coordinate of the origin of the ray
+     * @param directionX the x component of the ray's direction, as a unit vector
+     * @param directionY the y component of the ray's direction, as a unit vector
+     * @param hitbox     the hitbox
+     * @return the distance to the hitbox
+     */
+    public static double entryDistance(double originX, double originY, double directionX, double directionY,
+            Hitbox hitbox) {
+        double minX = hitbox.getMinX();
+        double minY = hitbox.getMinY();
+        double maxX = hitbox.getMaxX();
+        double maxY = hitbox.getMaxY();
+        if (minX < originX && originX < maxX && minY < originY && originY < maxY) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double entry = 0;
+        double exit = Double.POSITIVE_INFINITY;
+        if (directionX == 0) {
+            if (!(minX < originX && originX < maxX)) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (minX - originX) / directionX;
+            double t2 = (maxX - originX) / directionX;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (directionY == 0) {
+            if (!(minY < originY && originY < maxY)) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (minY - originY) / directionY;
+            double t2 = (maxY - originY) / directionY;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return entry < exit ? entry : Double.POSITIVE_INFINITY;
+    }
+
+}
@@ -0,0 +1,320 @@
+package app.gameengine.model.physics;
+
+import java.util.Arrays;
+
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+
+/**
+ * Uniform grid broadphase for finding which objects may be colliding.
+ * <p>
+ * Every object in a {@link Level} is bucketed into each square cell its
+ * {@code Hitbox} overlaps. Two objects can only be colliding if they share at
+ * least one cell, so the physics engine only needs to run the narrowphase
+ * ({@link PhysicsEngine#detectCollision(Hitbox, Hitbox)}) on objects returned
+ * by a query, rather than on every object in the level.
+ * <p>
+ * Objects are only re-bucketed if their hitbox moves into different cells. This
+ * works well for levels where objects are spread out in both directions, such
+ * as top-down levels, and is the default {@link BroadPhase} for every level.
+ *
+ * @see BroadPhase
+ * @see PhysicsEngine
+ * @see Level
+ * @see Hitbox
+ */
+public class SpatialHashGrid extends AbstractBroadPhase {
+
+    /**
+     * Default width and height of each cell, in tiles.
+     */
+    public static final double DEFAULT_CELL_SIZE = 1.0;
+
+    /**
+     * Objects covering more than this many cells are not bucketed, and are
+     * returned by every query instead.
+     */
+    private static final int MAX_CELLS_PER_OBJECT = 256;
+
+    private final double cellSize;
+
+    private final CellTable staticCells = new CellTable();
+    private final CellTable dynamicCells = new CellTable();
+    private final Cell staticOversized = new Cell();
+    private final Cell dynamicOversized = new Cell();
+
+    /**
+     * Constructs a grid with cells of {@value #DEFAULT_CELL_SIZE} tiles.
+     */
+    public SpatialHashGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs a grid with cells of the given size. Cells should be roughly the
+     * size of the typical object in the level, as much smaller cells mean each
+     * object is bucketed many times, and much larger cells mean more objects are
+     * returned by each query.
+     *
+     * @param cellSize the width and height of each cell, in tiles
+     */
+    public SpatialHashGrid(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Returns the width and height of each cell, in tiles.
+     *
+     * @return the cell size
+     */
+    public double getCellSize() {
+        return this.cellSize;
+    }
+
+    @Override
+    protected Proxy createProxy(GameObject object, boolean isStatic) {
+        return new GridProxy(object, isStatic);
+    }
+
+    @Override
+    protected void insertProxy(Proxy proxy) {
+        GridProxy gridProxy = (GridProxy) proxy;
+        if (isOversized(proxy.minX, proxy.minY, proxy.maxX, proxy.maxY)) {
+            gridProxy.oversized = true;
+            oversizedFor(proxy).add(gridProxy);
+            return;
+        }
+        CellTable cells = cellsFor(proxy);
+        gridProxy.oversized = false;
+        gridProxy.minCellX = toCell(proxy.minX);
+        gridProxy.minCellY = toCell(proxy.minY);
+        gridProxy.maxCellX = toMaxCell(proxy.maxX, gridProxy.minCellX);
+        gridProxy.maxCellY = toMaxCell(proxy.maxY, gridProxy.minCellY);
+        for (int cellX = gridProxy.minCellX; cellX <= gridProxy.maxCellX; cellX++) {
+            for (int cellY = gridProxy.minCellY; cellY <= gridProxy.maxCellY; cellY++) {
+                cells.getOrCreate(cellX, cellY).add(gridProxy);
+            }
+        }
+    }
+
+    @Override
+    protected void removeProxy(Proxy proxy) {
+        GridProxy gridProxy = (GridProxy) proxy;
+        if (gridProxy.oversized) {
+            oversizedFor(proxy).remove(gridProxy);
+            return;
+        }
+        CellTable cells = cellsFor(proxy);
+        for (int cellX = gridProxy.minCellX; cellX <= gridProxy.maxCellX; cellX++) {
+            for (int cellY = gridProxy.minCellY; cellY <= gridProxy.maxCellY; cellY++) {
+                Cell cell = cells.get(cellX, cellY);
+                if (cell != null) {
+                    cell.remove(gridProxy);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean moveProxy(Proxy proxy) {
+        GridProxy gridProxy = (GridProxy) proxy;
+        boolean oversize = isOversized(proxy.minX, proxy.minY, proxy.maxX, proxy.maxY);
+        if (oversize && gridProxy.oversized) {
+            return false;
+        }
+        if (!oversize && !gridProxy.oversized) {
+            int minCellX = toCell(proxy.minX);
+            int minCellY = toCell(proxy.minY);
+            if (minCellX == gridProxy.minCellX && minCellY == gridProxy.minCellY
+                    && toMaxCell(proxy.maxX, minCellX) == gridProxy.maxCellX
+                    && toMaxCell(proxy.maxY, minCellY) == gridProxy.maxCellY) {
+                return false;
+            }
+        }
+        removeProxy(proxy);
+        insertProxy(proxy);
+        return true;
+    }
+
+    @Override
+    protected void collectCandidates(Query query, boolean isStatic, double minX, double minY, double maxX,
+            double maxY) {
+        if (isOversized(minX, minY, maxX, maxY)) {
+            // Too large to look up cell by cell, so check every object
+            for (Proxy proxy : isStatic ? getStaticProxies() : getDynamicProxies()) {
+                query.add(proxy);
+            }
+            return;
+        }
+        CellTable cells = isStatic ? this.staticCells : this.dynamicCells;
+        int minCellX = toCell(minX);
+        int minCellY = toCell(minY);
+        int maxCellX = toMaxCell(maxX, minCellX);
+        int maxCellY = toMaxCell(maxY, minCellY);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                Cell cell = cells.get(cellX, cellY);
+                if (cell != null) {
+                    collect(query, cell);
+                }
+            }
+        }
+        collect(query, isStatic ? this.staticOversized : this.dynamicOversized);
+    }
+
+    private static void collect(Query query, Cell cell) {
+        for (int i = 0; i < cell.size; i++) {
+            query.add(cell.proxies[i]);
+        }
+    }
+
+    private CellTable cellsFor(Proxy proxy) {
+        return proxy.isStatic ? this.staticCells : this.dynamicCells;
+    }
+
+    private Cell oversizedFor(Proxy proxy) {
+        return proxy.isStatic ? this.staticOversized : this.dynamicOversized;
+    }
+
+    private boolean isOversized(double minX, double minY, double maxX, double maxY) {
+        if (!Double.isFinite(minX) || !Double.isFinite(minY) || !Double.isFinite(maxX) || !Double.isFinite(maxY)) {
+            return true;
+        }
+        double cellsX = Math.floor(maxX / this.cellSize) - Math.floor(minX / this.cellSize) + 1;
+        double cellsY = Math.floor(maxY / this.cellSize) - Math.floor(minY / this.cellSize) + 1;
+        return cellsX * cellsY > MAX_CELLS_PER_OBJECT;
+    }
+
+    private int toCell(double coordinate) {
+        return (int) Math.floor(coordinate / this.cellSize);
+    }
+
+    /**
+     * Returns the last cell covered by a hitbox ending at {@code coordinate}.
+     * Hitboxes that end exactly on a cell boundary only touch the next cell, so
+     * they are not placed in it.
+     */
+    private int toMaxCell(double coordinate, int minCell) {
+        return Math.max(minCell, (int) Math.ceil(coordinate / this.cellSize) - 1);
+    }
+
+    /**
+     * Proxy that remembers which cells it was placed in.
+     */
+    private static class GridProxy extends Proxy {
+
+        private boolean oversized;
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+
+        private GridProxy(GameObject object, boolean isStatic) {
+            super(object, isStatic);
+        }
+
+    }
+
+    /**
+     * A single bucket of proxies. Proxies are unordered, as query results are
+     * sorted afterwards.
+     */
+    private static class Cell {
+
+        private GridProxy[] proxies = new GridProxy[4];
+        private int size;
+
+        private void add(GridProxy proxy) {
+            if (this.size == this.proxies.length) {
+                this.proxies = Arrays.copyOf(this.proxies, this.size * 2);
+            }
+            this.proxies[this.size++] = proxy;
+        }
+
+        private void remove(GridProxy proxy) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.proxies[i] == proxy) {
+                    this.proxies[i] = this.proxies[--this.size];
+                    this.proxies[this.size] = null;
+                    return;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Open-addressing hash table from cell coordinates to cells. Cells are never
+     * removed once created, so they can be reused as objects move back and forth
+     * without allocating.
+     */
+    private static class CellTable {
+
+        private long[] keys = new long[64];
+        private Cell[] cells = new Cell[64];
+        private int size;
+
+        private Cell get(int cellX, int cellY) {
+            long key = key(cellX, cellY);
+            int mask = this.keys.length - 1;
+            for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+                Cell cell = this.cells[i];
+                if (cell == null) {
+                    return null;
+                } else if (this.keys[i] == key) {
+                    return cell;
+                }
+            }
+        }
+
+        private Cell getOrCreate(int cellX, int cellY) {
+            long key = key(cellX, cellY);
+            int mask = this.keys.length - 1;
+            int i = hash(key) & mask;
+            for (; this.cells[i] != null; i = (i + 1) & mask) {
+                if (this.keys[i] == key) {
+                    return this.cells[i];
+                }
+            }
+            Cell cell = new Cell();
+            this.keys[i] = key;
+            this.cells[i] = cell;
+            if (++this.size * 2 > this.keys.length) {
+                grow();
+            }
+            return cell;
+        }
+
+        private void grow() {
+            long[] oldKeys = this.keys;
+            Cell[] oldCells = this.cells;
+            this.keys = new long[oldKeys.length * 2];
+            this.cells = new Cell[oldCells.length * 2];
+            int mask = this.keys.length - 1;
+            for (int j = 0; j < oldCells.length; j++) {
+                if (oldCells[j] != null) {
+                    int i = hash(oldKeys[j]) & mask;
+                    while (this.cells[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    this.keys[i] = oldKeys[j];
+                    this.cells[i] = oldCells[j];
+                }
+            }
+        }
+
+        private static long key(int cellX, int cellY) {
+            return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+    }
+
+}
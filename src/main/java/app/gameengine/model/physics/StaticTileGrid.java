@@ -0,0 +1,228 @@
+package app.gameengine.model.physics;
+
+import java.util.ArrayList;
+
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+
+/**
+ * Records which static objects fill exactly one tile of a level, so that rays
+ * can be cast by stepping from tile to tile along the ray, only looking at the
+ * objects in each tile it passes through.
+ * <p>
+ * Most static objects, such as walls, have a hitbox that exactly fills a single
+ * tile. Those are stored by tile. All other static objects are kept in a
+ * separate list, and must be checked some other way, such as with a
+ * {@link BroadPhase}. The grid assumes that static objects don't move.
+ *
+ * @see Level#raycast(Vector2D, Vector2D, double, int, RaycastHit)
+ * @see RaycastHit
+ */
+public class StaticTileGrid {
+
+    private final int width;
+    private final int height;
+    private final ArrayList<ArrayList<StaticGameObject>> tiles;
+    private final ArrayList<StaticGameObject> unalignedObjects = new ArrayList<>();
+    private int size;
+
+    /**
+     * Creates an empty grid with the given size, in tiles.
+     *
+     * @param width  the width of the grid
+     * @param height the height of the grid
+     */
+    public StaticTileGrid(int width, int height) {
+        this.width = Math.max(width, 0);
+        this.height = Math.max(height, 0);
+        this.tiles = new ArrayList<>(this.width * this.height);
+        for (int i = 0; i < this.width * this.height; i++) {
+            this.tiles.add(null);
+        }
+    }
+
+    /**
+     * Adds a static object, either to the tile it fills or to the list of
+     * unaligned objects.
+     *
+     * @param object the object to add
+     */
+    public void add(StaticGameObject object) {
+        int tile = tileOf(object);
+        if (tile < 0) {
+            this.unalignedObjects.add(object);
+        } else {
+            if (this.tiles.get(tile) == null) {
+                this.tiles.set(tile, new ArrayList<>(1));
+            }
+            this.tiles.get(tile).add(object);
+        }
+        this.size++;
+    }
+
+    /**
+     * Removes a static object.
+     *
+     * @param object the object to remove
+     */
+    public void remove(StaticGameObject object) {
+        int tile = tileOf(object);
+        boolean removed = tile < 0 ? this.unalignedObjects.remove(object)
+                : this.tiles.get(tile) != null && this.tiles.get(tile).remove(object);
+        if (removed) {
+            this.size--;
+        }
+    }
+
+    /**
+     * Returns the number of objects in the grid, including unaligned objects.
+     *
+     * @return the number of objects
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the static objects that don't exactly fill a single tile within the
+     * grid. These are not checked by
+     * {@link #raycast(double, double, double, double, double, int, boolean, GameObject, RaycastHit)}.
+     *
+     * @return the unaligned objects
+     */
+    public ArrayList<StaticGameObject> getUnalignedObjects() {
+        return this.unalignedObjects;
+    }
+
+    /**
+     * Returns whether an object's hitbox exactly fills a single tile of the grid.
+     *
+     * @param object the object
+     * @return {@code true} if the object is stored by tile, {@code false} if it is
+     *         unaligned
+     */
+    public boolean isAligned(GameObject object) {
+        return tileOf(object) >= 0;
+    }
+
+    /**
+     * Finds the first object stored by tile that a ray enters, stepping through
+     * the tiles along the ray in order. Only objects whose collision layers
+     * overlap {@code layerMask} are hit, and rays that start inside an object
+     * don't hit it.
+     * <p>
+     * If an object is hit closer than the current distance in {@code hit}, the
+     * hit is replaced, so the same hit can be passed to several casts to find the
+     * closest hit overall. Its distance should start at
+     * {@link Double#POSITIVE_INFINITY}.
+     *
+     * @param originX     the x coordinate of the origin of the ray
+     * @param originY     the y coordinate of the origin of the ray
+     * @param directionX  the x component of the ray's direction, as a unit vector
+     * @param directionY  the y component of the ray's direction, as a unit vector
+     * @param maxDistance how far the ray reaches
+     * @param layerMask   the collision layers that the ray can hit
+     * @param solidOnly   whether only solid objects can be hit
+     * @param ignore      an object that can't be hit, or {@code null}
+     * @param hit         the closest hit so far, which is replaced by any closer
+     *                    hit
+     * @return {@code true} if the hit was replaced, {@code false} otherwise
+     */
+    public boolean raycast(double originX, double originY, double directionX, double directionY,
+            double maxDistance, int layerMask, boolean solidOnly, GameObject ignore, RaycastHit hit) {
+        // Skip ahead to where the ray enters the grid, if it starts outside
+        double start = 0;
+        if (originX < 0 || originX >= this.width || originY < 0 || originY >= this.height) {
+            start = gridEntry(originX, originY, directionX, directionY);
+            if (start == Double.POSITIVE_INFINITY) {
+                return false;
+            }
+        }
+        int x = Math.clamp((long) Math.floor(originX + directionX * start), 0, this.width - 1);
+        int y = Math.clamp((long) Math.floor(originY + directionY * start), 0, this.height - 1);
+        int stepX = directionX > 0 ? 1 : directionX < 0 ? -1 : 0;
+        int stepY = directionY > 0 ? 1 : directionY < 0 ? -1 : 0;
+        double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / directionX);
+        double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / directionY);
+        // The distance along the ray to the next vertical and horizontal tile edges
+        double nextX = stepX == 0 ? Double.POSITIVE_INFINITY : ((stepX > 0 ? x + 1 : x) - originX) / directionX;
+        double nextY = stepY == 0 ? Double.POSITIVE_INFINITY : ((stepY > 0 ? y + 1 : y) - originY) / directionY;
+        boolean replaced = false;
+        double distance = start;
+        while (distance <= maxDistance) {
+            ArrayList<StaticGameObject> objects = this.tiles.get(y * this.width + x);
+            if (objects != null) {
+                for (int i = 0; i < objects.size(); i++) {
+                    StaticGameObject object = objects.get(i);
+                    if (object == ignore || (object.getCollisionLayer() & layerMask) == 0
+                            || (solidOnly && !object.isSolid())) {
+                        continue;
+                    }
+                    double entry = RaycastHit.entryDistance(originX, originY, directionX, directionY,
+                            object.getHitbox());
+                    if (entry <= maxDistance && entry < hit.getDistance()) {
+                        hit.set(object, entry, originX + directionX * entry, originY + directionY * entry);
+                        replaced = true;
+                    }
+                }
+            }
+            // Anything in a later tile is entered no sooner than this one is left
+            double exit = Math.min(nextX, nextY);
+            if (hit.getDistance() <= exit || maxDistance < exit) {
+                break;
+            }
+            if (nextX < nextY) {
+                x += stepX;
+                distance = nextX;
+                nextX += deltaX;
+            } else {
+                y += stepY;
+                distance = nextY;
+                nextY += deltaY;
+            }
+            if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
+                break;
+            }
+        }
+        return replaced;
+    }
+
+    private double gridEntry(double originX, double originY, double directionX, double directionY) {
+        double entry = 0;
+        double exit = Double.POSITIVE_INFINITY;
+        if (directionX == 0) {
+            if (originX < 0 || originX >= this.width) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = -originX / directionX;
+            double t2 = (this.width - originX) / directionX;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (directionY == 0) {
+            if (originY < 0 || originY >= this.height) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = -originY / directionY;
+            double t2 = (this.height - originY) / directionY;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return entry < exit ? entry : Double.POSITIVE_INFINITY;
+    }
+
+    private int tileOf(GameObject object) {
+        Hitbox hitbox = object.getHitbox();
+        double minX = hitbox.getMinX();
+        double minY = hitbox.getMinY();
+        if (hitbox.getDimensions().getX() != 1 || hitbox.getDimensions().getY() != 1 || minX != Math.floor(minX)
+                || minY != Math.floor(minY) || minX < 0 || minX >= this.width || minY < 0 || minY >= this.height) {
+            return -1;
+        }
+        return (int) minY * this.width + (int) minX;
+    }
+
+}
@@ -0,0 +1,218 @@
+package app.gameengine.model.physics;
+
+import java.util.ArrayList;
+
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+
+/**
+ * Sort and sweep broadphase for finding which objects may be colliding.
+ * <p>
+ * Objects are kept in an array sorted by the left edge of their {@code Hitbox}.
+ * To find the objects near a given area, a binary search finds the first object
+ * that could reach the area, and the array is scanned until objects start past
+ * the right edge of the area. Since objects move only a little each frame, the
+ * array stays nearly sorted, and is repaired with insertion sort instead of
+ * being sorted from scratch.
+ * <p>
+ * This works best for levels that are much wider than they are tall, such as
+ * platformer levels, where most objects are separated along the x-axis.
+ * Objects much wider than usual are kept in a separate list and returned by
+ * every query, so that they don't slow down the search for everything else.
+ *
+ * @see BroadPhase
+ * @see SpatialHashGrid
+ * @see PhysicsEngine
+ * @see Level
+ */
+public class SweepAndPruneBroadPhase extends AbstractBroadPhase {
+
+    /**
+     * Objects wider than this, in tiles, are returned by every query instead of
+     * being sorted.
+     */
+    private static final double MAX_SORTED_WIDTH = 8.0;
+
+    private final Axis staticAxis = new Axis();
+    private final Axis dynamicAxis = new Axis();
+
+    @Override
+    protected Proxy createProxy(GameObject object, boolean isStatic) {
+        return new SweepProxy(object, isStatic);
+    }
+
+    @Override
+    protected void insertProxy(Proxy proxy) {
+        axisFor(proxy).insert((SweepProxy) proxy);
+    }
+
+    @Override
+    protected void removeProxy(Proxy proxy) {
+        axisFor(proxy).remove((SweepProxy) proxy);
+    }
+
+    @Override
+    protected boolean moveProxy(Proxy proxy) {
+        SweepProxy sweepProxy = (SweepProxy) proxy;
+        Axis axis = axisFor(proxy);
+        if (sweepProxy.wide || isWide(proxy)) {
+            axis.remove(sweepProxy);
+            axis.insert(sweepProxy);
+        } else {
+            axis.resort(sweepProxy);
+        }
+        return true;
+    }
+
+    @Override
+    protected void collectCandidates(Query query, boolean isStatic, double minX, double minY, double maxX,
+            double maxY) {
+        Axis axis = isStatic ? this.staticAxis : this.dynamicAxis;
+        if (!Double.isFinite(minX) || !Double.isFinite(maxX)) {
+            for (int i = 0; i < axis.size; i++) {
+                query.add(axis.sorted[i]);
+            }
+        } else {
+            // Padded slightly so rounding can never skip an overlapping proxy
+            for (int i = axis.lowerBound(minX - axis.maxWidth - 1e-9); i < axis.size; i++) {
+                SweepProxy proxy = axis.sorted[i];
+                if (proxy.minX >= maxX) {
+                    break;
+                }
+                if (proxy.overlaps(minX, minY, maxX, maxY) || !Double.isFinite(minY) || !Double.isFinite(maxY)) {
+                    query.add(proxy);
+                }
+            }
+        }
+        for (SweepProxy proxy : axis.wide) {
+            query.add(proxy);
+        }
+    }
+
+    @Override
+    protected void afterUpdate() {
+        this.staticAxis.updateMaxWidth();
+        this.dynamicAxis.updateMaxWidth();
+    }
+
+    private Axis axisFor(Proxy proxy) {
+        return proxy.isStatic ? this.staticAxis : this.dynamicAxis;
+    }
+
+    private static boolean isWide(Proxy proxy) {
+        return !Double.isFinite(proxy.minX) || !Double.isFinite(proxy.maxX) || !Double.isFinite(proxy.minY)
+                || !Double.isFinite(proxy.maxY) || proxy.maxX - proxy.minX > MAX_SORTED_WIDTH;
+    }
+
+    /**
+     * Proxy that remembers its position within the sorted array.
+     */
+    private static class SweepProxy extends Proxy {
+
+        private int index;
+        private boolean wide;
+
+        private SweepProxy(GameObject object, boolean isStatic) {
+            super(object, isStatic);
+        }
+
+    }
+
+    /**
+     * A persistent array of proxies sorted by their left edge, along with the
+     * proxies too wide to be sorted.
+     */
+    private static class Axis {
+
+        private SweepProxy[] sorted = new SweepProxy[16];
+        private int size;
+        private double maxWidth;
+        private final ArrayList<SweepProxy> wide = new ArrayList<>();
+
+        private void insert(SweepProxy proxy) {
+            proxy.wide = isWide(proxy);
+            if (proxy.wide) {
+                proxy.index = this.wide.size();
+                this.wide.add(proxy);
+                return;
+            }
+            if (this.size == this.sorted.length) {
+                SweepProxy[] grown = new SweepProxy[this.size * 2];
+                System.arraycopy(this.sorted, 0, grown, 0, this.size);
+                this.sorted = grown;
+            }
+            proxy.index = this.size;
+            this.sorted[this.size++] = proxy;
+            resort(proxy);
+        }
+
+        private void remove(SweepProxy proxy) {
+            if (proxy.wide) {
+                SweepProxy last = this.wide.removeLast();
+                if (last != proxy) {
+                    last.index = proxy.index;
+                    this.wide.set(proxy.index, last);
+                }
+                return;
+            }
+            for (int i = proxy.index + 1; i < this.size; i++) {
+                this.sorted[i - 1] = this.sorted[i];
+                this.sorted[i - 1].index = i - 1;
+            }
+            this.sorted[--this.size] = null;
+        }
+
+        /**
+         * Moves a single proxy to its correct position with insertion sort. Ties are
+         * left where they are, so that the order is stable.
+         */
+        private void resort(SweepProxy proxy) {
+            int i = proxy.index;
+            while (i > 0 && this.sorted[i - 1].minX > proxy.minX) {
+                this.sorted[i] = this.sorted[i - 1];
+                this.sorted[i].index = i;
+                i--;
+            }
+            while (i < this.size - 1 && this.sorted[i + 1].minX < proxy.minX) {
+                this.sorted[i] = this.sorted[i + 1];
+                this.sorted[i].index = i;
+                i++;
+            }
+            this.sorted[i] = proxy;
+            proxy.index = i;
+            this.maxWidth = Math.max(this.maxWidth, proxy.maxX - proxy.minX);
+        }
+
+        /**
+         * Recomputes the widest sorted proxy, which may shrink as proxies are
+         * removed or resized.
+         */
+        private void updateMaxWidth() {
+            double width = 0;
+            for (int i = 0; i < this.size; i++) {
+                width = Math.max(width, this.sorted[i].maxX - this.sorted[i].minX);
+            }
+            this.maxWidth = width;
+        }
+
+        /**
+         * Returns the index of the first proxy whose left edge is at or after the
+         * given coordinate.
+         */
+        private int lowerBound(double x) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (this.sorted[middle].minX < x) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+    }
+
+}
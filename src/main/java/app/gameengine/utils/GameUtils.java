@@ -16,6 +16,13 @@ import app.gameengine.model.physics.Vector2D;
  */
 public class GameUtils {
 
+    /**
+     * How far past the radius of splash damage objects are looked for, in tiles.
+     * An object's hitbox must start within this distance of its location for it
+     * to be hit, which is true of every object in the provided games.
+     */
+    public static final double SPLASH_QUERY_MARGIN = 1;
+
     /**
      * Prevent instantiation, as this class is intended to be static.
      */
@@ -73,6 +80,12 @@ public class GameUtils {
      * distance of {@code radius} take 1 point of damage. The exceptions can be used
      * to prevent damage being dealt to specific objects, such as the one who fired
      * the projectile.
+     * <p>
+     * Distances are measured to the location of each enemy. Only enemies near the
+     * origin are checked, using {@link Level#queryRegion(double, double, double,
+     * double, app.gameengine.model.gameobjects.GameObjectVisitor)} on an area
+     * padded by {@link #SPLASH_QUERY_MARGIN}, so that enemies whose hitboxes are
+     * offset from their location are still found.
      * 
      * @param level      the level in which the splash damage is being dealt
      * @param maxDamage  the amount of damage to be dealt
@@ -82,12 +95,18 @@ public class GameUtils {
      */
     public static void dealSplashDamage(Level level, int maxDamage, double radius, Vector2D origin,
             ArrayList<DynamicGameObject> exceptions) {
-        for (DynamicGameObject other : level.getDynamicObjects()) {
-            double distance = Vector2D.euclideanDistance(origin, other.getLocation());
-            if (distance < radius && !exceptions.contains(other)) {
-                other.takeDamage(Math.clamp((int) (maxDamage - (maxDamage * distance / radius)), 1, maxDamage));
-            }
-        }
+        double reach = radius + SPLASH_QUERY_MARGIN;
+        level.queryRegion(origin.getX() - reach, origin.getY() - reach, origin.getX() + reach,
+                origin.getY() + reach, object -> {
+                    if (object instanceof DynamicGameObject other) {
+                        double distance = Vector2D.euclideanDistance(origin, other.getLocation());
+                        if (distance < radius && !exceptions.contains(other)) {
+                            other.takeDamage(
+                                    Math.clamp((int) (maxDamage - (maxDamage * distance / radius)), 1, maxDamage));
+                        }
+                    }
+                    return true;
+                });
     }
 
 }
@@ -0,0 +1,167 @@
+package app.gameengine.utils;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import app.gameengine.Level;
+
+/**
+ * Keeps objects that are no longer in use so that they can be reused, rather
+ * than creating a new object every time one is needed.
+ * <p>
+ * Objects that are created often and live briefly, such as projectiles, can be
+ * taken from a pool with {@link #obtain()} instead of being constructed. A
+ * reused object is reset before it is returned, for example with
+ * {@link app.gameengine.model.gameobjects.GameObject#reset()}, so it can be
+ * set up exactly like a new one. A pool registered with a level using
+ * {@link Level#addObjectPool(ObjectPool)} has its objects returned
+ * automatically once they are destroyed and removed from the level.
+ * <p>
+ * At most {@link #getCapacity()} unused objects are kept. Objects returned
+ * when the pool is full are left for the garbage collector.
+ *
+ * @param <T> the type of object in the pool
+ * @see Level#addObjectPool(ObjectPool)
+ */
+public class ObjectPool<T> {
+
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> resetter;
+    private final ArrayList<T> free = new ArrayList<>();
+    // Objects that have been obtained and not yet released, so that objects
+    // that didn't come from this pool are never added to it
+    private final IdentityHashMap<T, Boolean> active = new IdentityHashMap<>();
+    private int capacity;
+    private int hits;
+    private int misses;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param factory  creates a new object when the pool is empty
+     * @param resetter resets an object before it is reused
+     * @param capacity the maximum number of unused objects kept
+     */
+    public ObjectPool(Supplier<? extends T> factory, Consumer<? super T> resetter, int capacity) {
+        this.factory = factory;
+        this.resetter = resetter;
+        this.capacity = Math.max(capacity, 0);
+    }
+
+    /**
+     * Returns an unused object, reset so that it can be reused, or a new object if
+     * there are none.
+     *
+     * @return an object that can be used
+     */
+    public T obtain() {
+        T object;
+        if (this.free.isEmpty()) {
+            object = this.factory.get();
+            this.misses++;
+        } else {
+            object = this.free.removeLast();
+            this.resetter.accept(object);
+            this.hits++;
+        }
+        this.active.put(object, Boolean.TRUE);
+        return object;
+    }
+
+    /**
+     * Returns an object to the pool once it is no longer in use. Objects that
+     * didn't come from this pool, or have already been released, are ignored.
+     *
+     * @param object the object that is no longer in use
+     * @return {@code true} if the object came from this pool, {@code false}
+     *         otherwise
+     */
+    public boolean release(Object object) {
+        if (this.active.remove(object) == null) {
+            return false;
+        }
+        if (this.free.size() < this.capacity) {
+            // Only objects obtained from this pool are active, so this is a T
+            @SuppressWarnings("unchecked")
+            T pooled = (T) object;
+            this.free.add(pooled);
+        }
+        return true;
+    }
+
+    /**
+     * Returns every object obtained from this pool that hasn't been released, for
+     * example once they have all been removed from a level that is being reset.
+     */
+    public void releaseAll() {
+        for (T object : this.active.keySet()) {
+            if (this.free.size() < this.capacity) {
+                this.free.add(object);
+            }
+        }
+        this.active.clear();
+    }
+
+    /**
+     * Returns the maximum number of unused objects kept by this pool.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Sets the maximum number of unused objects kept by this pool, discarding any
+     * unused objects beyond it.
+     *
+     * @param capacity the capacity
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = Math.max(capacity, 0);
+        while (this.free.size() > this.capacity) {
+            this.free.removeLast();
+        }
+    }
+
+    /**
+     * Returns the number of unused objects in the pool.
+     *
+     * @return the number of unused objects
+     */
+    public int getFreeCount() {
+        return this.free.size();
+    }
+
+    /**
+     * Returns the number of objects obtained from this pool that haven't been
+     * released.
+     *
+     * @return the number of objects in use
+     */
+    public int getActiveCount() {
+        return this.active.size();
+    }
+
+    /**
+     * Returns the number of calls to {@link #obtain()} that reused an object.
+     *
+     * @return the number of hits
+     */
+    public int getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of calls to {@link #obtain()} that created a new object,
+     * because the pool was empty.
+     *
+     * @return the number of misses
+     */
+    public int getMissCount() {
+        return this.misses;
+    }
+
+}
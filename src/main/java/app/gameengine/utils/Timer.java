@@ -56,6 +56,16 @@ public class Timer {
         return this.elapsed;
     }
 
+    /**
+     * Sets the amount of time elapsed since the last reset, such as when restoring
+     * a timer to an earlier state.
+     * 
+     * @param elapsed the elapsed time, in seconds
+     */
+    public void setElapsedTime(double elapsed) {
+        this.elapsed = elapsed;
+    }
+
     /**
      * Returns whether the timer is paused. If it is paused, updates cannot occur.
      * 
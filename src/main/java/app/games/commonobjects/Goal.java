@@ -2,7 +2,7 @@ package app.games.commonobjects;
 
 import app.gameengine.Game;
 import app.display.common.SpriteLocation;
-import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
 
 /**
@@ -25,7 +25,7 @@ public class Goal extends StaticGameObject {
     }
 
     @Override
-    public void collideWithDynamicObject(DynamicGameObject otherObject) {
+    public void onCollisionEnter(GameObject otherObject) {
         if (otherObject.isPlayer()) {
             this.game.markAdvanceLevel();
         }
@@ -2,6 +2,7 @@ package app.games.commonobjects;
 
 import app.display.common.SpriteLocation;
 import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 
 /**
  * A {@link StaticGameObject} which displays a semi-transparent box.
@@ -27,6 +28,9 @@ public class PathTile extends StaticGameObject {
             case "yellow" -> 4;
         };
         this.defaultSpriteLocation = new SpriteLocation(col, 0);
+        // Only for display, so never collides with anything
+        this.setCollisionLayer(CollisionLayers.NONE);
+        this.setCollisionMask(CollisionLayers.NONE);
     }
 
     @Override
@@ -3,6 +3,7 @@ package app.games.commonobjects;
 import app.gameengine.Level;
 import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 
 /**
  * An abstract projectile which damages enemies.
@@ -23,6 +24,9 @@ public abstract class Projectile extends DynamicGameObject {
         super(x, y, 20);
         this.damage = damage;
         this.setOnGround(true);
+        // Collectibles aren't solid, and the player is never damaged
+        this.setCollisionLayer(CollisionLayers.PROJECTILE);
+        this.setCollisionMask(CollisionLayers.ALL & ~(CollisionLayers.PLAYER | CollisionLayers.COLLECTIBLE));
     }
 
     public int getDamage() {
@@ -33,6 +37,17 @@ public abstract class Projectile extends DynamicGameObject {
         this.damage = damage;
     }
 
+    @Override
+    public boolean isFast() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.setOnGround(true);
+    }
+
     @Override
     public void update(double dt, Level level) {
         super.update(dt, level);
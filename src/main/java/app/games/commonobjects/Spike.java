@@ -2,6 +2,7 @@ package app.games.commonobjects;
 
 import app.display.common.SpriteLocation;
 import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 
 /**
  * An instant-death spike obstacle.
@@ -16,6 +17,7 @@ public class Spike extends StaticGameObject {
         this.defaultSpriteLocation = new SpriteLocation(2, 10);
         this.getHitbox().setDimensions(0.8, 0.8);
         this.getHitbox().setOffset(0.1, 0.1);
+        this.setCollisionLayer(CollisionLayers.SPIKE);
     }
 
     @Override
@@ -3,6 +3,7 @@ package app.games.commonobjects;
 import app.display.common.SpriteLocation;
 import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 
 /**
  * A {@code StaticGameObject} that prevents collision by moving any
@@ -14,6 +15,7 @@ public class Wall extends StaticGameObject {
         super(x, y);
         this.spriteSheetFilename = "MiniWorldSprites/Ground/Cliff.png";
         this.defaultSpriteLocation = new SpriteLocation(3, 0);
+        this.setCollisionLayer(CollisionLayers.WALL);
     }
 
     @Override
@@ -11,6 +11,7 @@ import app.display.common.effects.TimedEffect;
 import app.gameengine.Level;
 import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 import app.gameengine.model.physics.Vector2D;
 import app.games.platformerobjects.Collider;
 import app.games.topdownobjects.Enemy;
@@ -39,6 +40,8 @@ public class Goomba extends Enemy {
         this.rightCollider = new Collider(this.getLocation(), new Vector2D(1, 0.2), new Vector2D(1, 0.81));
         this.setOrientation(1, 0);
         this.getEffects().clear();
+        // Turns around when it hits anything
+        this.setCollisionMask(CollisionLayers.ALL);
     }
 
     public Collider getCollider() {
@@ -78,6 +81,12 @@ public class Goomba extends Enemy {
         this.getOrientation().setX(-this.getOrientation().getX());
     }
 
+    @Override
+    public boolean canSkipUpdates() {
+        // Turning around at ledges and walls must happen every frame
+        return false;
+    }
+
     @Override
     public void update(double dt, Level level) {
         super.update(dt, level);
@@ -18,6 +18,8 @@ public class MarioLevel extends PlatformerLevel {
         super(game, width, height, name);
         this.keyboardControls = new MarioControls(this.game);
         this.background = new Background("mario/smb_background.png", 1.0);
+        // Like the original, enemies only start moving once they are nearly on screen
+        this.setActiveChunkRadius(1);
     }
 
     @Override
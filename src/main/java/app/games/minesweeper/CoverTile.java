@@ -2,6 +2,7 @@ package app.games.minesweeper;
 
 import app.display.common.SpriteLocation;
 import app.display.minesweeper.MinesweeperStyle;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.gameobjects.StaticGameObject;
 
 /**
@@ -74,6 +75,19 @@ public class CoverTile extends StaticGameObject {
                 this.defaultSpriteLocation.setRow(1);
                 break;
         }
+        this.spriteChanged();
+    }
+
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        snapshot.writeReference(this.state);
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.setState(snapshot.readReference());
     }
 
 }
@@ -8,6 +8,7 @@ import app.display.common.Background;
 import app.display.common.controller.KeyboardControls;
 import app.display.minesweeper.MinesweeperStyle;
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.gameobjects.StaticGameObject;
 import app.gameengine.model.physics.PhysicsEngine;
 import app.gameengine.model.physics.Vector2D;
@@ -312,6 +313,34 @@ public class MinesweeperLevel extends Level {
         }
     }
 
+    @Override
+    protected void saveState(LevelSnapshot snapshot) {
+        snapshot.writeBoolean(this.initialized);
+        snapshot.writeReference(this.gameState);
+    }
+
+    @Override
+    protected void restoreState(LevelSnapshot snapshot) {
+        this.initialized = snapshot.readBoolean();
+        this.gameState = snapshot.readReference();
+        // Bombs are only placed on the first click, so are either unchanged or gone
+        if (!this.initialized) {
+            this.bombs.clear();
+            this.counts.clear();
+        }
+        // The restored cover tiles say which tiles are hidden or flagged
+        this.hiddenTiles.clear();
+        this.flags.clear();
+        for (StaticGameObject object : this.getStaticObjects()) {
+            if (object instanceof CoverTile tile && !tile.isDestroyed()) {
+                this.hiddenTiles.put(tile.getLocation().copy(), tile);
+                if (tile.isFlagged() || tile.getTileState() == TileState.FLAGGEDWRONG) {
+                    this.flags.add(tile.getLocation().copy());
+                }
+            }
+        }
+    }
+
     @Override
     public void update(double dt) {
         if (this.initialized) {
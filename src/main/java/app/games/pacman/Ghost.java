@@ -6,6 +6,7 @@ import java.util.HashMap;
 
 import app.display.common.SpriteLocation;
 import app.display.common.sound.AudioManager;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.gameobjects.Agent;
 import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
@@ -87,6 +88,12 @@ public class Ghost extends Agent {
         }
     }
 
+    @Override
+    public boolean isFast() {
+        // Dead ghosts move quickly, and must not skip past the ghost house
+        return this.state.equals("Dead");
+    }
+
     @Override
     public void reset() {
         super.reset();
@@ -99,6 +106,18 @@ public class Ghost extends Agent {
         this.state = "Chase";
     }
 
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        snapshot.writeReference(this.state);
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.state = snapshot.readReference();
+    }
+
     @Override
     public void setAnimationState(String newState) {
         if (this.state.equals("Frightened") && !(newState.equals("frightened") || newState.equals("frightened_end"))) {
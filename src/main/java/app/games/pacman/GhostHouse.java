@@ -3,6 +3,7 @@ package app.games.pacman;
 import java.util.HashMap;
 
 import app.display.common.SpriteLocation;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
 
@@ -62,6 +63,25 @@ public class GhostHouse extends StaticGameObject {
         this.createGhosts(this.getLocation().getX(), this.getLocation().getY());
     }
 
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        // Resetting replaces the ghosts, so keep track of which ones were here
+        snapshot.writeReference(this.ghosts.get("Red"));
+        snapshot.writeReference(this.ghosts.get("Cyan"));
+        snapshot.writeReference(this.ghosts.get("Pink"));
+        snapshot.writeReference(this.ghosts.get("Orange"));
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.ghosts.put("Red", snapshot.readReference());
+        this.ghosts.put("Cyan", snapshot.readReference());
+        this.ghosts.put("Pink", snapshot.readReference());
+        this.ghosts.put("Orange", snapshot.readReference());
+    }
+
     @Override
     public void collideWithDynamicObject(DynamicGameObject otherObject) {
         if (otherObject instanceof Ghost ghost && ghost.getState().equals("Dead")) {
@@ -6,6 +6,7 @@ import java.util.HashMap;
 
 import app.display.common.SpriteLocation;
 import app.display.common.sound.AudioManager;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.gameobjects.Player;
 
 /**
@@ -79,6 +80,18 @@ public class Pacman extends Player {
         this.lives--;
     }
 
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        snapshot.writeInt(this.lives);
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.lives = snapshot.readInt();
+    }
+
     @Override
     public int getSpriteHeight() {
         return 32;
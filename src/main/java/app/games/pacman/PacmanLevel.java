@@ -8,6 +8,7 @@ import app.display.common.Background;
 import app.display.common.FontManager;
 import app.display.common.effects.SimpleTextEffect;
 import app.display.common.sound.AudioManager;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.gameobjects.StaticGameObject;
 import app.gameengine.model.physics.Vector2D;
 import app.gameengine.statistics.GameStat;
@@ -192,6 +193,28 @@ public class PacmanLevel extends TopDownLevel {
         }
     }
 
+    @Override
+    protected void saveState(LevelSnapshot snapshot) {
+        snapshot.writeReference(this.gameState);
+        snapshot.writeDouble(this.chaseTimer.getElapsedTime());
+        snapshot.writeDouble(this.scatterTimer.getElapsedTime());
+        snapshot.writeDouble(this.frightenedTimer.getElapsedTime());
+        snapshot.writeInt(this.pelletsLeft);
+        snapshot.writeInt(this.pelletsEaten);
+        snapshot.writeInt(this.scoreMultiplier);
+    }
+
+    @Override
+    protected void restoreState(LevelSnapshot snapshot) {
+        this.gameState = snapshot.readReference();
+        this.chaseTimer.setElapsedTime(snapshot.readDouble());
+        this.scatterTimer.setElapsedTime(snapshot.readDouble());
+        this.frightenedTimer.setElapsedTime(snapshot.readDouble());
+        this.pelletsLeft = snapshot.readInt();
+        this.pelletsEaten = snapshot.readInt();
+        this.scoreMultiplier = snapshot.readInt();
+    }
+
     @Override
     public void onStart() {
         AudioManager.playMusic("pacman/ghost.wav", 0.2);
@@ -28,13 +28,12 @@ public class Collider extends Hitbox {
     }
 
     public boolean checkCollision(PhysicsEngine engine, Level level) {
-        for (StaticGameObject obj : level.getStaticObjects()) {
-            if (obj.isSolid() && engine.detectCollision(this, obj.getHitbox())
-                    && this.getLocation().getY() < obj.getLocation().getY()) {
-                return true;
-            }
-        }
-        return false;
+        // Only static objects near the collider are visited, and the query stops
+        // at the first solid object found
+        return !level.queryStaticRegion(this.getMinX(), this.getMinY(), this.getMaxX(), this.getMaxY(),
+                object -> !(object instanceof StaticGameObject obj && obj.isSolid()
+                        && engine.detectCollision(this, obj.getHitbox())
+                        && this.getMinY() < obj.getLocation().getY()));
     }
 
 }
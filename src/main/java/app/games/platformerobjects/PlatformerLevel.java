@@ -5,21 +5,24 @@ import app.display.common.controller.PlatformerControls;
 import app.gameengine.Game;
 import app.gameengine.Level;
 import app.gameengine.model.physics.PhysicsEngineWithGravity;
+import app.gameengine.model.physics.SweepAndPruneBroadPhase;
 
 /**
  * A level for use in a platformer.
  * <p>
  * Uses physics which include gravity, and controls for a platformer. It's
- * player must be a {@link PlatformerPlayer}.
+ * player must be a {@link PlatformerPlayer}. Platformer levels are long and
+ * short, so collisions are found with a {@link SweepAndPruneBroadPhase}.
  * 
  * @see Level
  * @see PhysicsEngineWithGravity
+ * @see SweepAndPruneBroadPhase
  * @see PlatformerControls
  */
 public class PlatformerLevel extends Level {
 
     public PlatformerLevel(Game game, int width, int height, String name) {
-        super(game, new PhysicsEngineWithGravity(), width, height, name);
+        super(game, new PhysicsEngineWithGravity(), new SweepAndPruneBroadPhase(), width, height, name);
         this.keyboardControls = new PlatformerControls(game);
         this.background = new Background("nature/nature_4/full.png", 0.5);
     }
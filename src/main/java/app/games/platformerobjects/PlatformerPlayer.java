@@ -1,6 +1,7 @@
 package app.games.platformerobjects;
 
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.gameobjects.Player;
 import app.gameengine.model.physics.Vector2D;
 
@@ -44,6 +45,18 @@ public class PlatformerPlayer extends Player {
         super.revive();
     }
 
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        snapshot.writeDouble(this.timeSinceGround);
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.timeSinceGround = snapshot.readDouble();
+    }
+
     @Override
     public void update(double dt, Level level) {
         super.update(dt, level);
@@ -2,6 +2,7 @@ package app.games.roguelikeobjects;
 
 import app.gameengine.Game;
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.gameobjects.DynamicGameObject;
 import app.gameengine.model.gameobjects.StaticGameObject;
 import app.gameengine.model.physics.Vector2D;
@@ -65,6 +66,18 @@ public class LevelDoor extends DirectionalWall {
         return this.active;
     }
 
+    @Override
+    public void saveState(LevelSnapshot snapshot) {
+        super.saveState(snapshot);
+        snapshot.writeBoolean(this.active);
+    }
+
+    @Override
+    public void restoreState(LevelSnapshot snapshot) {
+        super.restoreState(snapshot);
+        this.setActive(snapshot.readBoolean());
+    }
+
     /**
      * Sets the next level's name based on the position of the previous level.
      * This is useful when using a grid-based level system.
@@ -126,18 +126,15 @@ public class RoguelikeLevel extends TopDownLevel {
 
     public ArrayList<Marker> extractAndRemoveMarkers(String markerID) {
         ArrayList<Marker> markers = new ArrayList<>();
-        ArrayList<StaticGameObject> levelStaticGameObjects = this.getStaticObjects();
-
-        for (StaticGameObject staticGameObject : levelStaticGameObjects) {
+        // Markers are matched by ID rather than location, so they are found and
+        // removed in a single pass over the list instead of removing them one by one
+        this.getStaticObjects().removeIf(staticGameObject -> {
             if (staticGameObject instanceof Marker marker && marker.getMarkerID().equals(markerID)) {
                 markers.add(marker);
+                return true;
             }
-        }
-
-        for (Marker marker : markers) {
-            levelStaticGameObjects.remove(marker);
-        }
-
+            return false;
+        });
         return markers;
     }
 
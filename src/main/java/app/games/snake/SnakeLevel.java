@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import app.display.common.Background;
 import app.gameengine.Game;
 import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
 import app.gameengine.model.physics.PhysicsEngine;
 import app.gameengine.utils.Timer;
 
@@ -141,6 +142,32 @@ public class SnakeLevel extends Level {
         this.load();
     }
 
+    @Override
+    protected void saveState(LevelSnapshot snapshot) {
+        snapshot.writeDouble(this.timer.getElapsedTime());
+        snapshot.writeInt(this.food.size());
+        for (int i = 0; i < this.food.size(); i++) {
+            snapshot.writeReference(this.food.get(i));
+        }
+        snapshot.writeInt(this.tail.size());
+        for (int i = 0; i < this.tail.size(); i++) {
+            snapshot.writeReference(this.tail.get(i));
+        }
+    }
+
+    @Override
+    protected void restoreState(LevelSnapshot snapshot) {
+        this.timer.setElapsedTime(snapshot.readDouble());
+        this.food.clear();
+        for (int i = snapshot.readInt(); i > 0; i--) {
+            this.food.add(snapshot.readReference());
+        }
+        this.tail.clear();
+        for (int i = snapshot.readInt(); i > 0; i--) {
+            this.tail.add(snapshot.readReference());
+        }
+    }
+
     @Override
     public String getUIString() {
         return String.format("Score: %.0f", this.score);
@@ -8,6 +8,7 @@ import app.display.common.effects.DeathEffect;
 import app.display.common.effects.HealthBarEffect;
 import app.gameengine.model.gameobjects.Agent;
 import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 import app.gameengine.model.physics.Vector2D;
 
 /**
@@ -23,11 +24,14 @@ import app.gameengine.model.physics.Vector2D;
 public abstract class Enemy extends Agent {
 
     private int strength;
+    private DeathEffect deathEffect;
 
     public Enemy(double x, double y, int maxHP, int strength) {
         super(x, y, maxHP);
         this.strength = strength;
         this.getEffects().add(new HealthBarEffect(this));
+        this.setCollisionLayer(CollisionLayers.ENEMY);
+        this.setCollisionMask(CollisionLayers.PLAYER);
     }
 
     @Override
@@ -46,7 +50,14 @@ public abstract class Enemy extends Agent {
 
     @Override
     public void onDestroy() {
-        this.getEffects().add(new DeathEffect(this));
+        if (this.deathEffect == null || !this.deathEffect.isFinished()) {
+            this.deathEffect = new DeathEffect(this);
+        } else {
+            this.deathEffect.reset();
+        }
+        if (!this.getEffects().contains(this.deathEffect)) {
+            this.getEffects().add(this.deathEffect);
+        }
     }
 
     @Override
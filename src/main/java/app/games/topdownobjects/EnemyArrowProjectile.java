@@ -2,6 +2,7 @@ package app.games.topdownobjects;
 
 import app.display.common.SpriteLocation;
 import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 import app.games.commonobjects.Projectile;
 
 public class EnemyArrowProjectile extends Projectile {
@@ -16,6 +17,7 @@ public class EnemyArrowProjectile extends Projectile {
         this.defaultSpriteLocation = new SpriteLocation(0, 0);
         this.getHitbox().setDimensions(0.5, 0.5);
         this.getHitbox().setOffset(0.25, 0.25);
+        this.setCollisionMask(CollisionLayers.ALL & ~CollisionLayers.COLLECTIBLE);
     }
 
     @Override
@@ -6,12 +6,16 @@ import app.display.common.effects.PurpleExplosionEffect;
 import app.display.common.sound.AudioManager;
 import app.gameengine.Level;
 import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 import app.gameengine.model.physics.Vector2D;
 import app.games.commonobjects.Projectile;
 
 public class EnemyHomingProjectile extends Projectile {
 
+    public static final int COLLISION_LAYER = CollisionLayers.FIRST_CUSTOM_LAYER << 1;
+
     private double homingRate;
+    private PurpleExplosionEffect explosion;
 
     public EnemyHomingProjectile(double x, double y) {
         this(x, y, 30, 180);
@@ -24,13 +28,25 @@ public class EnemyHomingProjectile extends Projectile {
         this.defaultSpriteLocation = new SpriteLocation(3, 0);
         this.getHitbox().setDimensions(0.5, 0.5);
         this.getHitbox().setOffset(0.25, 0.25);
+        this.setCollisionLayer(COLLISION_LAYER);
+        this.setCollisionMask(CollisionLayers.ALL
+                & ~(CollisionLayers.COLLECTIBLE | Sorcerer.COLLISION_LAYER | COLLISION_LAYER));
     }
 
     @Override
     public void onDestroy() {
-        double offsetX = this.getSpriteWidth() / (Configuration.SPRITE_SIZE * 2.0);
-        double offsetY = this.getSpriteHeight() / (Configuration.SPRITE_SIZE * 2.0);
-        this.getEffects().add(new PurpleExplosionEffect(new Vector2D(offsetX, offsetY), 0.5));
+        // Reuse the last explosion once it has finished, as this may be a pooled
+        // projectile that is destroyed many times
+        if (this.explosion == null || !this.explosion.isFinished()) {
+            double offsetX = this.getSpriteWidth() / (Configuration.SPRITE_SIZE * 2.0);
+            double offsetY = this.getSpriteHeight() / (Configuration.SPRITE_SIZE * 2.0);
+            this.explosion = new PurpleExplosionEffect(new Vector2D(offsetX, offsetY), 0.5);
+        } else {
+            this.explosion.reset();
+        }
+        if (!this.getEffects().contains(this.explosion)) {
+            this.getEffects().add(this.explosion);
+        }
         AudioManager.playSoundEffect("explosion.wav");
     }
 
@@ -3,14 +3,20 @@ package app.games.topdownobjects;
 import java.util.HashMap;
 
 import app.display.common.SpriteLocation;
+import app.gameengine.model.physics.CollisionLayers;
 
 public class Sorcerer extends Enemy {
 
+    // Sorcerers aren't on the enemy layer, so that their own homing projectiles
+    // can leave them out while still hitting other enemies
+    public static final int COLLISION_LAYER = CollisionLayers.FIRST_CUSTOM_LAYER;
+
     public Sorcerer(double x, double y, int maxHP, int strength) {
         super(x, y, maxHP, strength);
         this.spriteSheetFilename = "MiniWorldSprites/Characters/Soldiers/Ranged/PurpleRanged/MagePurple.png";
         this.defaultSpriteLocation = new SpriteLocation(1, 0);
         this.animations = new HashMap<>();
+        this.setCollisionLayer(COLLISION_LAYER);
     }
 
     public Sorcerer(double x, double y) {
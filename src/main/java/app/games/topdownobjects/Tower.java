@@ -3,6 +3,7 @@ package app.games.topdownobjects;
 import app.display.common.SpriteLocation;
 import app.gameengine.model.gameobjects.Agent;
 import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.physics.CollisionLayers;
 
 public class Tower extends Agent {
 
@@ -12,6 +13,8 @@ public class Tower extends Agent {
         super(x, y, 10);
         this.spriteSheetFilename = "MiniWorldSprites/Buildings/Lime/LimeTower.png";
         this.defaultSpriteLocation = new SpriteLocation(0, 1);
+        this.setCollisionLayer(CollisionLayers.ENEMY);
+        this.setCollisionMask(CollisionLayers.PLAYER);
     }
 
     @Override
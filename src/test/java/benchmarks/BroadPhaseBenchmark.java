@@ -0,0 +1,208 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.physics.BroadPhase;
+import app.gameengine.model.physics.BruteForceBroadPhase;
+import app.gameengine.model.physics.CollisionLayers;
+import app.gameengine.model.physics.DynamicAabbTree;
+import app.gameengine.model.physics.Hitbox;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.SpatialHashGrid;
+import app.gameengine.model.physics.SweepAndPruneBroadPhase;
+import app.gameengine.model.physics.Vector2D;
+import app.games.commonobjects.Wall;
+
+/**
+ * Compares the time taken by {@link PhysicsEngine#processAllCollisions(Level)}
+ * with each {@link BroadPhase}, on a long platformer-style level and a dense
+ * top-down level. {@link BruteForceBroadPhase} is equivalent to checking every
+ * pair of objects.
+ * <p>
+ * The moving objects are split between enemies and projectiles using
+ * {@link CollisionLayers}, so the number of candidate pairs rejected by their
+ * layers is reported as well. The spatial hash is also measured with
+ * {@link PhysicsEngine#setParallel(boolean)} enabled.
+ * <p>
+ * This is not a unit test, and is run directly with its {@code main} method.
+ */
+public class BroadPhaseBenchmark {
+
+    private static final int WARMUP_FRAMES = 2000;
+    private static final int FRAMES = 2000;
+
+    public static void main(String[] args) {
+        run("Platformer (210x15)", broadPhase -> platformerLevel(broadPhase, 0));
+        run("Top-down (60x60)", broadPhase -> topDownLevel(broadPhase, 0));
+        run("Top-down, 1200 projectiles/s", broadPhase -> topDownLevel(broadPhase, 20));
+    }
+
+    private static void run(String name, Function<BroadPhase, BenchmarkLevel> level) {
+        System.out.println(name);
+        measure("  Nested loops    ", level.apply(new BruteForceBroadPhase()));
+        measure("  Spatial hash    ", level.apply(new SpatialHashGrid()));
+        measure("  Sort and sweep  ", level.apply(new SweepAndPruneBroadPhase()));
+        measure("  AABB tree       ", level.apply(new DynamicAabbTree()));
+        BenchmarkLevel parallel = level.apply(new SpatialHashGrid());
+        parallel.getPhysicsEngine().setParallel(true);
+        measure("  Hash, parallel  ", parallel);
+    }
+
+    private static void measure(String name, BenchmarkLevel level) {
+        CountingPhysicsEngine engine = (CountingPhysicsEngine) level.getPhysicsEngine();
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            level.step();
+        }
+        engine.checks.reset();
+        long candidates = 0;
+        long rejected = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            level.step();
+            candidates += engine.getCandidatePairCount();
+            rejected += engine.getRejectedPairCount();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s %8.4f ms/frame %10d checks/frame %5.1f%% rejected by layer%n", name,
+                elapsed / 1e6 / FRAMES, engine.checks.sum() / FRAMES, candidates == 0 ? 0 : 100.0 * rejected / candidates);
+    }
+
+    /**
+     * A long level with two rows of ground, scattered platforms, and enemies
+     * walking back and forth.
+     */
+    private static BenchmarkLevel platformerLevel(BroadPhase broadPhase, int churn) {
+        Random random = new Random(116);
+        BenchmarkLevel level = new BenchmarkLevel(broadPhase, 210, 15, churn);
+        for (int x = 0; x < 210; x++) {
+            level.getStaticObjects().add(new Wall(x, 13));
+            level.getStaticObjects().add(new Wall(x, 14));
+        }
+        for (int i = 0; i < 150; i++) {
+            level.getStaticObjects().add(new Wall(random.nextInt(210), 3 + random.nextInt(9)));
+        }
+        for (int i = 0; i < 30; i++) {
+            level.addMover(new Mover(random.nextDouble() * 205, 12, random.nextBoolean() ? 3 : -3, 0, false));
+        }
+        return level;
+    }
+
+    /**
+     * A square level filled with walls and fast moving projectiles. Each frame,
+     * {@code churn} of the oldest projectiles are replaced with new ones.
+     */
+    private static BenchmarkLevel topDownLevel(BroadPhase broadPhase, int churn) {
+        Random random = new Random(116);
+        BenchmarkLevel level = new BenchmarkLevel(broadPhase, 60, 60, churn);
+        for (int i = 0; i < 60; i++) {
+            level.getStaticObjects().add(new Wall(i, 0));
+            level.getStaticObjects().add(new Wall(i, 59));
+            level.getStaticObjects().add(new Wall(0, i));
+            level.getStaticObjects().add(new Wall(59, i));
+        }
+        for (int i = 0; i < 500; i++) {
+            level.getStaticObjects().add(new Wall(1 + random.nextInt(58), 1 + random.nextInt(58)));
+        }
+        for (int i = 0; i < 200; i++) {
+            double angle = random.nextDouble() * Math.PI * 2;
+            level.addMover(new Mover(1 + random.nextDouble() * 57, 1 + random.nextDouble() * 57, Math.cos(angle) * 10,
+                    Math.sin(angle) * 10, i % 2 == 0));
+        }
+        return level;
+    }
+
+    /**
+     * Physics engine with a real collision check, which counts how many times the
+     * check is run.
+     */
+    private static class CountingPhysicsEngine extends PhysicsEngine {
+
+        private final LongAdder checks = new LongAdder();
+
+        @Override
+        public boolean detectCollision(Hitbox hb1, Hitbox hb2) {
+            return getOverlap(hb1, hb2) > 0;
+        }
+
+        @Override
+        public double getOverlap(Hitbox hb1, Hitbox hb2) {
+            this.checks.increment();
+            double overlapX = Math.min(hb1.getMaxX(), hb2.getMaxX()) - Math.max(hb1.getMinX(), hb2.getMinX());
+            double overlapY = Math.min(hb1.getMaxY(), hb2.getMaxY()) - Math.max(hb1.getMinY(), hb2.getMinY());
+            return Math.min(overlapX, overlapY);
+        }
+
+    }
+
+    /**
+     * Object that moves in a straight line and turns around when it leaves the
+     * level. Uses the same collision layers as either an enemy or a projectile.
+     */
+    private static class Mover extends DynamicGameObject {
+
+        private final boolean projectile;
+
+        private Mover(double x, double y, double velocityX, double velocityY, boolean projectile) {
+            super(x, y, 1);
+            this.projectile = projectile;
+            this.setVelocity(velocityX, velocityY);
+            this.getHitbox().setDimensions(0.5, 0.5);
+            if (projectile) {
+                this.setCollisionLayer(CollisionLayers.PROJECTILE);
+                this.setCollisionMask(CollisionLayers.ALL & ~(CollisionLayers.PLAYER | CollisionLayers.COLLECTIBLE));
+            } else {
+                this.setCollisionLayer(CollisionLayers.ENEMY);
+                this.setCollisionMask(CollisionLayers.PLAYER);
+            }
+        }
+
+        private void move(double dt, int width, int height) {
+            Vector2D location = this.getLocation();
+            location.setX(location.getX() + this.getVelocity().getX() * dt);
+            location.setY(location.getY() + this.getVelocity().getY() * dt);
+            if (location.getX() < 0 || location.getX() > width - 1) {
+                this.setVelocity(-this.getVelocity().getX(), this.getVelocity().getY());
+            }
+            if (location.getY() < 0 || location.getY() > height - 1) {
+                this.setVelocity(this.getVelocity().getX(), -this.getVelocity().getY());
+            }
+        }
+
+    }
+
+    private static class BenchmarkLevel extends Level {
+
+        private final int churn;
+        private final Random random = new Random(116);
+
+        private BenchmarkLevel(BroadPhase broadPhase, int width, int height, int churn) {
+            super(new Game() {
+            }, new CountingPhysicsEngine(), broadPhase, width, height, "benchmark");
+            this.churn = churn;
+        }
+
+        private void addMover(Mover mover) {
+            this.getDynamicObjects().add(mover);
+        }
+
+        private void step() {
+            for (int i = 0; i < this.churn; i++) {
+                Mover oldest = (Mover) this.getDynamicObjects().removeFirst();
+                double angle = this.random.nextDouble() * Math.PI * 2;
+                this.addMover(new Mover(oldest.getLocation().getX(), oldest.getLocation().getY(),
+                        Math.cos(angle) * 10, Math.sin(angle) * 10, oldest.projectile));
+            }
+            for (DynamicGameObject object : this.getDynamicObjects()) {
+                ((Mover) object).move(1.0 / 60, this.width, this.height);
+            }
+            this.getPhysicsEngine().processAllCollisions(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,141 @@
+package benchmarks;
+
+import java.util.Random;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.Hitbox;
+import app.gameengine.model.physics.PhysicsEngine;
+
+/**
+ * Measures {@link Level#update(double)} on very large levels, with every object
+ * active and with only the chunks near the player active.
+ * <p>
+ * Two levels are used. The first is shaped like a Mario level, 10,000 tiles
+ * long with two rows of ground along the bottom and enemies walking along it.
+ * The second has the size of {@code testing/large.csv}, 200 by 300 tiles, with
+ * walls and enemies scattered across it. Both are viewed through a window of
+ * 16 by 16 tiles, as Mario levels are.
+ * <p>
+ * This is not a unit test, and is run directly with its {@code main} method.
+ */
+public class ChunkBenchmark {
+
+    private static final int WARMUP_FRAMES = 300;
+    private static final int FRAMES = 300;
+    private static final double DT = 1 / 60.0;
+
+    public static void main(String[] args) {
+        System.out.println("Mario-style level, 10000 x 15");
+        run(ChunkBenchmark::createLongLevel, -1);
+        run(ChunkBenchmark::createLongLevel, 1);
+        System.out.println("Scattered level, 200 x 300");
+        run(ChunkBenchmark::createScatteredLevel, -1);
+        run(ChunkBenchmark::createScatteredLevel, 1);
+    }
+
+    private static void run(LevelFactory factory, int radius) {
+        Level level = factory.create(new Random(116));
+        level.setActiveChunkRadius(radius);
+        level.setLoaded();
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            level.update(DT);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            level.update(DT);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  radius %2d, %5d static, %5d dynamic, %4d active %8.1f us/frame%n", radius,
+                level.getStaticObjects().size(), level.getDynamicObjects().size(),
+                level.getActiveDynamicObjects().size(), elapsed / 1000.0 / FRAMES);
+    }
+
+    private static Level createLongLevel(Random random) {
+        Level level = createLevel(10000, 15);
+        for (int x = 0; x < 10000; x++) {
+            level.getStaticObjects().add(new Block(x, 13));
+            level.getStaticObjects().add(new Block(x, 14));
+        }
+        for (int i = 0; i < 2000; i++) {
+            level.getDynamicObjects().add(new Walker(random.nextDouble() * 10000, 12, -1, 0));
+        }
+        return level;
+    }
+
+    private static Level createScatteredLevel(Random random) {
+        Level level = createLevel(200, 300);
+        for (int i = 0; i < 20000; i++) {
+            level.getStaticObjects().add(new Block(random.nextInt(200), random.nextInt(300)));
+        }
+        for (int i = 0; i < 2000; i++) {
+            level.getDynamicObjects().add(new Walker(random.nextDouble() * 200, random.nextDouble() * 300,
+                    random.nextGaussian(), random.nextGaussian()));
+        }
+        return level;
+    }
+
+    private static Level createLevel(int width, int height) {
+        Game game = new Game() {
+        };
+        Level level = new Level(game, new MovingPhysicsEngine(), width, height, "benchmark") {
+            @Override
+            public int getViewWidth() {
+                return Math.min(this.getWidth(), 16);
+            }
+
+            @Override
+            public int getViewHeight() {
+                return Math.min(this.getHeight(), 16);
+            }
+        };
+        game.getPlayer().setLocation(50, 12);
+        level.getDynamicObjects().add(game.getPlayer());
+        return level;
+    }
+
+    private interface LevelFactory {
+        Level create(Random random);
+    }
+
+    private static class Block extends StaticGameObject {
+
+        Block(double x, double y) {
+            super(x, y);
+        }
+
+    }
+
+    private static class Walker extends DynamicGameObject {
+
+        Walker(double x, double y, double velocityX, double velocityY) {
+            super(x, y, 10);
+            this.getHitbox().setDimensions(0.8, 0.8);
+            this.setVelocity(velocityX, velocityY);
+        }
+
+    }
+
+    /**
+     * Moves objects by their velocity and detects overlapping hitboxes, standing
+     * in for a completed engine.
+     */
+    private static class MovingPhysicsEngine extends PhysicsEngine {
+
+        @Override
+        public void updateObject(double dt, DynamicGameObject object) {
+            object.setLocation(object.getLocation().getX() + object.getVelocity().getX() * dt,
+                    object.getLocation().getY() + object.getVelocity().getY() * dt);
+        }
+
+        @Override
+        public boolean detectCollision(Hitbox hitbox1, Hitbox hitbox2) {
+            return hitbox1.getMinX() < hitbox2.getMaxX() && hitbox2.getMinX() < hitbox1.getMaxX()
+                    && hitbox1.getMinY() < hitbox2.getMaxY() && hitbox2.getMinY() < hitbox1.getMaxY();
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package benchmarks;
+
+import java.util.Random;
+
+import app.gameengine.model.physics.Hitbox;
+import app.gameengine.model.physics.Vector2D;
+
+/**
+ * Compares the time taken and memory allocated by an overlap check written
+ * with {@link Hitbox#getLocation()}, which creates a new vector on every call,
+ * against the same check written with {@link Hitbox#getMinX()} and the related
+ * methods.
+ * <p>
+ * Allocations are measured with the JVM's per-thread allocation counter, so
+ * the reported bytes are exact rather than sampled. In a loop this small, the
+ * JIT compiler can usually prove that the vectors never escape and remove them,
+ * so both versions may report no allocations. Running with
+ * {@code -XX:-DoEscapeAnalysis} or {@code -XX:TieredStopAtLevel=1} shows the
+ * cost in code that isn't fully inlined, such as the collision callbacks of a
+ * large level.
+ * <p>
+ * This is not a unit test, and is run directly with its {@code main} method.
+ */
+public class HitboxBenchmark {
+
+    private static final int HITBOXES = 1000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(116);
+        Hitbox[] hitboxes = new Hitbox[HITBOXES];
+        for (int i = 0; i < HITBOXES; i++) {
+            hitboxes[i] = new Hitbox(new Vector2D(random.nextDouble() * 30, random.nextDouble() * 30),
+                    new Vector2D(0.5 + random.nextDouble(), 0.5 + random.nextDouble()),
+                    new Vector2D(0.25, 0.25));
+        }
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(hitboxes, false);
+            run(hitboxes, true);
+        }
+        measure("  getLocation()", hitboxes, false);
+        measure("  getMinX()    ", hitboxes, true);
+    }
+
+    private static void measure(String name, Hitbox[] hitboxes, boolean primitive) {
+        long pairs = 0;
+        double total = 0;
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            total += run(hitboxes, primitive);
+            pairs += (long) hitboxes.length * hitboxes.length;
+        }
+        long elapsed = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        System.out.printf("%s %6.2f ns/pair %8.2f bytes/pair (total overlap %.1f)%n", name,
+                (double) elapsed / pairs, (double) bytes / pairs, total);
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far. The
+     * management classes are looked up reflectively, as the {@code app} module
+     * does not read the modules that contain them.
+     */
+    private static long allocatedBytes() {
+        try {
+            Object threads = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean")
+                    .invoke(null);
+            return (long) Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getCurrentThreadAllocatedBytes").invoke(threads);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Allocation counting is not supported by this JVM", e);
+        }
+    }
+
+    private static double run(Hitbox[] hitboxes, boolean primitive) {
+        double total = 0;
+        for (Hitbox hitbox1 : hitboxes) {
+            for (Hitbox hitbox2 : hitboxes) {
+                double overlap = primitive ? overlapPrimitive(hitbox1, hitbox2) : overlapVector(hitbox1, hitbox2);
+                if (overlap > 0) {
+                    total += overlap;
+                }
+            }
+        }
+        return total;
+    }
+
+    private static double overlapVector(Hitbox hitbox1, Hitbox hitbox2) {
+        double overlapX = Math.min(hitbox1.getLocation().getX() + hitbox1.getDimensions().getX(),
+                hitbox2.getLocation().getX() + hitbox2.getDimensions().getX())
+                - Math.max(hitbox1.getLocation().getX(), hitbox2.getLocation().getX());
+        double overlapY = Math.min(hitbox1.getLocation().getY() + hitbox1.getDimensions().getY(),
+                hitbox2.getLocation().getY() + hitbox2.getDimensions().getY())
+                - Math.max(hitbox1.getLocation().getY(), hitbox2.getLocation().getY());
+        return Math.min(overlapX, overlapY);
+    }
+
+    private static double overlapPrimitive(Hitbox hitbox1, Hitbox hitbox2) {
+        double overlapX = Math.min(hitbox1.getMaxX(), hitbox2.getMaxX()) - Math.max(hitbox1.getMinX(), hitbox2.getMinX());
+        double overlapY = Math.min(hitbox1.getMaxY(), hitbox2.getMaxY()) - Math.max(hitbox1.getMinY(), hitbox2.getMinY());
+        return Math.min(overlapX, overlapY);
+    }
+
+}
@@ -0,0 +1,148 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.physics.Hitbox;
+import app.gameengine.model.physics.PhysicsEngine;
+
+/**
+ * Measures how much of {@link PhysicsEngine#updateLevel(double, Level)} is
+ * spent moving objects, on a level with 10,000 moving objects.
+ * <p>
+ * Three ways of moving the objects are compared: calling
+ * {@link PhysicsEngine#updateObject(double, DynamicGameObject)} for each one,
+ * and copying every location and velocity into parallel arrays, moving them in
+ * one loop, and copying the locations back. The objects are visited in a
+ * different order than they were created in, as happens in a level where objects
+ * are spawned and destroyed over time, so they are not next to each other in
+ * memory.
+ * <p>
+ * Objects remain the source of truth for their locations, since
+ * {@link DynamicGameObject#getLocation()} returns the vector shared with the
+ * hitbox, so parallel arrays must be refilled every frame. Copying in and out
+ * reads and writes every object anyway, which costs more than moving the
+ * objects in place, and moving the objects is a small part of the whole update
+ * compared to handling collisions.
+ * <p>
+ * This is not a unit test, and is run directly with its {@code main} method.
+ */
+public class KinematicsBenchmark {
+
+    private static final int OBJECTS = 10000;
+    private static final int WARMUP_FRAMES = 500;
+    private static final int FRAMES = 500;
+    private static final double DT = 1 / 60.0;
+
+    public static void main(String[] args) {
+        Random random = new Random(116);
+        MovingPhysicsEngine engine = new MovingPhysicsEngine();
+        Level level = new Level(new Game() {
+        }, engine, 300, 300, "benchmark") {
+        };
+        DynamicGameObject[] objects = new DynamicGameObject[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            DynamicGameObject object = new DynamicGameObject(random.nextDouble() * 300, random.nextDouble() * 300,
+                    10) {
+            };
+            object.getHitbox().setDimensions(0.5, 0.5);
+            object.setVelocity(random.nextGaussian(), random.nextGaussian());
+            objects[i] = object;
+        }
+        Collections.shuffle(Arrays.asList(objects), random);
+        level.getDynamicObjects().addAll(Arrays.asList(objects));
+        ParallelArrays arrays = new ParallelArrays(OBJECTS);
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            engine.updateLevel(DT, level);
+            moveEach(engine, objects);
+            arrays.move(objects);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            engine.updateLevel(DT, level);
+        }
+        report("  updateLevel     ", System.nanoTime() - start);
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            moveEach(engine, objects);
+        }
+        report("  updateObject    ", System.nanoTime() - start);
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            arrays.move(objects);
+        }
+        report("  Parallel arrays ", System.nanoTime() - start);
+    }
+
+    private static void report(String name, long elapsed) {
+        System.out.printf("%s %8.1f us/frame %6.2f ns/object%n", name, elapsed / 1000.0 / FRAMES,
+                (double) elapsed / FRAMES / OBJECTS);
+    }
+
+    private static void moveEach(PhysicsEngine engine, DynamicGameObject[] objects) {
+        for (DynamicGameObject object : objects) {
+            engine.updateObject(DT, object);
+        }
+    }
+
+    /**
+     * Moves objects by copying them into contiguous arrays, moving them in one
+     * loop, and copying them back.
+     */
+    private static class ParallelArrays {
+
+        private final double[] x;
+        private final double[] y;
+        private final double[] velocityX;
+        private final double[] velocityY;
+
+        ParallelArrays(int size) {
+            this.x = new double[size];
+            this.y = new double[size];
+            this.velocityX = new double[size];
+            this.velocityY = new double[size];
+        }
+
+        void move(DynamicGameObject[] objects) {
+            for (int i = 0; i < objects.length; i++) {
+                this.x[i] = objects[i].getLocation().getX();
+                this.y[i] = objects[i].getLocation().getY();
+                this.velocityX[i] = objects[i].getVelocity().getX();
+                this.velocityY[i] = objects[i].getVelocity().getY();
+            }
+            for (int i = 0; i < objects.length; i++) {
+                this.x[i] += this.velocityX[i] * DT;
+                this.y[i] += this.velocityY[i] * DT;
+            }
+            for (int i = 0; i < objects.length; i++) {
+                objects[i].setLocation(this.x[i], this.y[i]);
+            }
+        }
+
+    }
+
+    /**
+     * Moves objects by their velocity and detects overlapping hitboxes, standing
+     * in for a completed engine.
+     */
+    private static class MovingPhysicsEngine extends PhysicsEngine {
+
+        @Override
+        public void updateObject(double dt, DynamicGameObject object) {
+            object.setLocation(object.getLocation().getX() + object.getVelocity().getX() * dt,
+                    object.getLocation().getY() + object.getVelocity().getY() * dt);
+        }
+
+        @Override
+        public boolean detectCollision(Hitbox hitbox1, Hitbox hitbox2) {
+            return hitbox1.getMinX() < hitbox2.getMaxX() && hitbox2.getMinX() < hitbox1.getMaxX()
+                    && hitbox1.getMinY() < hitbox2.getMaxY() && hitbox2.getMinY() < hitbox1.getMaxY();
+        }
+
+    }
+
+}
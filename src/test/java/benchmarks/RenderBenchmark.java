@@ -0,0 +1,126 @@
+package benchmarks;
+
+import java.util.Random;
+
+import app.display.common.SpriteRenderer;
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.games.commonobjects.Wall;
+import app.games.minesweeper.CoverTile;
+import app.games.minesweeper.NumberTile;
+import app.games.pacman.Pellet;
+
+/**
+ * Compares the time taken by each {@link SpriteRenderer} to render a level full
+ * of sprites, with thousands of {@link Wall}s and {@link Pellet}s and a few
+ * hundred moving objects, all in view, and then a large Minesweeper board
+ * with one tile flagged or unflagged each frame.
+ * <p>
+ * Only the work done on the JavaFX application thread is measured: updating
+ * nodes for the node renderer, and recording draw commands for the canvas
+ * renderer. Neither is shown on screen, so the time JavaFX then takes to draw
+ * the frame isn't included, and comparing the two while playing is still
+ * worthwhile.
+ * <p>
+ * This is not a unit test, and is run directly with its {@code main} method.
+ */
+public class RenderBenchmark {
+
+    private static final int SIZE = 80;
+    private static final int GRID_SIZE = 500;
+    private static final int GRID_VIEW = 40;
+    private static final int WARMUP_FRAMES = 300;
+    private static final int FRAMES = 300;
+
+    public static void main(String[] args) {
+        for (String renderer : new String[] { "nodes", "canvas" }) {
+            run(renderer);
+        }
+        for (String renderer : new String[] { "nodes", "canvas" }) {
+            runGrid(renderer);
+        }
+    }
+
+    private static void run(String rendererName) {
+        Game game = new Game() {
+        };
+        Level level = new Level(game, new PhysicsEngine(), SIZE, SIZE, "benchmark") {
+        };
+        Random random = new Random(116);
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                if (random.nextBoolean()) {
+                    level.getStaticObjects().add(new Wall(x, y));
+                } else {
+                    level.getStaticObjects().add(new Pellet(x, y, null));
+                }
+            }
+        }
+        DynamicGameObject[] movers = new DynamicGameObject[500];
+        for (int i = 0; i < movers.length; i++) {
+            movers[i] = new DynamicGameObject(random.nextDouble() * SIZE, random.nextDouble() * SIZE, 10) {
+            };
+            level.getDynamicObjects().add(movers[i]);
+        }
+
+        SpriteRenderer renderer = SpriteRenderer.create(rendererName);
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame(renderer, level, game, movers, i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            frame(renderer, level, game, movers, i);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %-6s %6d sprites %8.1f us/frame (%s)%n", rendererName,
+                level.getStaticObjects().size() + movers.length + 1, elapsed / 1000.0 / FRAMES,
+                renderer.getStatistics());
+    }
+
+    private static void runGrid(String rendererName) {
+        Game game = new Game() {
+        };
+        Level level = new Level(game, new PhysicsEngine(), GRID_SIZE, GRID_SIZE, "benchmark") {
+        };
+        CoverTile[] covers = new CoverTile[GRID_VIEW * GRID_VIEW];
+        for (int x = 0; x < GRID_SIZE; x++) {
+            for (int y = 0; y < GRID_SIZE; y++) {
+                level.getStaticObjects().add(new NumberTile(x, y, (x + y) % 9));
+                CoverTile cover = new CoverTile(x, y);
+                level.getStaticObjects().add(cover);
+                if (x < GRID_VIEW && y < GRID_VIEW) {
+                    covers[x * GRID_VIEW + y] = cover;
+                }
+            }
+        }
+
+        SpriteRenderer renderer = SpriteRenderer.create(rendererName);
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            gridFrame(renderer, level, game, covers, i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            gridFrame(renderer, level, game, covers, i);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %-6s %6d tiles   %8.1f us/frame (%s)%n", rendererName,
+                level.getStaticObjects().size(), elapsed / 1000.0 / FRAMES, renderer.getStatistics());
+    }
+
+    private static void gridFrame(SpriteRenderer renderer, Level level, Game game, CoverTile[] covers, int frame) {
+        CoverTile cover = covers[frame * 7 % covers.length];
+        cover.setState(cover.isFlagged() ? CoverTile.TileState.COVER : CoverTile.TileState.FLAGGED);
+        renderer.render(level, game.getPlayer(), 0, 0, GRID_VIEW, GRID_VIEW, 1);
+    }
+
+    private static void frame(SpriteRenderer renderer, Level level, Game game, DynamicGameObject[] movers,
+            int frame) {
+        for (DynamicGameObject mover : movers) {
+            mover.getLocation().setX((mover.getLocation().getX() + 0.05) % SIZE);
+        }
+        renderer.render(level, game.getPlayer(), 0, 0, SIZE, SIZE, 1);
+    }
+
+}
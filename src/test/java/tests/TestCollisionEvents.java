@@ -0,0 +1,227 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.Player;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.CollisionLayers;
+import app.gameengine.model.physics.Hitbox;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.PhysicsEngineWithGravity;
+import app.games.topdownobjects.EnemyHomingProjectile;
+import app.games.topdownobjects.Sorcerer;
+
+public class TestCollisionEvents {
+
+    static ArrayList<String> log = new ArrayList<>();
+
+    @Test
+    public void testDynamicObjectEvents() {
+        for (PhysicsEngine engine : engines()) {
+            log = new ArrayList<>();
+            Level level = createLevel(engine);
+            EventObject a = new EventObject("a", 0, 0);
+            EventObject b = new EventObject("b", 0.5, 0);
+            level.getDynamicObjects().add(a);
+            level.getDynamicObjects().add(b);
+            engine.processAllCollisions(level);
+            engine.processAllCollisions(level);
+            engine.processAllCollisions(level);
+            assertEquals(1, engine.getContactCount());
+            b.setLocation(5, 0);
+            engine.processAllCollisions(level);
+            engine.processAllCollisions(level);
+            assertEquals(0, engine.getContactCount());
+            assertEquals(Arrays.asList("a enters b", "b enters a", "a stays b", "b stays a", "a stays b", "b stays a",
+                    "a exits b", "b exits a"), log);
+        }
+    }
+
+    @Test
+    public void testStaticObjectEvents() {
+        for (PhysicsEngine engine : engines()) {
+            log = new ArrayList<>();
+            Level level = createLevel(engine);
+            EventObject a = new EventObject("a", 0, 0);
+            EventWall wall = new EventWall("wall", 0, 0.5);
+            level.getDynamicObjects().add(a);
+            level.getStaticObjects().add(wall);
+            engine.processAllCollisions(level);
+            engine.processAllCollisions(level);
+            wall.destroy();
+            level.getStaticObjects().remove(wall);
+            engine.processAllCollisions(level);
+            assertEquals(Arrays.asList("wall enters a", "a enters wall", "wall stays a", "a stays wall",
+                    "wall exits a", "a exits wall"), log);
+        }
+    }
+
+    @Test
+    public void testSleepingObjectsStayInContact() {
+        PhysicsEngine engine = new TestEngine();
+        log = new ArrayList<>();
+        Level level = createLevel(engine);
+        EventObject a = new EventObject("a", 0, 0);
+        EventWall wall = new EventWall("wall", 0, 0.5);
+        level.getDynamicObjects().add(a);
+        level.getStaticObjects().add(wall);
+        engine.processAllCollisions(level);
+        for (int i = 0; i < 100 && !a.isSleeping(); i++) {
+            a.updateSleepState();
+        }
+        assertEquals(true, a.isSleeping());
+        log.clear();
+        engine.processAllCollisions(level);
+        engine.processAllCollisions(level);
+        assertEquals(new ArrayList<>(), log);
+        assertEquals(1, engine.getContactCount());
+        a.wakeUp();
+        a.setLocation(3, 3);
+        engine.processAllCollisions(level);
+        assertEquals(Arrays.asList("wall exits a", "a exits wall"), log);
+    }
+
+    @Test
+    public void testContactsClearedOnReset() {
+        PhysicsEngine engine = new TestEngine();
+        log = new ArrayList<>();
+        Level level = createLevel(engine);
+        level.getDynamicObjects().add(new EventObject("a", 0, 0));
+        level.getDynamicObjects().add(new EventObject("b", 0.5, 0));
+        engine.processAllCollisions(level);
+        assertEquals(1, engine.getContactCount());
+        engine.clearContacts();
+        assertEquals(0, engine.getContactCount());
+        log.clear();
+        engine.processAllCollisions(level);
+        assertEquals(Arrays.asList("a enters b", "b enters a"), log);
+    }
+
+    @Test
+    public void testHomingProjectilesSkipSorcerers() {
+        PhysicsEngine engine = new TestEngine();
+        Level level = createLevel(engine);
+        Sorcerer sorcerer = new Sorcerer(0, 0);
+        level.getDynamicObjects().add(sorcerer);
+        level.getDynamicObjects().add(new EnemyHomingProjectile(0, 0));
+        level.getDynamicObjects().add(new EnemyHomingProjectile(0.25, 0));
+        engine.processAllCollisions(level);
+        // Neither projectile can hit the sorcerer or the other projectile
+        assertEquals(3, engine.getCandidatePairCount());
+        assertEquals(3, engine.getRejectedPairCount());
+        assertTrue(CollisionLayers.canCollide(sorcerer, new Player(0, 0, 10)));
+    }
+
+    static PhysicsEngine[] engines() {
+        PhysicsEngine parallel = new TestEngine();
+        parallel.setParallel(true);
+        return new PhysicsEngine[] { new TestEngine(), parallel, new TestGravityEngine() };
+    }
+
+    static Level createLevel(PhysicsEngine engine) {
+        return new Level(new Game() {
+        }, engine, 10, 10, "test") {
+        };
+    }
+
+    static boolean overlaps(Hitbox hitbox1, Hitbox hitbox2) {
+        return hitbox1.getMinX() < hitbox2.getMaxX() && hitbox2.getMinX() < hitbox1.getMaxX()
+                && hitbox1.getMinY() < hitbox2.getMaxY() && hitbox2.getMinY() < hitbox1.getMaxY();
+    }
+
+    static class TestEngine extends PhysicsEngine {
+
+        @Override
+        public boolean detectCollision(Hitbox hitbox1, Hitbox hitbox2) {
+            return overlaps(hitbox1, hitbox2);
+        }
+
+    }
+
+    static class TestGravityEngine extends PhysicsEngineWithGravity {
+
+        @Override
+        public boolean detectCollision(Hitbox hitbox1, Hitbox hitbox2) {
+            return overlaps(hitbox1, hitbox2);
+        }
+
+        @Override
+        public double getOverlap(Hitbox hitbox1, Hitbox hitbox2) {
+            return overlaps(hitbox1, hitbox2) ? 1 : 0;
+        }
+
+    }
+
+    static String nameOf(GameObject object) {
+        return object instanceof EventObject eventObject ? eventObject.name : ((EventWall) object).name;
+    }
+
+    /**
+     * Dynamic object that logs its collision events.
+     */
+    static class EventObject extends DynamicGameObject {
+
+        final String name;
+
+        EventObject(String name, double x, double y) {
+            super(x, y, 10);
+            this.name = name;
+        }
+
+        @Override
+        public void onCollisionEnter(GameObject otherObject) {
+            log.add(this.name + " enters " + nameOf(otherObject));
+        }
+
+        @Override
+        public void onCollisionStay(GameObject otherObject) {
+            log.add(this.name + " stays " + nameOf(otherObject));
+        }
+
+        @Override
+        public void onCollisionExit(GameObject otherObject) {
+            log.add(this.name + " exits " + nameOf(otherObject));
+        }
+
+    }
+
+    /**
+     * Static object that logs its collision events.
+     */
+    static class EventWall extends StaticGameObject {
+
+        final String name;
+
+        EventWall(String name, double x, double y) {
+            super(x, y);
+            this.name = name;
+        }
+
+        @Override
+        public void onCollisionEnter(GameObject otherObject) {
+            log.add(this.name + " enters " + nameOf(otherObject));
+        }
+
+        @Override
+        public void onCollisionStay(GameObject otherObject) {
+            log.add(this.name + " stays " + nameOf(otherObject));
+        }
+
+        @Override
+        public void onCollisionExit(GameObject otherObject) {
+            log.add(this.name + " exits " + nameOf(otherObject));
+        }
+
+    }
+
+}
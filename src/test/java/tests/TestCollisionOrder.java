@@ -0,0 +1,238 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.Hitbox;
+import app.gameengine.model.physics.PhysicsEngineWithGravity;
+import app.gameengine.model.physics.SpatialHashGrid;
+import app.gameengine.model.physics.SweepAndPruneBroadPhase;
+import app.gameengine.model.physics.Vector2D;
+import javafx.util.Pair;
+
+public class TestCollisionOrder {
+
+    static ArrayList<String> log = new ArrayList<>();
+
+    @Test
+    public void testGravityCollisionOrderMatchesReference() {
+        for (int seed = 0; seed < 100; seed++) {
+            ArrayList<String> expected = runScene(seed, true, false);
+            assertEquals("seed " + seed, expected, runScene(seed, false, false));
+            assertEquals("seed " + seed, expected, runScene(seed, false, true));
+        }
+    }
+
+    @Test
+    public void testGravityCollisionOrderWithEqualOverlaps() {
+        // Identical walls in a row all overlap the player by the same amount
+        for (int offset = 0; offset < 4; offset++) {
+            ArrayList<ArrayList<String>> results = new ArrayList<>();
+            for (boolean reference : new boolean[] { true, false }) {
+                log = new ArrayList<>();
+                TestEngine engine = new TestEngine();
+                TestLevel level = new TestLevel(engine);
+                for (int x = 0; x < 4; x++) {
+                    level.getStaticObjects().add(new PushingWall((x + offset) % 4, 1, 1, 1));
+                }
+                level.getDynamicObjects().add(new LoggingObject(0, 0, 0.55, 4, 0.8));
+                processCollisions(engine, level, reference);
+                results.add(log);
+            }
+            assertEquals(results.get(0), results.get(1));
+        }
+    }
+
+    /**
+     * Runs a random scene for a few frames, and returns every collision callback
+     * in order along with the exact final location of every object.
+     */
+    static ArrayList<String> runScene(int seed, boolean reference, boolean sweep) {
+        Random random = new Random(seed);
+        log = new ArrayList<>();
+        TestEngine engine = new TestEngine();
+        TestLevel level = new TestLevel(engine);
+        if (sweep) {
+            level.setBroadPhase(new SweepAndPruneBroadPhase());
+        } else {
+            level.setBroadPhase(new SpatialHashGrid());
+        }
+        for (int x = 0; x < 20; x++) {
+            level.getStaticObjects().add(new PushingWall(x, 10, 1, 1));
+        }
+        for (int i = 0; i < 30; i++) {
+            level.getStaticObjects().add(new PushingWall(random.nextInt(20), random.nextInt(10), 1, 1));
+        }
+        for (int i = 0; i < 25; i++) {
+            // Sizes are multiples of 0.125 so that many overlaps are equal
+            double size = 0.25 + random.nextInt(8) * 0.125;
+            level.getDynamicObjects().add(
+                    new LoggingObject(i, random.nextInt(80) * 0.25, random.nextInt(40) * 0.25, size, size));
+        }
+        for (int frame = 0; frame < 10; frame++) {
+            processCollisions(engine, level, reference);
+            for (DynamicGameObject object : level.getDynamicObjects()) {
+                Vector2D location = object.getLocation();
+                location.setY(location.getY() + 0.125);
+                location.setX(location.getX() + (((LoggingObject) object).id % 3 - 1) * 0.25);
+            }
+        }
+        for (DynamicGameObject object : level.getDynamicObjects()) {
+            log.add(Double.doubleToRawLongBits(object.getLocation().getX()) + ","
+                    + Double.doubleToRawLongBits(object.getLocation().getY()));
+        }
+        return log;
+    }
+
+    static void processCollisions(TestEngine engine, Level level, boolean reference) {
+        if (reference) {
+            processAllCollisionsReference(engine, level);
+        } else {
+            engine.processAllCollisions(level);
+        }
+    }
+
+    /**
+     * The original implementation of
+     * {@link PhysicsEngineWithGravity#processAllCollisions(Level)}, which checks
+     * every pair of objects and sorts boxed overlaps.
+     */
+    static void processAllCollisionsReference(TestEngine engine, Level level) {
+        ArrayList<DynamicGameObject> dynamicObjects = level.getDynamicObjects();
+        ArrayList<StaticGameObject> staticObjects = level.getStaticObjects();
+        for (int i = 0; i < dynamicObjects.size(); i++) {
+            DynamicGameObject object1 = dynamicObjects.get(i);
+            ArrayList<Pair<StaticGameObject, Double>> staticCollisions = new ArrayList<>();
+            for (StaticGameObject object2 : staticObjects) {
+                double overlap = engine.getOverlap(object1.getHitbox(), object2.getHitbox());
+                if (overlap > 0) {
+                    staticCollisions.add(new Pair<>(object2, overlap));
+                }
+            }
+            staticCollisions.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+            for (int j = 0; j < staticCollisions.size(); j++) {
+                StaticGameObject staticObject = staticCollisions.get(j).getKey();
+                if (engine.detectCollision(object1.getHitbox(), staticObject.getHitbox())) {
+                    staticObject.collideWithDynamicObject(object1);
+                    object1.collideWithStaticObject(staticObject);
+                }
+            }
+            ArrayList<Pair<DynamicGameObject, Double>> dynamicCollisions = new ArrayList<>();
+            for (int j = i + 1; j < dynamicObjects.size(); j++) {
+                DynamicGameObject object2 = dynamicObjects.get(j);
+                double overlap = engine.getOverlap(object1.getHitbox(), object2.getHitbox());
+                if (overlap > 0) {
+                    dynamicCollisions.add(new Pair<>(object2, overlap));
+                }
+            }
+            dynamicCollisions.sort((a, b) -> Double.compare(a.getValue(), b.getValue()));
+            for (int j = 0; j < dynamicCollisions.size(); j++) {
+                DynamicGameObject object2 = dynamicCollisions.get(j).getKey();
+                if (engine.detectCollision(object1.getHitbox(), object2.getHitbox())) {
+                    object1.collideWithDynamicObject(object2);
+                    object2.collideWithDynamicObject(object1);
+                }
+            }
+        }
+    }
+
+    static double overlapX(Hitbox hitbox1, Hitbox hitbox2) {
+        Vector2D location1 = hitbox1.getLocation();
+        Vector2D location2 = hitbox2.getLocation();
+        return Math.min(location1.getX() + hitbox1.getDimensions().getX(),
+                location2.getX() + hitbox2.getDimensions().getX()) - Math.max(location1.getX(), location2.getX());
+    }
+
+    static double overlapY(Hitbox hitbox1, Hitbox hitbox2) {
+        Vector2D location1 = hitbox1.getLocation();
+        Vector2D location2 = hitbox2.getLocation();
+        return Math.min(location1.getY() + hitbox1.getDimensions().getY(),
+                location2.getY() + hitbox2.getDimensions().getY()) - Math.max(location1.getY(), location2.getY());
+    }
+
+    static class TestEngine extends PhysicsEngineWithGravity {
+
+        @Override
+        public boolean detectCollision(Hitbox hitbox1, Hitbox hitbox2) {
+            return getOverlap(hitbox1, hitbox2) > 0;
+        }
+
+        @Override
+        public double getOverlap(Hitbox hitbox1, Hitbox hitbox2) {
+            return Math.min(overlapX(hitbox1, hitbox2), overlapY(hitbox1, hitbox2));
+        }
+
+    }
+
+    static class TestLevel extends Level {
+
+        TestLevel(PhysicsEngineWithGravity engine) {
+            super(new Game() {
+            }, engine, 20, 11, "test");
+        }
+
+    }
+
+    /**
+     * Wall that pushes dynamic objects out along the axis of least overlap.
+     */
+    static class PushingWall extends StaticGameObject {
+
+        PushingWall(double x, double y, double width, double height) {
+            super(x, y);
+            this.getHitbox().setDimensions(width, height);
+        }
+
+        @Override
+        public void collideWithDynamicObject(DynamicGameObject otherObject) {
+            log.add(this.getLocation() + " pushes " + ((LoggingObject) otherObject).id);
+            double overlapX = overlapX(this.getHitbox(), otherObject.getHitbox());
+            double overlapY = overlapY(this.getHitbox(), otherObject.getHitbox());
+            Vector2D location = otherObject.getLocation();
+            if (overlapX < overlapY) {
+                boolean left = otherObject.getHitbox().getLocation().getX() < this.getLocation().getX();
+                location.setX(location.getX() + (left ? -overlapX : overlapX));
+            } else {
+                boolean above = otherObject.getHitbox().getLocation().getY() < this.getLocation().getY();
+                location.setY(location.getY() + (above ? -overlapY : overlapY));
+            }
+        }
+
+    }
+
+    /**
+     * Dynamic object that logs its collisions, and nudges other dynamic objects.
+     */
+    static class LoggingObject extends DynamicGameObject {
+
+        final int id;
+
+        LoggingObject(int id, double x, double y, double width, double height) {
+            super(x, y, 10);
+            this.id = id;
+            this.getHitbox().setDimensions(width, height);
+        }
+
+        @Override
+        public void collideWithDynamicObject(DynamicGameObject otherObject) {
+            log.add(this.id + " hits " + ((LoggingObject) otherObject).id);
+            Vector2D location = otherObject.getLocation();
+            location.setX(location.getX() + 0.0625);
+        }
+
+        @Override
+        public void collideWithStaticObject(StaticGameObject otherObject) {
+            log.add(this.id + " lands on " + otherObject.getLocation());
+        }
+
+    }
+
+}
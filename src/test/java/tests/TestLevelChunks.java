@@ -0,0 +1,175 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+
+public class TestLevelChunks {
+
+    @Test
+    public void testOnlyNearbyChunksAreUpdated() {
+        Game game = new Game() {
+        };
+        Level level = new Level(game, new TestCollisionEvents.TestEngine(), 200, 20, "test") {
+            @Override
+            public int getViewWidth() {
+                return 16;
+            }
+        };
+        game.getPlayer().setLocation(2, 2);
+        CountingObject near = new CountingObject(20, 2);
+        CountingObject far = new CountingObject(150, 2);
+        CountingObject farOther = new CountingObject(150.5, 2);
+        CountingWall nearWall = new CountingWall(30, 5);
+        CountingWall farWall = new CountingWall(160, 5);
+        level.getDynamicObjects().add(near);
+        level.getDynamicObjects().add(far);
+        level.getDynamicObjects().add(farOther);
+        level.getStaticObjects().add(nearWall);
+        level.getStaticObjects().add(farWall);
+        level.setLoaded();
+        // Every object is active by default
+        level.update(0);
+        assertEquals(1, far.updates);
+        assertEquals(1, farWall.updates);
+        assertEquals(1, far.collisions);
+
+        level.setActiveChunkRadius(1);
+        level.update(0);
+        assertTrue(level.isActive(near));
+        assertFalse(level.isActive(far));
+        assertTrue(level.isActive(game.getPlayer()));
+        assertEquals(2, near.updates);
+        assertEquals(2, nearWall.updates);
+        // Frozen objects aren't updated, and don't collide with each other
+        assertEquals(1, far.updates);
+        assertEquals(1, farWall.updates);
+        assertEquals(1, far.collisions);
+        assertFalse(level.getActiveDynamicObjects().contains(far));
+
+        // Moving the player activates the chunks around it
+        game.getPlayer().setLocation(155, 2);
+        level.update(0);
+        assertFalse(level.isActive(near));
+        assertTrue(level.isActive(far));
+        assertEquals(2, near.updates);
+        assertEquals(2, far.updates);
+        assertEquals(2, farWall.updates);
+        assertEquals(2, far.collisions);
+
+        // Added and destroyed static objects are kept track of
+        CountingWall addedWall = new CountingWall(158, 5);
+        level.addStaticObject(addedWall);
+        farWall.destroy();
+        level.update(0);
+        level.update(0);
+        assertEquals(2, addedWall.updates);
+        assertEquals(2, farWall.updates);
+        assertFalse(level.getStaticObjects().contains(farWall));
+    }
+
+    @Test
+    public void testDistantObjectsAreUpdatedLessOften() {
+        Game game = new Game() {
+        };
+        Level level = new Level(game, new TestCollisionEvents.TestEngine(), 200, 20, "test") {
+            @Override
+            public int getViewWidth() {
+                return 16;
+            }
+        };
+        game.getPlayer().setLocation(2, 2);
+        CountingObject visible = new CountingObject(5, 2);
+        CountingObject near = new CountingObject(20, 2);
+        CountingObject far = new CountingObject(40, 2);
+        CountingObject farthest = new CountingObject(100, 2);
+        level.getDynamicObjects().add(visible);
+        level.getDynamicObjects().add(near);
+        level.getDynamicObjects().add(far);
+        level.getDynamicObjects().add(farthest);
+        level.setUpdateRingDistances(32, 8);
+        level.setLoaded();
+        for (int i = 0; i < 8; i++) {
+            level.update(0.5);
+        }
+        assertEquals(8, visible.updates);
+        assertEquals(4, near.updates);
+        assertEquals(2, far.updates);
+        assertEquals(1, farthest.updates);
+        // No time is lost, only delayed
+        for (CountingObject object : new CountingObject[] { visible, near, far, farthest }) {
+            assertEquals(4, object.time + object.getSkippedUpdateTime(), 1e-9);
+        }
+        for (int ring = 0; ring < 4; ring++) {
+            assertEquals(1, level.getUpdateRingCount(ring));
+        }
+        assertEquals(0, level.getUpdateRingCount(4));
+
+        // Objects that come into view are updated every frame again
+        game.getPlayer().setLocation(95, 2);
+        level.update(0.5);
+        level.update(0.5);
+        assertEquals(3, farthest.updates);
+        assertEquals(5, farthest.time, 1e-9);
+        // Time skipped before the rings are removed is still given to each object
+        level.setUpdateRingDistances();
+        level.update(0.5);
+        assertEquals(4, level.getUpdateRingCount(0));
+        assertEquals(5.5, near.time, 1e-9);
+        assertEquals(0, near.getSkippedUpdateTime(), 0);
+    }
+
+    /**
+     * Dynamic object that counts its updates and collisions.
+     */
+    static class CountingObject extends DynamicGameObject {
+
+        int updates;
+        int collisions;
+        double time;
+
+        CountingObject(double x, double y) {
+            super(x, y, 10);
+        }
+
+        @Override
+        public void update(double dt, Level level) {
+            super.update(dt, level);
+            this.updates++;
+            this.time += dt;
+        }
+
+        @Override
+        public void collideWithDynamicObject(DynamicGameObject otherObject) {
+            this.collisions++;
+        }
+
+    }
+
+    /**
+     * Static object that counts its updates.
+     */
+    static class CountingWall extends StaticGameObject {
+
+        int updates;
+
+        CountingWall(double x, double y) {
+            super(x, y);
+        }
+
+        @Override
+        public void update(double dt, Level level) {
+            super.update(dt, level);
+            this.updates++;
+        }
+
+    }
+
+}
@@ -0,0 +1,266 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.BroadPhase;
+import app.gameengine.model.physics.BruteForceBroadPhase;
+import app.gameengine.model.physics.DynamicAabbTree;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.SpatialHashGrid;
+import app.gameengine.model.physics.SweepAndPruneBroadPhase;
+import app.gameengine.model.physics.Vector2D;
+import app.gameengine.utils.GameUtils;
+
+public class TestLevelQueries {
+
+    @Test
+    public void testQueriesMatchCheckingEveryObject() {
+        for (int seed = 0; seed < 20; seed++) {
+            for (int broadPhase = 0; broadPhase < 4; broadPhase++) {
+                Random random = new Random(seed);
+                Level level = createLevel(random, createBroadPhase(broadPhase));
+                for (int i = 0; i < 50; i++) {
+                    double minX = random.nextInt(120) * 0.25 - 1;
+                    double minY = random.nextInt(120) * 0.25 - 1;
+                    double maxX = minX + random.nextInt(30) * 0.25;
+                    double maxY = minY + random.nextInt(30) * 0.25;
+                    String message = "seed " + seed + ", broadphase " + broadPhase + ", query " + i;
+                    assertEquals(message, expectedRegion(level, minX, minY, maxX, maxY),
+                            level.queryRegion(minX, minY, maxX, maxY));
+                    Vector2D center = new Vector2D(minX, minY);
+                    double radius = random.nextInt(20) * 0.25;
+                    assertEquals(message, expectedCircle(level, center, radius, false), level.queryRadius(center, radius));
+                    assertEquals(message, expectedCircle(level, center, 0, true), level.queryPoint(center));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testQueriesSeeAddedAndRemovedObjects() {
+        Level level = createLevel(new Random(0), new SpatialHashGrid());
+        level.setLoaded();
+        Wall wall = new Wall(35, 35, 1, 1);
+        level.addStaticObject(wall);
+        assertEquals(new ArrayList<>(), level.queryPoint(new Vector2D(35.5, 35.5)));
+        level.update(0);
+        assertEquals(1, level.queryPoint(new Vector2D(35.5, 35.5)).size());
+        wall.destroy();
+        level.update(0);
+        assertEquals(0, level.queryPoint(new Vector2D(35.5, 35.5)).size());
+        // Directly modifying the list is also noticed
+        level.getStaticObjects().add(wall);
+        assertEquals(1, level.queryPoint(new Vector2D(35.5, 35.5)).size());
+    }
+
+    @Test
+    public void testQueriesFollowMovingObjects() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), new SpatialHashGrid(), 30, 30, "test") {
+        };
+        level.setLoaded();
+        // Moves itself when updated
+        DynamicGameObject mover = new DynamicGameObject(2, 2, 10) {
+            @Override
+            public void update(double dt, Level level) {
+                super.update(dt, level);
+                this.setLocation(20, 20);
+            }
+        };
+        // Looks for the mover after it has been updated
+        int[] found = new int[1];
+        DynamicGameObject watcher = new DynamicGameObject(5, 5, 10) {
+            @Override
+            public void update(double dt, Level level) {
+                super.update(dt, level);
+                found[0] = level.queryPoint(new Vector2D(20.5, 20.5)).size();
+            }
+        };
+        level.getDynamicObjects().add(mover);
+        level.getDynamicObjects().add(watcher);
+        assertEquals(1, level.queryPoint(new Vector2D(2.5, 2.5)).size());
+        level.update(0);
+        assertEquals(1, found[0]);
+        assertEquals(0, level.queryPoint(new Vector2D(2.5, 2.5)).size());
+        assertEquals(1, level.queryPoint(new Vector2D(20.5, 20.5)).size());
+        // Only static objects are visited when asked
+        level.getStaticObjects().add(new Wall(20, 20, 1, 1));
+        ArrayList<GameObject> results = new ArrayList<>();
+        level.queryStaticRegion(19, 19, 22, 22, results::add);
+        assertEquals(level.getStaticObjects(), results);
+    }
+
+    @Test
+    public void testStaticObjectsChangedInPlaceAreFound() {
+        for (int broadPhase = 0; broadPhase < 4; broadPhase++) {
+            String message = "broadphase " + broadPhase;
+            Level level = new Level(new Game() {
+            }, new PhysicsEngine(), createBroadPhase(broadPhase), 30, 30, "test") {
+            };
+            level.setLoaded();
+            for (int x = 0; x < 5; x++) {
+                level.getStaticObjects().add(new Wall(x, 0, 1, 1));
+            }
+            level.update(0);
+            // Replacing an object in the middle of the list keeps its size
+            Wall replacement = new Wall(10, 10, 1, 1);
+            level.getStaticObjects().set(2, replacement);
+            level.update(0);
+            assertEquals(message, 0, level.queryPoint(new Vector2D(2.5, 0.5)).size());
+            assertEquals(message, List.of(replacement), level.queryPoint(new Vector2D(10.5, 10.5)));
+            Wall moved = new Wall(20, 20, 1, 1);
+            level.getStaticObjects().remove(1);
+            level.getStaticObjects().add(moved);
+            level.update(0);
+            assertEquals(message, 0, level.queryPoint(new Vector2D(1.5, 0.5)).size());
+            assertEquals(message, List.of(moved), level.queryPoint(new Vector2D(20.5, 20.5)));
+            // Moved static objects are found where they are, even before the next update
+            moved.setLocation(25, 5);
+            assertEquals(message, 0, level.queryPoint(new Vector2D(20.5, 20.5)).size());
+            assertEquals(message, List.of(moved), level.queryPoint(new Vector2D(25.5, 5.5)));
+            level.update(0);
+            assertEquals(message, List.of(moved), level.queryPoint(new Vector2D(25.5, 5.5)));
+        }
+    }
+
+    @Test
+    public void testSplashDamageFallsOffWithLocation() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), new SpatialHashGrid(), 30, 30, "test") {
+        };
+        DynamicGameObject near = new DynamicGameObject(11, 10, 100) {
+        };
+        // Its hitbox is within the radius, but its location isn't
+        DynamicGameObject far = new DynamicGameObject(12.5, 10, 100) {
+        };
+        far.getHitbox().setOffset(-1, 0);
+        level.getDynamicObjects().add(near);
+        level.getDynamicObjects().add(far);
+        GameUtils.dealSplashDamage(level, 10, 2, new Vector2D(10, 10));
+        assertEquals(95, near.getHP());
+        assertEquals(100, far.getHP());
+    }
+
+    @Test
+    public void testPointOnEdgeIsInOneTile() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 3, 1, "test") {
+        };
+        for (int x = 0; x < 3; x++) {
+            level.getStaticObjects().add(new Wall(x, 0, 1, 1));
+        }
+        ArrayList<GameObject> results = level.queryPoint(new Vector2D(1, 0.5));
+        assertEquals(1, results.size());
+        assertEquals(1, results.getFirst().getLocation().getX(), 0);
+    }
+
+    @Test
+    public void testVisitorCanStopEarly() {
+        Level level = createLevel(new Random(0), new SpatialHashGrid());
+        int total = level.queryRegion(-1, -1, 31, 31).size();
+        int[] visited = new int[1];
+        assertTrue(level.queryRegion(-1, -1, 31, 31, object -> ++visited[0] > 0));
+        assertEquals(total, visited[0]);
+        visited[0] = 0;
+        assertFalse(level.queryRegion(-1, -1, 31, 31, object -> ++visited[0] < 3));
+        assertEquals(3, visited[0]);
+        // Queries can be nested
+        visited[0] = 0;
+        level.queryRegion(0, 0, 5, 5, object -> {
+            level.queryRadius(object.getLocation(), 2, other -> ++visited[0] > 0);
+            return true;
+        });
+        assertTrue(visited[0] > 0);
+    }
+
+    static Level createLevel(Random random, BroadPhase broadPhase) {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), broadPhase, 30, 30, "test") {
+        };
+        for (int i = 0; i < 200; i++) {
+            level.getStaticObjects().add(new Wall(random.nextInt(30), random.nextInt(30), 1, 1));
+        }
+        for (int i = 0; i < 10; i++) {
+            level.getStaticObjects().add(new Wall(random.nextInt(30), random.nextInt(30), 1 + random.nextInt(8), 1));
+        }
+        for (int i = 0; i < 50; i++) {
+            double size = 0.25 + random.nextInt(8) * 0.125;
+            DynamicGameObject object = new DynamicGameObject(random.nextInt(120) * 0.25, random.nextInt(120) * 0.25,
+                    10) {
+            };
+            object.getHitbox().setDimensions(size, size);
+            object.getHitbox().setOffset(random.nextInt(3) * 0.125, 0);
+            level.getDynamicObjects().add(object);
+        }
+        return level;
+    }
+
+    static BroadPhase createBroadPhase(int index) {
+        return switch (index) {
+            case 0 -> new SpatialHashGrid();
+            case 1 -> new SweepAndPruneBroadPhase();
+            case 2 -> new DynamicAabbTree();
+            default -> new BruteForceBroadPhase();
+        };
+    }
+
+    static ArrayList<GameObject> expectedRegion(Level level, double minX, double minY, double maxX, double maxY) {
+        ArrayList<GameObject> results = new ArrayList<>();
+        ArrayList<GameObject> objects = new ArrayList<>(level.getStaticObjects());
+        objects.addAll(level.getDynamicObjects());
+        for (GameObject object : objects) {
+            Vector2D location = object.getHitbox().getLocation();
+            Vector2D dimensions = object.getHitbox().getDimensions();
+            if (location.getX() < maxX && minX < location.getX() + dimensions.getX() && location.getY() < maxY
+                    && minY < location.getY() + dimensions.getY()) {
+                results.add(object);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the objects closer than the radius, or containing the center if
+     * {@code point} is {@code true}.
+     */
+    static ArrayList<GameObject> expectedCircle(Level level, Vector2D center, double radius, boolean point) {
+        ArrayList<GameObject> results = new ArrayList<>();
+        ArrayList<GameObject> objects = new ArrayList<>(level.getStaticObjects());
+        objects.addAll(level.getDynamicObjects());
+        for (GameObject object : objects) {
+            Vector2D location = object.getHitbox().getLocation();
+            Vector2D dimensions = object.getHitbox().getDimensions();
+            double dx = center.getX() - Math.clamp(center.getX(), location.getX(), location.getX() + dimensions.getX());
+            double dy = center.getY() - Math.clamp(center.getY(), location.getY(), location.getY() + dimensions.getY());
+            if (point ? location.getX() <= center.getX() && center.getX() < location.getX() + dimensions.getX()
+                    && location.getY() <= center.getY() && center.getY() < location.getY() + dimensions.getY()
+                    : dx * dx + dy * dy < radius * radius) {
+                results.add(object);
+            }
+        }
+        return results;
+    }
+
+    static class Wall extends StaticGameObject {
+
+        Wall(double x, double y, double width, double height) {
+            super(x, y);
+            this.getHitbox().setDimensions(width, height);
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.Player;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.Vector2D;
+import app.gameengine.utils.Timer;
+import app.games.minesweeper.CoverTile;
+import app.games.pacman.Ghost;
+import app.games.roguelikeobjects.LevelDoor;
+
+public class TestLevelSnapshot {
+
+    @Test
+    public void testRestoreSnapshot() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "test") {
+        };
+        DynamicGameObject object = new DynamicGameObject(1, 1, 10) {
+        };
+        StaticGameObject wall = new TestLevelQueries.Wall(4, 4, 1, 1);
+        level.getDynamicObjects().add(object);
+        level.getStaticObjects().add(wall);
+        level.setLoaded();
+        object.setVelocity(2, 0);
+        object.setOrientation(1, 0);
+        object.takeDamage(3);
+        level.setScore(5);
+        level.update(0);
+        LevelSnapshot snapshot = level.takeSnapshot();
+        ArrayList<DynamicGameObject> dynamicObjects = new ArrayList<>(level.getDynamicObjects());
+        ArrayList<StaticGameObject> staticObjects = new ArrayList<>(level.getStaticObjects());
+        // Change the level in every way the snapshot records
+        object.setLocation(7, 8);
+        object.setVelocity(0, -1);
+        object.setOrientation(0, -1);
+        object.takeDamage(2);
+        object.setAnimationState("walk");
+        wall.destroy();
+        level.addDynamicObject(new DynamicGameObject(2, 2, 10) {
+        });
+        level.setScore(50);
+        level.update(1);
+        assertFalse(level.getStaticObjects().contains(wall));
+        level.restoreSnapshot(snapshot);
+        assertEquals(dynamicObjects, level.getDynamicObjects());
+        assertEquals(staticObjects, level.getStaticObjects());
+        assertFalse(wall.isDestroyed());
+        assertEquals(new Vector2D(1, 1), object.getLocation());
+        assertEquals(new Vector2D(2, 0), object.getVelocity());
+        assertEquals(new Vector2D(1, 0), object.getOrientation());
+        assertEquals(7, object.getHP());
+        assertEquals("default", object.getAnimationState());
+        assertEquals(5, level.getScore(), 0);
+        assertEquals(0, level.getPlaytime(), 0);
+        // The restored wall can be found again
+        assertTrue(level.queryPoint(new Vector2D(4.5, 4.5)).contains(wall));
+        // A snapshot can be restored more than once, and retaken in place
+        level.update(1);
+        level.restoreSnapshot(snapshot);
+        assertEquals(new Vector2D(1, 1), object.getLocation());
+        int size = snapshot.size();
+        level.takeSnapshot(snapshot);
+        assertEquals(size, snapshot.size());
+    }
+
+    @Test
+    public void testRestoreSnapshotOfGameObjects() {
+        Timer timer = new Timer(1);
+        // Saves level state the same way game levels, such as PacmanLevel, do
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "test") {
+            @Override
+            protected void saveState(LevelSnapshot snapshot) {
+                snapshot.writeDouble(timer.getElapsedTime());
+            }
+
+            @Override
+            protected void restoreState(LevelSnapshot snapshot) {
+                timer.setElapsedTime(snapshot.readDouble());
+            }
+        };
+        Player player = new Player(1, 1, 10);
+        Ghost ghost = new Ghost(3, 3, null, "Red");
+        ghost.setState("Chase");
+        CoverTile cover = new CoverTile(5, 5);
+        LevelDoor door = new LevelDoor(6, 0, null, level, "next");
+        level.getDynamicObjects().add(player);
+        level.getDynamicObjects().add(ghost);
+        level.getStaticObjects().add(cover);
+        level.getStaticObjects().add(door);
+        level.setLoaded();
+        timer.advance(0.25);
+        LevelSnapshot snapshot = level.takeSnapshot();
+        for (int i = 0; i < 2; i++) {
+            // Change the state that only the game objects and the level know about
+            player.takeDamage(1);
+            ghost.setState("Frightened");
+            cover.setState(CoverTile.TileState.FLAGGED);
+            door.setActive(false);
+            timer.advance(0.5);
+            assertEquals(0.5, player.getInvincibilityFrames(), 0);
+            level.restoreSnapshot(snapshot);
+            assertEquals(10, player.getHP());
+            assertEquals(0, player.getInvincibilityFrames(), 0);
+            assertEquals("Chase", ghost.getState());
+            assertEquals(8, ghost.getMovementSpeed(), 0);
+            assertEquals(CoverTile.TileState.COVER, cover.getTileState());
+            assertTrue(door.isActive());
+            assertEquals(0.25, timer.getElapsedTime(), 0);
+        }
+    }
+
+}
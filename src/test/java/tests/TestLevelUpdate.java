@@ -0,0 +1,194 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import app.display.common.effects.Effect;
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.LevelSnapshot;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.Vector2D;
+import javafx.scene.Node;
+
+public class TestLevelUpdate {
+
+    @Test
+    public void testDestroyedObjectsAreRemovedInOrder() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 100, 100, "test") {
+        };
+        ArrayList<StaticGameObject> walls = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            walls.add(new TestLevelQueries.Wall(i, 0, 1, 1));
+            level.getStaticObjects().add(walls.getLast());
+        }
+        level.setLoaded();
+        level.update(0);
+        assertEquals(100, level.getStaticObjects().size());
+        // Destroy every third wall, a few at a time
+        ArrayList<StaticGameObject> expected = new ArrayList<>(walls);
+        for (int i = 0; i < 100; i += 3) {
+            walls.get(i).destroy();
+            expected.remove(walls.get(i));
+            if (i % 9 == 0) {
+                level.update(0);
+                assertEquals(expected, level.getStaticObjects());
+            }
+        }
+        level.update(0);
+        assertEquals(expected, level.getStaticObjects());
+        // Frames without any changes leave the lists alone
+        level.update(0);
+        assertEquals(expected, level.getStaticObjects());
+    }
+
+    @Test
+    public void testObjectsAddedAlreadyDestroyedAreRemoved() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "test") {
+        };
+        level.setLoaded();
+        level.update(0);
+        DynamicGameObject object = new DynamicGameObject(1, 1, 10) {
+        };
+        object.destroy();
+        level.update(0);
+        level.getDynamicObjects().add(object);
+        level.update(0);
+        assertFalse(level.getDynamicObjects().contains(object));
+        StaticGameObject wall = new TestLevelQueries.Wall(1, 1, 1, 1);
+        level.addStaticObject(wall);
+        wall.destroy();
+        level.update(0);
+        assertTrue(level.getStaticObjects().isEmpty());
+    }
+
+    @Test
+    public void testObjectsKnowTheirLevelHoweverTheyAreAdded() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "test") {
+        };
+        level.setLoaded();
+        ArrayList<StaticGameObject> walls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            walls.add(new TestLevelQueries.Wall(i, 0, 1, 1));
+        }
+        level.getStaticObjects().add(walls.get(0));
+        level.getStaticObjects().addFirst(walls.get(1));
+        level.getStaticObjects().addAll(walls.subList(2, 4));
+        level.getStaticObjects().set(0, walls.get(4));
+        for (StaticGameObject wall : walls) {
+            assertSame(level, wall.getLevel());
+        }
+        // Destroying an object added directly, with nothing else changing, removes it
+        level.update(0);
+        level.update(0);
+        walls.get(2).destroy();
+        level.update(0);
+        assertEquals(List.of(walls.get(4), walls.get(0), walls.get(3)), level.getStaticObjects());
+        // As do objects put back by restoring a snapshot
+        LevelSnapshot snapshot = level.takeSnapshot();
+        StaticGameObject restored = walls.get(0);
+        restored.setLevel(null);
+        level.restoreSnapshot(snapshot);
+        assertSame(level, restored.getLevel());
+    }
+
+    @Test
+    public void testObjectsAddedDirectlyAreRemovedWhenDestroyedLater() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "test") {
+        };
+        Level other = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "other") {
+        };
+        level.setLoaded();
+        other.setLoaded();
+        DynamicGameObject object = new DynamicGameObject(1, 1, 10) {
+        };
+        level.getDynamicObjects().add(object);
+        level.update(0);
+        other.update(0);
+        assertTrue(level.getDynamicObjects().contains(object));
+        object.destroy();
+        other.update(0);
+        level.update(0);
+        assertFalse(level.getDynamicObjects().contains(object));
+    }
+
+    @Test
+    public void testActiveEffectsFollowTheirObject() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "test") {
+        };
+        DynamicGameObject object = new DynamicGameObject(1, 1, 10) {
+        };
+        level.getDynamicObjects().add(object);
+        level.setLoaded();
+        CountdownEffect effect = new CountdownEffect(5);
+        object.getEffects().add(effect);
+        level.update(0);
+        assertSame(object.getLocation(), level.getActiveEffects().get(effect));
+        object.setLocation(3, 4);
+        level.update(0);
+        assertEquals(new Vector2D(3, 4), level.getActiveEffects().get(effect));
+        assertEquals(2, effect.updates);
+        // Once the object is removed, the effect stays where it was
+        object.destroy();
+        level.update(0);
+        assertNotSame(object.getLocation(), level.getActiveEffects().get(effect));
+        object.setLocation(5, 5);
+        assertEquals(new Vector2D(3, 4), level.getActiveEffects().get(effect));
+        // Finished effects are removed
+        level.update(0);
+        level.update(0);
+        assertEquals(5, effect.updates);
+        assertFalse(level.getActiveEffects().containsKey(effect));
+    }
+
+    /**
+     * An effect that finishes after a number of updates.
+     */
+    static class CountdownEffect implements Effect {
+
+        private final int length;
+        private int updates;
+
+        CountdownEffect(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return this.updates >= this.length;
+        }
+
+        @Override
+        public void update(double dt) {
+            this.updates++;
+        }
+
+        @Override
+        public Node getFrame(Vector2D origin) {
+            return null;
+        }
+
+        @Override
+        public void reset() {
+            this.updates = 0;
+        }
+
+    }
+
+}
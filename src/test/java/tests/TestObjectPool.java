@@ -0,0 +1,86 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.utils.ObjectPool;
+import app.games.commonobjects.Projectile;
+import app.games.topdownobjects.EnemyArrowProjectile;
+
+public class TestObjectPool {
+
+    @Test
+    public void testPoolReusesReleasedObjects() {
+        ObjectPool<StringBuilder> pool = new ObjectPool<>(StringBuilder::new, builder -> builder.setLength(0), 2);
+        StringBuilder first = pool.obtain();
+        first.append("used");
+        assertEquals(0, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertTrue(pool.release(first));
+        // Released twice, or never obtained
+        assertFalse(pool.release(first));
+        assertFalse(pool.release(new StringBuilder()));
+        assertEquals(1, pool.getFreeCount());
+        StringBuilder second = pool.obtain();
+        assertSame(first, second);
+        assertEquals("", second.toString());
+        assertEquals(1, pool.getHitCount());
+        // Objects beyond the capacity are not kept
+        StringBuilder[] builders = { pool.obtain(), pool.obtain(), pool.obtain() };
+        assertEquals(4, pool.getActiveCount());
+        pool.release(second);
+        for (StringBuilder builder : builders) {
+            pool.release(builder);
+        }
+        assertEquals(2, pool.getFreeCount());
+        assertEquals(0, pool.getActiveCount());
+        pool.setCapacity(1);
+        assertEquals(1, pool.getFreeCount());
+    }
+
+    @Test
+    public void testLevelReleasesDestroyedObjects() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "test") {
+        };
+        ObjectPool<Projectile> pool = new ObjectPool<>(() -> new EnemyArrowProjectile(0, 0), GameObject::reset, 8);
+        level.addObjectPool(pool);
+        level.setLoaded();
+        Projectile projectile = pool.obtain();
+        projectile.setLocation(3, 3);
+        projectile.setVelocity(1, 0);
+        level.addDynamicObject(projectile);
+        level.update(0);
+        assertTrue(level.getDynamicObjects().contains(projectile));
+        assertEquals(0, pool.getFreeCount());
+        projectile.destroy();
+        level.update(0);
+        assertFalse(level.getDynamicObjects().contains(projectile));
+        assertEquals(1, pool.getFreeCount());
+        // The projectile is reset before being reused
+        Projectile reused = pool.obtain();
+        assertSame(projectile, reused);
+        assertFalse(reused.isDestroyed());
+        assertTrue(reused.isOnGround());
+        assertEquals(0, reused.getVelocity().getX(), 0);
+        assertEquals(20, reused.getHP());
+        // Objects that aren't from the pool are left alone
+        Projectile other = new EnemyArrowProjectile(1, 1);
+        level.addDynamicObject(other);
+        level.update(0);
+        other.destroy();
+        level.update(0);
+        assertEquals(0, pool.getFreeCount());
+        assertNotSame(other, pool.obtain());
+    }
+
+}
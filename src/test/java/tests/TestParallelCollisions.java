@@ -0,0 +1,190 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.BroadPhase;
+import app.gameengine.model.physics.BruteForceBroadPhase;
+import app.gameengine.model.physics.CollisionLayers;
+import app.gameengine.model.physics.DynamicAabbTree;
+import app.gameengine.model.physics.Hitbox;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.SpatialHashGrid;
+import app.gameengine.model.physics.SweepAndPruneBroadPhase;
+import app.gameengine.model.physics.Vector2D;
+
+public class TestParallelCollisions {
+
+    static ArrayList<String> log = new ArrayList<>();
+
+    @Test
+    public void testParallelCollisionsMatchSerial() {
+        for (int seed = 0; seed < 30; seed++) {
+            for (int broadPhase = 0; broadPhase < 4; broadPhase++) {
+                ArrayList<String> expected = runScene(seed, broadPhase, false);
+                assertEquals("seed " + seed + ", broadphase " + broadPhase, expected,
+                        runScene(seed, broadPhase, true));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelCanBeToggled() {
+        TestEngine engine = new TestEngine();
+        assertEquals(false, engine.isParallel());
+        engine.setParallel(true);
+        assertEquals(true, engine.isParallel());
+        engine.setParallel(false);
+        assertEquals(false, engine.isParallel());
+    }
+
+    /**
+     * Runs a random scene with enough objects to be split between several
+     * threads, and returns every collision callback in order along with the
+     * exact final location of every object.
+     */
+    static ArrayList<String> runScene(int seed, int broadPhase, boolean parallel) {
+        Random random = new Random(seed);
+        log = new ArrayList<>();
+        TestEngine engine = new TestEngine();
+        engine.setParallel(parallel);
+        Level level = new Level(new Game() {
+        }, engine, createBroadPhase(broadPhase), 40, 40, "test") {
+        };
+        for (int i = 0; i < 150; i++) {
+            level.getStaticObjects().add(new PushingWall(random.nextInt(40), random.nextInt(40)));
+        }
+        for (int i = 0; i < 300; i++) {
+            // Sizes are multiples of 0.125 so that many overlaps are equal
+            double size = 0.25 + random.nextInt(8) * 0.125;
+            LoggingObject object = new LoggingObject(i, random.nextInt(160) * 0.25, random.nextInt(160) * 0.25,
+                    size);
+            if (random.nextInt(4) == 0) {
+                object.setCollisionLayer(CollisionLayers.PROJECTILE);
+                object.setCollisionMask(CollisionLayers.WALL);
+            }
+            level.getDynamicObjects().add(object);
+        }
+        for (int frame = 0; frame < 8; frame++) {
+            engine.processAllCollisions(level);
+            log.add(engine.getCandidatePairCount() + " candidates, " + engine.getRejectedPairCount() + " rejected");
+            for (DynamicGameObject object : level.getDynamicObjects()) {
+                Vector2D location = object.getLocation();
+                location.setX(location.getX() + (((LoggingObject) object).id % 3 - 1) * 0.25);
+                location.setY(location.getY() + (((LoggingObject) object).id % 5 - 2) * 0.125);
+            }
+        }
+        for (DynamicGameObject object : level.getDynamicObjects()) {
+            log.add(Double.doubleToRawLongBits(object.getLocation().getX()) + ","
+                    + Double.doubleToRawLongBits(object.getLocation().getY()));
+        }
+        return log;
+    }
+
+    static BroadPhase createBroadPhase(int index) {
+        return switch (index) {
+            case 0 -> new SpatialHashGrid();
+            case 1 -> new SweepAndPruneBroadPhase();
+            case 2 -> new DynamicAabbTree();
+            default -> new BruteForceBroadPhase();
+        };
+    }
+
+    static double overlapX(Hitbox hitbox1, Hitbox hitbox2) {
+        Vector2D location1 = hitbox1.getLocation();
+        Vector2D location2 = hitbox2.getLocation();
+        return Math.min(location1.getX() + hitbox1.getDimensions().getX(),
+                location2.getX() + hitbox2.getDimensions().getX()) - Math.max(location1.getX(), location2.getX());
+    }
+
+    static double overlapY(Hitbox hitbox1, Hitbox hitbox2) {
+        Vector2D location1 = hitbox1.getLocation();
+        Vector2D location2 = hitbox2.getLocation();
+        return Math.min(location1.getY() + hitbox1.getDimensions().getY(),
+                location2.getY() + hitbox2.getDimensions().getY()) - Math.max(location1.getY(), location2.getY());
+    }
+
+    static class TestEngine extends PhysicsEngine {
+
+        @Override
+        public boolean detectCollision(Hitbox hitbox1, Hitbox hitbox2) {
+            return Math.min(overlapX(hitbox1, hitbox2), overlapY(hitbox1, hitbox2)) > 0;
+        }
+
+    }
+
+    /**
+     * Wall that pushes dynamic objects out along the axis of least overlap.
+     */
+    static class PushingWall extends StaticGameObject {
+
+        PushingWall(double x, double y) {
+            super(x, y);
+            this.setCollisionLayer(CollisionLayers.WALL);
+        }
+
+        @Override
+        public void collideWithDynamicObject(DynamicGameObject otherObject) {
+            log.add(this.getLocation() + " pushes " + ((LoggingObject) otherObject).id);
+            double overlapX = overlapX(this.getHitbox(), otherObject.getHitbox());
+            double overlapY = overlapY(this.getHitbox(), otherObject.getHitbox());
+            Vector2D location = otherObject.getLocation();
+            if (overlapX < overlapY) {
+                boolean left = otherObject.getHitbox().getLocation().getX() < this.getLocation().getX();
+                location.setX(location.getX() + (left ? -overlapX : overlapX));
+            } else {
+                boolean above = otherObject.getHitbox().getLocation().getY() < this.getLocation().getY();
+                location.setY(location.getY() + (above ? -overlapY : overlapY));
+            }
+        }
+
+    }
+
+    /**
+     * Dynamic object that logs its collisions, and shoves the other object
+     * along, so that objects move while collisions are being processed.
+     */
+    static class LoggingObject extends DynamicGameObject {
+
+        final int id;
+
+        LoggingObject(int id, double x, double y, double size) {
+            super(x, y, 10);
+            this.id = id;
+            this.getHitbox().setDimensions(size, size);
+        }
+
+        @Override
+        public void collideWithDynamicObject(DynamicGameObject otherObject) {
+            log.add(this.id + " hits " + ((LoggingObject) otherObject).id);
+            Vector2D location = otherObject.getLocation();
+            location.setX(location.getX() + (this.id % 2 == 0 ? 0.375 : -0.25));
+        }
+
+        @Override
+        public void collideWithStaticObject(StaticGameObject otherObject) {
+            log.add(this.id + " lands on " + otherObject.getLocation());
+        }
+
+        @Override
+        public void onCollisionEnter(GameObject otherObject) {
+            log.add(this.id + " enters " + otherObject.getLocation());
+        }
+
+        @Override
+        public void onCollisionExit(GameObject otherObject) {
+            log.add(this.id + " exits " + otherObject.getLocation());
+        }
+
+    }
+
+}
@@ -0,0 +1,148 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.gameobjects.GameObject;
+import app.gameengine.model.physics.CollisionLayers;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.RaycastHit;
+import app.gameengine.model.physics.Vector2D;
+
+public class TestRaycast {
+
+    @Test
+    public void testRaycastMatchesCheckingEveryObject() {
+        for (int seed = 0; seed < 20; seed++) {
+            for (int broadPhase = 0; broadPhase < 4; broadPhase++) {
+                Random random = new Random(seed);
+                Level level = TestLevelQueries.createLevel(random, TestLevelQueries.createBroadPhase(broadPhase));
+                // Enough wide walls that they are found with the broadphase
+                for (int i = 0; i < 20; i++) {
+                    level.getStaticObjects().add(new TestLevelQueries.Wall(random.nextInt(30), random.nextInt(30), 1,
+                            1 + random.nextInt(4)));
+                }
+                RaycastHit hit = new RaycastHit();
+                for (int i = 0; i < 100; i++) {
+                    Vector2D origin = new Vector2D(random.nextInt(136) * 0.25 - 2, random.nextInt(136) * 0.25 - 2);
+                    // Include rays along the grid lines and through the corners of tiles
+                    Vector2D direction = switch (i % 3) {
+                        case 0 -> new Vector2D(random.nextInt(3) - 1, random.nextInt(3) - 1);
+                        case 1 -> new Vector2D(random.nextInt(9) - 4, random.nextInt(9) - 4);
+                        default -> new Vector2D(random.nextGaussian(), random.nextGaussian());
+                    };
+                    double maxDistance = i % 4 == 0 ? Double.POSITIVE_INFINITY : random.nextInt(80) * 0.25;
+                    int layerMask = i % 5 == 0 ? CollisionLayers.PLAYER : CollisionLayers.ALL;
+                    String message = "seed " + seed + ", broadphase " + broadPhase + ", ray " + i;
+                    double expected = expectedDistance(level, origin, direction, maxDistance, layerMask);
+                    if (expected == Double.POSITIVE_INFINITY) {
+                        assertFalse(message, level.raycast(origin, direction, maxDistance, layerMask, hit));
+                        assertNull(message, hit.getObject());
+                    } else {
+                        assertTrue(message, level.raycast(origin, direction, maxDistance, layerMask, hit));
+                        assertEquals(message, expected, hit.getDistance(), 1e-9);
+                        assertEquals(message, expected, distance(hit.getObject(), origin, direction), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRaycastReportsHitPoint() {
+        Level level = createCorridor();
+        RaycastHit hit = level.raycast(new Vector2D(0.5, 0.5), new Vector2D(2, 0), 10, CollisionLayers.ALL);
+        assertNotNull(hit);
+        assertEquals(3.5, hit.getDistance(), 1e-9);
+        assertEquals(4, hit.getX(), 1e-9);
+        assertEquals(0.5, hit.getY(), 1e-9);
+        assertEquals(4, hit.getObject().getLocation().getX(), 0);
+        // Too short, wrong layer, or no direction
+        assertNull(level.raycast(new Vector2D(0.5, 0.5), new Vector2D(1, 0), 3, CollisionLayers.ALL));
+        assertNull(level.raycast(new Vector2D(0.5, 0.5), new Vector2D(1, 0), 10, CollisionLayers.PLAYER));
+        assertNull(level.raycast(new Vector2D(0.5, 0.5), new Vector2D(0, 0), 10, CollisionLayers.ALL));
+        // Rays that start inside a wall pass out of it
+        hit = level.raycast(new Vector2D(4.5, 0.5), new Vector2D(1, 0), 10, CollisionLayers.ALL);
+        assertEquals(7, hit.getObject().getLocation().getX(), 0);
+    }
+
+    @Test
+    public void testLineOfSight() {
+        Level level = createCorridor();
+        DynamicGameObject viewer = createObject(1, 0);
+        DynamicGameObject near = createObject(3, 0);
+        DynamicGameObject far = createObject(5, 0);
+        level.getDynamicObjects().add(viewer);
+        level.getDynamicObjects().add(near);
+        level.getDynamicObjects().add(far);
+        assertTrue(level.hasLineOfSight(viewer, near));
+        assertFalse(level.hasLineOfSight(viewer, far));
+        assertFalse(level.hasLineOfSight(far, viewer));
+        // Dynamic objects don't block the line
+        assertTrue(level.hasLineOfSight(viewer, createObject(3.25, 0)));
+        // Destroying the wall opens the line
+        level.setLoaded();
+        level.getStaticObjects().get(0).destroy();
+        level.update(0);
+        assertTrue(level.hasLineOfSight(viewer, far));
+        assertSame(level.getStaticObjects().get(0),
+                level.raycast(new Vector2D(0.5, 0.5), new Vector2D(1, 0), 10, CollisionLayers.DEFAULT).getObject());
+    }
+
+    private static Level createCorridor() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 1, "test") {
+        };
+        level.getStaticObjects().add(new TestLevelQueries.Wall(4, 0, 1, 1));
+        level.getStaticObjects().add(new TestLevelQueries.Wall(7, 0, 1, 1));
+        return level;
+    }
+
+    private static DynamicGameObject createObject(double x, double y) {
+        DynamicGameObject object = new DynamicGameObject(x, y, 10) {
+        };
+        object.getHitbox().setDimensions(0.5, 0.5);
+        object.getHitbox().setOffset(0.25, 0.25);
+        object.setCollisionLayer(CollisionLayers.PLAYER);
+        return object;
+    }
+
+    private static double expectedDistance(Level level, Vector2D origin, Vector2D direction, double maxDistance,
+            int layerMask) {
+        ArrayList<GameObject> objects = new ArrayList<>(level.getStaticObjects());
+        objects.addAll(level.getDynamicObjects());
+        double best = Double.POSITIVE_INFINITY;
+        for (GameObject object : objects) {
+            if ((object.getCollisionLayer() & layerMask) == 0) {
+                continue;
+            }
+            double distance = distance(object, origin, direction);
+            if (distance <= maxDistance) {
+                best = Math.min(best, distance);
+            }
+        }
+        return best;
+    }
+
+    private static double distance(GameObject object, Vector2D origin, Vector2D direction) {
+        double length = Math.hypot(direction.getX(), direction.getY());
+        if (length == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return RaycastHit.entryDistance(origin.getX(), origin.getY(), direction.getX() / length,
+                direction.getY() / length, object.getHitbox());
+    }
+
+}
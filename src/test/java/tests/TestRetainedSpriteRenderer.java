@@ -0,0 +1,68 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import app.display.common.RetainedSpriteRenderer;
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.games.commonobjects.Projectile;
+import javafx.scene.Group;
+import javafx.scene.Node;
+
+public class TestRetainedSpriteRenderer {
+
+    @Test
+    public void testSpritesKeepTheirOrderComingBackIntoView() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 40, 10, "test") {
+        };
+        Projectile first = new Projectile(2, 2, 1) {
+        };
+        Projectile second = new Projectile(2, 2, 1) {
+        };
+        Projectile third = new Projectile(2, 2, 1) {
+        };
+        level.getDynamicObjects().addAll(List.of(first, second, third));
+        RetainedSpriteRenderer renderer = new RetainedSpriteRenderer();
+        Group dynamicLayer = (Group) ((Group) renderer.getNode()).getChildren().get(2);
+        renderer.render(level, level.getPlayer(), 0, 0, 10, 10, 1);
+        // One for each projectile, and one for the player
+        assertEquals(4, renderer.getCreatedCount());
+        List<Node> nodes = new ArrayList<>(dynamicLayer.getChildren());
+        assertEquals(3, nodes.size());
+
+        // Going out of view only hides the node
+        second.setLocation(30, 2);
+        renderer.render(level, level.getPlayer(), 0, 0, 10, 10, 1);
+        assertEquals(1, renderer.getHiddenCount());
+        assertEquals(nodes, dynamicLayer.getChildren());
+        assertFalse(nodes.get(1).isVisible());
+
+        // Coming back, it is still drawn between the other two
+        second.setLocation(2, 2);
+        renderer.render(level, level.getPlayer(), 0, 0, 10, 10, 1);
+        assertEquals(1, renderer.getShownCount());
+        assertEquals(nodes, dynamicLayer.getChildren());
+        assertTrue(nodes.get(1).isVisible());
+
+        // New objects are drawn where they are in the list, and removed ones are gone
+        Projectile added = new Projectile(2, 2, 1) {
+        };
+        level.getDynamicObjects().add(0, added);
+        level.getDynamicObjects().remove(third);
+        renderer.render(level, level.getPlayer(), 0, 0, 10, 10, 1);
+        assertEquals(1, renderer.getCreatedCount());
+        assertEquals(1, renderer.getRemovedCount());
+        assertEquals(3, dynamicLayer.getChildren().size());
+        assertEquals(nodes.subList(0, 2), dynamicLayer.getChildren().subList(1, 3));
+    }
+
+}
@@ -0,0 +1,303 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import app.Configuration;
+import app.display.common.AssetManager;
+import app.display.common.StaticLayerCache;
+import app.display.minesweeper.MinesweeperStyle;
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.StaticGameObject;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.games.commonobjects.PathTile;
+import app.games.commonobjects.Wall;
+import app.games.mario.QuestionBlock;
+import app.games.minesweeper.CoverTile;
+import app.games.minesweeper.NumberTile;
+import app.games.snake.SnakeBody;
+import app.games.snake.SnakeFood;
+import javafx.scene.image.Image;
+
+public class TestStaticLayerCache {
+
+    @Test
+    public void testStaticObjectsAreCachedUntilTheyChange() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 40, 40, "test") {
+        };
+        Wall wall = new Wall(3, 5);
+        Wall farWall = new Wall(20, 5);
+        QuestionBlock block = new QuestionBlock(6, 6);
+        level.addStaticObject(wall);
+        level.addStaticObject(farWall);
+        level.addStaticObject(block);
+        StaticLayerCache cache = new StaticLayerCache();
+        cache.update(level, 0, 0, 30, 10);
+        assertEquals(2, cache.getCachedObjectCount());
+        // Animated objects are drawn every frame instead
+        assertEquals(List.of(block), cache.getUncachedObjects());
+        assertEquals(2, cache.getDrawnChunkCount());
+        assertNull(cache.getChunkImage(0, 1));
+
+        // The wall is drawn exactly as its sprite
+        Image chunk = cache.getChunkImage(0, 0);
+        Image spriteSheet = AssetManager.getImage(wall.getSpriteSheetFilename());
+        int size = (int) Configuration.SCALE_FACTOR;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                assertEquals(spriteSheet.getPixelReader().getArgb(3 * size + x, y),
+                        chunk.getPixelReader().getArgb(3 * size + x, 5 * size + y));
+            }
+        }
+
+        // Nothing is drawn again while nothing changes
+        cache.update(level, 0, 0, 30, 10);
+        assertEquals(0, cache.getDrawnChunkCount());
+        assertSame(chunk, cache.getChunkImage(0, 0));
+
+        // Destroying the only object in a chunk leaves nothing to draw there
+        farWall.destroy();
+        level.getStaticObjects().remove(farWall);
+        cache.update(level, 0, 0, 30, 10);
+        assertEquals(0, cache.getDrawnChunkCount());
+        assertSame(chunk, cache.getChunkImage(0, 0));
+        assertNull(cache.getChunkImage(1, 0));
+
+        // Moving an object only draws where it was and where it is again
+        wall.setLocation(4, 5);
+        cache.update(level, 0, 0, 30, 10);
+        assertEquals(0, cache.getDrawnChunkCount());
+        assertEquals(2, cache.getRepaintedRegionCount());
+        assertSame(chunk, cache.getChunkImage(0, 0));
+        assertEquals(0, chunk.getPixelReader().getArgb(3 * size, 5 * size));
+        assertTile(spriteSheet, 3, 0, chunk, 4, 5);
+    }
+
+    @Test
+    public void testChangedTilesAreRepaintedInPlace() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 20, 20, "test") {
+        };
+        CoverTile[][] covers = new CoverTile[20][20];
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                level.addStaticObject(new NumberTile(x, y, 1));
+            }
+        }
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                covers[x][y] = new CoverTile(x, y);
+                level.addStaticObject(covers[x][y]);
+            }
+        }
+        StaticLayerCache cache = new StaticLayerCache();
+        cache.update(level, 0, 0, 20, 20);
+        assertEquals(800, cache.getCachedObjectCount());
+        Image chunk = cache.getChunkImage(0, 0);
+        Image tiles = AssetManager.getImage(MinesweeperStyle.TILE_FILE);
+        assertTile(tiles, 0, 1, chunk, 2, 3);
+
+        // Flagging a tile only draws that tile again
+        covers[2][3].setState(CoverTile.TileState.FLAGGED);
+        cache.update(level, 0, 0, 20, 20);
+        assertEquals(0, cache.getDrawnChunkCount());
+        assertEquals(1, cache.getRepaintedRegionCount());
+        assertSame(chunk, cache.getChunkImage(0, 0));
+        assertTile(tiles, 1, 1, chunk, 2, 3);
+        assertTile(tiles, 0, 1, chunk, 3, 3);
+
+        // Revealing a tile shows the tile underneath
+        covers[5][5].destroy();
+        level.getStaticObjects().remove(covers[5][5]);
+        cache.update(level, 0, 0, 20, 20);
+        assertEquals(1, cache.getRepaintedRegionCount());
+        assertEquals(799, cache.getCachedObjectCount());
+        assertTile(tiles, 1, 0, chunk, 5, 5);
+
+        // Objects added to the end of the list are drawn above the rest
+        level.addStaticObject(new CoverTile(5, 5));
+        cache.update(level, 0, 0, 20, 20);
+        assertEquals(1, cache.getRepaintedRegionCount());
+        assertEquals(800, cache.getCachedObjectCount());
+        assertTile(tiles, 0, 1, chunk, 5, 5);
+
+        // Nothing is drawn while nothing changes
+        cache.update(level, 0, 0, 20, 20);
+        assertEquals(0, cache.getDrawnChunkCount());
+        assertEquals(0, cache.getRepaintedRegionCount());
+    }
+
+    @Test
+    public void testOnlyChangesInTheCachedLevelAreRepainted() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 20, 20, "test") {
+        };
+        Level otherLevel = new Level(new Game() {
+        }, new PhysicsEngine(), 20, 20, "other") {
+        };
+        CoverTile cover = new CoverTile(2, 3);
+        CoverTile otherCover = new CoverTile(2, 3);
+        level.addStaticObject(cover);
+        otherLevel.addStaticObject(otherCover);
+        StaticLayerCache cache = new StaticLayerCache();
+        cache.update(level, 0, 0, 20, 20);
+        Image chunk = cache.getChunkImage(0, 0);
+
+        // Changes to objects in another level are never seen
+        otherCover.setState(CoverTile.TileState.FLAGGED);
+        otherCover.setLocation(4, 4);
+        cache.update(level, 0, 0, 20, 20);
+        assertEquals(0, cache.getRepaintedRegionCount());
+        assertSame(chunk, cache.getChunkImage(0, 0));
+
+        // Setting what an object already has isn't a change
+        cover.setLocation(2, 3);
+        cover.setRotation(cover.getRotation());
+        cover.setAnimationState(cover.getAnimationState());
+        ArrayList<StaticGameObject> changed = new ArrayList<>();
+        level.takeChangedStaticObjects(cache, changed);
+        assertTrue(changed.isEmpty());
+
+        // Another cache taking the changes makes this one check everything
+        cover.setState(CoverTile.TileState.FLAGGED);
+        new StaticLayerCache().update(level, 0, 0, 20, 20);
+        cache.update(level, 0, 0, 20, 20);
+        assertEquals(1, cache.getRepaintedRegionCount());
+        assertTile(AssetManager.getImage(MinesweeperStyle.TILE_FILE), 1, 1, chunk, 2, 3);
+    }
+
+    @Test
+    public void testObjectsReplacedAtTheSameCountAreDrawn() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 20, 20, "test") {
+        };
+        level.addStaticObject(new Wall(0, 0));
+        level.setLoaded();
+        StaticLayerCache cache = new StaticLayerCache();
+        Image paths = AssetManager.getImage("MiniWorldSprites/User Interface/Highlighted-Boxes.png");
+        // An agent showing its path destroys its path tiles and adds new ones each time
+        ArrayList<PathTile> tiles = new ArrayList<>();
+        for (int tick = 0; tick < 4; tick++) {
+            tiles.forEach(PathTile::destroy);
+            tiles.clear();
+            for (int i = 0; i < 3; i++) {
+                tiles.add(new PathTile(2 + tick, 2 + i));
+                level.addStaticObject(tiles.getLast());
+            }
+            level.update(0);
+            cache.update(level, 0, 0, 20, 20);
+            assertEquals(4, cache.getCachedObjectCount());
+            for (int i = 0; i < 3; i++) {
+                assertTile(paths, 1, 0, cache.getChunkImage(0, 0), 2 + tick, 2 + i);
+            }
+            if (tick > 0) {
+                // The old path is cleared
+                assertEquals(0, cache.getChunkImage(0, 0).getPixelReader()
+                        .getArgb((1 + tick) * (int) Configuration.SCALE_FACTOR, 2 * (int) Configuration.SCALE_FACTOR));
+            }
+        }
+
+        // Replacing every object in place, as Minesweeper does when reset
+        level.getStaticObjects().forEach(StaticGameObject::destroy);
+        level.getStaticObjects().clear();
+        for (int i = 0; i < 4; i++) {
+            level.getStaticObjects().add(new NumberTile(i, 0, 2));
+        }
+        level.update(0);
+        cache.update(level, 0, 0, 20, 20);
+        assertEquals(4, cache.getCachedObjectCount());
+        assertTile(AssetManager.getImage(MinesweeperStyle.TILE_FILE), 2, 0, cache.getChunkImage(0, 0), 0, 0);
+    }
+
+    @Test
+    public void testObjectsAddedBeforeOthersAreDrawnBelowThem() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 9, 9, "test") {
+        };
+        CoverTile[] covers = new CoverTile[9];
+        for (int x = 0; x < 9; x++) {
+            covers[x] = new CoverTile(x, 0);
+            level.addStaticObject(covers[x]);
+        }
+        level.setLoaded();
+        StaticLayerCache cache = new StaticLayerCache();
+        level.update(0);
+        cache.update(level, 0, 0, 9, 9);
+        // The first click of Minesweeper puts numbers underneath, then uncovers one
+        level.getStaticObjects().addFirst(new NumberTile(4, 0, 1));
+        covers[4].destroy();
+        level.update(0);
+        cache.update(level, 0, 0, 9, 9);
+        assertEquals(level.getStaticObjects().size(), cache.getCachedObjectCount());
+        Image tiles = AssetManager.getImage(MinesweeperStyle.TILE_FILE);
+        assertTile(tiles, 1, 0, cache.getChunkImage(0, 0), 4, 0);
+        cache.update(level, 0, 0, 9, 9);
+        assertEquals(0, cache.getRepaintedRegionCount());
+        assertTile(tiles, 1, 0, cache.getChunkImage(0, 0), 4, 0);
+    }
+
+    @Test
+    public void testSnakeIsDrawnAsItMovesAndGrows() {
+        Level level = new Level(new Game() {
+        }, new PhysicsEngine(), 10, 10, "test") {
+        };
+        level.setLoaded();
+        ArrayList<SnakeBody> body = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            body.add(new SnakeBody(3 - i, 5));
+            level.addStaticObject(body.getLast());
+        }
+        SnakeFood food = new SnakeFood(6, 5, null);
+        level.addStaticObject(food);
+        StaticLayerCache cache = new StaticLayerCache();
+        Image colors = AssetManager.getImage("snake/snakeColors.png");
+        for (int tick = 0; tick < 6; tick++) {
+            // Each segment moves to where the one in front of it was
+            for (int i = body.size() - 1; i > 0; i--) {
+                body.get(i).setLocation(body.get(i - 1).getLocation().getX(), 5);
+            }
+            body.getFirst().setLocation(body.getFirst().getLocation().getX() + 1, 5);
+            if (body.getFirst().getLocation().getX() == food.getLocation().getX()) {
+                // Eating food moves it and grows the snake at the end
+                food.destroy();
+                food = new SnakeFood(9, 8, null);
+                level.addStaticObject(food);
+                body.add(new SnakeBody(body.getLast().getLocation().getX(), 5));
+                level.addStaticObject(body.getLast());
+            }
+            level.update(0);
+            cache.update(level, 0, 0, 10, 10);
+            assertEquals(level.getStaticObjects().size(), cache.getCachedObjectCount());
+            Image chunk = cache.getChunkImage(0, 0);
+            for (SnakeBody segment : body) {
+                assertTile(colors, 1, 0, chunk, (int) segment.getLocation().getX(), 5);
+            }
+            assertTile(colors, 2, 0, chunk, (int) food.getLocation().getX(), (int) food.getLocation().getY());
+            // Where the end of the snake was is cleared
+            int behind = (int) body.getLast().getLocation().getX() - 1;
+            assertEquals(0, chunk.getPixelReader().getArgb(behind * (int) Configuration.SCALE_FACTOR,
+                    5 * (int) Configuration.SCALE_FACTOR));
+        }
+    }
+
+    private static void assertTile(Image spriteSheet, int column, int row, Image chunk, int tileX, int tileY) {
+        int size = (int) Configuration.SCALE_FACTOR;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                assertEquals(spriteSheet.getPixelReader().getArgb(column * size + x, row * size + y),
+                        chunk.getPixelReader().getArgb(tileX * size + x, tileY * size + y));
+            }
+        }
+    }
+
+}
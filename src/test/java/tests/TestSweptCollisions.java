@@ -0,0 +1,94 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import app.gameengine.Game;
+import app.gameengine.Level;
+import app.gameengine.model.gameobjects.DynamicGameObject;
+import app.gameengine.model.physics.Hitbox;
+import app.gameengine.model.physics.PhysicsEngine;
+import app.gameengine.model.physics.Vector2D;
+import app.games.commonobjects.Projectile;
+import app.games.commonobjects.Wall;
+
+public class TestSweptCollisions {
+
+    @Test
+    public void testProjectilesDontTunnelThroughWallsAtLowTickRates() {
+        Level level = createLevel();
+        Wall wall = new Wall(10, 2);
+        level.getStaticObjects().add(wall);
+        Projectile projectile = new Projectile(2, 2, 1) {
+        };
+        // Three tiles per update at 20 Hz, far more than the wall is wide
+        projectile.setVelocity(60, 0);
+        level.getDynamicObjects().add(projectile);
+        for (int i = 0; i < 10 && !projectile.isDestroyed(); i++) {
+            level.update(0.05);
+            assertTrue(projectile.getHitbox().getMinX() < wall.getHitbox().getMaxX());
+        }
+        assertTrue(projectile.isDestroyed());
+    }
+
+    @Test
+    public void testFastObjectsArentStoppedByDynamicObjects() {
+        Level level = createLevel();
+        DynamicGameObject fast = new DynamicGameObject(2, 2, 10) {
+            @Override
+            public boolean isFast() {
+                return true;
+            }
+        };
+        fast.setVelocity(60, 0);
+        DynamicGameObject other = new DynamicGameObject(4, 2, 10) {
+        };
+        level.getDynamicObjects().add(fast);
+        level.getDynamicObjects().add(other);
+        level.update(0.05);
+        assertEquals(5, fast.getLocation().getX(), 1e-9);
+        assertFalse(fast.isDestroyed());
+    }
+
+    @Test
+    public void testSweepTimeEdgeCases() {
+        Hitbox below = new Hitbox(new Vector2D(0, 2), new Vector2D(1, 1));
+        // Moving straight down into a target
+        assertEquals(0.25 + 0.01 / 4, PhysicsEngine.sweepTime(0, 0, 1, 1, 0, 4, below), 1e-9);
+        // Moving straight down beside a target never enters it
+        Hitbox beside = new Hitbox(new Vector2D(1, 2), new Vector2D(1, 1));
+        assertEquals(1, PhysicsEngine.sweepTime(0, 0, 1, 1, 0, 4, beside), 0);
+        // Targets that were already overlapped are ignored
+        Hitbox overlapping = new Hitbox(new Vector2D(0.5, 0.5), new Vector2D(1, 1));
+        assertEquals(1, PhysicsEngine.sweepTime(0, 0, 1, 1, 3, 0, overlapping), 0);
+        // Entering diagonally through a corner
+        Hitbox diagonal = new Hitbox(new Vector2D(1.5, 1.5), new Vector2D(1, 1));
+        assertEquals(0.25 + 0.01 / 2, PhysicsEngine.sweepTime(0, 0, 1, 1, 2, 2, diagonal), 1e-9);
+        // Only touching a corner on the way past isn't entering
+        Hitbox grazed = new Hitbox(new Vector2D(2, 0), new Vector2D(1, 1));
+        assertEquals(1, PhysicsEngine.sweepTime(0, 0, 1, 1, 3, 3, grazed), 0);
+        // Targets beyond the end of the movement aren't reached
+        Hitbox far = new Hitbox(new Vector2D(10, 0), new Vector2D(1, 1));
+        assertEquals(1, PhysicsEngine.sweepTime(0, 0, 1, 1, 3, 0, far), 0);
+    }
+
+    private static Level createLevel() {
+        // Moves objects by their velocity, as the full engine does
+        PhysicsEngine engine = new TestCollisionEvents.TestEngine() {
+            @Override
+            public void updateObject(double dt, DynamicGameObject object) {
+                object.setLocation(object.getLocation().getX() + object.getVelocity().getX() * dt,
+                        object.getLocation().getY() + object.getVelocity().getY() * dt);
+            }
+        };
+        Level level = new Level(new Game() {
+        }, engine, 20, 5, "test") {
+        };
+        level.setLoaded();
+        return level;
+    }
+
+}